@@ -0,0 +1,29 @@
+package com.jstarcraft.recommendation.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * 基准入口
+ *
+ * <pre>
+ * mvn -P benchmark test-compile exec:exec -Dbenchmark.include=PredictBenchmark
+ * 吞吐量与延迟由各个基准的模式决定,分配速率由GC分析器(gc.alloc.rate与gc.alloc.rate.norm)报告,
+ * 结果同时写到target/benchmark.csv.
+ * </pre>
+ *
+ * @author Birdy
+ *
+ */
+public class BenchmarkRunner {
+
+	public static void main(String[] arguments) throws Exception {
+		String include = arguments.length > 0 ? arguments[0] : ".*";
+		Options options = new OptionsBuilder().include(include).addProfiler(GCProfiler.class).resultFormat(ResultFormatType.CSV).result("target/benchmark.csv").build();
+		new Runner(options).run();
+	}
+
+}
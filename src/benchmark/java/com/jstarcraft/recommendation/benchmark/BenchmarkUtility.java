@@ -0,0 +1,152 @@
+package com.jstarcraft.recommendation.benchmark;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Future;
+
+import org.nd4j.linalg.factory.Nd4j;
+
+import com.jstarcraft.ai.environment.EnvironmentContext;
+import com.jstarcraft.core.utility.RandomUtility;
+import com.jstarcraft.recommendation.configure.Configuration;
+import com.jstarcraft.recommendation.data.DataSpace;
+import com.jstarcraft.recommendation.data.accessor.InstanceAccessor;
+import com.jstarcraft.recommendation.data.accessor.SampleAccessor;
+import com.jstarcraft.recommendation.exception.RecommendationException;
+import com.jstarcraft.recommendation.recommender.Recommender;
+import com.jstarcraft.recommendation.recommender.collaborative.ranking.ItemKNNRankingRecommender;
+import com.jstarcraft.recommendation.recommender.collaborative.ranking.LDARecommender;
+import com.jstarcraft.recommendation.recommender.collaborative.ranking.WRMFRecommender;
+import com.jstarcraft.recommendation.recommender.collaborative.rating.BPMFRecommender;
+import com.jstarcraft.recommendation.recommender.collaborative.rating.BiasedMFRecommender;
+import com.jstarcraft.recommendation.recommender.collaborative.rating.FMSGDRecommender;
+
+/**
+ * 基准工具
+ *
+ * <pre>
+ * 代表性的推荐器(配置来自对应的测试用例):
+ * biasedmf:矩阵分解(SGD)
+ * fmsgd:因子分解机(SGD)
+ * wrmf:矩阵分解(ALS)
+ * bpmf:贝叶斯矩阵分解(Gibbs采样)
+ * lda:主题模型(Gibbs采样)
+ * itemknn:基于物品的近邻
+ * </pre>
+ *
+ * @author Birdy
+ *
+ */
+public class BenchmarkUtility {
+
+	private static EnvironmentContext getContext() {
+		return Nd4j.getAffinityManager().getClass().getSimpleName().equals("CpuAffinityManager") ? EnvironmentContext.CPU : EnvironmentContext.GPU;
+	}
+
+	/**
+	 * 在计算环境中执行任务(推荐器的训练依赖计算环境)
+	 *
+	 * @param task
+	 */
+	public static void doTask(Runnable task) {
+		try {
+			Future<?> future = getContext().doTask(task);
+			future.get();
+		} catch (Exception exception) {
+			throw new RecommendationException(exception);
+		}
+	}
+
+	/**
+	 * 获取推荐器的配置
+	 *
+	 * @param name
+	 * @param numberOfFactors
+	 * @param numberOfEpoches
+	 * @return
+	 */
+	public static Configuration getConfiguration(String name, int numberOfFactors, int numberOfEpoches) {
+		Map<String, String> keyValues = new HashMap<>();
+		keyValues.put("rec.random.seed", "0");
+		keyValues.put("rec.factor.number", String.valueOf(numberOfFactors));
+		keyValues.put("rec.iterator.maximum", String.valueOf(numberOfEpoches));
+		keyValues.put("rec.recommender.ranking.topn", "10");
+		switch (name) {
+		case "biasedmf":
+			keyValues.put("rec.iterator.learnrate", "0.01");
+			keyValues.put("rec.iterator.learnrate.maximum", "0.01");
+			keyValues.put("rec.learnrate.bolddriver", "false");
+			keyValues.put("rec.learnrate.decay", "1.0");
+			break;
+		case "fmsgd":
+			keyValues.put("rec.iterator.learnRate", "0.001");
+			break;
+		case "wrmf":
+			keyValues.put("rec.wrmf.weight.coefficient", "4.0");
+			break;
+		case "bpmf":
+			keyValues.put("rec.recommender.rating.sigma", "2.0");
+			break;
+		case "lda":
+			keyValues.put("rec.topic.number", String.valueOf(numberOfFactors));
+			keyValues.put("rec.user.dirichlet.prior", "0.01");
+			keyValues.put("rec.topic.dirichlet.prior", "0.01");
+			// 每个迭代都是有效的采样
+			keyValues.put("rec.pgm.burnin", "0");
+			keyValues.put("rec.pgm.samplelag", "1");
+			break;
+		case "itemknn":
+			keyValues.put("rec.similarity.class", "com.jstarcraft.ai.math.algorithm.similarity.CosineSimilarity");
+			keyValues.put("rec.neighbors.knn.number", "50");
+			break;
+		default:
+			throw new RecommendationException("不支持的推荐器");
+		}
+		return Configuration.valueOf(keyValues);
+	}
+
+	/**
+	 * 制作推荐器(未准备)
+	 *
+	 * @param name
+	 * @return
+	 */
+	public static Recommender makeRecommender(String name) {
+		switch (name) {
+		case "biasedmf":
+			return new BiasedMFRecommender();
+		case "fmsgd":
+			return new FMSGDRecommender();
+		case "wrmf":
+			return new WRMFRecommender();
+		case "bpmf":
+			return new BPMFRecommender();
+		case "lda":
+			return new LDARecommender();
+		case "itemknn":
+			return new ItemKNNRankingRecommender();
+		default:
+			throw new RecommendationException("不支持的推荐器");
+		}
+	}
+
+	/**
+	 * 准备推荐器(不训练)
+	 *
+	 * @param name
+	 * @param configuration
+	 * @param space
+	 * @param marker
+	 * @return
+	 */
+	public static Recommender prepareRecommender(String name, Configuration configuration, DataSpace space, SampleAccessor marker) {
+		RandomUtility.setSeed(0L);
+		Recommender recommender = makeRecommender(name);
+		InstanceAccessor model = space.getModule("model");
+		doTask(() -> {
+			recommender.prepare(configuration, marker, model, space);
+		});
+		return recommender;
+	}
+
+}
@@ -0,0 +1,85 @@
+package com.jstarcraft.recommendation.benchmark;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.jstarcraft.recommendation.data.DataSpace;
+import com.jstarcraft.recommendation.data.convertor.CsvConvertor;
+
+/**
+ * 转换器基准
+ *
+ * <pre>
+ * 把合成数据写为CSV文件,每次测量把文件转换到新的数据空间.
+ * chunk为0表示逐行解析,否则为内存映射模式的块大小(参考data.convertor.chunk).
+ * </pre>
+ *
+ * @author Birdy
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+public class ConvertorBenchmark {
+
+	@Param({ "small", "medium", "large" })
+	private String scale;
+
+	@Param({ "0", "4194304" })
+	private int chunkSize;
+
+	private File file;
+
+	@Setup(Level.Trial)
+	public void prepare() throws Exception {
+		file = File.createTempFile("benchmark", ".csv");
+		file.deleteOnExit();
+		SyntheticData.scaleOf(scale).writeCsv(file);
+	}
+
+	@TearDown(Level.Trial)
+	public void destroy() {
+		file.delete();
+	}
+
+	@Benchmark
+	public int convert() {
+		Map<String, Class<?>> discreteDifinitions = new HashMap<>();
+		Set<String> continuousDifinitions = new HashSet<>();
+		discreteDifinitions.put(SyntheticData.USER, int.class);
+		discreteDifinitions.put(SyntheticData.ITEM, int.class);
+		discreteDifinitions.put(SyntheticData.INSTANT, int.class);
+		continuousDifinitions.add(SyntheticData.SCORE);
+		DataSpace space = new DataSpace(discreteDifinitions, continuousDifinitions);
+		Map<String, Integer> fields = new HashMap<>();
+		String[] names = { SyntheticData.USER, SyntheticData.ITEM, SyntheticData.SCORE, SyntheticData.INSTANT };
+		for (int index = 0; index < names.length; index++) {
+			space.makeFeature(names[index], names[index]);
+			fields.put(names[index], index);
+		}
+		CsvConvertor convertor = new CsvConvertor("csv", ' ', file.getPath(), fields, chunkSize);
+		return convertor.convert(space);
+	}
+
+}
@@ -0,0 +1,93 @@
+package com.jstarcraft.recommendation.benchmark;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.jstarcraft.core.utility.KeyValue;
+import com.jstarcraft.recommendation.evaluator.ranking.NDCGEvaluator;
+
+/**
+ * 评估器基准
+ *
+ * <pre>
+ * 预先生成一批用户的测试物品与推荐列表(物品按照Zipf分布抽样),循环评估.
+ * </pre>
+ *
+ * @author Birdy
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class EvaluatorBenchmark {
+
+	private static final int NUMBER_OF_CASES = 1024, NUMBER_OF_ITEMS = 20000;
+
+	@Param({ "10", "100" })
+	private int recommendSize;
+
+	@Param({ "5", "50" })
+	private int checkSize;
+
+	private NDCGEvaluator evaluator;
+
+	private Collection<Integer>[] checkCollections;
+
+	private int[][] recommendKeys;
+
+	private float[][] recommendValues;
+
+	private int cursor;
+
+	@Setup(Level.Trial)
+	public void prepare() {
+		evaluator = new NDCGEvaluator(recommendSize);
+		checkCollections = new Collection[NUMBER_OF_CASES];
+		recommendKeys = new int[NUMBER_OF_CASES][recommendSize];
+		recommendValues = new float[NUMBER_OF_CASES][recommendSize];
+		Random random = new Random(0L);
+		for (int index = 0; index < NUMBER_OF_CASES; index++) {
+			Collection<Integer> checkCollection = new LinkedHashSet<>();
+			while (checkCollection.size() < checkSize) {
+				checkCollection.add(getItem(random));
+			}
+			checkCollections[index] = checkCollection;
+			for (int position = 0; position < recommendSize; position++) {
+				recommendKeys[index][position] = getItem(random);
+				recommendValues[index][position] = recommendSize - position;
+			}
+		}
+	}
+
+	/**
+	 * 近似的Zipf抽样(热门物品更容易同时出现在测试集合与推荐列表)
+	 */
+	private static int getItem(Random random) {
+		return (int) Math.min(NUMBER_OF_ITEMS - 1, Math.exp(random.nextDouble() * Math.log(NUMBER_OF_ITEMS)) - 1);
+	}
+
+	@Benchmark
+	public KeyValue<Integer, Float> ndcg() {
+		int index = cursor++ & (NUMBER_OF_CASES - 1);
+		return evaluator.evaluate(checkCollections[index], recommendKeys[index], recommendValues[index], recommendSize, NUMBER_OF_ITEMS);
+	}
+
+}
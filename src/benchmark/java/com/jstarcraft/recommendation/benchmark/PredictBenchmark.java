@@ -0,0 +1,109 @@
+package com.jstarcraft.recommendation.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.jstarcraft.recommendation.configure.Configuration;
+import com.jstarcraft.recommendation.data.DataSpace;
+import com.jstarcraft.recommendation.data.accessor.InstanceAccessor;
+import com.jstarcraft.recommendation.data.accessor.SampleAccessor;
+import com.jstarcraft.recommendation.recommender.Recommender;
+import com.jstarcraft.recommendation.utility.RankingHeap;
+
+/**
+ * 预测基准
+ *
+ * <pre>
+ * predict:单个用户-物品的预测(对应Recommender.predict)
+ * recommend:单个用户对所有物品的批量预测与TopN(对应RankingTask.recommend的热点路径)
+ * </pre>
+ *
+ * @author Birdy
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class PredictBenchmark {
+
+	@Param({ "small", "medium" })
+	private String scale;
+
+	@Param({ "biasedmf", "fmsgd", "itemknn" })
+	private String recommender;
+
+	@Param({ "10", "50" })
+	private int numberOfFactors;
+
+	private Recommender model;
+
+	private int userDimension, itemDimension, numberOfUsers, numberOfItems;
+
+	private int[] discreteFeatures, itemIndexes;
+
+	private float[] continuousFeatures, scores;
+
+	private int userCursor, itemCursor;
+
+	@Setup(Level.Trial)
+	public void prepare() {
+		SyntheticData data = SyntheticData.scaleOf(scale);
+		DataSpace space = data.makeSpace();
+		InstanceAccessor accessor = space.getModule("model");
+		SampleAccessor marker = SyntheticData.makeMarker(accessor);
+		Configuration configuration = BenchmarkUtility.getConfiguration(recommender, numberOfFactors, 1);
+		model = BenchmarkUtility.prepareRecommender(recommender, configuration, space, marker);
+		BenchmarkUtility.doTask(model::practice);
+
+		userDimension = accessor.getDiscreteDimension(SyntheticData.USER);
+		itemDimension = accessor.getDiscreteDimension(SyntheticData.ITEM);
+		numberOfUsers = data.getNumberOfUsers();
+		numberOfItems = data.getNumberOfItems();
+		discreteFeatures = new int[accessor.getDiscreteOrder()];
+		continuousFeatures = new float[accessor.getContinuousOrder() - 1];
+		itemIndexes = new int[numberOfItems];
+		for (int itemIndex = 0; itemIndex < numberOfItems; itemIndex++) {
+			itemIndexes[itemIndex] = itemIndex;
+		}
+		scores = new float[numberOfItems];
+	}
+
+	@Benchmark
+	public float predict() {
+		// 游标保持在范围之内,长时间运行也不会溢出为负数
+		userCursor = (userCursor + 1) % numberOfUsers;
+		itemCursor = (itemCursor + 7) % numberOfItems;
+		discreteFeatures[userDimension] = userCursor;
+		discreteFeatures[itemDimension] = itemCursor;
+		return model.predict(discreteFeatures, continuousFeatures);
+	}
+
+	@Benchmark
+	public RankingHeap recommend() {
+		userCursor = (userCursor + 1) % numberOfUsers;
+		discreteFeatures[userDimension] = userCursor;
+		model.predict(discreteFeatures, continuousFeatures, itemIndexes, scores);
+		RankingHeap heap = new RankingHeap(10);
+		for (int index = 0; index < numberOfItems; index++) {
+			heap.offer(itemIndexes[index], scores[index]);
+		}
+		heap.sort();
+		return heap;
+	}
+
+}
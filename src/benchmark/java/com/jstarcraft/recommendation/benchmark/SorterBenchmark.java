@@ -0,0 +1,77 @@
+package com.jstarcraft.recommendation.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.jstarcraft.recommendation.data.DataSpace;
+import com.jstarcraft.recommendation.data.accessor.InstanceAccessor;
+import com.jstarcraft.recommendation.data.accessor.SampleAccessor;
+import com.jstarcraft.recommendation.data.processor.DataCache;
+import com.jstarcraft.recommendation.data.processor.DataSorter;
+
+/**
+ * 排序器基准
+ *
+ * <pre>
+ * 按照用户分页,每页按照时间(离散特征)或者所有特征排序(每次测量复制一次位置,复制的耗时计入).
+ * </pre>
+ *
+ * @author Birdy
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class SorterBenchmark {
+
+	@Param({ "small", "medium", "large" })
+	private String scale;
+
+	private int[] paginations, positions;
+
+	private DataSorter discreteSorter, featureSorter;
+
+	@Setup(Level.Trial)
+	public void prepare() {
+		DataSpace space = SyntheticData.scaleOf(scale).makeSpace();
+		InstanceAccessor model = space.getModule("model");
+		SampleAccessor marker = SyntheticData.makeMarker(model);
+		int userDimension = model.getDiscreteDimension(SyntheticData.USER);
+		int itemDimension = model.getDiscreteDimension(SyntheticData.ITEM);
+		DataCache cache = DataCache.getCache(marker, userDimension, itemDimension, "last");
+		paginations = cache.getPaginations();
+		positions = cache.getPositions();
+		discreteSorter = DataSorter.discreteOf(marker, model.getDiscreteDimension(SyntheticData.INSTANT));
+		featureSorter = DataSorter.featureOf(marker);
+	}
+
+	@Benchmark
+	public int[] sortDiscrete() {
+		int[] sorts = positions.clone();
+		discreteSorter.sort(paginations, sorts);
+		return sorts;
+	}
+
+	@Benchmark
+	public int[] sortFeature() {
+		int[] sorts = positions.clone();
+		featureSorter.sort(paginations, sorts);
+		return sorts;
+	}
+
+}
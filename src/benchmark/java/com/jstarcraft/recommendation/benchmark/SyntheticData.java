@@ -0,0 +1,176 @@
+package com.jstarcraft.recommendation.benchmark;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import com.jstarcraft.ai.utility.IntegerArray;
+import com.jstarcraft.recommendation.data.DataFeature;
+import com.jstarcraft.recommendation.data.DataSpace;
+import com.jstarcraft.recommendation.data.accessor.AttributeMarker;
+import com.jstarcraft.recommendation.data.accessor.InstanceAccessor;
+import com.jstarcraft.recommendation.data.accessor.SampleAccessor;
+import com.jstarcraft.recommendation.exception.RecommendationException;
+
+/**
+ * 合成数据
+ *
+ * <pre>
+ * 按照规模生成用户-物品-评分-时间的行为数据,物品的热度服从Zipf分布(指数为1),评分为1到5的整数,时间为0到364的天数.
+ * 同一规模与种子生成的数据完全相同,基准之间可以比较.
+ * small:1000用户,2000物品,密度1%(约2万行为)
+ * medium:10000用户,20000物品,密度0.2%(约40万行为)
+ * large:100000用户,50000物品,密度0.05%(约250万行为)
+ * </pre>
+ *
+ * @author Birdy
+ *
+ */
+public class SyntheticData {
+
+	public static final String USER = "user", ITEM = "item", SCORE = "score", INSTANT = "instant";
+
+	private final int numberOfUsers, numberOfItems, numberOfActions;
+
+	private final int[] users, items, instants;
+
+	private final float[] scores;
+
+	public SyntheticData(int numberOfUsers, int numberOfItems, float density, long seed) {
+		this.numberOfUsers = numberOfUsers;
+		this.numberOfItems = numberOfItems;
+		this.numberOfActions = (int) (numberOfUsers * (long) numberOfItems * density);
+		this.users = new int[numberOfActions];
+		this.items = new int[numberOfActions];
+		this.instants = new int[numberOfActions];
+		this.scores = new float[numberOfActions];
+		// Zipf分布的累积概率
+		double[] probabilities = new double[numberOfItems];
+		double sum = 0D;
+		for (int itemIndex = 0; itemIndex < numberOfItems; itemIndex++) {
+			sum += 1D / (itemIndex + 1);
+			probabilities[itemIndex] = sum;
+		}
+		Random random = new Random(seed);
+		for (int index = 0; index < numberOfActions; index++) {
+			double probability = random.nextDouble() * sum;
+			int itemIndex = Arrays.binarySearch(probabilities, probability);
+			users[index] = random.nextInt(numberOfUsers);
+			items[index] = itemIndex < 0 ? Math.min(-itemIndex - 1, numberOfItems - 1) : itemIndex;
+			instants[index] = random.nextInt(365);
+			scores[index] = 1 + random.nextInt(5);
+		}
+	}
+
+	/**
+	 * 根据规模获取数据
+	 *
+	 * @param scale
+	 *            (small/medium/large)
+	 * @return
+	 */
+	public static SyntheticData scaleOf(String scale) {
+		switch (scale) {
+		case "small":
+			return new SyntheticData(1000, 2000, 0.01F, 0L);
+		case "medium":
+			return new SyntheticData(10000, 20000, 0.002F, 0L);
+		case "large":
+			return new SyntheticData(100000, 50000, 0.0005F, 0L);
+		default:
+			throw new RecommendationException("不支持的数据规模");
+		}
+	}
+
+	/**
+	 * 制作数据空间(包含名为model的模块)
+	 *
+	 * @return
+	 */
+	public DataSpace makeSpace() {
+		Map<String, Class<?>> discreteDifinitions = new HashMap<>();
+		Set<String> continuousDifinitions = new HashSet<>();
+		discreteDifinitions.put(USER, int.class);
+		discreteDifinitions.put(ITEM, int.class);
+		discreteDifinitions.put(INSTANT, int.class);
+		continuousDifinitions.add(SCORE);
+		DataSpace space = new DataSpace(discreteDifinitions, continuousDifinitions);
+		DataFeature<?> user = space.makeFeature(USER, USER);
+		DataFeature<?> item = space.makeFeature(ITEM, ITEM);
+		DataFeature<?> instant = space.makeFeature(INSTANT, INSTANT);
+		DataFeature<?> score = space.makeFeature(SCORE, SCORE);
+		// 先关联所有的索引,保证内部索引与外部索引一致
+		for (int index = 0; index < numberOfUsers; index++) {
+			space.getDiscreteAttribute(USER).makeValue(index);
+		}
+		for (int index = 0; index < numberOfItems; index++) {
+			space.getDiscreteAttribute(ITEM).makeValue(index);
+		}
+		for (int index = 0; index < numberOfActions; index++) {
+			user.associate(users[index]);
+			item.associate(items[index]);
+			instant.associate(instants[index]);
+			score.associate(scores[index]);
+		}
+		space.makeModule("model", USER, ITEM, INSTANT, SCORE);
+		return space;
+	}
+
+	/**
+	 * 制作包含模块所有行为的标记器
+	 *
+	 * @param model
+	 * @return
+	 */
+	public static SampleAccessor makeMarker(InstanceAccessor model) {
+		IntegerArray positions = new IntegerArray();
+		for (int position = 0, size = model.getSize(); position < size; position++) {
+			positions.associateData(position);
+		}
+		return new AttributeMarker(positions, model, SCORE);
+	}
+
+	/**
+	 * 写出为CSV文件(字段按照user,item,score,instant的顺序,使用空格分隔)
+	 *
+	 * @param file
+	 */
+	public void writeCsv(File file) {
+		try (Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8))) {
+			for (int index = 0; index < numberOfActions; index++) {
+				writer.write(String.valueOf(users[index]));
+				writer.write(' ');
+				writer.write(String.valueOf(items[index]));
+				writer.write(' ');
+				writer.write(String.valueOf((int) scores[index]));
+				writer.write(' ');
+				writer.write(String.valueOf(instants[index]));
+				writer.write('\n');
+			}
+		} catch (Exception exception) {
+			throw new RecommendationException(exception);
+		}
+	}
+
+	public int getNumberOfUsers() {
+		return numberOfUsers;
+	}
+
+	public int getNumberOfItems() {
+		return numberOfItems;
+	}
+
+	public int getNumberOfActions() {
+		return numberOfActions;
+	}
+
+}
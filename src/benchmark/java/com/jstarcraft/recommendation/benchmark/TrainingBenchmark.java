@@ -0,0 +1,78 @@
+package com.jstarcraft.recommendation.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.jstarcraft.recommendation.configure.Configuration;
+import com.jstarcraft.recommendation.data.DataSpace;
+import com.jstarcraft.recommendation.data.accessor.SampleAccessor;
+import com.jstarcraft.recommendation.recommender.Recommender;
+
+/**
+ * 训练基准
+ *
+ * <pre>
+ * 每次测量训练一个迭代(rec.iterator.maximum=1),推荐器在每次测量之前重新准备(准备的耗时不计入).
+ * 覆盖SGD(biasedmf,fmsgd),ALS(wrmf)与Gibbs采样(bpmf,lda).
+ * </pre>
+ *
+ * @author Birdy
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+public class TrainingBenchmark {
+
+	@Param({ "small", "medium" })
+	private String scale;
+
+	@Param({ "biasedmf", "fmsgd", "wrmf", "bpmf", "lda" })
+	private String recommender;
+
+	@Param({ "10", "50" })
+	private int numberOfFactors;
+
+	private DataSpace space;
+
+	private SampleAccessor marker;
+
+	private Configuration configuration;
+
+	private Recommender model;
+
+	@Setup(Level.Trial)
+	public void prepareData() {
+		SyntheticData data = SyntheticData.scaleOf(scale);
+		space = data.makeSpace();
+		marker = SyntheticData.makeMarker(space.getModule("model"));
+		configuration = BenchmarkUtility.getConfiguration(recommender, numberOfFactors, 1);
+	}
+
+	@Setup(Level.Iteration)
+	public void prepareRecommender() {
+		model = BenchmarkUtility.prepareRecommender(recommender, configuration, space, marker);
+	}
+
+	@Benchmark
+	public Recommender epoch() {
+		BenchmarkUtility.doTask(model::practice);
+		return model;
+	}
+
+}
@@ -125,6 +125,21 @@ public class Configuration {
 		return value;
 	}
 
+	/**
+	 * 复制配置并且覆盖指定的配置项
+	 * 
+	 * @param configuration
+	 * @param keyValues
+	 * @return
+	 */
+	public static Configuration valueOf(Configuration configuration, Map<String, String> keyValues) {
+		Configuration value = new Configuration(configuration.property);
+		for (Entry<String, String> keyValue : keyValues.entrySet()) {
+			value.property.setProperty(keyValue.getKey(), keyValue.getValue());
+		}
+		return value;
+	}
+
 	public static Configuration valueOf(Properties property) {
 		Configuration value = new Configuration(global, property);
 		return value;
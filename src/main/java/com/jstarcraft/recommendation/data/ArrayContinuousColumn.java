@@ -0,0 +1,40 @@
+package com.jstarcraft.recommendation.data;
+
+import java.util.Arrays;
+
+/**
+ * 基于数组的连续列
+ * 
+ * @author Birdy
+ *
+ */
+class ArrayContinuousColumn implements ContinuousColumn {
+
+	/** 分页 */
+	private float[][] pages = new float[0][];
+
+	/** 大小 */
+	private int size;
+
+	@Override
+	public void associate(float value) {
+		int page = size >>> DataStorage.PAGE_SHIFT;
+		if (page == pages.length) {
+			pages = Arrays.copyOf(pages, page + 1);
+			pages[page] = new float[DataStorage.PAGE_SIZE];
+		}
+		pages[page][size & DataStorage.PAGE_MASK] = value;
+		size++;
+	}
+
+	@Override
+	public float getValue(int position) {
+		return pages[position >>> DataStorage.PAGE_SHIFT][position & DataStorage.PAGE_MASK];
+	}
+
+	@Override
+	public int getSize() {
+		return size;
+	}
+
+}
@@ -0,0 +1,40 @@
+package com.jstarcraft.recommendation.data;
+
+import java.util.Arrays;
+
+/**
+ * 基于数组的离散列
+ * 
+ * @author Birdy
+ *
+ */
+class ArrayDiscreteColumn implements DiscreteColumn {
+
+	/** 分页 */
+	private int[][] pages = new int[0][];
+
+	/** 大小 */
+	private int size;
+
+	@Override
+	public void associate(int value) {
+		int page = size >>> DataStorage.PAGE_SHIFT;
+		if (page == pages.length) {
+			pages = Arrays.copyOf(pages, page + 1);
+			pages[page] = new int[DataStorage.PAGE_SIZE];
+		}
+		pages[page][size & DataStorage.PAGE_MASK] = value;
+		size++;
+	}
+
+	@Override
+	public int getValue(int position) {
+		return pages[position >>> DataStorage.PAGE_SHIFT][position & DataStorage.PAGE_MASK];
+	}
+
+	@Override
+	public int getSize() {
+		return size;
+	}
+
+}
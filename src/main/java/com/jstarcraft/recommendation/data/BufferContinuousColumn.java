@@ -0,0 +1,73 @@
+package com.jstarcraft.recommendation.data;
+
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.util.Arrays;
+
+import com.jstarcraft.recommendation.data.DataStorage.BufferAllocator;
+
+/**
+ * 基于缓冲区的连续列
+ * 
+ * <pre>
+ * 分页由分配器提供(堆外的直接缓冲区或者内存映射的文件区域).
+ * </pre>
+ * 
+ * @author Birdy
+ *
+ */
+class BufferContinuousColumn implements ContinuousColumn {
+
+	/** 分配器 */
+	private final BufferAllocator allocator;
+
+	/** 分页 */
+	private FloatBuffer[] pages = new FloatBuffer[0];
+
+	/** 大小 */
+	private int size;
+
+	BufferContinuousColumn(BufferAllocator allocator) {
+		this.allocator = allocator;
+	}
+
+	/**
+	 * 使用已有的分页构建列(例如映射的快照,每个分页的容量必须为{@link DataStorage#PAGE_SIZE})
+	 * 
+	 * @param allocator
+	 * @param pages
+	 * @param size
+	 */
+	BufferContinuousColumn(BufferAllocator allocator, FloatBuffer[] pages, int size) {
+		this.allocator = allocator;
+		this.pages = pages;
+		this.size = size;
+	}
+
+	@Override
+	public void associate(float value) {
+		int page = size >>> DataStorage.PAGE_SHIFT;
+		if (page == pages.length) {
+			pages = Arrays.copyOf(pages, page + 1);
+			pages[page] = allocator.allocate(DataStorage.PAGE_SIZE * Float.BYTES).order(ByteOrder.nativeOrder()).asFloatBuffer();
+		}
+		pages[page].put(size & DataStorage.PAGE_MASK, value);
+		size++;
+	}
+
+	@Override
+	public float getValue(int position) {
+		return pages[position >>> DataStorage.PAGE_SHIFT].get(position & DataStorage.PAGE_MASK);
+	}
+
+	@Override
+	public int getSize() {
+		return size;
+	}
+
+	@Override
+	public void release() {
+		allocator.release();
+	}
+
+}
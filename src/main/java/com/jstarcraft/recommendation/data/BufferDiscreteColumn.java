@@ -0,0 +1,73 @@
+package com.jstarcraft.recommendation.data;
+
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.util.Arrays;
+
+import com.jstarcraft.recommendation.data.DataStorage.BufferAllocator;
+
+/**
+ * 基于缓冲区的离散列
+ * 
+ * <pre>
+ * 分页由分配器提供(堆外的直接缓冲区或者内存映射的文件区域).
+ * </pre>
+ * 
+ * @author Birdy
+ *
+ */
+class BufferDiscreteColumn implements DiscreteColumn {
+
+	/** 分配器 */
+	private final BufferAllocator allocator;
+
+	/** 分页 */
+	private IntBuffer[] pages = new IntBuffer[0];
+
+	/** 大小 */
+	private int size;
+
+	BufferDiscreteColumn(BufferAllocator allocator) {
+		this.allocator = allocator;
+	}
+
+	/**
+	 * 使用已有的分页构建列(例如映射的快照,每个分页的容量必须为{@link DataStorage#PAGE_SIZE})
+	 * 
+	 * @param allocator
+	 * @param pages
+	 * @param size
+	 */
+	BufferDiscreteColumn(BufferAllocator allocator, IntBuffer[] pages, int size) {
+		this.allocator = allocator;
+		this.pages = pages;
+		this.size = size;
+	}
+
+	@Override
+	public void associate(int value) {
+		int page = size >>> DataStorage.PAGE_SHIFT;
+		if (page == pages.length) {
+			pages = Arrays.copyOf(pages, page + 1);
+			pages[page] = allocator.allocate(DataStorage.PAGE_SIZE * Integer.BYTES).order(ByteOrder.nativeOrder()).asIntBuffer();
+		}
+		pages[page].put(size & DataStorage.PAGE_MASK, value);
+		size++;
+	}
+
+	@Override
+	public int getValue(int position) {
+		return pages[position >>> DataStorage.PAGE_SHIFT].get(position & DataStorage.PAGE_MASK);
+	}
+
+	@Override
+	public int getSize() {
+		return size;
+	}
+
+	@Override
+	public void release() {
+		allocator.release();
+	}
+
+}
@@ -41,6 +41,16 @@ public class ContinuousAttribute implements DataAttribute<Float> {
 	@Override
 	public Float makeValue(Object data) {
 		Float feature = ConversionUtility.convert(data, type);
+		return makeValue(feature.floatValue());
+	}
+
+	/**
+	 * 制作属性值(已经解析的数值)
+	 * 
+	 * @param feature
+	 * @return
+	 */
+	public float makeValue(float feature) {
 		if (feature > maximum) {
 			maximum = feature;
 		}
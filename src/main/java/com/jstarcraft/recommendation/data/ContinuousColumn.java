@@ -0,0 +1,43 @@
+package com.jstarcraft.recommendation.data;
+
+/**
+ * 连续列
+ * 
+ * <pre>
+ * 按照列存储连续特征的数值,只能在末尾追加,支持无装箱的随机访问.
+ * </pre>
+ * 
+ * @author Birdy
+ *
+ */
+public interface ContinuousColumn {
+
+	/**
+	 * 追加数值
+	 * 
+	 * @param value
+	 */
+	void associate(float value);
+
+	/**
+	 * 获取数值
+	 * 
+	 * @param position
+	 * @return
+	 */
+	float getValue(int position);
+
+	/**
+	 * 获取大小
+	 * 
+	 * @return
+	 */
+	int getSize();
+
+	/**
+	 * 释放列占用的资源(例如内存映射的文件通道,已有的数据仍然可以访问,不能再追加)
+	 */
+	default void release() {
+	}
+
+}
@@ -1,46 +1,46 @@
 package com.jstarcraft.recommendation.data;
 
 import java.util.Iterator;
-import java.util.LinkedList;
 
 @Deprecated
 public class ContinuousFeature implements DataFeature<Float> {
 
-	public final static int DEFAULT_CAPACITY = 10000;
-
 	private ContinuousAttribute attribute;
 
-	/** 容量 */
-	private int capacity;
-
-	/** 数组 */
-	private float[] current;
-
 	/** 特征名 */
 	private String name;
 
 	/** 特征值 */
-	private LinkedList<float[]> values;
-
-	/** 大小 */
-	private int size;
+	private ContinuousColumn values;
 
 	public ContinuousFeature(String name, ContinuousAttribute attribute) {
+		this(name, attribute, DataStorage.HEAP_STORAGE);
+	}
+
+	public ContinuousFeature(String name, ContinuousAttribute attribute, DataStorage storage) {
+		this.attribute = attribute;
+		this.name = name;
+		this.values = storage.makeContinuousColumn();
+	}
+
+	ContinuousFeature(String name, ContinuousAttribute attribute, ContinuousColumn values) {
 		this.attribute = attribute;
-		this.capacity = DEFAULT_CAPACITY;
 		this.name = name;
-		this.values = new LinkedList<>();
-		this.size = 0;
+		this.values = values;
 	}
 
 	@Override
 	public void associate(Object data) {
-		int position = size++ % capacity;
-		if (position == 0) {
-			current = new float[capacity];
-			values.add(current);
-		}
-		current[position] = attribute.makeValue(data);
+		values.associate(attribute.makeValue(data));
+	}
+
+	/**
+	 * 关联数值(已经解析)
+	 * 
+	 * @param value
+	 */
+	public void associateValue(float value) {
+		values.associate(attribute.makeValue(value));
 	}
 
 	@Override
@@ -55,7 +55,26 @@ public class ContinuousFeature implements DataFeature<Float> {
 
 	@Override
 	public int getSize() {
-		return size;
+		return values.getSize();
+	}
+
+	/**
+	 * 获取数值
+	 * 
+	 * @param position
+	 * @return
+	 */
+	public float getValue(int position) {
+		return values.getValue(position);
+	}
+
+	/**
+	 * 获取列(不复制)
+	 * 
+	 * @return
+	 */
+	public ContinuousColumn getColumn() {
+		return values;
 	}
 
 	@Override
@@ -67,9 +86,7 @@ public class ContinuousFeature implements DataFeature<Float> {
 
 		private int cursor = 0;
 
-		private float[] current;
-
-		private final Iterator<float[]> iterator = values.iterator();
+		private final int size = values.getSize();
 
 		@Override
 		public boolean hasNext() {
@@ -78,11 +95,7 @@ public class ContinuousFeature implements DataFeature<Float> {
 
 		@Override
 		public Float next() {
-			int position = cursor++ % capacity;
-			if (position == 0) {
-				current = iterator.next();
-			}
-			return current[position];
+			return values.getValue(cursor++);
 		}
 
 		@Override
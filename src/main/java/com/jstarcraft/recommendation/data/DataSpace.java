@@ -1,6 +1,7 @@
 package com.jstarcraft.recommendation.data;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.Map;
@@ -33,7 +34,15 @@ public class DataSpace {
 	/** 模型映射 */
 	private Map<String, InstanceAccessor> modules = new HashMap<>();
 
+	/** 特征的存储 */
+	private DataStorage storage;
+
 	public DataSpace(Map<String, Class<?>> discreteDifinitions, Set<String> continuousDifinitions) {
+		this(discreteDifinitions, continuousDifinitions, DataStorage.HEAP_STORAGE);
+	}
+
+	public DataSpace(Map<String, Class<?>> discreteDifinitions, Set<String> continuousDifinitions, DataStorage storage) {
+		this.storage = storage;
 		for (Entry<String, Class<?>> keyValue : discreteDifinitions.entrySet()) {
 			if (continuousAttributes.containsKey(keyValue.getKey())) {
 				throw new IllegalArgumentException("属性冲突");
@@ -68,13 +77,13 @@ public class DataSpace {
 	public DataFeature<?> makeFeature(String featureName, String attributeName) {
 		if (discreteAttributes.containsKey(attributeName)) {
 			DiscreteAttribute attribute = discreteAttributes.get(attributeName);
-			DataFeature<?> feature = new DiscreteFeature(featureName, attribute);
+			DataFeature<?> feature = new DiscreteFeature(featureName, attribute, storage);
 			features.put(featureName, feature);
 			return feature;
 		}
 		if (continuousAttributes.containsKey(attributeName)) {
 			ContinuousAttribute attribute = continuousAttributes.get(attributeName);
-			DataFeature<?> feature = new ContinuousFeature(featureName, attribute);
+			DataFeature<?> feature = new ContinuousFeature(featureName, attribute, storage);
 			features.put(featureName, feature);
 			return feature;
 		}
@@ -86,6 +95,45 @@ public class DataSpace {
 		return feature;
 	}
 
+	Collection<DiscreteAttribute> getDiscreteAttributes() {
+		return discreteAttributes.values();
+	}
+
+	Collection<ContinuousAttribute> getContinuousAttributes() {
+		return continuousAttributes.values();
+	}
+
+	Collection<DataFeature<?>> getFeatures() {
+		return features.values();
+	}
+
+	Map<String, InstanceAccessor> getModules() {
+		return modules;
+	}
+
+	/**
+	 * 设置已经存在数据的特征(用于加载快照)
+	 * 
+	 * @param feature
+	 */
+	void setFeature(DataFeature<?> feature) {
+		features.put(feature.getName(), feature);
+	}
+
+	/**
+	 * 释放所有特征的列与存储占用的资源(数据仍然可以访问,不能再追加)
+	 */
+	public void release() {
+		for (DataFeature<?> feature : features.values()) {
+			if (feature instanceof DiscreteFeature) {
+				((DiscreteFeature) feature).getColumn().release();
+			} else if (feature instanceof ContinuousFeature) {
+				((ContinuousFeature) feature).getColumn().release();
+			}
+		}
+		storage.release();
+	}
+
 	/**
 	 * 制作数据模块
 	 * 
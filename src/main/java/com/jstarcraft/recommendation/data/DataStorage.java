@@ -0,0 +1,128 @@
+package com.jstarcraft.recommendation.data;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 数据存储
+ * 
+ * <pre>
+ * 决定特征的列使用的存储方式:
+ * heap使用堆内的基本类型数组;
+ * direct使用堆外的直接缓冲区;
+ * mapped使用临时文件的内存映射(适合大于堆的数据集,由操作系统负责换页),同一个存储的所有列共享一个临时文件.
+ * 列按照固定大小的分页增长,增长时不需要复制已有的数据.
+ * </pre>
+ * 
+ * @author Birdy
+ *
+ */
+public interface DataStorage {
+
+	/** 分页的位数 */
+	public final static int PAGE_SHIFT = 16;
+
+	/** 分页的大小(元素数量) */
+	public final static int PAGE_SIZE = 1 << PAGE_SHIFT;
+
+	/** 分页的掩码 */
+	public final static int PAGE_MASK = PAGE_SIZE - 1;
+
+	/** 堆内存储 */
+	public final static DataStorage HEAP_STORAGE = new DataStorage() {
+
+		@Override
+		public DiscreteColumn makeDiscreteColumn() {
+			return new ArrayDiscreteColumn();
+		}
+
+		@Override
+		public ContinuousColumn makeContinuousColumn() {
+			return new ArrayContinuousColumn();
+		}
+
+	};
+
+	/** 堆外存储 */
+	public final static DataStorage DIRECT_STORAGE = new DataStorage() {
+
+		@Override
+		public DiscreteColumn makeDiscreteColumn() {
+			return new BufferDiscreteColumn(ByteBuffer::allocateDirect);
+		}
+
+		@Override
+		public ContinuousColumn makeContinuousColumn() {
+			return new BufferContinuousColumn(ByteBuffer::allocateDirect);
+		}
+
+	};
+
+	/**
+	 * 根据名称获取存储
+	 * 
+	 * <pre>
+	 * mapped每次返回新的存储(拥有独立的临时文件),每个数据空间应该使用独立的存储.
+	 * </pre>
+	 * 
+	 * @param name
+	 *            (heap/direct/mapped)
+	 * @return
+	 */
+	public static DataStorage nameOf(String name) {
+		switch (name) {
+		case "heap":
+			return HEAP_STORAGE;
+		case "direct":
+			return DIRECT_STORAGE;
+		case "mapped":
+			return new MappedStorage();
+		default:
+			throw new IllegalArgumentException("不支持的存储类型");
+		}
+	}
+
+	/**
+	 * 制作离散列
+	 * 
+	 * @return
+	 */
+	DiscreteColumn makeDiscreteColumn();
+
+	/**
+	 * 制作连续列
+	 * 
+	 * @return
+	 */
+	ContinuousColumn makeContinuousColumn();
+
+	/**
+	 * 释放存储占用的资源(在所有列释放之后调用)
+	 */
+	default void release() {
+	}
+
+	/**
+	 * 缓冲区分配器
+	 * 
+	 * @author Birdy
+	 *
+	 */
+	interface BufferAllocator {
+
+		/**
+		 * 分配指定字节数的缓冲区
+		 * 
+		 * @param capacity
+		 * @return
+		 */
+		ByteBuffer allocate(int capacity);
+
+		/**
+		 * 释放分配器占用的资源(已经分配的缓冲区仍然有效,不能再分配)
+		 */
+		default void release() {
+		}
+
+	}
+
+}
@@ -1,13 +1,15 @@
 package com.jstarcraft.recommendation.data;
 
-import java.util.HashMap;
-import java.util.Map.Entry;
-
-import com.jstarcraft.core.utility.ConversionUtility;
+import java.nio.ByteBuffer;
 
 /**
  * 离散属性
  * 
+ * <pre>
+ * 外部键通过{@link DiscreteDictionary}映射为稠密的内部索引(int,long与String使用原始类型特化的字典),
+ * 支持并行的转换器并发制作索引.
+ * </pre>
+ * 
  * @author Birdy
  *
  */
@@ -22,11 +24,12 @@ public class DiscreteAttribute implements DataAttribute<Integer> {
 	private Class<?> type;
 
 	/** 外部键-内部索引映射 */
-	private HashMap<Object, Integer> indexes = new HashMap<>();
+	private DiscreteDictionary dictionary;
 
 	DiscreteAttribute(String name, Class<?> type) {
 		this.name = name;
 		this.type = type;
+		this.dictionary = DiscreteDictionary.valueOf(type);
 	}
 
 	@Override
@@ -41,26 +44,44 @@ public class DiscreteAttribute implements DataAttribute<Integer> {
 
 	@Override
 	public Integer makeValue(Object data) {
-		Object object = ConversionUtility.convert(data, type);
-		Integer index = indexes.get(object);
-		if (index == null) {
-			index = indexes.size();
-			indexes.put(object, index);
-		}
-		return index;
+		return dictionary.makeIndex(data);
+	}
+
+	/**
+	 * 制作属性值(UTF-8编码的字节区间)
+	 * 
+	 * @param buffer
+	 * @param from
+	 *            开始位置(包含)
+	 * @param to
+	 *            结束位置(不包含)
+	 * @return
+	 */
+	public int makeValue(ByteBuffer buffer, int from, int to) {
+		return dictionary.makeIndex(buffer, from, to);
+	}
+
+	/**
+	 * 获取内部索引对应的外部键
+	 * 
+	 * @param index
+	 * @return
+	 */
+	public Object getData(int index) {
+		return dictionary.getData(index);
 	}
 
 	@Override
 	public Object[] getDatas() {
-		Object[] keys = new Object[indexes.size()];
-		for (Entry<Object, Integer> term : indexes.entrySet()) {
-			keys[term.getValue()] = term.getKey();
+		Object[] keys = new Object[dictionary.getSize()];
+		for (int index = 0; index < keys.length; index++) {
+			keys[index] = dictionary.getData(index);
 		}
 		return keys;
 	}
 
 	public int getSize() {
-		return indexes.size();
+		return dictionary.getSize();
 	}
 
 }
@@ -0,0 +1,43 @@
+package com.jstarcraft.recommendation.data;
+
+/**
+ * 离散列
+ * 
+ * <pre>
+ * 按照列存储离散特征的索引,只能在末尾追加,支持无装箱的随机访问.
+ * </pre>
+ * 
+ * @author Birdy
+ *
+ */
+public interface DiscreteColumn {
+
+	/**
+	 * 追加索引
+	 * 
+	 * @param value
+	 */
+	void associate(int value);
+
+	/**
+	 * 获取索引
+	 * 
+	 * @param position
+	 * @return
+	 */
+	int getValue(int position);
+
+	/**
+	 * 获取大小
+	 * 
+	 * @return
+	 */
+	int getSize();
+
+	/**
+	 * 释放列占用的资源(例如内存映射的文件通道,已有的数据仍然可以访问,不能再追加)
+	 */
+	default void release() {
+	}
+
+}
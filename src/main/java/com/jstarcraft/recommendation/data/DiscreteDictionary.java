@@ -0,0 +1,143 @@
+package com.jstarcraft.recommendation.data;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 离散字典
+ * 
+ * <pre>
+ * 为离散属性的外部键分配稠密的内部索引(按照首次出现的顺序),并保存持久的反向数组.
+ * 支持多线程并发制作索引(按照哈希分段加锁).
+ * 反向查询({@link #getData})需要在制作索引的线程中或者制作完成之后调用.
+ * </pre>
+ * 
+ * @author Birdy
+ *
+ */
+abstract class DiscreteDictionary {
+
+	/** 分段数量 */
+	protected static final int STRIPE_SIZE = 16;
+
+	protected static final int STRIPE_MASK = STRIPE_SIZE - 1;
+
+	/** 反向数组的分页 */
+	private static final int PAGE_SHIFT = 12;
+
+	private static final int PAGE_SIZE = 1 << PAGE_SHIFT;
+
+	private static final int PAGE_MASK = PAGE_SIZE - 1;
+
+	/** 索引数量 */
+	private final AtomicInteger size = new AtomicInteger();
+
+	/** 反向数组(按照分页存储,扩容时不需要复制已有的页) */
+	private volatile long[][] pages = new long[16][];
+
+	/**
+	 * 根据类型获取字典
+	 * 
+	 * @param type
+	 * @return
+	 */
+	static DiscreteDictionary valueOf(Class<?> type) {
+		if (type == int.class || type == Integer.class || type == long.class || type == Long.class) {
+			return new NumberDictionary(type);
+		}
+		if (type == String.class) {
+			return new StringDictionary(type);
+		}
+		return new ObjectDictionary(type);
+	}
+
+	/**
+	 * 制作索引
+	 * 
+	 * @param data
+	 * @return
+	 */
+	abstract int makeIndex(Object data);
+
+	/**
+	 * 制作索引(UTF-8编码的字节区间,不分配对象)
+	 * 
+	 * @param buffer
+	 * @param from
+	 *            开始位置(包含)
+	 * @param to
+	 *            结束位置(不包含)
+	 * @return
+	 */
+	abstract int makeIndex(ByteBuffer buffer, int from, int to);
+
+	/**
+	 * 获取索引对应的外部键
+	 * 
+	 * @param index
+	 * @return
+	 */
+	abstract Object getData(int index);
+
+	int getSize() {
+		return size.get();
+	}
+
+	/**
+	 * 分配下一个索引并记录反向值(调用者必须持有分段的锁)
+	 * 
+	 * @param reverse
+	 * @return
+	 */
+	protected int nextIndex(long reverse) {
+		int index = size.getAndIncrement();
+		getPage(index)[index & PAGE_MASK] = reverse;
+		return index;
+	}
+
+	/**
+	 * 获取反向值
+	 * 
+	 * @param index
+	 * @return
+	 */
+	protected long getReverse(int index) {
+		if (index < 0 || index >= size.get()) {
+			throw new IndexOutOfBoundsException(String.valueOf(index));
+		}
+		return getPage(index)[index & PAGE_MASK];
+	}
+
+	private long[] getPage(int index) {
+		int page = index >>> PAGE_SHIFT;
+		long[][] pages = this.pages;
+		if (page < pages.length && pages[page] != null) {
+			return pages[page];
+		}
+		synchronized (this) {
+			pages = this.pages;
+			if (page >= pages.length) {
+				pages = Arrays.copyOf(pages, Math.max(page + 1, pages.length * 2));
+			}
+			if (pages[page] == null) {
+				pages[page] = new long[PAGE_SIZE];
+			}
+			this.pages = pages;
+			return pages[page];
+		}
+	}
+
+	/**
+	 * 混合哈希(使低位分布均匀)
+	 * 
+	 * @param hash
+	 * @return
+	 */
+	protected static int mixHash(long hash) {
+		hash = (hash ^ (hash >>> 33)) * 0xFF51AFD7ED558CCDL;
+		hash = (hash ^ (hash >>> 33)) * 0xC4CEB9FE1A85EC53L;
+		return (int) (hash ^ (hash >>> 33));
+	}
+
+}
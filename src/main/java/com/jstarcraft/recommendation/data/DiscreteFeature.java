@@ -1,46 +1,46 @@
 package com.jstarcraft.recommendation.data;
 
 import java.util.Iterator;
-import java.util.LinkedList;
 
 @Deprecated
 public class DiscreteFeature implements DataFeature<Integer> {
 
-	public final static int DEFAULT_CAPACITY = 10000;
-
 	private DiscreteAttribute attribute;
 
-	/** 容量 */
-	private int capacity;
-
-	/** 数组 */
-	private int[] current;
-
 	/** 特征名 */
 	private String name;
 
 	/** 特征值 */
-	private LinkedList<int[]> values;
-
-	/** 大小 */
-	private int size;
+	private DiscreteColumn values;
 
 	public DiscreteFeature(String name, DiscreteAttribute attribute) {
+		this(name, attribute, DataStorage.HEAP_STORAGE);
+	}
+
+	public DiscreteFeature(String name, DiscreteAttribute attribute, DataStorage storage) {
+		this.attribute = attribute;
+		this.name = name;
+		this.values = storage.makeDiscreteColumn();
+	}
+
+	DiscreteFeature(String name, DiscreteAttribute attribute, DiscreteColumn values) {
 		this.attribute = attribute;
-		this.capacity = DEFAULT_CAPACITY;
 		this.name = name;
-		this.values = new LinkedList<>();
-		this.size = 0;
+		this.values = values;
 	}
 
 	@Override
 	public void associate(Object data) {
-		int position = size++ % capacity;
-		if (position == 0) {
-			current = new int[capacity];
-			values.add(current);
-		}
-		current[position] = attribute.makeValue(data);
+		values.associate(attribute.makeValue(data));
+	}
+
+	/**
+	 * 关联索引(已经由属性制作)
+	 * 
+	 * @param index
+	 */
+	public void associateIndex(int index) {
+		values.associate(index);
 	}
 
 	@Override
@@ -55,7 +55,26 @@ public class DiscreteFeature implements DataFeature<Integer> {
 
 	@Override
 	public int getSize() {
-		return size;
+		return values.getSize();
+	}
+
+	/**
+	 * 获取索引
+	 * 
+	 * @param position
+	 * @return
+	 */
+	public int getValue(int position) {
+		return values.getValue(position);
+	}
+
+	/**
+	 * 获取列(不复制)
+	 * 
+	 * @return
+	 */
+	public DiscreteColumn getColumn() {
+		return values;
 	}
 
 	@Override
@@ -67,9 +86,7 @@ public class DiscreteFeature implements DataFeature<Integer> {
 
 		private int cursor = 0;
 
-		private int[] current;
-
-		private final Iterator<int[]> iterator = values.iterator();
+		private final int size = values.getSize();
 
 		@Override
 		public boolean hasNext() {
@@ -78,11 +95,7 @@ public class DiscreteFeature implements DataFeature<Integer> {
 
 		@Override
 		public Integer next() {
-			int position = cursor++ % capacity;
-			if (position == 0) {
-				current = iterator.next();
-			}
-			return current[position];
+			return values.getValue(cursor++);
 		}
 
 		@Override
@@ -0,0 +1,120 @@
+package com.jstarcraft.recommendation.data;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * 内存映射存储
+ *
+ * <pre>
+ * 同一个存储的所有列共享一个临时文件(第一次分配时创建),每个分页映射文件末尾的新区域.
+ * 每个列拥有独立的文件通道,在列释放时关闭;存储释放时删除临时文件(已经映射的分页仍然有效).
+ * </pre>
+ *
+ * @author Birdy
+ *
+ */
+class MappedStorage implements DataStorage {
+
+	/** 临时文件 */
+	private File file;
+
+	/** 已经分配的长度 */
+	private long length;
+
+	/**
+	 * 列的分配器(拥有列的文件通道)
+	 *
+	 * @author Birdy
+	 *
+	 */
+	private class ChannelAllocator implements BufferAllocator {
+
+		/** 文件通道(第一次分配时打开) */
+		private FileChannel channel;
+
+		/** 是否已经释放 */
+		private boolean released;
+
+		@Override
+		public synchronized ByteBuffer allocate(int capacity) {
+			if (released) {
+				throw new IllegalStateException("列已经释放");
+			}
+			try {
+				if (channel == null) {
+					channel = FileChannel.open(getFile().toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE);
+				}
+				return map(channel, capacity);
+			} catch (IOException exception) {
+				throw new IllegalStateException(exception);
+			}
+		}
+
+		@Override
+		public synchronized void release() {
+			released = true;
+			if (channel != null) {
+				try {
+					channel.close();
+				} catch (IOException exception) {
+					throw new IllegalStateException(exception);
+				} finally {
+					channel = null;
+				}
+			}
+		}
+
+	}
+
+	private synchronized File getFile() throws IOException {
+		if (file == null) {
+			file = File.createTempFile("column", ".data");
+			file.deleteOnExit();
+		}
+		return file;
+	}
+
+	/**
+	 * 映射文件末尾的新区域
+	 *
+	 * <pre>
+	 * 映射会扩展文件,所以由存储统一分配区域,避免不同的通道并发扩展文件时互相截断.
+	 * </pre>
+	 *
+	 * @param channel
+	 * @param capacity
+	 * @return
+	 * @throws IOException
+	 */
+	private synchronized ByteBuffer map(FileChannel channel, int capacity) throws IOException {
+		ByteBuffer buffer = channel.map(MapMode.READ_WRITE, length, capacity);
+		length += capacity;
+		return buffer;
+	}
+
+	@Override
+	public DiscreteColumn makeDiscreteColumn() {
+		return new BufferDiscreteColumn(new ChannelAllocator());
+	}
+
+	@Override
+	public ContinuousColumn makeContinuousColumn() {
+		return new BufferContinuousColumn(new ChannelAllocator());
+	}
+
+	@Override
+	public synchronized void release() {
+		if (file != null) {
+			// 映射的分页不依赖文件名,删除失败(例如仍然被映射的Windows文件)时由deleteOnExit处理
+			file.delete();
+			file = null;
+			length = 0L;
+		}
+	}
+
+}
@@ -0,0 +1,151 @@
+package com.jstarcraft.recommendation.data;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import com.jstarcraft.core.utility.ConversionUtility;
+
+/**
+ * 整数字典
+ * 
+ * <pre>
+ * 外部键为int或者long,使用原始类型的开放寻址哈希表,反向数组直接保存键.
+ * </pre>
+ * 
+ * @author Birdy
+ *
+ */
+class NumberDictionary extends DiscreteDictionary {
+
+	/** 分段 */
+	private static class NumberStripe {
+
+		private long[] keys = new long[64];
+
+		/** 索引+1(0表示空) */
+		private int[] indexes = new int[64];
+
+		private int size;
+
+	}
+
+	private final Class<?> type;
+
+	/** 是否为int */
+	private final boolean integer;
+
+	private final NumberStripe[] stripes = new NumberStripe[STRIPE_SIZE];
+
+	NumberDictionary(Class<?> type) {
+		this.type = type;
+		this.integer = type == int.class || type == Integer.class;
+		for (int index = 0; index < STRIPE_SIZE; index++) {
+			stripes[index] = new NumberStripe();
+		}
+	}
+
+	/**
+	 * 制作索引
+	 * 
+	 * @param key
+	 * @return
+	 */
+	int makeIndex(long key) {
+		int hash = mixHash(key);
+		NumberStripe stripe = stripes[hash & STRIPE_MASK];
+		synchronized (stripe) {
+			int mask = stripe.keys.length - 1;
+			int slot = (hash >>> 4) & mask;
+			while (stripe.indexes[slot] != 0) {
+				if (stripe.keys[slot] == key) {
+					return stripe.indexes[slot] - 1;
+				}
+				slot = (slot + 1) & mask;
+			}
+			int index = nextIndex(key);
+			stripe.keys[slot] = key;
+			stripe.indexes[slot] = index + 1;
+			if (++stripe.size * 2 > stripe.keys.length) {
+				resize(stripe);
+			}
+			return index;
+		}
+	}
+
+	private void resize(NumberStripe stripe) {
+		long[] keys = stripe.keys;
+		int[] indexes = stripe.indexes;
+		stripe.keys = new long[keys.length * 2];
+		stripe.indexes = new int[indexes.length * 2];
+		int mask = stripe.keys.length - 1;
+		for (int position = 0; position < keys.length; position++) {
+			if (indexes[position] == 0) {
+				continue;
+			}
+			int slot = (mixHash(keys[position]) >>> 4) & mask;
+			while (stripe.indexes[slot] != 0) {
+				slot = (slot + 1) & mask;
+			}
+			stripe.keys[slot] = keys[position];
+			stripe.indexes[slot] = indexes[position];
+		}
+	}
+
+	@Override
+	int makeIndex(Object data) {
+		long key;
+		if (data instanceof Integer || data instanceof Long) {
+			key = ((Number) data).longValue();
+		} else {
+			Number number = ConversionUtility.convert(data, type);
+			key = number.longValue();
+		}
+		return makeIndex(key);
+	}
+
+	@Override
+	int makeIndex(ByteBuffer buffer, int from, int to) {
+		// 快速解析十进制整数,其它情况通过ConversionUtility转换
+		int position = from;
+		boolean negative = false;
+		if (position < to && (buffer.get(position) == '-' || buffer.get(position) == '+')) {
+			negative = buffer.get(position) == '-';
+			position++;
+		}
+		long key = 0L;
+		boolean valid = position < to && to - position <= 18;
+		for (; valid && position < to; position++) {
+			byte character = buffer.get(position);
+			if (character < '0' || character > '9') {
+				valid = false;
+			} else {
+				key = key * 10L + (character - '0');
+			}
+		}
+		if (negative) {
+			key = -key;
+		}
+		if (valid && integer && (key < Integer.MIN_VALUE || key > Integer.MAX_VALUE)) {
+			valid = false;
+		}
+		if (!valid) {
+			byte[] bytes = new byte[to - from];
+			for (int index = 0; index < bytes.length; index++) {
+				bytes[index] = buffer.get(from + index);
+			}
+			return makeIndex(new String(bytes, StandardCharsets.UTF_8));
+		}
+		return makeIndex(key);
+	}
+
+	@Override
+	Object getData(int index) {
+		long key = getReverse(index);
+		if (integer) {
+			return (int) key;
+		} else {
+			return key;
+		}
+	}
+
+}
@@ -0,0 +1,60 @@
+package com.jstarcraft.recommendation.data;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+
+import com.jstarcraft.core.utility.ConversionUtility;
+
+/**
+ * 对象字典
+ * 
+ * <pre>
+ * 没有原始类型特化的外部键(例如日期,枚举)使用HashMap,所有操作加锁.
+ * </pre>
+ * 
+ * @author Birdy
+ *
+ */
+class ObjectDictionary extends DiscreteDictionary {
+
+	private final Class<?> type;
+
+	/** 外部键-内部索引映射 */
+	private final HashMap<Object, Integer> indexes = new HashMap<>();
+
+	/** 内部索引-外部键映射 */
+	private final ArrayList<Object> keys = new ArrayList<>();
+
+	ObjectDictionary(Class<?> type) {
+		this.type = type;
+	}
+
+	@Override
+	synchronized int makeIndex(Object data) {
+		Object key = ConversionUtility.convert(data, type);
+		Integer index = indexes.get(key);
+		if (index == null) {
+			index = nextIndex(0L);
+			indexes.put(key, index);
+			keys.add(key);
+		}
+		return index;
+	}
+
+	@Override
+	int makeIndex(ByteBuffer buffer, int from, int to) {
+		byte[] bytes = new byte[to - from];
+		for (int position = 0; position < bytes.length; position++) {
+			bytes[position] = buffer.get(from + position);
+		}
+		return makeIndex(new String(bytes, StandardCharsets.UTF_8));
+	}
+
+	@Override
+	synchronized Object getData(int index) {
+		return keys.get(index);
+	}
+
+}
@@ -0,0 +1,422 @@
+package com.jstarcraft.recommendation.data;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+
+import org.apache.commons.io.FileUtils;
+
+import com.jstarcraft.ai.data.exception.DataException;
+import com.jstarcraft.recommendation.data.accessor.InstanceAccessor;
+
+/**
+ * 数据空间快照
+ *
+ * <pre>
+ * 把解析好的数据空间(属性的字典,特征的列与模块)保存为紧凑的列式二进制文件,
+ * 相同的输入再次运行时直接加载快照,跳过转换器的解析.
+ *
+ * 格式:
+ * 头部:元数据长度(8字节)
+ * 元数据(大端序):魔数,版本,离散属性(名称,类型,按照索引排列的键),连续属性(名称,最小值,最大值),特征(名称,属性,类型,大小),模块(名称,字段),数量
+ * 列(小端序,按照8字节对齐):按照特征的顺序,每个特征补齐到整数个分页({@link DataStorage#PAGE_SIZE})
+ *
+ * 加载时元数据与列都通过FileChannel.map映射,列直接作为{@link BufferDiscreteColumn}/{@link BufferContinuousColumn}的分页(不复制),
+ * 列使用私有映射(写时复制),加载之后追加的特征值不会修改快照文件.
+ * 离散属性的字典通过{@link DiscreteAttribute#makeValue(ByteBuffer, int, int)}直接从映射的字节重建.
+ * 键以字符串保存,int/long/String以外的类型依赖{@link Object#toString()}与转换器的往返一致.
+ * </pre>
+ *
+ * @author Birdy
+ *
+ */
+public class SpaceSnapshot {
+
+	/** 魔数 */
+	private static final int MAGIC = 0x4A535253;
+
+	/** 版本 */
+	public static final int VERSION = 1;
+
+	/** 对齐 */
+	private static final int ALIGNMENT = 8;
+
+	/** 每次映射的分页数量(保证映射区域小于2GB) */
+	private static final int MAPPING_PAGES = 4096;
+
+	/** 特征类型 */
+	private static final byte DISCRETE = 0, CONTINUOUS = 1;
+
+	/** 基本类型 */
+	private static final Map<String, Class<?>> PRIMITIVES = new HashMap<>();
+
+	static {
+		for (Class<?> clazz : new Class<?>[] { boolean.class, byte.class, char.class, short.class, int.class, long.class, float.class, double.class }) {
+			PRIMITIVES.put(clazz.getName(), clazz);
+		}
+	}
+
+	/** 数据空间 */
+	private final DataSpace space;
+
+	/** 每个转换器转换的实例数量 */
+	private final Map<String, Integer> counts;
+
+	private SpaceSnapshot(DataSpace space, Map<String, Integer> counts) {
+		this.space = space;
+		this.counts = counts;
+	}
+
+	public DataSpace getSpace() {
+		return space;
+	}
+
+	public Map<String, Integer> getCounts() {
+		return counts;
+	}
+
+	/**
+	 * 根据输入文件(路径,大小与修改时间)与配置计算快照的键
+	 *
+	 * @param paths
+	 *            输入路径(文件或者目录)
+	 * @param configuration
+	 *            影响解析结果的配置
+	 * @return
+	 */
+	public static String getKey(Collection<String> paths, String configuration) {
+		try {
+			MessageDigest digest = MessageDigest.getInstance("SHA-1");
+			digest.update(String.valueOf(VERSION).getBytes(StandardCharsets.UTF_8));
+			for (String path : paths) {
+				File dataPath = new File(path);
+				List<File> files = new ArrayList<>();
+				if (dataPath.isDirectory()) {
+					files.addAll(FileUtils.listFiles(dataPath, null, true));
+				} else {
+					files.add(dataPath);
+				}
+				Collections.sort(files);
+				for (File file : files) {
+					String stamp = file.getAbsolutePath() + ':' + file.length() + ':' + file.lastModified() + '\n';
+					digest.update(stamp.getBytes(StandardCharsets.UTF_8));
+				}
+			}
+			digest.update(configuration.getBytes(StandardCharsets.UTF_8));
+			return String.format("%040x", new BigInteger(1, digest.digest()));
+		} catch (Exception exception) {
+			throw new DataException(exception);
+		}
+	}
+
+	private static void putString(DataOutputStream output, String value) throws Exception {
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		output.writeInt(bytes.length);
+		output.write(bytes);
+	}
+
+	private static int getNumberOfPages(int size) {
+		return (size + DataStorage.PAGE_MASK) >>> DataStorage.PAGE_SHIFT;
+	}
+
+	/**
+	 * 保存快照(先写临时文件再原子替换,并发保存同一个快照是安全的)
+	 *
+	 * @param space
+	 * @param counts
+	 *            每个转换器转换的实例数量
+	 * @param file
+	 */
+	public static void saveSpace(DataSpace space, Map<String, Integer> counts, File file) {
+		File temporary = new File(file.getPath() + '.' + System.nanoTime() + ".tmp");
+		try {
+			List<DataFeature<?>> features = new ArrayList<>(space.getFeatures());
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			try (DataOutputStream output = new DataOutputStream(bytes)) {
+				output.writeInt(MAGIC);
+				output.writeInt(VERSION);
+				Collection<DiscreteAttribute> discreteAttributes = space.getDiscreteAttributes();
+				output.writeInt(discreteAttributes.size());
+				for (DiscreteAttribute attribute : discreteAttributes) {
+					putString(output, attribute.getName());
+					putString(output, attribute.getType().getName());
+					int size = attribute.getSize();
+					output.writeInt(size);
+					for (int index = 0; index < size; index++) {
+						putString(output, String.valueOf(attribute.getData(index)));
+					}
+				}
+				Collection<ContinuousAttribute> continuousAttributes = space.getContinuousAttributes();
+				output.writeInt(continuousAttributes.size());
+				for (ContinuousAttribute attribute : continuousAttributes) {
+					putString(output, attribute.getName());
+					Object[] datas = attribute.getDatas();
+					output.writeFloat((Float) datas[0]);
+					output.writeFloat((Float) datas[1]);
+				}
+				output.writeInt(features.size());
+				for (DataFeature<?> feature : features) {
+					putString(output, feature.getName());
+					putString(output, feature.getAttribute().getName());
+					output.writeByte(feature instanceof DiscreteFeature ? DISCRETE : CONTINUOUS);
+					output.writeInt(feature.getSize());
+				}
+				Map<String, InstanceAccessor> modules = space.getModules();
+				output.writeInt(modules.size());
+				for (Entry<String, InstanceAccessor> term : modules.entrySet()) {
+					InstanceAccessor module = term.getValue();
+					putString(output, term.getKey());
+					output.writeInt(module.getDiscreteOrder() + module.getContinuousOrder());
+					for (String field : module.getDiscreteFields()) {
+						putString(output, field);
+					}
+					for (String field : module.getContinuousFields()) {
+						putString(output, field);
+					}
+				}
+				output.writeInt(counts.size());
+				for (Entry<String, Integer> term : counts.entrySet()) {
+					putString(output, term.getKey());
+					output.writeInt(term.getValue());
+				}
+			}
+
+			try (FileChannel channel = FileChannel.open(temporary.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+				ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 20);
+				buffer.putLong(bytes.size());
+				flush(channel, buffer);
+				ByteBuffer metadata = ByteBuffer.wrap(bytes.toByteArray());
+				while (metadata.hasRemaining()) {
+					channel.write(metadata);
+				}
+				long position = Long.BYTES + bytes.size();
+				buffer.order(ByteOrder.LITTLE_ENDIAN);
+				while (position % ALIGNMENT != 0) {
+					buffer.put((byte) 0);
+					position++;
+				}
+				for (DataFeature<?> feature : features) {
+					long length = (long) getNumberOfPages(feature.getSize()) * DataStorage.PAGE_SIZE;
+					if (feature instanceof DiscreteFeature) {
+						DiscreteColumn column = ((DiscreteFeature) feature).getColumn();
+						for (long index = 0; index < length; index++) {
+							if (buffer.remaining() < Integer.BYTES) {
+								flush(channel, buffer);
+							}
+							buffer.putInt(index < column.getSize() ? column.getValue((int) index) : 0);
+						}
+					} else {
+						ContinuousColumn column = ((ContinuousFeature) feature).getColumn();
+						for (long index = 0; index < length; index++) {
+							if (buffer.remaining() < Float.BYTES) {
+								flush(channel, buffer);
+							}
+							buffer.putFloat(index < column.getSize() ? column.getValue((int) index) : 0F);
+						}
+					}
+				}
+				flush(channel, buffer);
+			}
+			Files.move(temporary.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+		} catch (Exception exception) {
+			temporary.delete();
+			throw new DataException(exception);
+		}
+	}
+
+	/**
+	 * 写出缓冲区(写出之后清空)
+	 */
+	private static void flush(FileChannel channel, ByteBuffer buffer) throws Exception {
+		buffer.flip();
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+		buffer.clear();
+	}
+
+	private static String getString(ByteBuffer buffer) {
+		byte[] bytes = new byte[buffer.getInt()];
+		buffer.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * 映射列的分页
+	 */
+	private static ByteBuffer[] getPages(FileChannel channel, long position, int size, int bytes) throws Exception {
+		ByteBuffer[] pages = new ByteBuffer[getNumberOfPages(size)];
+		long pageBytes = (long) DataStorage.PAGE_SIZE * bytes;
+		for (int from = 0; from < pages.length; from += MAPPING_PAGES) {
+			int to = Math.min(from + MAPPING_PAGES, pages.length);
+			MappedByteBuffer mapping = channel.map(MapMode.PRIVATE, position + from * pageBytes, (to - from) * pageBytes);
+			for (int page = from; page < to; page++) {
+				mapping.position((int) ((page - from) * pageBytes));
+				mapping.limit((int) ((page - from + 1) * pageBytes));
+				pages[page] = mapping.slice().order(ByteOrder.LITTLE_ENDIAN);
+			}
+		}
+		return pages;
+	}
+
+	/**
+	 * 加载快照
+	 *
+	 * @param file
+	 * @param storage
+	 *            加载之后制作的特征使用的存储
+	 * @return
+	 */
+	public static SpaceSnapshot loadSpace(File file, DataStorage storage) {
+		// 私有映射要求通道可写(不会修改文件)
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+			ByteBuffer header = ByteBuffer.allocate(Long.BYTES);
+			while (header.hasRemaining()) {
+				if (channel.read(header) < 0) {
+					throw new DataException("不是数据快照");
+				}
+			}
+			header.flip();
+			long length = header.getLong();
+			if (length < 0 || Long.BYTES + length > channel.size()) {
+				throw new DataException("不是数据快照");
+			}
+			// 关闭通道之后映射仍然有效
+			MappedByteBuffer buffer = channel.map(MapMode.READ_ONLY, Long.BYTES, length);
+			if (buffer.getInt() != MAGIC) {
+				throw new DataException("不是数据快照");
+			}
+			int version = buffer.getInt();
+			if (version != VERSION) {
+				throw new DataException("不支持的数据快照版本" + version);
+			}
+
+			// 属性
+			Map<String, Class<?>> discreteDifinitions = new LinkedHashMap<>();
+			Map<String, Integer> positions = new HashMap<>();
+			int numberOfAttributes = buffer.getInt();
+			for (int attributeIndex = 0; attributeIndex < numberOfAttributes; attributeIndex++) {
+				String name = getString(buffer);
+				String type = getString(buffer);
+				Class<?> clazz = PRIMITIVES.get(type);
+				discreteDifinitions.put(name, clazz == null ? Class.forName(type) : clazz);
+				// 记录键的位置,构建数据空间之后再重建字典
+				positions.put(name, buffer.position());
+				int size = buffer.getInt();
+				for (int index = 0; index < size; index++) {
+					buffer.position(buffer.position() + Integer.BYTES + buffer.getInt(buffer.position()));
+				}
+			}
+			Set<String> continuousDifinitions = new LinkedHashSet<>();
+			Map<String, float[]> ranges = new HashMap<>();
+			numberOfAttributes = buffer.getInt();
+			for (int attributeIndex = 0; attributeIndex < numberOfAttributes; attributeIndex++) {
+				String name = getString(buffer);
+				continuousDifinitions.add(name);
+				ranges.put(name, new float[] { buffer.getFloat(), buffer.getFloat() });
+			}
+			DataSpace space = new DataSpace(discreteDifinitions, continuousDifinitions, storage);
+			for (Entry<String, Integer> term : positions.entrySet()) {
+				DiscreteAttribute attribute = space.getDiscreteAttribute(term.getKey());
+				int position = term.getValue();
+				int size = buffer.getInt(position);
+				position += Integer.BYTES;
+				for (int index = 0; index < size; index++) {
+					int bytes = buffer.getInt(position);
+					position += Integer.BYTES;
+					if (attribute.makeValue(buffer, position, position + bytes) != index) {
+						throw new DataException("数据快照的字典不一致");
+					}
+					position += bytes;
+				}
+			}
+			for (Entry<String, float[]> term : ranges.entrySet()) {
+				ContinuousAttribute attribute = space.getContinuousAttribute(term.getKey());
+				float[] range = term.getValue();
+				if (range[0] <= range[1]) {
+					attribute.makeValue(range[0]);
+					attribute.makeValue(range[1]);
+				}
+			}
+
+			// 特征
+			long position = Long.BYTES + length;
+			position = (position + ALIGNMENT - 1) / ALIGNMENT * ALIGNMENT;
+			int numberOfFeatures = buffer.getInt();
+			for (int featureIndex = 0; featureIndex < numberOfFeatures; featureIndex++) {
+				String name = getString(buffer);
+				String attributeName = getString(buffer);
+				byte type = buffer.get();
+				int size = buffer.getInt();
+				if (type == DISCRETE) {
+					ByteBuffer[] pages = getPages(channel, position, size, Integer.BYTES);
+					IntBuffer[] buffers = new IntBuffer[pages.length];
+					for (int page = 0; page < pages.length; page++) {
+						buffers[page] = pages[page].asIntBuffer();
+					}
+					DiscreteColumn column = new BufferDiscreteColumn(ByteBuffer::allocateDirect, buffers, size);
+					space.setFeature(new DiscreteFeature(name, space.getDiscreteAttribute(attributeName), column));
+					position += (long) pages.length * DataStorage.PAGE_SIZE * Integer.BYTES;
+				} else {
+					ByteBuffer[] pages = getPages(channel, position, size, Float.BYTES);
+					FloatBuffer[] buffers = new FloatBuffer[pages.length];
+					for (int page = 0; page < pages.length; page++) {
+						buffers[page] = pages[page].asFloatBuffer();
+					}
+					ContinuousColumn column = new BufferContinuousColumn(ByteBuffer::allocateDirect, buffers, size);
+					space.setFeature(new ContinuousFeature(name, space.getContinuousAttribute(attributeName), column));
+					position += (long) pages.length * DataStorage.PAGE_SIZE * Float.BYTES;
+				}
+			}
+			if (position > channel.size()) {
+				throw new DataException("数据快照不完整");
+			}
+
+			// 模块
+			int numberOfModules = buffer.getInt();
+			for (int moduleIndex = 0; moduleIndex < numberOfModules; moduleIndex++) {
+				String name = getString(buffer);
+				String[] fields = new String[buffer.getInt()];
+				for (int index = 0; index < fields.length; index++) {
+					fields[index] = getString(buffer);
+				}
+				space.makeModule(name, fields);
+			}
+
+			Map<String, Integer> counts = new LinkedHashMap<>();
+			int numberOfCounts = buffer.getInt();
+			for (int index = 0; index < numberOfCounts; index++) {
+				counts.put(getString(buffer), buffer.getInt());
+			}
+			return new SpaceSnapshot(space, counts);
+		} catch (DataException exception) {
+			throw exception;
+		} catch (Exception exception) {
+			throw new DataException(exception);
+		}
+	}
+
+}
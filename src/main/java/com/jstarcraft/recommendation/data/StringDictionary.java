@@ -0,0 +1,187 @@
+package com.jstarcraft.recommendation.data;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import com.jstarcraft.core.utility.ConversionUtility;
+
+/**
+ * 字符串字典
+ * 
+ * <pre>
+ * 外部键按照UTF-8字节保存在每个分段连续的字节区域中,哈希表只保存条目的位置.
+ * 反向数组保存分段与条目,获取外部键时才构建字符串.
+ * 对象的外部键按照UTF-8编码到每个线程复用的缓冲区(与String.getBytes一致),不为每次查找分配字节数组.
+ * </pre>
+ * 
+ * @author Birdy
+ *
+ */
+class StringDictionary extends DiscreteDictionary {
+
+	/** 分段 */
+	private static class StringStripe {
+
+		/** 字节区域 */
+		private byte[] arena = new byte[1024];
+
+		private int length;
+
+		/** 条目的哈希,位置,长度 */
+		private int[] hashes = new int[32], offsets = new int[32], lengths = new int[32];
+
+		/** 条目的索引 */
+		private int[] indexes = new int[32];
+
+		private int size;
+
+		/** 哈希表(条目+1,0表示空) */
+		private int[] table = new int[64];
+
+	}
+
+	/** 每个线程复用的编码缓冲区 */
+	private static final ThreadLocal<ByteBuffer> bufferStorage = ThreadLocal.withInitial(() -> ByteBuffer.allocate(256));
+
+	private final Class<?> type;
+
+	private final StringStripe[] stripes = new StringStripe[STRIPE_SIZE];
+
+	StringDictionary(Class<?> type) {
+		this.type = type;
+		for (int index = 0; index < STRIPE_SIZE; index++) {
+			stripes[index] = new StringStripe();
+		}
+	}
+
+	@Override
+	int makeIndex(Object data) {
+		String key = data instanceof String ? (String) data : ConversionUtility.convert(data, type);
+		// 每个字符最多编码为3个字节(代理对为2个字符4个字节)
+		int capacity = key.length() * 3;
+		ByteBuffer buffer = bufferStorage.get();
+		if (buffer.capacity() < capacity) {
+			buffer = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, capacity));
+			bufferStorage.set(buffer);
+		}
+		int length = encode(key, buffer.array());
+		return makeIndex(buffer, 0, length);
+	}
+
+	/**
+	 * 按照UTF-8编码(不成对的代理替换为'?',与String.getBytes一致)
+	 * 
+	 * @param key
+	 * @param bytes
+	 * @return 字节数量
+	 */
+	private static int encode(String key, byte[] bytes) {
+		int length = 0;
+		for (int index = 0, size = key.length(); index < size; index++) {
+			char character = key.charAt(index);
+			if (character < 0x80) {
+				bytes[length++] = (byte) character;
+			} else if (character < 0x800) {
+				bytes[length++] = (byte) (0xC0 | (character >> 6));
+				bytes[length++] = (byte) (0x80 | (character & 0x3F));
+			} else if (Character.isSurrogate(character)) {
+				if (Character.isHighSurrogate(character) && index + 1 < size && Character.isLowSurrogate(key.charAt(index + 1))) {
+					int point = Character.toCodePoint(character, key.charAt(++index));
+					bytes[length++] = (byte) (0xF0 | (point >> 18));
+					bytes[length++] = (byte) (0x80 | ((point >> 12) & 0x3F));
+					bytes[length++] = (byte) (0x80 | ((point >> 6) & 0x3F));
+					bytes[length++] = (byte) (0x80 | (point & 0x3F));
+				} else {
+					bytes[length++] = '?';
+				}
+			} else {
+				bytes[length++] = (byte) (0xE0 | (character >> 12));
+				bytes[length++] = (byte) (0x80 | ((character >> 6) & 0x3F));
+				bytes[length++] = (byte) (0x80 | (character & 0x3F));
+			}
+		}
+		return length;
+	}
+
+	@Override
+	int makeIndex(ByteBuffer buffer, int from, int to) {
+		int code = 0;
+		for (int position = from; position < to; position++) {
+			code = code * 31 + buffer.get(position);
+		}
+		int hash = mixHash(code);
+		int stripeIndex = hash & STRIPE_MASK;
+		StringStripe stripe = stripes[stripeIndex];
+		int length = to - from;
+		synchronized (stripe) {
+			int mask = stripe.table.length - 1;
+			int slot = (hash >>> 4) & mask;
+			while (stripe.table[slot] != 0) {
+				int entry = stripe.table[slot] - 1;
+				if (stripe.hashes[entry] == hash && stripe.lengths[entry] == length && isEqual(stripe, entry, buffer, from)) {
+					return stripe.indexes[entry];
+				}
+				slot = (slot + 1) & mask;
+			}
+			int entry = stripe.size++;
+			if (entry == stripe.hashes.length) {
+				int capacity = entry * 2;
+				stripe.hashes = Arrays.copyOf(stripe.hashes, capacity);
+				stripe.offsets = Arrays.copyOf(stripe.offsets, capacity);
+				stripe.lengths = Arrays.copyOf(stripe.lengths, capacity);
+				stripe.indexes = Arrays.copyOf(stripe.indexes, capacity);
+			}
+			if (stripe.length + length > stripe.arena.length) {
+				stripe.arena = Arrays.copyOf(stripe.arena, Math.max(stripe.arena.length * 2, stripe.length + length));
+			}
+			for (int position = 0; position < length; position++) {
+				stripe.arena[stripe.length + position] = buffer.get(from + position);
+			}
+			int index = nextIndex(((long) stripeIndex << 32) | entry);
+			stripe.hashes[entry] = hash;
+			stripe.offsets[entry] = stripe.length;
+			stripe.lengths[entry] = length;
+			stripe.indexes[entry] = index;
+			stripe.length += length;
+			stripe.table[slot] = entry + 1;
+			if (stripe.size * 2 > stripe.table.length) {
+				resize(stripe);
+			}
+			return index;
+		}
+	}
+
+	private static boolean isEqual(StringStripe stripe, int entry, ByteBuffer buffer, int from) {
+		byte[] arena = stripe.arena;
+		for (int offset = stripe.offsets[entry], position = 0, length = stripe.lengths[entry]; position < length; position++) {
+			if (arena[offset + position] != buffer.get(from + position)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static void resize(StringStripe stripe) {
+		stripe.table = new int[stripe.table.length * 2];
+		int mask = stripe.table.length - 1;
+		for (int entry = 0; entry < stripe.size; entry++) {
+			int slot = (stripe.hashes[entry] >>> 4) & mask;
+			while (stripe.table[slot] != 0) {
+				slot = (slot + 1) & mask;
+			}
+			stripe.table[slot] = entry + 1;
+		}
+	}
+
+	@Override
+	Object getData(int index) {
+		long reverse = getReverse(index);
+		StringStripe stripe = stripes[(int) (reverse >>> 32)];
+		int entry = (int) reverse;
+		synchronized (stripe) {
+			return new String(stripe.arena, stripe.offsets[entry], stripe.lengths[entry], StandardCharsets.UTF_8);
+		}
+	}
+
+}
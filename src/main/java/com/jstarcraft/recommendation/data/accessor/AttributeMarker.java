@@ -4,7 +4,9 @@ import java.util.LinkedHashMap;
 
 import com.jstarcraft.ai.utility.IntegerArray;
 import com.jstarcraft.recommendation.data.ContinuousAttribute;
+import com.jstarcraft.recommendation.data.ContinuousColumn;
 import com.jstarcraft.recommendation.data.DiscreteAttribute;
+import com.jstarcraft.recommendation.data.DiscreteColumn;
 
 /**
  * 属性标记器
@@ -15,13 +17,13 @@ import com.jstarcraft.recommendation.data.DiscreteAttribute;
 @Deprecated
 public class AttributeMarker extends SampleAccessor {
 
-	private float[] scores;
+	private ContinuousColumn scores;
 
 	public AttributeMarker(IntegerArray positions, InstanceAccessor model, String scoreField) {
 		this.discreteAttributes = new DiscreteAttribute[model.discreteAttributes.length];
 		this.continuousAttributes = new ContinuousAttribute[model.continuousAttributes.length - 1];
-		this.discreteFeatures = new int[model.discreteAttributes.length][];
-		this.continuousFeatures = new float[model.continuousAttributes.length - 1][];
+		this.discreteFeatures = new DiscreteColumn[model.discreteAttributes.length];
+		this.continuousFeatures = new ContinuousColumn[model.continuousAttributes.length - 1];
 		for (int index = 0, size = model.discreteAttributes.length; index < size; index++) {
 			this.discreteAttributes[index] = model.discreteAttributes[index];
 			this.discreteFeatures[index] = model.discreteFeatures[index];
@@ -54,7 +56,7 @@ public class AttributeMarker extends SampleAccessor {
 
 	@Override
 	public float getMark(int position) {
-		return scores[positions.getData(position)];
+		return scores.getValue(positions.getData(position));
 	}
 
 }
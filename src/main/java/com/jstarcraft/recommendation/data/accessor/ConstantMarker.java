@@ -4,7 +4,9 @@ import java.util.LinkedHashMap;
 
 import com.jstarcraft.ai.utility.IntegerArray;
 import com.jstarcraft.recommendation.data.ContinuousAttribute;
+import com.jstarcraft.recommendation.data.ContinuousColumn;
 import com.jstarcraft.recommendation.data.DiscreteAttribute;
+import com.jstarcraft.recommendation.data.DiscreteColumn;
 
 /**
  * 常量标记器
@@ -20,8 +22,8 @@ public class ConstantMarker extends SampleAccessor {
 	public ConstantMarker(IntegerArray positions, InstanceAccessor model, float constant) {
 		this.discreteAttributes = new DiscreteAttribute[model.discreteAttributes.length];
 		this.continuousAttributes = new ContinuousAttribute[model.continuousAttributes.length];
-		this.discreteFeatures = new int[model.discreteAttributes.length][];
-		this.continuousFeatures = new float[model.continuousAttributes.length][];
+		this.discreteFeatures = new DiscreteColumn[model.discreteAttributes.length];
+		this.continuousFeatures = new ContinuousColumn[model.continuousAttributes.length];
 		for (int index = 0, size = model.discreteAttributes.length; index < size; index++) {
 			this.discreteAttributes[index] = model.discreteAttributes[index];
 			this.discreteFeatures[index] = model.discreteFeatures[index];
@@ -1,5 +1,8 @@
 package com.jstarcraft.recommendation.data.accessor;
 
+import com.jstarcraft.recommendation.data.ContinuousColumn;
+import com.jstarcraft.recommendation.data.DiscreteColumn;
+
 /**
  * 数据实例
  * 
@@ -10,15 +13,15 @@ package com.jstarcraft.recommendation.data.accessor;
 public class DataInstance {
 
 	/** 游标 */
-	private Integer cursor;
+	private int cursor;
 
 	/** 离散特征 */
-	private int[][] discreteFeatures;
+	private DiscreteColumn[] discreteFeatures;
 
 	/** 连续特征 */
-	private float[][] continuousFeatures;
+	private ContinuousColumn[] continuousFeatures;
 
-	DataInstance(int[][] discreteFeatures, float[][] continuousFeatures) {
+	DataInstance(DiscreteColumn[] discreteFeatures, ContinuousColumn[] continuousFeatures) {
 		this.discreteFeatures = discreteFeatures;
 		this.continuousFeatures = continuousFeatures;
 	}
@@ -34,7 +37,7 @@ public class DataInstance {
 	 * @return
 	 */
 	public int getDiscreteFeature(int dimension) {
-		return discreteFeatures[dimension][cursor];
+		return discreteFeatures[dimension].getValue(cursor);
 	}
 
 	/**
@@ -44,7 +47,7 @@ public class DataInstance {
 	 * @return
 	 */
 	public float getContinuousFeature(int dimension) {
-		return continuousFeatures[dimension][cursor];
+		return continuousFeatures[dimension].getValue(cursor);
 	}
 
 }
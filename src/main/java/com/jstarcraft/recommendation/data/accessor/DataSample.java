@@ -1,5 +1,8 @@
 package com.jstarcraft.recommendation.data.accessor;
 
+import com.jstarcraft.recommendation.data.ContinuousColumn;
+import com.jstarcraft.recommendation.data.DiscreteColumn;
+
 /**
  * 数据样本
  * 
@@ -10,17 +13,17 @@ package com.jstarcraft.recommendation.data.accessor;
 public class DataSample {
 
 	/** 游标 */
-	private Integer position;
+	private int position;
 
 	/** 离散特征 */
-	private int[][] discreteFeatures;
+	private DiscreteColumn[] discreteFeatures;
 
 	/** 连续特征 */
-	private float[][] continuousFeatures;
+	private ContinuousColumn[] continuousFeatures;
 
 	private float mark;
 
-	DataSample(int[][] discreteFeatures, float[][] continuousFeatures) {
+	DataSample(DiscreteColumn[] discreteFeatures, ContinuousColumn[] continuousFeatures) {
 		this.discreteFeatures = discreteFeatures;
 		this.continuousFeatures = continuousFeatures;
 	}
@@ -37,7 +40,7 @@ public class DataSample {
 	 * @return
 	 */
 	public int getDiscreteFeature(int dimension) {
-		return discreteFeatures[dimension][position];
+		return discreteFeatures[dimension].getValue(position);
 	}
 
 	/**
@@ -47,7 +50,7 @@ public class DataSample {
 	 * @return
 	 */
 	public float getContinuousFeature(int dimension) {
-		return continuousFeatures[dimension][position];
+		return continuousFeatures[dimension].getValue(position);
 	}
 
 	/**
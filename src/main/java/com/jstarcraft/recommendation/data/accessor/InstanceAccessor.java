@@ -7,10 +7,12 @@ import java.util.List;
 import java.util.Map;
 
 import com.jstarcraft.recommendation.data.ContinuousAttribute;
+import com.jstarcraft.recommendation.data.ContinuousColumn;
 import com.jstarcraft.recommendation.data.ContinuousFeature;
 import com.jstarcraft.recommendation.data.DataAccessor;
 import com.jstarcraft.recommendation.data.DataAttribute;
 import com.jstarcraft.recommendation.data.DiscreteAttribute;
+import com.jstarcraft.recommendation.data.DiscreteColumn;
 import com.jstarcraft.recommendation.data.DiscreteFeature;
 
 /**
@@ -19,6 +21,7 @@ import com.jstarcraft.recommendation.data.DiscreteFeature;
  * <pre>
  * 负责数据实例管理(分组与排序)
  * 配合{@link DataStorage},{@link DataAttribute}与{@link DataAccessor}实现数据管理.
+ * 直接引用特征的列,不复制特征值.
  * </pre>
  * 
  * @author Birdy
@@ -34,10 +37,10 @@ public class InstanceAccessor implements DataAccessor<DataInstance> {
 	ContinuousAttribute[] continuousAttributes;
 
 	/** 离散特征 */
-	int[][] discreteFeatures;
+	DiscreteColumn[] discreteFeatures;
 
 	/** 连续特征 */
-	float[][] continuousFeatures;
+	ContinuousColumn[] continuousFeatures;
 
 	/** 离散维度 */
 	private Map<String, Integer> discreteDimensions;
@@ -51,8 +54,8 @@ public class InstanceAccessor implements DataAccessor<DataInstance> {
 	public InstanceAccessor(List<DiscreteFeature> discreteFeatures, List<ContinuousFeature> continuousFeatures) {
 		this.discreteAttributes = new DiscreteAttribute[discreteFeatures.size()];
 		this.continuousAttributes = new ContinuousAttribute[continuousFeatures.size()];
-		this.discreteFeatures = new int[discreteFeatures.size()][];
-		this.continuousFeatures = new float[continuousFeatures.size()][];
+		this.discreteFeatures = new DiscreteColumn[discreteFeatures.size()];
+		this.continuousFeatures = new ContinuousColumn[continuousFeatures.size()];
 		this.discreteDimensions = new LinkedHashMap<>();
 		this.continuousDimensions = new LinkedHashMap<>();
 		this.size = discreteFeatures.get(0).getSize();
@@ -61,13 +64,8 @@ public class InstanceAccessor implements DataAccessor<DataInstance> {
 			if (feature.getSize() != this.size) {
 				throw new IllegalArgumentException("特征大小不一致");
 			}
-			int[] data = new int[this.size];
-			int cursor = 0;
-			for (int value : feature) {
-				data[cursor++] = value;
-			}
 			this.discreteAttributes[index] = feature.getAttribute();
-			this.discreteFeatures[index] = data;
+			this.discreteFeatures[index] = feature.getColumn();
 			this.discreteDimensions.put(feature.getName(), index);
 		}
 		for (int index = 0; index < continuousFeatures.size(); index++) {
@@ -75,13 +73,8 @@ public class InstanceAccessor implements DataAccessor<DataInstance> {
 			if (feature.getSize() != this.size) {
 				throw new IllegalArgumentException("特征大小不一致");
 			}
-			float[] data = new float[this.size];
-			int cursor = 0;
-			for (float value : feature) {
-				data[cursor++] = value;
-			}
 			this.continuousAttributes[index] = feature.getAttribute();
-			this.continuousFeatures[index] = data;
+			this.continuousFeatures[index] = feature.getColumn();
 			this.continuousDimensions.put(feature.getName(), index);
 		}
 	}
@@ -196,12 +189,12 @@ public class InstanceAccessor implements DataAccessor<DataInstance> {
 
 	@Override
 	public int getDiscreteFeature(int dimension, int position) {
-		return discreteFeatures[dimension][position];
+		return discreteFeatures[dimension].getValue(position);
 	}
 
 	@Override
 	public float getContinuousFeature(int dimension, int position) {
-		return continuousFeatures[dimension][position];
+		return continuousFeatures[dimension].getValue(position);
 	}
 
 	@Override
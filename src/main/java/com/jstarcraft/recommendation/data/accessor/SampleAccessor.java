@@ -6,8 +6,10 @@ import java.util.Map;
 
 import com.jstarcraft.ai.utility.IntegerArray;
 import com.jstarcraft.recommendation.data.ContinuousAttribute;
+import com.jstarcraft.recommendation.data.ContinuousColumn;
 import com.jstarcraft.recommendation.data.DataAccessor;
 import com.jstarcraft.recommendation.data.DiscreteAttribute;
+import com.jstarcraft.recommendation.data.DiscreteColumn;
 
 /**
  * 数据标记器
@@ -25,10 +27,10 @@ public abstract class SampleAccessor implements DataAccessor<DataSample> {
 	protected ContinuousAttribute[] continuousAttributes;
 
 	/** 离散特征 */
-	protected int[][] discreteFeatures;
+	protected DiscreteColumn[] discreteFeatures;
 
 	/** 连续特征 */
-	protected float[][] continuousFeatures;
+	protected ContinuousColumn[] continuousFeatures;
 
 	/** 离散维度 */
 	protected Map<String, Integer> discreteDimensions;
@@ -61,12 +63,12 @@ public abstract class SampleAccessor implements DataAccessor<DataSample> {
 
 	@Override
 	public int getDiscreteFeature(int dimension, int position) {
-		return discreteFeatures[dimension][positions.getData(position)];
+		return discreteFeatures[dimension].getValue(positions.getData(position));
 	}
 
 	@Override
 	public float getContinuousFeature(int dimension, int position) {
-		return continuousFeatures[dimension][positions.getData(position)];
+		return continuousFeatures[dimension].getValue(positions.getData(position));
 	}
 
 	@Override
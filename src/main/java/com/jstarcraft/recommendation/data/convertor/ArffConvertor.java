@@ -1,8 +1,14 @@
 package com.jstarcraft.recommendation.data.convertor;
 
+import java.io.BufferedInputStream;
 import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -20,6 +26,7 @@ import com.jstarcraft.recommendation.data.DataSpace;
  * 
  * <pre>
  * ARFF定义(http://www.cs.waikato.ac.nz/ml/weka/arff.html)
+ * 内存映射模式(chunkSize大于0)逐字节读取头部,数据部分按照{@link CsvConvertor}的内存映射模式解析.
  * </pre>
  * 
  * @author Birdy
@@ -29,7 +36,11 @@ import com.jstarcraft.recommendation.data.DataSpace;
 public class ArffConvertor extends CsvConvertor {
 
 	public ArffConvertor(String name, String path, Map<String, Integer> fields) {
-		super(name, CSVFormat.DEFAULT.getDelimiter(), path, fields);
+		this(name, path, fields, 0);
+	}
+
+	public ArffConvertor(String name, String path, Map<String, Integer> fields, int chunkSize) {
+		super(name, CSVFormat.DEFAULT.getDelimiter(), path, fields, chunkSize);
 	}
 
 	@Override
@@ -41,6 +52,10 @@ public class ArffConvertor extends CsvConvertor {
 				features.put(term.getValue(), space.getFeature(term.getKey()));
 			}
 			for (File file : files) {
+				if (chunkSize > 0) {
+					count += parseFile(file, features);
+					continue;
+				}
 				boolean dataMark = false;
 				int attributeIndex = 0;
 				try (FileReader reader = new FileReader(file); BufferedReader buffer = new BufferedReader(reader)) {
@@ -53,27 +68,8 @@ public class ArffConvertor extends CsvConvertor {
 							if (StringUtility.isBlank(line) || line.startsWith("%")) {
 								continue;
 							}
-							String[] datas = line.trim().split("[ \t]");
-							switch (datas[0].toUpperCase()) {
-							case "@RELATION": {
-								break;
-							}
-							case "@ATTRIBUTE": {
-								DataAttribute<?> attribute = features.get(attributeIndex++).getAttribute();
-								String attributeType = datas[2];
-								if (attributeType.startsWith("{") && attributeType.endsWith("}")) {
-									String nominals = attributeType.substring(1, attributeType.length() - 1);
-									for (String nominal : nominals.split(",")) {
-										attribute.makeValue(nominal);
-									}
-								}
-								break;
-							}
-							case "@DATA": {
-								dataMark = true;
-								break;
-							}
-							}
+							attributeIndex = parseHeader(line, features, attributeIndex);
+							dataMark = attributeIndex < 0;
 						}
 					}
 				}
@@ -85,4 +81,72 @@ public class ArffConvertor extends CsvConvertor {
 		}
 	}
 
-}
\ No newline at end of file
+	/**
+	 * 解析头部的一行
+	 * 
+	 * @param line
+	 * @param features
+	 * @param attributeIndex
+	 * @return 下一个属性的索引(-1表示数据开始)
+	 */
+	private int parseHeader(String line, Map<Integer, DataFeature<?>> features, int attributeIndex) {
+		String[] datas = line.trim().split("[ \t]");
+		switch (datas[0].toUpperCase()) {
+		case "@RELATION": {
+			break;
+		}
+		case "@ATTRIBUTE": {
+			DataAttribute<?> attribute = features.get(attributeIndex++).getAttribute();
+			String attributeType = datas[2];
+			if (attributeType.startsWith("{") && attributeType.endsWith("}")) {
+				String nominals = attributeType.substring(1, attributeType.length() - 1);
+				for (String nominal : nominals.split(",")) {
+					attribute.makeValue(nominal);
+				}
+			}
+			break;
+		}
+		case "@DATA": {
+			return -1;
+		}
+		}
+		return attributeIndex;
+	}
+
+	/**
+	 * 以内存映射模式解析文件
+	 * 
+	 * @param file
+	 * @param features
+	 * @return
+	 * @throws IOException
+	 */
+	private int parseFile(File file, Map<Integer, DataFeature<?>> features) throws IOException {
+		// 头部逐字节读取,记录数据开始的位置
+		long position = 0L;
+		int attributeIndex = 0;
+		try (InputStream stream = new BufferedInputStream(new FileInputStream(file))) {
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			while (attributeIndex >= 0) {
+				int data = stream.read();
+				if (data == -1) {
+					// 没有数据部分
+					return 0;
+				}
+				position++;
+				if (data != '\n') {
+					bytes.write(data);
+					continue;
+				}
+				String line = new String(bytes.toByteArray(), StandardCharsets.UTF_8);
+				bytes.reset();
+				if (StringUtility.isBlank(line) || line.startsWith("%")) {
+					continue;
+				}
+				attributeIndex = parseHeader(line, features, attributeIndex);
+			}
+		}
+		return parseData(file, position, features);
+	}
+
+}
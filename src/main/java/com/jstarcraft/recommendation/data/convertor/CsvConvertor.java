@@ -4,33 +4,69 @@ import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileReader;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.stream.IntStream;
 
 import org.apache.commons.csv.CSVFormat;
 import org.apache.commons.csv.CSVParser;
 import org.apache.commons.csv.CSVRecord;
 
 import com.jstarcraft.ai.data.exception.DataException;
+import com.jstarcraft.core.utility.ConversionUtility;
+import com.jstarcraft.recommendation.data.ContinuousFeature;
 import com.jstarcraft.recommendation.data.DataFeature;
 import com.jstarcraft.recommendation.data.DataSpace;
+import com.jstarcraft.recommendation.data.DiscreteAttribute;
+import com.jstarcraft.recommendation.data.DiscreteFeature;
 
 /**
  * Comma-Separated Values转换器
  * 
+ * <pre>
+ * chunkSize为0时通过BufferedReader与commons-csv逐行解析.
+ * chunkSize大于0时使用内存映射模式:
+ * 1.文件按照chunkSize切割为以换行对齐的块,每个块单独映射(支持超过2GB的文件);
+ * 2.块之间并行解析,每行直接扫描分隔符,离散字段在块内的字典中登记(只记录字节位置),连续字段解析为float,都保存到原始类型的列中;
+ * 3.按照块的顺序合并到DataSpace的特征,离散属性的索引按照首次出现的顺序制作,因此与逐行解析的结果一致.
+ * 内存映射模式按照UTF-8解码,使用\n或者\r\n换行,不支持引号.
+ * </pre>
+ * 
  * @author Birdy
  *
  */
 public class CsvConvertor extends FileConvertor<Integer> {
 
+	/** 10的幂(用于快速解析浮点数) */
+	private static final double[] POWERS = { 1E0, 1E1, 1E2, 1E3, 1E4, 1E5, 1E6, 1E7, 1E8 };
+
 	/** 分隔符 */
 	protected char delimiter;
 
+	/** 内存映射模式的块大小(字节),0表示逐行解析 */
+	protected int chunkSize;
+
 	public CsvConvertor(String name, char delimiter, String path, Map<String, Integer> fields) {
+		this(name, delimiter, path, fields, 0);
+	}
+
+	public CsvConvertor(String name, char delimiter, String path, Map<String, Integer> fields, int chunkSize) {
 		super(name, path, fields);
+		if (chunkSize < 0) {
+			throw new IllegalArgumentException("块大小不能小于0");
+		}
 		this.delimiter = delimiter;
+		this.chunkSize = chunkSize;
 	}
 
 	protected int parseData(BufferedReader buffer, Map<Integer, DataFeature<?>> features) throws IOException {
@@ -64,6 +100,10 @@ public class CsvConvertor extends FileConvertor<Integer> {
 				features.put(term.getValue(), space.getFeature(term.getKey()));
 			}
 			for (File file : files) {
+				if (chunkSize > 0) {
+					count += parseData(file, 0L, features);
+					continue;
+				}
 				try (FileReader reader = new FileReader(file); BufferedReader buffer = new BufferedReader(reader)) {
 					count += parseData(buffer, features);
 				}
@@ -75,4 +115,402 @@ public class CsvConvertor extends FileConvertor<Integer> {
 		}
 	}
 
+	/**
+	 * 块内的离散字典
+	 * 
+	 * <pre>
+	 * 开放寻址的哈希表,键为块内的字节区间,值为块内的索引(按照首次出现的顺序).
+	 * </pre>
+	 */
+	private static class ChunkDictionary {
+
+		private final ByteBuffer buffer;
+
+		/** 哈希表(块内索引+1,0表示空) */
+		private int[] table = new int[1024];
+
+		private int[] hashes = new int[256], offsets = new int[256], lengths = new int[256];
+
+		private int size;
+
+		private ChunkDictionary(ByteBuffer buffer) {
+			this.buffer = buffer;
+		}
+
+		private int makeIndex(int from, int to) {
+			int hash = 0;
+			for (int position = from; position < to; position++) {
+				hash = hash * 31 + buffer.get(position);
+			}
+			int length = to - from;
+			int mask = table.length - 1;
+			int slot = (hash ^ (hash >>> 16)) & mask;
+			while (table[slot] != 0) {
+				int index = table[slot] - 1;
+				if (hashes[index] == hash && lengths[index] == length && isEqual(offsets[index], from, length)) {
+					return index;
+				}
+				slot = (slot + 1) & mask;
+			}
+			int index = size++;
+			if (index == hashes.length) {
+				hashes = Arrays.copyOf(hashes, index * 2);
+				offsets = Arrays.copyOf(offsets, index * 2);
+				lengths = Arrays.copyOf(lengths, index * 2);
+			}
+			hashes[index] = hash;
+			offsets[index] = from;
+			lengths[index] = length;
+			table[slot] = index + 1;
+			if (size * 2 > table.length) {
+				table = new int[table.length * 2];
+				mask = table.length - 1;
+				for (int position = 0; position < size; position++) {
+					int code = hashes[position];
+					slot = (code ^ (code >>> 16)) & mask;
+					while (table[slot] != 0) {
+						slot = (slot + 1) & mask;
+					}
+					table[slot] = position + 1;
+				}
+			}
+			return index;
+		}
+
+		private boolean isEqual(int left, int right, int length) {
+			for (int position = 0; position < length; position++) {
+				if (buffer.get(left + position) != buffer.get(right + position)) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+	}
+
+	/**
+	 * 块的解析结果(按照特征的顺序保存原始类型的列)
+	 */
+	private static class ChunkData {
+
+		private int size;
+
+		/** 离散字段为块内索引,连续字段为null */
+		private int[][] discreteColumns;
+
+		/** 连续字段为数值,离散字段为null */
+		private float[][] continuousColumns;
+
+		private ChunkDictionary[] dictionaries;
+
+	}
+
+	/**
+	 * 以内存映射模式解析数据
+	 * 
+	 * @param file
+	 * @param position
+	 *            数据开始的位置(字节)
+	 * @param features
+	 * @return
+	 * @throws IOException
+	 */
+	protected int parseData(File file, long position, Map<Integer, DataFeature<?>> features) throws IOException {
+		// 按照逐行解析时的顺序整理特征
+		int size = features.size();
+		int[] columns = new int[size];
+		DataFeature<?>[] orders = new DataFeature<?>[size];
+		int maximum = 0;
+		{
+			int order = 0;
+			for (Entry<Integer, DataFeature<?>> term : features.entrySet()) {
+				columns[order] = term.getKey();
+				orders[order] = term.getValue();
+				maximum = Math.max(maximum, term.getKey());
+				order++;
+			}
+		}
+		// 列与特征顺序的映射
+		int[] positions = new int[maximum + 1];
+		Arrays.fill(positions, -1);
+		for (int order = 0; order < size; order++) {
+			positions[columns[order]] = order;
+		}
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			long[] boundaries = getBoundaries(channel, position);
+			int numberOfChunks = boundaries.length - 1;
+			// 每批解析的块数量(限制内存)
+			int numberOfBatches = Runtime.getRuntime().availableProcessors() * 2;
+			int count = 0;
+			for (int from = 0; from < numberOfChunks; from += numberOfBatches) {
+				int to = Math.min(from + numberOfBatches, numberOfChunks);
+				ChunkData[] datas = new ChunkData[to - from];
+				int offset = from;
+				IntStream.range(from, to).parallel().forEach((chunk) -> {
+					try {
+						MappedByteBuffer buffer = channel.map(MapMode.READ_ONLY, boundaries[chunk], boundaries[chunk + 1] - boundaries[chunk]);
+						datas[chunk - offset] = parseChunk(buffer, size, positions, orders);
+					} catch (IOException exception) {
+						throw new UncheckedIOException(exception);
+					}
+				});
+				for (ChunkData data : datas) {
+					count += mergeChunk(data, orders);
+				}
+			}
+			return count;
+		}
+	}
+
+	/**
+	 * 获取以换行对齐的块边界
+	 */
+	private long[] getBoundaries(FileChannel channel, long position) throws IOException {
+		long length = channel.size();
+		long[] boundaries = new long[(int) ((length - position) / chunkSize) + 2];
+		int count = 0;
+		boundaries[count++] = position;
+		ByteBuffer buffer = ByteBuffer.allocate(4096);
+		for (long boundary = position + chunkSize; boundary < length; boundary += chunkSize) {
+			long cursor = Math.max(boundary, boundaries[count - 1]);
+			// 从上一个字节开始寻找换行
+			cursor--;
+			long newline = -1L;
+			while (newline < 0L && cursor < length) {
+				buffer.clear();
+				int read = channel.read(buffer, cursor);
+				if (read <= 0) {
+					break;
+				}
+				for (int index = 0; index < read; index++) {
+					if (buffer.get(index) == '\n') {
+						newline = cursor + index;
+						break;
+					}
+				}
+				cursor += read;
+			}
+			if (newline < 0L) {
+				break;
+			}
+			if (newline + 1 > boundaries[count - 1] && newline + 1 < length) {
+				boundaries[count++] = newline + 1;
+			}
+		}
+		boundaries[count++] = length;
+		return Arrays.copyOf(boundaries, count);
+	}
+
+	/**
+	 * 解析块(不分配逐行与逐字段的对象)
+	 */
+	private ChunkData parseChunk(ByteBuffer buffer, int size, int[] positions, DataFeature<?>[] orders) {
+		int capacity = 1024;
+		ChunkData data = new ChunkData();
+		data.discreteColumns = new int[size][];
+		data.continuousColumns = new float[size][];
+		data.dictionaries = new ChunkDictionary[size];
+		for (int order = 0; order < size; order++) {
+			if (orders[order] instanceof DiscreteFeature) {
+				data.discreteColumns[order] = new int[capacity];
+				data.dictionaries[order] = new ChunkDictionary(buffer);
+			} else {
+				data.continuousColumns[order] = new float[capacity];
+			}
+		}
+		byte separator = (byte) delimiter;
+		int limit = buffer.limit();
+		int row = 0;
+		int cursor = 0;
+		while (cursor < limit) {
+			// 寻找行的结束位置并统计字段数量
+			int end = cursor, count = 1;
+			while (end < limit) {
+				byte character = buffer.get(end);
+				if (character == '\n' || character == '\r') {
+					break;
+				}
+				if (character == separator) {
+					count++;
+				}
+				end++;
+			}
+			int next = end;
+			if (next < limit) {
+				next += buffer.get(next) == '\r' && next + 1 < limit && buffer.get(next + 1) == '\n' ? 2 : 1;
+			}
+			// 字段数量不足的行被忽略
+			if (count >= size) {
+				if (row == capacity) {
+					capacity *= 2;
+					for (int order = 0; order < size; order++) {
+						if (data.discreteColumns[order] != null) {
+							data.discreteColumns[order] = Arrays.copyOf(data.discreteColumns[order], capacity);
+						} else {
+							data.continuousColumns[order] = Arrays.copyOf(data.continuousColumns[order], capacity);
+						}
+					}
+				}
+				int column = 0, found = 0;
+				for (int from = cursor, position = cursor; position <= end; position++) {
+					if (position < end && buffer.get(position) != separator) {
+						continue;
+					}
+					if (column < positions.length && positions[column] >= 0) {
+						int order = positions[column];
+						if (data.dictionaries[order] != null) {
+							data.discreteColumns[order][row] = data.dictionaries[order].makeIndex(from, position);
+						} else {
+							data.continuousColumns[order][row] = parseFloat(buffer, from, position);
+						}
+						found++;
+					}
+					column++;
+					from = position + 1;
+				}
+				if (found < size) {
+					throw new IllegalArgumentException("字段缺失");
+				}
+				row++;
+			}
+			cursor = next;
+		}
+		data.size = row;
+		return data;
+	}
+
+	/**
+	 * 按照行的顺序把块合并到特征
+	 */
+	private int mergeChunk(ChunkData data, DataFeature<?>[] orders) {
+		int size = orders.length;
+		// 块内索引与属性索引的映射(-1表示尚未制作)
+		int[][] indexes = new int[size][];
+		for (int order = 0; order < size; order++) {
+			if (data.dictionaries[order] != null) {
+				indexes[order] = new int[data.dictionaries[order].size];
+				Arrays.fill(indexes[order], -1);
+			}
+		}
+		for (int row = 0; row < data.size; row++) {
+			for (int order = 0; order < size; order++) {
+				if (indexes[order] != null) {
+					DiscreteFeature feature = (DiscreteFeature) orders[order];
+					int key = data.discreteColumns[order][row];
+					int index = indexes[order][key];
+					if (index < 0) {
+						DiscreteAttribute attribute = feature.getAttribute();
+						ChunkDictionary dictionary = data.dictionaries[order];
+						int offset = dictionary.offsets[key];
+						index = attribute.makeValue(dictionary.buffer, offset, offset + dictionary.lengths[key]);
+						indexes[order][key] = index;
+					}
+					feature.associateIndex(index);
+				} else {
+					ContinuousFeature feature = (ContinuousFeature) orders[order];
+					feature.associateValue(data.continuousColumns[order][row]);
+				}
+			}
+		}
+		return data.size;
+	}
+
+	/**
+	 * 解析浮点数
+	 * 
+	 * <pre>
+	 * 有效数字不超过7位且指数不超过8的十进制数直接计算(结果与Float.valueOf一致),
+	 * 其它情况(空白,NaN,Infinity,更高的精度)通过ConversionUtility转换.
+	 * </pre>
+	 */
+	private static float parseFloat(ByteBuffer buffer, int from, int to) {
+		float value = parseDecimal(buffer, from, to);
+		if (Float.isNaN(value)) {
+			byte[] bytes = new byte[to - from];
+			for (int position = 0; position < bytes.length; position++) {
+				bytes[position] = buffer.get(from + position);
+			}
+			Float data = ConversionUtility.convert(new String(bytes, StandardCharsets.UTF_8), Float.class);
+			value = data;
+		}
+		return value;
+	}
+
+	/**
+	 * 快速解析十进制数(无法快速解析时返回NaN)
+	 */
+	private static float parseDecimal(ByteBuffer buffer, int from, int to) {
+		int position = from;
+		boolean negative = false;
+		if (position < to && (buffer.get(position) == '-' || buffer.get(position) == '+')) {
+			negative = buffer.get(position) == '-';
+			position++;
+		}
+		long mantissa = 0L;
+		int digits = 0, scale = 0;
+		boolean dot = false, valid = false;
+		for (; position < to; position++) {
+			byte character = buffer.get(position);
+			if (character >= '0' && character <= '9') {
+				valid = true;
+				if (mantissa == 0L && character == '0') {
+					if (dot) {
+						scale++;
+					}
+					continue;
+				}
+				if (++digits > 7) {
+					return Float.NaN;
+				}
+				mantissa = mantissa * 10L + (character - '0');
+				if (dot) {
+					scale++;
+				}
+			} else if (character == '.' && !dot) {
+				dot = true;
+			} else {
+				break;
+			}
+		}
+		if (!valid) {
+			return Float.NaN;
+		}
+		if (position < to && (buffer.get(position) == 'e' || buffer.get(position) == 'E')) {
+			position++;
+			boolean minus = false;
+			if (position < to && (buffer.get(position) == '-' || buffer.get(position) == '+')) {
+				minus = buffer.get(position) == '-';
+				position++;
+			}
+			int exponent = 0;
+			boolean number = false;
+			for (; position < to; position++) {
+				byte character = buffer.get(position);
+				if (character < '0' || character > '9' || exponent > 100) {
+					return Float.NaN;
+				}
+				exponent = exponent * 10 + (character - '0');
+				number = true;
+			}
+			if (!number) {
+				return Float.NaN;
+			}
+			scale += minus ? exponent : -exponent;
+		}
+		if (position != to) {
+			return Float.NaN;
+		}
+		double value;
+		if (mantissa == 0L) {
+			value = 0D;
+		} else if (scale >= 0 && scale < POWERS.length) {
+			value = mantissa / POWERS[scale];
+		} else if (scale < 0 && -scale < POWERS.length) {
+			value = mantissa * POWERS[-scale];
+		} else {
+			return Float.NaN;
+		}
+		return (float) (negative ? -value : value);
+	}
+
 }
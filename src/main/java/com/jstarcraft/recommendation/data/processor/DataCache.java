@@ -0,0 +1,245 @@
+package com.jstarcraft.recommendation.data.processor;
+
+import java.nio.IntBuffer;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import com.jstarcraft.ai.math.structure.matrix.SparseMatrix;
+import com.jstarcraft.ai.math.structure.vector.SparseVector;
+import com.jstarcraft.recommendation.data.accessor.SampleAccessor;
+
+import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
+import it.unimi.dsi.fastutil.ints.IntSet;
+import it.unimi.dsi.fastutil.ints.IntSets;
+
+/**
+ * 数据缓存
+ *
+ * <pre>
+ * 以折(标记器)为范围缓存准备阶段的数据,使任务,推荐器与评估器共享同一份分页,稀疏表与矩阵.
+ * 行向量,列向量,列的元素数量(物品流行度)与行的列集合(用户物品集合)在第一次使用时构建.
+ * 标记器作为弱键,随着折的结束自动失效.
+ * 注意:缓存的数据是共享的,分页,位置,流行度与集合只提供只读视图;矩阵与向量只能读取,需要修改时先复制.
+ * </pre>
+ *
+ * @author Birdy
+ *
+ */
+public class DataCache {
+
+	private static final Map<SampleAccessor, Map<String, DataCache>> caches = new WeakHashMap<>();
+
+	/** 行数量, 列数量 */
+	private final int rowSize, columnSize;
+
+	/** 按照行匹配并且按照特征排序的分页与位置 */
+	private final int[] paginations, positions;
+
+	/** 稀疏表 */
+	private final SparseTable table;
+
+	/** 稀疏矩阵(延迟构建) */
+	private volatile SparseMatrix matrix;
+
+	/** 行向量, 列向量(延迟构建) */
+	private volatile SparseVector[] rowVectors, columnVectors;
+
+	/** 每列的元素数量(延迟构建) */
+	private volatile int[] columnScopes;
+
+	/** 每行的列集合(延迟构建) */
+	private volatile IntSet[] rowSets;
+
+	/**
+	 * 注意:不能持有标记器,否则弱键无法释放.
+	 */
+	private DataCache(SampleAccessor marker, int rowDimension, int columnDimension, DataMerger merger) {
+		rowSize = marker.getDiscreteAttribute(rowDimension).getSize();
+		columnSize = marker.getDiscreteAttribute(columnDimension).getSize();
+		paginations = new int[rowSize + 1];
+		positions = new int[marker.getSize()];
+		for (int index = 0; index < marker.getSize(); index++) {
+			positions[index] = index;
+		}
+		DataMatcher matcher = DataMatcher.discreteOf(marker, rowDimension);
+		matcher.match(paginations, positions);
+		DataSorter sorter = DataSorter.featureOf(marker);
+		sorter.sort(paginations, positions);
+		table = SparseTable.valueOf(rowSize, columnSize, paginations, positions, (position) -> marker.getDiscreteFeature(columnDimension, position), marker::getMark, merger);
+	}
+
+	/**
+	 * 获取缓存
+	 *
+	 * @param marker
+	 * @param rowDimension
+	 *            行维度
+	 * @param columnDimension
+	 *            列维度
+	 * @param merger
+	 *            合并类型(参考{@link DataMerger#nameOf(String)})
+	 * @return
+	 */
+	public static DataCache getCache(SampleAccessor marker, int rowDimension, int columnDimension, String merger) {
+		Map<String, DataCache> fold;
+		synchronized (caches) {
+			fold = caches.get(marker);
+			if (fold == null) {
+				fold = new HashMap<>();
+				caches.put(marker, fold);
+			}
+		}
+		String key = rowDimension + ":" + columnDimension + ":" + merger;
+		synchronized (fold) {
+			DataCache cache = fold.get(key);
+			if (cache == null) {
+				cache = new DataCache(marker, rowDimension, columnDimension, DataMerger.nameOf(merger));
+				fold.put(key, cache);
+			}
+			return cache;
+		}
+	}
+
+	public int getRowSize() {
+		return rowSize;
+	}
+
+	public int getColumnSize() {
+		return columnSize;
+	}
+
+	/**
+	 * 获取分页(只读视图)
+	 *
+	 * @return
+	 */
+	public IntBuffer getPaginations() {
+		return IntBuffer.wrap(paginations).asReadOnlyBuffer();
+	}
+
+	/**
+	 * 获取位置(只读视图,每页之内按照特征排序)
+	 *
+	 * @return
+	 */
+	public IntBuffer getPositions() {
+		return IntBuffer.wrap(positions).asReadOnlyBuffer();
+	}
+
+	/**
+	 * 获取稀疏表
+	 *
+	 * @return
+	 */
+	public SparseTable getTable() {
+		return table;
+	}
+
+	/**
+	 * 获取稀疏矩阵(只读,与稀疏表共享数组,需要修改时使用SparseMatrix.copyOf)
+	 *
+	 * @return
+	 */
+	public SparseMatrix getMatrix() {
+		if (matrix == null) {
+			synchronized (this) {
+				if (matrix == null) {
+					matrix = table.toMatrix();
+				}
+			}
+		}
+		return matrix;
+	}
+
+	/**
+	 * 获取行向量(只读)
+	 *
+	 * @param rowIndex
+	 * @return
+	 */
+	public SparseVector getRowVector(int rowIndex) {
+		if (rowVectors == null) {
+			synchronized (this) {
+				if (rowVectors == null) {
+					SparseMatrix matrix = getMatrix();
+					SparseVector[] vectors = new SparseVector[rowSize];
+					for (int index = 0; index < rowSize; index++) {
+						vectors[index] = matrix.getRowVector(index);
+					}
+					rowVectors = vectors;
+				}
+			}
+		}
+		return rowVectors[rowIndex];
+	}
+
+	/**
+	 * 获取列向量(只读)
+	 *
+	 * @param columnIndex
+	 * @return
+	 */
+	public SparseVector getColumnVector(int columnIndex) {
+		if (columnVectors == null) {
+			synchronized (this) {
+				if (columnVectors == null) {
+					SparseMatrix matrix = getMatrix();
+					SparseVector[] vectors = new SparseVector[columnSize];
+					for (int index = 0; index < columnSize; index++) {
+						vectors[index] = matrix.getColumnVector(index);
+					}
+					columnVectors = vectors;
+				}
+			}
+		}
+		return columnVectors[columnIndex];
+	}
+
+	/**
+	 * 获取每列的元素数量(只读视图,列为物品时即物品流行度)
+	 *
+	 * @return
+	 */
+	public IntBuffer getColumnScopes() {
+		if (columnScopes == null) {
+			synchronized (this) {
+				if (columnScopes == null) {
+					int[] scopes = new int[columnSize];
+					for (int index = 0; index < columnSize; index++) {
+						scopes[index] = table.getColumnScope(index);
+					}
+					columnScopes = scopes;
+				}
+			}
+		}
+		return IntBuffer.wrap(columnScopes).asReadOnlyBuffer();
+	}
+
+	/**
+	 * 获取指定行的列集合(只读,行为用户时即用户物品集合)
+	 *
+	 * @param rowIndex
+	 * @return
+	 */
+	public IntSet getRowSet(int rowIndex) {
+		if (rowSets == null) {
+			synchronized (this) {
+				if (rowSets == null) {
+					IntSet[] sets = new IntSet[rowSize];
+					for (int index = 0; index < rowSize; index++) {
+						IntSet set = new IntOpenHashSet();
+						// 按照列索引升序插入,与遍历行向量构建的集合一致
+						for (int position = table.getRowPoint(index), end = table.getRowPoint(index + 1); position < end; position++) {
+							set.add(table.getColumnIndex(position));
+						}
+						sets[index] = IntSets.unmodifiable(set);
+					}
+					rowSets = sets;
+				}
+			}
+		}
+		return rowSets[rowIndex];
+	}
+
+}
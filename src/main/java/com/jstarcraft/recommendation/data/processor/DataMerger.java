@@ -0,0 +1,64 @@
+package com.jstarcraft.recommendation.data.processor;
+
+import com.jstarcraft.recommendation.exception.RecommendationException;
+
+/**
+ * 数据合并器
+ *
+ * <pre>
+ * 用于处理同一个行列出现多个值的冲突.
+ * </pre>
+ *
+ * @author Birdy
+ *
+ */
+public interface DataMerger {
+
+	/** 保留最后的值 */
+	public final static DataMerger LAST_MERGER = (value, merge, count) -> merge;
+
+	/** 求和 */
+	public final static DataMerger SUM_MERGER = (value, merge, count) -> value + merge;
+
+	/** 最大值 */
+	public final static DataMerger MAXIMUM_MERGER = (value, merge, count) -> value > merge ? value : merge;
+
+	/** 平均值 */
+	public final static DataMerger MEAN_MERGER = (value, merge, count) -> value + (merge - value) / count;
+
+	/**
+	 * 根据名称获取合并器
+	 *
+	 * @param name
+	 *            (last/sum/maximum/mean)
+	 * @return
+	 */
+	public static DataMerger nameOf(String name) {
+		switch (name) {
+		case "last":
+			return LAST_MERGER;
+		case "sum":
+			return SUM_MERGER;
+		case "maximum":
+			return MAXIMUM_MERGER;
+		case "mean":
+			return MEAN_MERGER;
+		default:
+			throw new RecommendationException("不支持的合并类型");
+		}
+	}
+
+	/**
+	 * 合并
+	 *
+	 * @param value
+	 *            已有的值
+	 * @param merge
+	 *            新的值
+	 * @param count
+	 *            包括新的值在内的数量
+	 * @return
+	 */
+	float merge(float value, float merge, int count);
+
+}
@@ -1,7 +1,12 @@
 package com.jstarcraft.recommendation.data.processor;
 
-import com.jstarcraft.core.utility.RandomUtility;
+import java.util.Arrays;
+import java.util.function.IntBinaryOperator;
+import java.util.stream.IntStream;
+
 import com.jstarcraft.recommendation.data.DataAccessor;
+import com.jstarcraft.recommendation.utility.RandomUtility;
+import com.jstarcraft.recommendation.utility.SortUtility;
 
 /**
  * 数据排序器
@@ -21,54 +26,43 @@ public interface DataSorter {
 	/**
 	 * 按照所有特征排序
 	 * 
+	 * <pre>
+	 * 所有排序器在特征相同时的顺序与原有的逐对交换排序一致(参考{@link SortUtility#exchangeSort}).
+	 * </pre>
+	 * 
 	 * @param accessor
 	 * @return
 	 */
 	public static DataSorter featureOf(DataAccessor<?> accessor) {
+		IntBinaryOperator comparator = (left, right) -> {
+			for (int dimension = 0, order = accessor.getDiscreteOrder(); dimension < order; dimension++) {
+				int leftValue = accessor.getDiscreteFeature(dimension, left);
+				int rightValue = accessor.getDiscreteFeature(dimension, right);
+				if (leftValue != rightValue) {
+					return leftValue > rightValue ? 1 : -1;
+				}
+			}
+			for (int dimension = 0, order = accessor.getContinuousOrder(); dimension < order; dimension++) {
+				double leftValue = accessor.getContinuousFeature(dimension, left);
+				double rightValue = accessor.getContinuousFeature(dimension, right);
+				double value = leftValue - rightValue;
+				if (value != 0D) {
+					return leftValue > rightValue ? 1 : -1;
+				}
+			}
+			return 0;
+		};
 		return (paginations, positions) -> {
-			for (int index = 0, size = paginations.length - 1; index < size; index++) {
+			// 每页之间互不影响,通过fork/join并行排序
+			IntStream.range(0, paginations.length - 1).parallel().forEach((index) -> {
 				int from = paginations[index], to = paginations[index + 1];
-				for (int left = from; left < to - 1; left++) {
-					for (int right = left + 1; right < to; right++) {
-						// TODO 注意:此处存在0的情况.
-						boolean change = false;
-						for (int dimension = 0, order = accessor.getDiscreteOrder(); dimension < order; dimension++) {
-							int leftValue = accessor.getDiscreteFeature(dimension, positions[left]);
-							int rightValue = accessor.getDiscreteFeature(dimension, positions[right]);
-							int value = leftValue - rightValue;
-							if (value != 0) {
-								if (leftValue > rightValue) {
-									positions[left] ^= positions[right];
-									positions[right] ^= positions[left];
-									positions[left] ^= positions[right];
-								}
-								change = true;
-								break;
-							}
-						}
-						if (change) {
-							continue;
-						}
-						for (int dimension = 0, order = accessor.getContinuousOrder(); dimension < order; dimension++) {
-							double leftValue = accessor.getContinuousFeature(dimension, positions[left]);
-							double rightValue = accessor.getContinuousFeature(dimension, positions[right]);
-							double value = leftValue - rightValue;
-							if (value != 0D) {
-								if (leftValue > rightValue) {
-									positions[left] ^= positions[right];
-									positions[right] ^= positions[left];
-									positions[left] ^= positions[right];
-								}
-								change = true;
-								break;
-							}
-						}
-						if (change) {
-							continue;
-						}
-					}
+				if (to - from < 2) {
+					return;
 				}
-			}
+				int[] values = Arrays.copyOfRange(positions, from, to);
+				SortUtility.exchangeSort(SortUtility.rankOf(values, comparator), values);
+				System.arraycopy(values, 0, positions, from, to - from);
+			});
 		};
 	}
 
@@ -81,21 +75,20 @@ public interface DataSorter {
 	 */
 	public static DataSorter discreteOf(DataAccessor<?> accessor, int dimension) {
 		return (paginations, positions) -> {
-			for (int index = 0, size = paginations.length - 1; index < size; index++) {
+			// 每页之间互不影响,通过fork/join并行排序
+			IntStream.range(0, paginations.length - 1).parallel().forEach((index) -> {
 				int from = paginations[index], to = paginations[index + 1];
-				for (int left = from; left < to; left++) {
-					for (int right = left + 1; right < to; right++) {
-						// TODO 注意:此处存在0的情况.
-						int leftValue = accessor.getDiscreteFeature(dimension, positions[left]);
-						int rightValue = accessor.getDiscreteFeature(dimension, positions[right]);
-						if (leftValue > rightValue) {
-							positions[left] ^= positions[right];
-							positions[right] ^= positions[left];
-							positions[left] ^= positions[right];
-						}
-					}
+				if (to - from < 2) {
+					return;
 				}
-			}
+				int[] keys = new int[to - from];
+				int[] values = Arrays.copyOfRange(positions, from, to);
+				for (int cursor = 0; cursor < keys.length; cursor++) {
+					keys[cursor] = accessor.getDiscreteFeature(dimension, values[cursor]);
+				}
+				SortUtility.exchangeSort(keys, values);
+				System.arraycopy(values, 0, positions, from, to - from);
+			});
 		};
 	}
 
@@ -108,21 +101,20 @@ public interface DataSorter {
 	 */
 	public static DataSorter continuousOf(DataAccessor<?> accessor, int dimension) {
 		return (paginations, positions) -> {
-			for (int index = 0, size = paginations.length - 1; index < size; index++) {
+			// 每页之间互不影响,通过fork/join并行排序
+			IntStream.range(0, paginations.length - 1).parallel().forEach((index) -> {
 				int from = paginations[index], to = paginations[index + 1];
-				for (int left = from; left < to; left++) {
-					for (int right = left + 1; right < to; right++) {
-						// TODO 注意:此处存在0的情况.
-						double leftValue = accessor.getContinuousFeature(dimension, positions[left]);
-						double rightValue = accessor.getContinuousFeature(dimension, positions[right]);
-						if (leftValue > rightValue) {
-							positions[left] ^= positions[right];
-							positions[right] ^= positions[left];
-							positions[left] ^= positions[right];
-						}
-					}
+				if (to - from < 2) {
+					return;
 				}
-			}
+				float[] keys = new float[to - from];
+				int[] values = Arrays.copyOfRange(positions, from, to);
+				for (int cursor = 0; cursor < keys.length; cursor++) {
+					keys[cursor] = accessor.getContinuousFeature(dimension, values[cursor]);
+				}
+				SortUtility.exchangeSort(SortUtility.rankOf(keys), values);
+				System.arraycopy(values, 0, positions, from, to - from);
+			});
 		};
 	}
 
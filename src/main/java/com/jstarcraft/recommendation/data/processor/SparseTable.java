@@ -0,0 +1,287 @@
+package com.jstarcraft.recommendation.data.processor;
+
+import java.util.Arrays;
+import java.util.function.IntUnaryOperator;
+
+import com.jstarcraft.ai.math.structure.matrix.SparseMatrix;
+import com.jstarcraft.recommendation.utility.SortUtility;
+
+/**
+ * 稀疏表
+ *
+ * <pre>
+ * 基于原始类型数组(CSR与CSC)的只读表,直接由{@link DataMatcher}的paginations/positions构建.
+ * 只提供原始类型的访问方法,通过{@link #toMatrix}由数组直接构建SparseMatrix,避免为每个元素装箱.
+ * </pre>
+ *
+ * @author Birdy
+ *
+ */
+public class SparseTable {
+
+	/** 行数量, 列数量, 元素数量 */
+	private int rowSize, columnSize, elementSize;
+
+	/** 按行存储(CSR) */
+	private int[] rowPoints, rowIndexes;
+
+	private float[] rowValues;
+
+	/** 按列存储(CSC) */
+	private int[] columnPoints, columnIndexes;
+
+	private float[] columnValues;
+
+	/** 列存储的位置到行存储的位置的映射 */
+	private int[] columnPositions;
+
+	/**
+	 * 位置到值的映射
+	 */
+	public interface ValueFunction {
+
+		float apply(int position);
+
+	}
+
+	private SparseTable() {
+	}
+
+	/**
+	 * 根据分页构建稀疏表
+	 *
+	 * @param rowSize
+	 * @param columnSize
+	 * @param paginations
+	 *            分页(第index页的所有位置属于第index行)
+	 * @param positions
+	 *            位置
+	 * @param columnFunction
+	 *            位置到列的映射
+	 * @param valueFunction
+	 *            位置到值的映射
+	 * @param merger
+	 *            同一行列出现多个值时(按照positions的顺序)的合并方式
+	 * @return
+	 */
+	public static SparseTable valueOf(int rowSize, int columnSize, int[] paginations, int[] positions, IntUnaryOperator columnFunction, ValueFunction valueFunction, DataMerger merger) {
+		if (paginations.length != rowSize + 1) {
+			throw new IllegalArgumentException();
+		}
+		SparseTable instance = new SparseTable();
+		instance.rowSize = rowSize;
+		instance.columnSize = columnSize;
+		int size = paginations[rowSize] - paginations[0];
+		int[] rowPoints = new int[rowSize + 1];
+		int[] rowIndexes = new int[size];
+		float[] rowValues = new float[size];
+		int[] columnCounts = new int[columnSize + 1];
+		int cursor = 0;
+		for (int rowIndex = 0; rowIndex < rowSize; rowIndex++) {
+			int from = paginations[rowIndex], to = paginations[rowIndex + 1];
+			int length = to - from;
+			int[] keys = new int[length];
+			int[] orders = new int[length];
+			for (int index = 0; index < length; index++) {
+				keys[index] = columnFunction.applyAsInt(positions[from + index]);
+				orders[index] = index;
+			}
+			// 稳定排序,相同的列保持positions的顺序
+			SortUtility.radixSort(keys, orders);
+			for (int index = 0; index < length;) {
+				int columnIndex = keys[index];
+				if (columnIndex < 0 || columnIndex >= columnSize) {
+					throw new IndexOutOfBoundsException();
+				}
+				float value = valueFunction.apply(positions[from + orders[index]]);
+				int count = 1;
+				for (index++; index < length && keys[index] == columnIndex; index++) {
+					value = merger.merge(value, valueFunction.apply(positions[from + orders[index]]), ++count);
+				}
+				rowIndexes[cursor] = columnIndex;
+				rowValues[cursor] = value;
+				columnCounts[columnIndex + 1]++;
+				cursor++;
+			}
+			rowPoints[rowIndex + 1] = cursor;
+		}
+		if (cursor < size) {
+			rowIndexes = Arrays.copyOf(rowIndexes, cursor);
+			rowValues = Arrays.copyOf(rowValues, cursor);
+		}
+		size = cursor;
+		// 由CSR转换为CSC
+		for (int columnIndex = 0; columnIndex < columnSize; columnIndex++) {
+			columnCounts[columnIndex + 1] += columnCounts[columnIndex];
+		}
+		int[] columnPoints = Arrays.copyOf(columnCounts, columnSize + 1);
+		int[] columnIndexes = new int[size];
+		float[] columnValues = new float[size];
+		int[] columnPositions = new int[size];
+		for (int rowIndex = 0; rowIndex < rowSize; rowIndex++) {
+			for (int index = rowPoints[rowIndex], end = rowPoints[rowIndex + 1]; index < end; index++) {
+				int position = columnCounts[rowIndexes[index]]++;
+				columnIndexes[position] = rowIndex;
+				columnValues[position] = rowValues[index];
+				columnPositions[position] = index;
+			}
+		}
+		instance.elementSize = size;
+		instance.rowPoints = rowPoints;
+		instance.rowIndexes = rowIndexes;
+		instance.rowValues = rowValues;
+		instance.columnPoints = columnPoints;
+		instance.columnIndexes = columnIndexes;
+		instance.columnValues = columnValues;
+		instance.columnPositions = columnPositions;
+		return instance;
+	}
+
+	/**
+	 * 转换为稀疏矩阵
+	 *
+	 * <pre>
+	 * 直接由CSR/CSC数组构建(值按照行存储,列存储通过位置映射共享),不逐个装箱.
+	 * 矩阵与稀疏表共享数组(不复制),所以缓存的矩阵只能读取,需要修改时先复制.
+	 * </pre>
+	 *
+	 * @return
+	 */
+	public SparseMatrix toMatrix() {
+		return SparseMatrix.valueOf(rowSize, columnSize, rowPoints, rowIndexes, columnPoints, columnIndexes, columnPositions, rowValues);
+	}
+
+	public int getRowSize() {
+		return rowSize;
+	}
+
+	public int getColumnSize() {
+		return columnSize;
+	}
+
+	/**
+	 * 获取指定行的元素数量
+	 * 
+	 * @param rowIndex
+	 * @return
+	 */
+	public int getRowScope(int rowIndex) {
+		return rowPoints[rowIndex + 1] - rowPoints[rowIndex];
+	}
+
+	/**
+	 * 获取指定列的元素数量
+	 * 
+	 * @param columnIndex
+	 * @return
+	 */
+	public int getColumnScope(int columnIndex) {
+		return columnPoints[columnIndex + 1] - columnPoints[columnIndex];
+	}
+
+	/**
+	 * 获取指定行在按行存储中的起始位置(指定行的范围为[getRowPoint(rowIndex), getRowPoint(rowIndex + 1)))
+	 * 
+	 * @param rowIndex
+	 * @return
+	 */
+	public int getRowPoint(int rowIndex) {
+		return rowPoints[rowIndex];
+	}
+
+	/**
+	 * 获取按行存储中指定位置的列索引(不复制数组)
+	 * 
+	 * @param position
+	 * @return
+	 */
+	public int getColumnIndex(int position) {
+		return rowIndexes[position];
+	}
+
+	/**
+	 * 获取指定行的列索引(升序)
+	 * 
+	 * @param rowIndex
+	 * @return
+	 */
+	public int[] getColumnIndexes(int rowIndex) {
+		return Arrays.copyOfRange(rowIndexes, rowPoints[rowIndex], rowPoints[rowIndex + 1]);
+	}
+
+	/**
+	 * 获取指定列的行索引(升序)
+	 * 
+	 * @param columnIndex
+	 * @return
+	 */
+	public int[] getRowIndexes(int columnIndex) {
+		return Arrays.copyOfRange(columnIndexes, columnPoints[columnIndex], columnPoints[columnIndex + 1]);
+	}
+
+	/**
+	 * 获取元素数量
+	 * 
+	 * @return
+	 */
+	public int getElementSize() {
+		return elementSize;
+	}
+
+	/**
+	 * 获取指定列在按列存储中的起始位置(指定列的范围为[getColumnPoint(columnIndex), getColumnPoint(columnIndex + 1)))
+	 * 
+	 * @param columnIndex
+	 * @return
+	 */
+	public int getColumnPoint(int columnIndex) {
+		return columnPoints[columnIndex];
+	}
+
+	/**
+	 * 获取按列存储中指定位置的行索引(不复制数组)
+	 * 
+	 * @param position
+	 * @return
+	 */
+	public int getRowIndex(int position) {
+		return columnIndexes[position];
+	}
+
+	/**
+	 * 获取按行存储中指定位置的值
+	 * 
+	 * @param position
+	 * @return
+	 */
+	public float getRowValue(int position) {
+		return rowValues[position];
+	}
+
+	/**
+	 * 获取按列存储中指定位置的值
+	 * 
+	 * @param position
+	 * @return
+	 */
+	public float getColumnValue(int position) {
+		return columnValues[position];
+	}
+
+	/**
+	 * 获取指定行列在按行存储中的位置
+	 * 
+	 * @param rowIndex
+	 * @param columnIndex
+	 * @return 不存在时为-1
+	 */
+	public int getPosition(int rowIndex, int columnIndex) {
+		if (rowIndex < 0 || rowIndex >= rowSize) {
+			return -1;
+		}
+		int from = rowPoints[rowIndex], to = rowPoints[rowIndex + 1];
+		int position = Arrays.binarySearch(rowIndexes, from, to, columnIndex);
+		return position < 0 ? -1 : position;
+	}
+
+}
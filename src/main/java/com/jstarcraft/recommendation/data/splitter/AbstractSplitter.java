@@ -0,0 +1,180 @@
+package com.jstarcraft.recommendation.data.splitter;
+
+import java.util.Arrays;
+
+import com.jstarcraft.ai.utility.IntegerArray;
+import com.jstarcraft.recommendation.data.accessor.InstanceAccessor;
+import com.jstarcraft.recommendation.data.processor.DataMatcher;
+import com.jstarcraft.recommendation.data.processor.DataSorter;
+
+/**
+ * 抽象处理器
+ *
+ * <pre>
+ * 子类在构造时一次遍历把每个位置分配到折(byte[]),并且统计每个折的测试数量,未分配的位置只用于训练.
+ * 第index个折的测试引用为分配到index的位置,训练引用为其余位置({@link #TRAIN}总是属于训练).
+ * 引用在获取时按照统计的数量预分配,不保存在处理器中.
+ * 分组的子类通过{@link #order(int[])}保存分组并且排序之后的位置,引用按照此顺序(每个分组内按照排序字段)生成,
+ * 否则按照位置升序生成,所以内存为每个位置一个字节(分组时再加上每个位置一个整数).
+ * 获取引用是只读操作,可以并发获取不同折的引用.
+ * </pre>
+ *
+ * @author Birdy
+ *
+ */
+public abstract class AbstractSplitter implements DataSplitter {
+
+	/** 只用于训练的位置 */
+	protected static final byte TRAIN = -1;
+
+	protected final InstanceAccessor dataModel;
+
+	/** 折数量 */
+	private final int number;
+
+	/** 每个位置所属的折 */
+	private final byte[] folds;
+
+	/** 每个折的测试数量 */
+	private final int[] counts;
+
+	/** 引用的生成顺序(为null时按照位置升序) */
+	private int[] orders;
+
+	protected AbstractSplitter(InstanceAccessor model, int number) {
+		if (number < 1 || number > Byte.MAX_VALUE) {
+			throw new IllegalArgumentException("折数量必须在1到" + Byte.MAX_VALUE + "之间");
+		}
+		this.dataModel = model;
+		this.number = number;
+		this.folds = new byte[model.getSize()];
+		// 默认所有位置只用于训练
+		Arrays.fill(folds, TRAIN);
+		this.counts = new int[number];
+	}
+
+	/**
+	 * 按照匹配字段分组
+	 *
+	 * @param model
+	 * @param matchField
+	 *            匹配字段(为null表示只有一组)
+	 * @param positions
+	 *            输出分组之后的位置
+	 * @return 分页
+	 */
+	protected static int[] match(InstanceAccessor model, String matchField, int[] positions) {
+		int size = model.getSize();
+		if (matchField == null) {
+			for (int index = 0; index < size; index++) {
+				positions[index] = index;
+			}
+			return new int[] { 0, size };
+		}
+		int matchDimension = model.getDiscreteDimension(matchField);
+		int[] paginations = new int[model.getDiscreteAttribute(matchDimension).getSize() + 1];
+		DataMatcher matcher = DataMatcher.discreteOf(model, matchDimension);
+		matcher.match(paginations, positions);
+		return paginations;
+	}
+
+	/**
+	 * 在每个分组内按照排序字段排序
+	 *
+	 * @param model
+	 * @param sortField
+	 *            排序字段(不是离散字段或者连续字段时随机排序)
+	 * @param paginations
+	 * @param positions
+	 */
+	protected static void sort(InstanceAccessor model, String sortField, int[] paginations, int[] positions) {
+		DataSorter sorter;
+		if (model.getDiscreteFields().contains(sortField)) {
+			sorter = DataSorter.discreteOf(model, model.getDiscreteDimension(sortField));
+		} else if (model.getContinuousFields().contains(sortField)) {
+			sorter = DataSorter.continuousOf(model, model.getContinuousDimension(sortField));
+		} else {
+			sorter = DataSorter.RANDOM_SORTER;
+		}
+		sorter.sort(paginations, positions);
+	}
+
+	/**
+	 * 设置引用的生成顺序
+	 *
+	 * @param positions
+	 *            分组并且排序之后的位置
+	 */
+	protected final void order(int[] positions) {
+		assert positions.length == folds.length;
+		this.orders = positions;
+	}
+
+	/**
+	 * 分配位置到折
+	 *
+	 * @param position
+	 * @param fold
+	 *            折或者{@link #TRAIN}
+	 */
+	protected final void assign(int position, int fold) {
+		int current = folds[position];
+		if (current != TRAIN) {
+			counts[current]--;
+		}
+		if (fold != TRAIN) {
+			counts[fold]++;
+		}
+		folds[position] = (byte) fold;
+	}
+
+	/**
+	 * 交换位置所属的折(用于打乱,不影响数量)
+	 *
+	 * @param left
+	 * @param right
+	 */
+	protected final void swap(int left, int right) {
+		byte fold = folds[left];
+		folds[left] = folds[right];
+		folds[right] = fold;
+	}
+
+	@Override
+	public int getSize() {
+		return number;
+	}
+
+	@Override
+	public InstanceAccessor getDataModel() {
+		return dataModel;
+	}
+
+	@Override
+	public IntegerArray getTrainReference(int index) {
+		int count = folds.length - counts[index];
+		IntegerArray reference = new IntegerArray(Math.max(count, 1), Math.max(count, 1));
+		for (int cursor = 0, size = folds.length; cursor < size; cursor++) {
+			int position = orders == null ? cursor : orders[cursor];
+			if (folds[position] != index) {
+				reference.associateData(position);
+			}
+		}
+		return reference;
+	}
+
+	@Override
+	public IntegerArray getTestReference(int index) {
+		int count = counts[index];
+		IntegerArray reference = new IntegerArray(Math.max(count, 1), Math.max(count, 1));
+		for (int cursor = 0, size = folds.length; cursor < size && count > 0; cursor++) {
+			int position = orders == null ? cursor : orders[cursor];
+			if (folds[position] == index) {
+				reference.associateData(position);
+				count--;
+			}
+		}
+		return reference;
+	}
+
+}
@@ -1,6 +1,5 @@
 package com.jstarcraft.recommendation.data.splitter;
 
-import com.jstarcraft.ai.utility.IntegerArray;
 import com.jstarcraft.recommendation.data.accessor.InstanceAccessor;
 
 /**
@@ -10,46 +9,13 @@ import com.jstarcraft.recommendation.data.accessor.InstanceAccessor;
  *
  */
 // TODO 准备改名为SpecificThresholdSplitter
-public class GivenDataSplitter implements DataSplitter {
-
-	private InstanceAccessor dataModel;
-
-	private IntegerArray trainReference;
-
-	private IntegerArray testReference;
+public class GivenDataSplitter extends AbstractSplitter {
 
 	public GivenDataSplitter(InstanceAccessor model, int threshold) {
-		dataModel = model;
-		trainReference = new IntegerArray();
-		testReference = new IntegerArray();
-		int size = model.getSize();
-		for (int index = 0; index < size; index++) {
-			if (index < threshold) {
-				trainReference.associateData(index);
-			} else {
-				testReference.associateData(index);
-			}
+		super(model, 1);
+		for (int index = Math.max(threshold, 0), size = model.getSize(); index < size; index++) {
+			assign(index, 0);
 		}
 	}
 
-	@Override
-	public int getSize() {
-		return 1;
-	}
-
-	@Override
-	public InstanceAccessor getDataModel() {
-		return dataModel;
-	}
-
-	@Override
-	public IntegerArray getTrainReference(int index) {
-		return trainReference;
-	}
-
-	@Override
-	public IntegerArray getTestReference(int index) {
-		return testReference;
-	}
-
 }
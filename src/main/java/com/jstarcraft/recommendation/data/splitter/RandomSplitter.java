@@ -1,9 +1,7 @@
 package com.jstarcraft.recommendation.data.splitter;
 
-import com.jstarcraft.ai.utility.IntegerArray;
-import com.jstarcraft.core.utility.RandomUtility;
 import com.jstarcraft.recommendation.data.accessor.InstanceAccessor;
-import com.jstarcraft.recommendation.data.processor.DataMatcher;
+import com.jstarcraft.recommendation.utility.RandomUtility;
 
 /**
  * 随机处理器
@@ -11,59 +9,21 @@ import com.jstarcraft.recommendation.data.processor.DataMatcher;
  * @author Birdy
  *
  */
-public class RandomSplitter implements DataSplitter {
-
-	private InstanceAccessor dataModel;
-
-	private IntegerArray trainReference;
-
-	private IntegerArray testReference;
+public class RandomSplitter extends AbstractSplitter {
 
 	public RandomSplitter(InstanceAccessor model, String matchField, double random) {
-		dataModel = model;
-		int size = model.getSize();
-		int[] paginations;
-		int[] positions = new int[size];
-		for (int index = 0; index < size; index++) {
-			positions[index] = index;
-		}
-		int matchDimension = model.getDiscreteDimension(matchField);
-		paginations = new int[model.getDiscreteAttribute(matchDimension).getSize() + 1];
-		DataMatcher matcher = DataMatcher.discreteOf(model, matchDimension);
-		matcher.match(paginations, positions);
+		super(model, 1);
+		int[] positions = new int[model.getSize()];
+		int[] paginations = match(model, matchField, positions);
+		order(positions);
 
-		trainReference = new IntegerArray();
-		testReference = new IntegerArray();
-		size = paginations.length - 1;
-		for (int index = 0; index < size; index++) {
+		for (int index = 0, size = paginations.length - 1; index < size; index++) {
 			for (int from = paginations[index], to = paginations[index + 1]; from < to; from++) {
-				if (RandomUtility.randomDouble(1D) < random) {
-					trainReference.associateData(positions[from]);
-				} else {
-					testReference.associateData(positions[from]);
+				if (RandomUtility.randomDouble(1D) >= random) {
+					assign(positions[from], 0);
 				}
 			}
 		}
 	}
 
-	@Override
-	public int getSize() {
-		return 1;
-	}
-
-	@Override
-	public InstanceAccessor getDataModel() {
-		return dataModel;
-	}
-
-	@Override
-	public IntegerArray getTrainReference(int index) {
-		return trainReference;
-	}
-
-	@Override
-	public IntegerArray getTestReference(int index) {
-		return testReference;
-	}
-
-}
\ No newline at end of file
+}
@@ -17,23 +17,43 @@ public abstract class AbstractEvaluator<T> implements Evaluator<T> {
 	 * 统计列表
 	 * 
 	 * @param checkCollection
-	 * @param recommendList
+	 * @param recommendKeys
+	 * @param recommendValues
+	 * @param recommendSize
+	 * @param candidateSize
 	 * @return
 	 */
-	protected abstract int count(Collection<T> checkCollection, List<KeyValue<Integer, Float>> recommendList);
+	protected abstract int count(Collection<T> checkCollection, int[] recommendKeys, float[] recommendValues, int recommendSize, int candidateSize);
 
 	/**
 	 * 测量列表
 	 * 
 	 * @param checkCollection
-	 * @param recommendList
+	 * @param recommendKeys
+	 * @param recommendValues
+	 * @param recommendSize
+	 * @param candidateSize
 	 * @return
 	 */
-	protected abstract float measure(Collection<T> checkCollection, List<KeyValue<Integer, Float>> recommendList);
+	protected abstract float measure(Collection<T> checkCollection, int[] recommendKeys, float[] recommendValues, int recommendSize, int candidateSize);
 
 	@Override
 	public final KeyValue<Integer, Float> evaluate(Collection<T> checkCollection, List<KeyValue<Integer, Float>> recommendList) {
-		return new KeyValue<>(count(checkCollection, recommendList), measure(checkCollection, recommendList));
+		int size = recommendList.size();
+		int[] recommendKeys = new int[size];
+		float[] recommendValues = new float[size];
+		int cursor = 0;
+		for (KeyValue<Integer, Float> keyValue : recommendList) {
+			recommendKeys[cursor] = keyValue.getKey();
+			recommendValues[cursor] = keyValue.getValue();
+			cursor++;
+		}
+		return evaluate(checkCollection, recommendKeys, recommendValues, size, size);
+	}
+
+	@Override
+	public final KeyValue<Integer, Float> evaluate(Collection<T> checkCollection, int[] recommendKeys, float[] recommendValues, int recommendSize, int candidateSize) {
+		return new KeyValue<>(count(checkCollection, recommendKeys, recommendValues, recommendSize, candidateSize), measure(checkCollection, recommendKeys, recommendValues, recommendSize, candidateSize));
 	}
 
 }
@@ -22,4 +22,24 @@ public interface Evaluator<T> {
 	 */
 	KeyValue<Integer, Float> evaluate(Collection<T> checkCollection, List<KeyValue<Integer, Float>> recommendList);
 
+	/**
+	 * 评估
+	 * 
+	 * <pre>
+	 * 推荐列表使用原始类型数组表示,避免装箱与全量排序.
+	 * </pre>
+	 * 
+	 * @param checkCollection
+	 * @param recommendKeys
+	 *            推荐键(只有前recommendSize个有效)
+	 * @param recommendValues
+	 *            推荐值(只有前recommendSize个有效)
+	 * @param recommendSize
+	 *            推荐数量
+	 * @param candidateSize
+	 *            候选数量(推荐列表截断之前的大小)
+	 * @return
+	 */
+	KeyValue<Integer, Float> evaluate(Collection<T> checkCollection, int[] recommendKeys, float[] recommendValues, int recommendSize, int candidateSize);
+
 }
@@ -1,9 +1,6 @@
 package com.jstarcraft.recommendation.evaluator;
 
 import java.util.Collection;
-import java.util.List;
-
-import com.jstarcraft.core.utility.KeyValue;
 
 /**
  * 面向排名预测的评估器
@@ -21,7 +18,7 @@ public abstract class RankingEvaluator extends AbstractEvaluator<Integer> {
 	}
 
 	@Override
-	protected int count(Collection<Integer> checkCollection, List<KeyValue<Integer, Float>> recommendList) {
+	protected int count(Collection<Integer> checkCollection, int[] recommendKeys, float[] recommendValues, int recommendSize, int candidateSize) {
 		return 1;
 	}
 
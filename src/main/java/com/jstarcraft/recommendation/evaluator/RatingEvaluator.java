@@ -1,9 +1,6 @@
 package com.jstarcraft.recommendation.evaluator;
 
 import java.util.Collection;
-import java.util.List;
-
-import com.jstarcraft.core.utility.KeyValue;
 
 /**
  * 面向评分预测的评估器
@@ -14,7 +11,7 @@ import com.jstarcraft.core.utility.KeyValue;
 public abstract class RatingEvaluator extends AbstractEvaluator<Float> {
 
 	@Override
-	protected int count(Collection<Float> checkCollection, List<KeyValue<Integer, Float>> recommendList) {
+	protected int count(Collection<Float> checkCollection, int[] recommendKeys, float[] recommendValues, int recommendSize, int candidateSize) {
 		return checkCollection.size();
 	}
 
@@ -1,11 +1,8 @@
 package com.jstarcraft.recommendation.evaluator.ranking;
 
+import java.util.Arrays;
 import java.util.Collection;
-import java.util.HashSet;
-import java.util.List;
-import java.util.Set;
 
-import com.jstarcraft.core.utility.KeyValue;
 import com.jstarcraft.recommendation.evaluator.RankingEvaluator;
 
 /**
@@ -25,31 +22,31 @@ public class AUCEvaluator extends RankingEvaluator {
 	}
 
 	@Override
-	protected float measure(Collection<Integer> checkCollection, List<KeyValue<Integer, Float>> recommendList) {
+	protected float measure(Collection<Integer> checkCollection, int[] recommendKeys, float[] recommendValues, int recommendSize, int candidateSize) {
 		// 推荐物品集合(大小不能超过TopN)
-		int evaluateSize = recommendList.size();
-		if (evaluateSize > size) {
-			recommendList = recommendList.subList(0, size);
+		int evaluateSize = candidateSize;
+		if (recommendSize > size) {
+			recommendSize = size;
 		}
 		int hitCount = 0, missCount = 0;
-		Set<Integer> recommendItems = new HashSet<>();
-		for (KeyValue<Integer, Float> keyValue : recommendList) {
-			recommendItems.add(keyValue.getKey());
-			if (checkCollection.contains(keyValue.getKey())) {
+		int[] recommendItems = Arrays.copyOf(recommendKeys, recommendSize);
+		for (int index = 0; index < recommendSize; index++) {
+			if (checkCollection.contains(recommendKeys[index])) {
 				hitCount++;
 			} else {
 				missCount++;
 			}
 		}
+		Arrays.sort(recommendItems);
 
-		int evaluateSum = (checkCollection.size() + evaluateSize - recommendList.size() - hitCount) * hitCount;
+		int evaluateSum = (checkCollection.size() + evaluateSize - recommendSize - hitCount) * hitCount;
 		if (evaluateSum == 0) {
 			return 0.5F;
 		}
 		int hitSum = 0;
 		hitCount = 0;
 		for (Integer itemIndex : checkCollection) {
-			if (!recommendItems.contains(itemIndex)) {
+			if (Arrays.binarySearch(recommendItems, itemIndex) < 0) {
 				hitSum += hitCount;
 			} else {
 				hitCount++;
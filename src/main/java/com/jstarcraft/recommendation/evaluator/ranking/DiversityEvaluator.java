@@ -1,10 +1,8 @@
 package com.jstarcraft.recommendation.evaluator.ranking;
 
 import java.util.Collection;
-import java.util.List;
 
 import com.jstarcraft.ai.math.structure.matrix.SymmetryMatrix;
-import com.jstarcraft.core.utility.KeyValue;
 import com.jstarcraft.recommendation.evaluator.RankingEvaluator;
 
 /**
@@ -22,16 +20,16 @@ public class DiversityEvaluator extends RankingEvaluator {
 	}
 
 	@Override
-	protected float measure(Collection<Integer> checkCollection, List<KeyValue<Integer, Float>> recommendList) {
-		if (recommendList.size() > size) {
-			recommendList = recommendList.subList(0, size);
+	protected float measure(Collection<Integer> checkCollection, int[] recommendKeys, float[] recommendValues, int recommendSize, int candidateSize) {
+		if (recommendSize > size) {
+			recommendSize = size;
 		}
 		float diversity = 0F;
-		int size = recommendList.size();
+		int size = recommendSize;
 		for (int indexOut = 0; indexOut < size; indexOut++) {
 			for (int indexIn = indexOut + 1; indexIn < size; indexIn++) {
-				int itemOut = recommendList.get(indexOut).getKey();
-				int itemIn = recommendList.get(indexIn).getKey();
+				int itemOut = recommendKeys[indexOut];
+				int itemIn = recommendKeys[indexIn];
 				diversity += 1F - similarityMatrix.getValue(itemOut, itemIn);
 				diversity += 1F - similarityMatrix.getValue(itemIn, itemOut);
 			}
@@ -0,0 +1,185 @@
+package com.jstarcraft.recommendation.evaluator.ranking;
+
+import com.jstarcraft.ai.math.structure.matrix.SparseMatrix;
+import com.jstarcraft.ai.utility.MathUtility;
+import com.jstarcraft.recommendation.evaluator.Evaluator;
+
+/**
+ * 融合排名评估器
+ *
+ * <pre>
+ * 一次遍历推荐列表同时计算{@link #EVALUATORS}的测量值,结果与各个评估器逐个评估一致.
+ * 校验物品使用每个线程复用的位集合去重与命中,不需要装箱与HashSet,稳定之后每个用户没有内存分配.
+ * 位集合在评估结束时恢复为空,所以只需要清理校验物品对应的位.
+ * </pre>
+ *
+ * @author Birdy
+ *
+ */
+public class FusedRankingEvaluator {
+
+	public static final int AUC = 0, MAP = 1, MRR = 2, NDCG = 3, NOVELTY = 4, PRECISION = 5, RECALL = 6;
+
+	/** 测量值对应的评估器(按照测量值的索引) */
+	@SuppressWarnings("unchecked")
+	public static final Class<? extends Evaluator<?>>[] EVALUATORS = new Class[] { AUCEvaluator.class, MAPEvaluator.class, MRREvaluator.class, NDCGEvaluator.class, NoveltyEvaluator.class, PrecisionEvaluator.class, RecallEvaluator.class };
+
+	/** 大小 */
+	private final int size;
+
+	/** 每个排名的折扣(与NDCGEvaluator一致) */
+	private final float[] discounts;
+
+	/** 理想折扣累计增益(与NDCGEvaluator一致) */
+	private final float[] idcgs;
+
+	/** 每个物品的信息熵(与NoveltyEvaluator一致,没有行为的物品为0) */
+	private final float[] entropies;
+
+	/** 每个线程的位集合 */
+	private final ThreadLocal<long[]> bitsets;
+
+	/** 每个线程的校验缓存 */
+	private final ThreadLocal<int[]> buffers = ThreadLocal.withInitial(() -> new int[16]);
+
+	public FusedRankingEvaluator(int size, SparseMatrix dataMatrix) {
+		this(size, dataMatrix.getRowSize(), getItemCounts(dataMatrix));
+	}
+
+	/**
+	 * @param size
+	 *            大小
+	 * @param numberOfUsers
+	 *            用户数量(用于新颖性)
+	 * @param itemCounts
+	 *            每个物品的用户数量(用于新颖性)
+	 */
+	public FusedRankingEvaluator(int size, int numberOfUsers, int[] itemCounts) {
+		this.size = size;
+		this.discounts = new float[size];
+		this.idcgs = new float[size + 1];
+		for (int index = 0; index < size; index++) {
+			discounts[index] = (float) (1F / MathUtility.logarithm(index + 2F, 2));
+			idcgs[index + 1] = (float) (1F / MathUtility.logarithm(index + 2F, 2) + idcgs[index]);
+		}
+		int numberOfItems = itemCounts.length;
+		this.entropies = new float[numberOfItems];
+		for (int itemIndex = 0; itemIndex < numberOfItems; itemIndex++) {
+			int count = itemCounts[itemIndex];
+			if (count > 0) {
+				float probability = ((float) count) / numberOfUsers;
+				entropies[itemIndex] = (float) -Math.log(probability);
+			}
+		}
+		this.bitsets = ThreadLocal.withInitial(() -> new long[(numberOfItems + 63) >>> 6]);
+	}
+
+	private static int[] getItemCounts(SparseMatrix dataMatrix) {
+		int numberOfItems = dataMatrix.getColumnSize();
+		int[] itemCounts = new int[numberOfItems];
+		for (int itemIndex = 0; itemIndex < numberOfItems; itemIndex++) {
+			itemCounts[itemIndex] = dataMatrix.getColumnScope(itemIndex);
+		}
+		return itemCounts;
+	}
+
+	/**
+	 * 获取当前线程的校验缓存
+	 *
+	 * <pre>
+	 * 用于填充校验物品,评估之前不能在同一个线程再次获取.
+	 * </pre>
+	 *
+	 * @param capacity
+	 *            最小容量
+	 * @return
+	 */
+	public int[] getBuffer(int capacity) {
+		int[] buffer = buffers.get();
+		if (buffer.length < capacity) {
+			buffer = new int[Math.max(capacity, buffer.length << 1)];
+			buffers.set(buffer);
+		}
+		return buffer;
+	}
+
+	/**
+	 * 评估
+	 *
+	 * @param checkKeys
+	 *            校验物品(可以重复,按照首次出现的顺序去重,会被修改)
+	 * @param checkSize
+	 *            校验数量
+	 * @param recommendKeys
+	 *            推荐物品(只有前recommendSize个有效)
+	 * @param recommendSize
+	 *            推荐数量
+	 * @param candidateSize
+	 *            候选数量(推荐列表截断之前的大小)
+	 * @param measures
+	 *            输出测量值(按照{@link #EVALUATORS}的索引)
+	 */
+	public void evaluate(int[] checkKeys, int checkSize, int[] recommendKeys, int recommendSize, int candidateSize, float[] measures) {
+		long[] bits = bitsets.get();
+		// 去重并且标记校验物品
+		int numberOfChecks = 0;
+		for (int index = 0; index < checkSize; index++) {
+			int key = checkKeys[index];
+			long mask = 1L << key;
+			if ((bits[key >>> 6] & mask) == 0L) {
+				bits[key >>> 6] |= mask;
+				checkKeys[numberOfChecks++] = key;
+			}
+		}
+		if (recommendSize > size) {
+			recommendSize = size;
+		}
+
+		// 一次遍历推荐列表,命中的物品取消标记
+		int hitCount = 0, firstHit = -1;
+		float map = 0F, dcg = 0F, novelty = 0F;
+		for (int index = 0; index < recommendSize; index++) {
+			int key = recommendKeys[index];
+			novelty += entropies[key];
+			long mask = 1L << key;
+			if ((bits[key >>> 6] & mask) != 0L) {
+				bits[key >>> 6] &= ~mask;
+				hitCount++;
+				if (firstHit < 0) {
+					firstHit = index;
+				}
+				map += 1F * hitCount / (index + 1);
+				dcg += discounts[index];
+			}
+		}
+		int missCount = recommendSize - hitCount;
+		int minimum = numberOfChecks < recommendSize ? numberOfChecks : recommendSize;
+
+		// 按照校验顺序计算AUC,同时清理剩余的标记
+		int hitSum = 0, count = 0;
+		for (int index = 0; index < numberOfChecks; index++) {
+			int key = checkKeys[index];
+			long mask = 1L << key;
+			if ((bits[key >>> 6] & mask) != 0L) {
+				bits[key >>> 6] &= ~mask;
+				hitSum += count;
+			} else {
+				count++;
+			}
+		}
+		int evaluateSum = (numberOfChecks + candidateSize - recommendSize - hitCount) * hitCount;
+		if (evaluateSum == 0) {
+			measures[AUC] = 0.5F;
+		} else {
+			hitSum += count * (candidateSize - missCount);
+			measures[AUC] = (hitSum + 0F) / evaluateSum;
+		}
+		measures[MAP] = map / minimum;
+		measures[MRR] = firstHit < 0 ? 0F : 1F / (firstHit + 1);
+		measures[NDCG] = dcg / idcgs[minimum];
+		measures[NOVELTY] = (float) (novelty / Math.log(2F));
+		measures[PRECISION] = hitCount / (size + 0F);
+		measures[RECALL] = hitCount / (numberOfChecks + 0F);
+	}
+
+}
@@ -1,9 +1,7 @@
 package com.jstarcraft.recommendation.evaluator.ranking;
 
 import java.util.Collection;
-import java.util.List;
 
-import com.jstarcraft.core.utility.KeyValue;
 import com.jstarcraft.recommendation.evaluator.RankingEvaluator;
 
 /**
@@ -24,20 +22,20 @@ public class MAPEvaluator extends RankingEvaluator {
 	}
 
 	@Override
-	protected float measure(Collection<Integer> checkCollection, List<KeyValue<Integer, Float>> recommendList) {
-		if (recommendList.size() > size) {
-			recommendList = recommendList.subList(0, size);
+	protected float measure(Collection<Integer> checkCollection, int[] recommendKeys, float[] recommendValues, int recommendSize, int candidateSize) {
+		if (recommendSize > size) {
+			recommendSize = size;
 		}
 		int count = 0;
 		float map = 0F;
-		for (int index = 0; index < recommendList.size(); index++) {
-			int key = recommendList.get(index).getKey();
+		for (int index = 0; index < recommendSize; index++) {
+			int key = recommendKeys[index];
 			if (checkCollection.contains(key)) {
 				count++;
 				map += 1F * count / (index + 1);
 			}
 		}
-		return map / (checkCollection.size() < recommendList.size() ? checkCollection.size() : recommendList.size());
+		return map / (checkCollection.size() < recommendSize ? checkCollection.size() : recommendSize);
 	}
 
 }
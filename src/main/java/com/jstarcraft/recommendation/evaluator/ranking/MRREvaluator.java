@@ -1,9 +1,7 @@
 package com.jstarcraft.recommendation.evaluator.ranking;
 
 import java.util.Collection;
-import java.util.List;
 
-import com.jstarcraft.core.utility.KeyValue;
 import com.jstarcraft.recommendation.evaluator.RankingEvaluator;
 
 /**
@@ -24,13 +22,13 @@ public class MRREvaluator extends RankingEvaluator {
 
 	
 	@Override
-	protected float measure(Collection<Integer> checkCollection, List<KeyValue<Integer, Float>> recommendList) {
-		if (recommendList.size() > size) {
-			recommendList = recommendList.subList(0, size);
+	protected float measure(Collection<Integer> checkCollection, int[] recommendKeys, float[] recommendValues, int recommendSize, int candidateSize) {
+		if (recommendSize > size) {
+			recommendSize = size;
 		}
-		int size = recommendList.size();
+		int size = recommendSize;
 		for (int index = 0; index < size; index++) {
-			int key = recommendList.get(index).getKey();
+			int key = recommendKeys[index];
 			if (checkCollection.contains(key)) {
 				return 1F / (index + 1);
 			}
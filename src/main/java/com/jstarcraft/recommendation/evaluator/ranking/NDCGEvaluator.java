@@ -5,7 +5,6 @@ import java.util.Collection;
 import java.util.List;
 
 import com.jstarcraft.ai.utility.MathUtility;
-import com.jstarcraft.core.utility.KeyValue;
 import com.jstarcraft.recommendation.evaluator.RankingEvaluator;
 
 /**
@@ -30,15 +29,15 @@ public class NDCGEvaluator extends RankingEvaluator {
 	}
 
 	@Override
-	protected float measure(Collection<Integer> checkCollection, List<KeyValue<Integer, Float>> recommendList) {
-		if (recommendList.size() > size) {
-			recommendList = recommendList.subList(0, size);
+	protected float measure(Collection<Integer> checkCollection, int[] recommendKeys, float[] recommendValues, int recommendSize, int candidateSize) {
+		if (recommendSize > size) {
+			recommendSize = size;
 		}
 		float dcg = 0F;
 		// calculate DCG
-		int size = recommendList.size();
+		int size = recommendSize;
 		for (int index = 0; index < size; index++) {
-			int itemIndex = recommendList.get(index).getKey();
+			int itemIndex = recommendKeys[index];
 			if (!checkCollection.contains(itemIndex)) {
 				continue;
 			}
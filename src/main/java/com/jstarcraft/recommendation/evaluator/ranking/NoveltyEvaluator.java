@@ -1,10 +1,8 @@
 package com.jstarcraft.recommendation.evaluator.ranking;
 
 import java.util.Collection;
-import java.util.List;
 
 import com.jstarcraft.ai.math.structure.matrix.SparseMatrix;
-import com.jstarcraft.core.utility.KeyValue;
 import com.jstarcraft.recommendation.evaluator.RankingEvaluator;
 
 /**
@@ -39,14 +37,14 @@ public class NoveltyEvaluator extends RankingEvaluator {
 	 * @return evaluate result
 	 */
 	@Override
-	protected float measure(Collection<Integer> checkCollection, List<KeyValue<Integer, Float>> recommendList) {
-		if (recommendList.size() > size) {
-			recommendList = recommendList.subList(0, size);
+	protected float measure(Collection<Integer> checkCollection, int[] recommendKeys, float[] recommendValues, int recommendSize, int candidateSize) {
+		if (recommendSize > size) {
+			recommendSize = size;
 		}
 
 		float sum = 0F;
-		for (KeyValue<Integer, Float> keyValue : recommendList) {
-			int itemIndex = keyValue.getKey();
+		for (int index = 0; index < recommendSize; index++) {
+			int itemIndex = recommendKeys[index];
 			int count = itemCounts[itemIndex];
 			if (count > 0) {
 				float probability = ((float) count) / numberOfUsers;
@@ -1,9 +1,7 @@
 package com.jstarcraft.recommendation.evaluator.ranking;
 
 import java.util.Collection;
-import java.util.List;
 
-import com.jstarcraft.core.utility.KeyValue;
 import com.jstarcraft.recommendation.evaluator.RankingEvaluator;
 
 /**
@@ -22,13 +20,13 @@ public class RecallEvaluator extends RankingEvaluator {
 	}
 
 	@Override
-	protected float measure(Collection<Integer> checkCollection, List<KeyValue<Integer, Float>> recommendList) {
-		if (recommendList.size() > size) {
-			recommendList = recommendList.subList(0, size);
+	protected float measure(Collection<Integer> checkCollection, int[] recommendKeys, float[] recommendValues, int recommendSize, int candidateSize) {
+		if (recommendSize > size) {
+			recommendSize = size;
 		}
 		int count = 0;
-		for (KeyValue<Integer, Float> keyValue : recommendList) {
-			if (checkCollection.contains(keyValue.getKey())) {
+		for (int index = 0; index < recommendSize; index++) {
+			if (checkCollection.contains(recommendKeys[index])) {
 				count++;
 			}
 		}
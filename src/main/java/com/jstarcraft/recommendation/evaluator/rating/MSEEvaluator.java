@@ -2,9 +2,7 @@ package com.jstarcraft.recommendation.evaluator.rating;
 
 import java.util.Collection;
 import java.util.Iterator;
-import java.util.List;
 
-import com.jstarcraft.core.utility.KeyValue;
 import com.jstarcraft.recommendation.evaluator.RatingEvaluator;
 
 /**
@@ -19,12 +17,12 @@ import com.jstarcraft.recommendation.evaluator.RatingEvaluator;
 public class MSEEvaluator extends RatingEvaluator {
 
 	@Override
-	protected float measure(Collection<Float> checkCollection, List<KeyValue<Integer, Float>> recommendList) {
+	protected float measure(Collection<Float> checkCollection, int[] recommendKeys, float[] recommendValues, int recommendSize, int candidateSize) {
 		float value = 0F;
 		Iterator<Float> iterator = checkCollection.iterator();
-		for (KeyValue<Integer, Float> keyValue : recommendList) {
+		for (int index = 0; index < recommendSize; index++) {
 			double score = iterator.next();
-			double estimate = keyValue.getValue();
+			double estimate = recommendValues[index];
 			value += Math.pow(score - estimate, 2);
 		}
 		return value;
@@ -0,0 +1,49 @@
+package com.jstarcraft.recommendation.monitor;
+
+import java.io.Writer;
+
+/**
+ * CSV监听器
+ *
+ * <pre>
+ * 首行为列名,NaN输出为空.
+ * </pre>
+ *
+ * @author Birdy
+ *
+ */
+public class CsvListener extends WriterListener {
+
+	private static final String HEADER = "name,epoch,phase,loss,deltaLoss,learnRate,numberOfSamples,samplesPerSecond,wallTime,cpuTime,allocatedBytes";
+
+	public CsvListener(Writer writer) {
+		super(writer);
+	}
+
+	private static String format(float value) {
+		return Float.isNaN(value) ? "" : String.valueOf(value);
+	}
+
+	@Override
+	protected String getHeader() {
+		return HEADER;
+	}
+
+	@Override
+	protected String format(TrainingMetric metric) {
+		StringBuilder buffer = new StringBuilder();
+		buffer.append(metric.getName()).append(',');
+		buffer.append(metric.getEpoch()).append(',');
+		buffer.append(metric.getPhase()).append(',');
+		buffer.append(format(metric.getLoss())).append(',');
+		buffer.append(format(metric.getDeltaLoss())).append(',');
+		buffer.append(format(metric.getLearnRate())).append(',');
+		buffer.append(metric.getNumberOfSamples()).append(',');
+		buffer.append(metric.getSamplesPerSecond()).append(',');
+		buffer.append(metric.getWallTime()).append(',');
+		buffer.append(metric.getCpuTime()).append(',');
+		buffer.append(metric.getAllocatedBytes());
+		return buffer.toString();
+	}
+
+}
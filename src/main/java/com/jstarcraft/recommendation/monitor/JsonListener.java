@@ -0,0 +1,79 @@
+package com.jstarcraft.recommendation.monitor;
+
+import java.io.Writer;
+
+/**
+ * JSON Lines监听器
+ *
+ * <pre>
+ * 每行一个JSON对象,NaN与无穷输出为null.
+ * </pre>
+ *
+ * @author Birdy
+ *
+ */
+public class JsonListener extends WriterListener {
+
+	public JsonListener(Writer writer) {
+		super(writer);
+	}
+
+	private static void append(StringBuilder buffer, String key, String value) {
+		buffer.append('"').append(key).append("\":\"");
+		for (int index = 0, size = value.length(); index < size; index++) {
+			char character = value.charAt(index);
+			if (character == '"' || character == '\\') {
+				buffer.append('\\');
+			}
+			buffer.append(character);
+		}
+		buffer.append('"');
+	}
+
+	private static void append(StringBuilder buffer, String key, float value) {
+		buffer.append('"').append(key).append("\":");
+		if (Float.isNaN(value) || Float.isInfinite(value)) {
+			buffer.append("null");
+		} else {
+			buffer.append(value);
+		}
+	}
+
+	private static void append(StringBuilder buffer, String key, long value) {
+		buffer.append('"').append(key).append("\":").append(value);
+	}
+
+	@Override
+	protected String getHeader() {
+		return null;
+	}
+
+	@Override
+	protected String format(TrainingMetric metric) {
+		StringBuilder buffer = new StringBuilder("{");
+		append(buffer, "name", metric.getName());
+		buffer.append(',');
+		append(buffer, "epoch", metric.getEpoch());
+		buffer.append(',');
+		append(buffer, "phase", metric.getPhase());
+		buffer.append(',');
+		append(buffer, "loss", metric.getLoss());
+		buffer.append(',');
+		append(buffer, "deltaLoss", metric.getDeltaLoss());
+		buffer.append(',');
+		append(buffer, "learnRate", metric.getLearnRate());
+		buffer.append(',');
+		append(buffer, "numberOfSamples", metric.getNumberOfSamples());
+		buffer.append(',');
+		append(buffer, "samplesPerSecond", metric.getSamplesPerSecond());
+		buffer.append(',');
+		append(buffer, "wallTime", metric.getWallTime());
+		buffer.append(',');
+		append(buffer, "cpuTime", metric.getCpuTime());
+		buffer.append(',');
+		append(buffer, "allocatedBytes", metric.getAllocatedBytes());
+		buffer.append('}');
+		return buffer.toString();
+	}
+
+}
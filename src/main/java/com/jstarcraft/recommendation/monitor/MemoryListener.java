@@ -0,0 +1,54 @@
+package com.jstarcraft.recommendation.monitor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 内存监听器
+ *
+ * <pre>
+ * 按照通知顺序保存所有指标,用于测试或者在训练之后分析.
+ * </pre>
+ *
+ * @author Birdy
+ *
+ */
+public class MemoryListener implements TrainingListener {
+
+	private final List<TrainingMetric> metrics = new ArrayList<>();
+
+	@Override
+	public synchronized void notifyMetric(TrainingMetric metric) {
+		metrics.add(metric);
+	}
+
+	/**
+	 * 获取指标(副本)
+	 *
+	 * @return
+	 */
+	public synchronized List<TrainingMetric> getMetrics() {
+		return new ArrayList<>(metrics);
+	}
+
+	/**
+	 * 获取指定阶段的指标
+	 *
+	 * @param phase
+	 * @return
+	 */
+	public synchronized List<TrainingMetric> getMetrics(String phase) {
+		List<TrainingMetric> metrics = new ArrayList<>();
+		for (TrainingMetric metric : this.metrics) {
+			if (metric.getPhase().equals(phase)) {
+				metrics.add(metric);
+			}
+		}
+		return metrics;
+	}
+
+	public synchronized void clear() {
+		metrics.clear();
+	}
+
+}
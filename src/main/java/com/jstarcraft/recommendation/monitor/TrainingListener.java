@@ -0,0 +1,28 @@
+package com.jstarcraft.recommendation.monitor;
+
+import java.io.Closeable;
+
+/**
+ * 训练监听器
+ *
+ * <pre>
+ * 并行执行的折可能共享同一个监听器,所以实现需要线程安全.
+ * </pre>
+ *
+ * @author Birdy
+ *
+ */
+public interface TrainingListener extends Closeable {
+
+	/**
+	 * 通知指标
+	 *
+	 * @param metric
+	 */
+	void notifyMetric(TrainingMetric metric);
+
+	@Override
+	default void close() {
+	}
+
+}
@@ -0,0 +1,111 @@
+package com.jstarcraft.recommendation.monitor;
+
+/**
+ * 训练指标
+ *
+ * <pre>
+ * 一条指标对应一个周期({@link #EPOCH})或者周期内的一个阶段(例如概率图推荐器的eStep/mStep).
+ * 阶段指标没有损失与学习率(NaN),样本数量为0.
+ * 时间单位为纳秒,无法测量的CPU时间与分配字节数为-1.
+ * </pre>
+ *
+ * @author Birdy
+ *
+ */
+public class TrainingMetric {
+
+	/** 周期阶段 */
+	public static final String EPOCH = "epoch";
+
+	/** 推荐器名称 */
+	private final String name;
+
+	/** 周期 */
+	private final int epoch;
+
+	/** 阶段 */
+	private final String phase;
+
+	/** 损失, 损失变化, 学习率 */
+	private final float loss, deltaLoss, learnRate;
+
+	/** 样本数量 */
+	private final int numberOfSamples;
+
+	/** 墙钟时间, 训练CPU时间(纳秒,训练线程与工作者任务之和) */
+	private final long wallTime, cpuTime;
+
+	/** 分配字节数(训练线程与工作者任务之和) */
+	private final long allocatedBytes;
+
+	public TrainingMetric(String name, int epoch, String phase, float loss, float deltaLoss, float learnRate, int numberOfSamples, long wallTime, long cpuTime, long allocatedBytes) {
+		this.name = name;
+		this.epoch = epoch;
+		this.phase = phase;
+		this.loss = loss;
+		this.deltaLoss = deltaLoss;
+		this.learnRate = learnRate;
+		this.numberOfSamples = numberOfSamples;
+		this.wallTime = wallTime;
+		this.cpuTime = cpuTime;
+		this.allocatedBytes = allocatedBytes;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public int getEpoch() {
+		return epoch;
+	}
+
+	public String getPhase() {
+		return phase;
+	}
+
+	public float getLoss() {
+		return loss;
+	}
+
+	public float getDeltaLoss() {
+		return deltaLoss;
+	}
+
+	public float getLearnRate() {
+		return learnRate;
+	}
+
+	public int getNumberOfSamples() {
+		return numberOfSamples;
+	}
+
+	/**
+	 * 获取每秒样本数量
+	 *
+	 * @return
+	 */
+	public float getSamplesPerSecond() {
+		if (wallTime <= 0L) {
+			return 0F;
+		}
+		return (float) (numberOfSamples * 1000000000D / wallTime);
+	}
+
+	public long getWallTime() {
+		return wallTime;
+	}
+
+	public long getCpuTime() {
+		return cpuTime;
+	}
+
+	public long getAllocatedBytes() {
+		return allocatedBytes;
+	}
+
+	@Override
+	public String toString() {
+		return "TrainingMetric [name=" + name + ", epoch=" + epoch + ", phase=" + phase + ", loss=" + loss + ", deltaLoss=" + deltaLoss + ", learnRate=" + learnRate + ", numberOfSamples=" + numberOfSamples + ", wallTime=" + wallTime + ", cpuTime=" + cpuTime + ", allocatedBytes=" + allocatedBytes + "]";
+	}
+
+}
@@ -0,0 +1,222 @@
+package com.jstarcraft.recommendation.monitor;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 训练监控
+ *
+ * <pre>
+ * 记录周期与阶段的墙钟时间,训练的CPU时间与分配字节数,并且通知监听器.
+ * 阶段指标为距离上一个阶段(或者周期)标记的增量,周期指标为距离上一个周期标记的增量.
+ * CPU时间与分配字节数只统计此训练:训练线程(调用start的线程)的线程指标,加上通过{@link #measure(Runnable)}执行的工作者任务期间工作者线程的线程指标.
+ * 按照任务而不是按照线程累计,所以并行执行的折共享线程池时互不影响.
+ * 没有监听器时只测量墙钟时间.
+ * </pre>
+ *
+ * @author Birdy
+ *
+ */
+public class TrainingMonitor {
+
+	private static final ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+
+	private final String name;
+
+	private final CopyOnWriteArrayList<TrainingListener> listeners = new CopyOnWriteArrayList<>();
+
+	/** 训练线程 */
+	private volatile long threadId;
+
+	/** 工作者任务累计的CPU时间与分配字节数 */
+	private final AtomicLong workerCpu = new AtomicLong(), workerAllocation = new AtomicLong();
+
+	/** 周期标记 */
+	private long epochWall, epochCpu, epochAllocation;
+
+	/** 阶段标记 */
+	private long phaseWall, phaseCpu, phaseAllocation;
+
+	public TrainingMonitor(String name) {
+		this.name = name;
+		start();
+	}
+
+	/**
+	 * 获取线程CPU时间
+	 *
+	 * @param threadId
+	 * @return 纳秒(不支持或者线程已经结束时为-1)
+	 */
+	static long getCpuTime(long threadId) {
+		if (threadBean.isThreadCpuTimeSupported() && threadBean.isThreadCpuTimeEnabled()) {
+			return threadBean.getThreadCpuTime(threadId);
+		}
+		return -1L;
+	}
+
+	/**
+	 * 获取线程分配字节数
+	 *
+	 * @param threadId
+	 * @return 字节数(不支持或者线程已经结束时为-1)
+	 */
+	static long getAllocatedBytes(long threadId) {
+		if (threadBean instanceof com.sun.management.ThreadMXBean) {
+			com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) threadBean;
+			if (bean.isThreadAllocatedMemorySupported() && bean.isThreadAllocatedMemoryEnabled()) {
+				return bean.getThreadAllocatedBytes(threadId);
+			}
+		}
+		return -1L;
+	}
+
+	private static long getDelta(long from, long to) {
+		if (from < 0L || to < 0L) {
+			return -1L;
+		}
+		return Math.max(0L, to - from);
+	}
+
+	private static void accumulate(AtomicLong counter, long from, long to) {
+		long delta = getDelta(from, to);
+		if (delta > 0L) {
+			counter.addAndGet(delta);
+		}
+	}
+
+	/**
+	 * 获取训练的CPU时间(训练线程与工作者任务之和)
+	 *
+	 * @return 纳秒(不支持时为-1)
+	 */
+	private long getCpuTime() {
+		long cpu = getCpuTime(threadId);
+		return cpu < 0L ? -1L : cpu + workerCpu.get();
+	}
+
+	/**
+	 * 获取训练的分配字节数(训练线程与工作者任务之和)
+	 *
+	 * @return 字节数(不支持时为-1)
+	 */
+	private long getAllocatedBytes() {
+		long allocation = getAllocatedBytes(threadId);
+		return allocation < 0L ? -1L : allocation + workerAllocation.get();
+	}
+
+	/**
+	 * 包装工作者任务
+	 *
+	 * <pre>
+	 * 任务在工作者线程执行时,把任务期间工作者线程的CPU时间与分配字节数累计到此训练.
+	 * 任务在训练线程执行或者没有监听器时不额外测量.
+	 * </pre>
+	 *
+	 * @param task
+	 * @return
+	 */
+	public Runnable measure(Runnable task) {
+		return () -> {
+			long id = Thread.currentThread().getId();
+			if (id == threadId || !isListened()) {
+				task.run();
+				return;
+			}
+			long cpu = getCpuTime(id);
+			long allocation = getAllocatedBytes(id);
+			try {
+				task.run();
+			} finally {
+				accumulate(workerCpu, cpu, getCpuTime(id));
+				accumulate(workerAllocation, allocation, getAllocatedBytes(id));
+			}
+		};
+	}
+
+	public void addListener(TrainingListener listener) {
+		listeners.addIfAbsent(listener);
+	}
+
+	public void removeListener(TrainingListener listener) {
+		listeners.remove(listener);
+	}
+
+	public boolean isListened() {
+		return !listeners.isEmpty();
+	}
+
+	/**
+	 * 开始(重置周期与阶段标记)
+	 */
+	public void start() {
+		threadId = Thread.currentThread().getId();
+		epochWall = phaseWall = System.nanoTime();
+		// 没有监听器时标记为-1,之后添加的监听器不会收到错误的增量
+		boolean listened = isListened();
+		epochCpu = phaseCpu = listened ? getCpuTime() : -1L;
+		epochAllocation = phaseAllocation = listened ? getAllocatedBytes() : -1L;
+	}
+
+	/**
+	 * 标记阶段
+	 *
+	 * @param epoch
+	 * @param phase
+	 * @return 阶段指标
+	 */
+	public TrainingMetric notifyPhase(int epoch, String phase) {
+		long wall = System.nanoTime();
+		long cpu = -1L, allocation = -1L;
+		boolean listened = isListened();
+		if (listened) {
+			cpu = getCpuTime();
+			allocation = getAllocatedBytes();
+		}
+		TrainingMetric metric = new TrainingMetric(name, epoch, phase, Float.NaN, Float.NaN, Float.NaN, 0, wall - phaseWall, getDelta(phaseCpu, cpu), getDelta(phaseAllocation, allocation));
+		phaseWall = wall;
+		phaseCpu = cpu;
+		phaseAllocation = allocation;
+		if (listened) {
+			for (TrainingListener listener : listeners) {
+				listener.notifyMetric(metric);
+			}
+		}
+		return metric;
+	}
+
+	/**
+	 * 标记周期
+	 *
+	 * @param epoch
+	 * @param loss
+	 * @param deltaLoss
+	 * @param learnRate
+	 *            学习率(没有则为NaN)
+	 * @param numberOfSamples
+	 *            周期内的样本数量
+	 * @return 周期指标
+	 */
+	public TrainingMetric notifyEpoch(int epoch, float loss, float deltaLoss, float learnRate, int numberOfSamples) {
+		long wall = System.nanoTime();
+		long cpu = -1L, allocation = -1L;
+		boolean listened = isListened();
+		if (listened) {
+			cpu = getCpuTime();
+			allocation = getAllocatedBytes();
+		}
+		TrainingMetric metric = new TrainingMetric(name, epoch, TrainingMetric.EPOCH, loss, deltaLoss, learnRate, numberOfSamples, wall - epochWall, getDelta(epochCpu, cpu), getDelta(epochAllocation, allocation));
+		epochWall = phaseWall = wall;
+		epochCpu = phaseCpu = cpu;
+		epochAllocation = phaseAllocation = allocation;
+		if (listened) {
+			for (TrainingListener listener : listeners) {
+				listener.notifyMetric(metric);
+			}
+		}
+		return metric;
+	}
+
+}
@@ -0,0 +1,72 @@
+package com.jstarcraft.recommendation.monitor;
+
+import java.io.IOException;
+import java.io.Writer;
+
+import com.jstarcraft.recommendation.exception.RecommendationException;
+
+/**
+ * 输出监听器
+ *
+ * <pre>
+ * 每条指标输出为一行并且立即刷新,便于在训练期间观察(例如tail -f).
+ * 指标以周期为粒度,刷新的开销可以忽略.
+ * </pre>
+ *
+ * @author Birdy
+ *
+ */
+public abstract class WriterListener implements TrainingListener {
+
+	private final Writer writer;
+
+	private boolean started;
+
+	protected WriterListener(Writer writer) {
+		this.writer = writer;
+	}
+
+	/**
+	 * 获取首行(没有则为null)
+	 *
+	 * @return
+	 */
+	protected abstract String getHeader();
+
+	/**
+	 * 格式化指标
+	 *
+	 * @param metric
+	 * @return
+	 */
+	protected abstract String format(TrainingMetric metric);
+
+	@Override
+	public synchronized void notifyMetric(TrainingMetric metric) {
+		try {
+			if (!started) {
+				started = true;
+				String header = getHeader();
+				if (header != null) {
+					writer.write(header);
+					writer.write('\n');
+				}
+			}
+			writer.write(format(metric));
+			writer.write('\n');
+			writer.flush();
+		} catch (IOException exception) {
+			throw new RecommendationException(exception);
+		}
+	}
+
+	@Override
+	public synchronized void close() {
+		try {
+			writer.close();
+		} catch (IOException exception) {
+			throw new RecommendationException(exception);
+		}
+	}
+
+}
@@ -1,13 +1,12 @@
 package com.jstarcraft.recommendation.recommender;
 
+import java.nio.IntBuffer;
 import java.util.LinkedHashMap;
 import java.util.TreeSet;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import com.google.common.collect.HashBasedTable;
-import com.google.common.collect.Table;
 import com.jstarcraft.ai.environment.EnvironmentContext;
 import com.jstarcraft.ai.math.structure.matrix.MatrixScalar;
 import com.jstarcraft.ai.math.structure.matrix.SparseMatrix;
@@ -15,8 +14,7 @@ import com.jstarcraft.recommendation.configure.Configuration;
 import com.jstarcraft.recommendation.data.DataSpace;
 import com.jstarcraft.recommendation.data.accessor.InstanceAccessor;
 import com.jstarcraft.recommendation.data.accessor.SampleAccessor;
-import com.jstarcraft.recommendation.data.processor.DataMatcher;
-import com.jstarcraft.recommendation.data.processor.DataSorter;
+import com.jstarcraft.recommendation.data.processor.DataCache;
 
 /**
  * 抽象推荐器
@@ -40,7 +38,7 @@ public abstract class AbstractRecommender implements Recommender {
 	/** 行为数量(TODO 此字段可能迁移到其它类.为避免重复行为,一般使用matrix或者tensor的元素数量) */
 	protected int numberOfActions;
 
-	/** 训练矩阵(TODO 准备改名为actionMatrix或者scoreMatrix) */
+	/** 训练矩阵(与其它组件共享,只读.需要修改的子类在prepare中使用SparseMatrix.copyOf复制) (TODO 准备改名为actionMatrix或者scoreMatrix) */
 	protected SparseMatrix trainMatrix;
 
 	/** 测试矩阵(TODO 准备取消) */
@@ -52,8 +50,12 @@ public abstract class AbstractRecommender implements Recommender {
 	/** 分数索引 (TODO 考虑取消或迁移.本质为连续特征离散化) */
 	protected LinkedHashMap<Float, Integer> scoreIndexes;
 
-	protected int[] dataPaginations;
-	protected int[] dataPositions;
+	/** 训练数据缓存(与其它组件共享,提供向量,流行度与用户物品集合等派生数据) */
+	protected DataCache dataCache;
+
+	/** 按照用户匹配并且按照特征排序的分页与位置(与其它组件共享,只读视图) */
+	protected IntBuffer dataPaginations;
+	protected IntBuffer dataPositions;
 
 	@Override
 	public void prepare(Configuration configuration, SampleAccessor marker, InstanceAccessor model, DataSpace space) {
@@ -66,22 +68,11 @@ public abstract class AbstractRecommender implements Recommender {
 		numberOfUsers = model.getDiscreteAttribute(userDimension).getSize();
 		numberOfItems = model.getDiscreteAttribute(itemDimension).getSize();
 
-		dataPaginations = new int[numberOfUsers + 1];
-		dataPositions = new int[marker.getSize()];
-		for (int index = 0; index < marker.getSize(); index++) {
-			dataPositions[index] = index;
-		}
-		DataMatcher matcher = DataMatcher.discreteOf(marker, userDimension);
-		matcher.match(dataPaginations, dataPositions);
-		DataSorter sorter = DataSorter.featureOf(marker);
-		sorter.sort(dataPaginations, dataPositions);
-		Table<Integer, Integer, Float> dataTable = HashBasedTable.create();
-		for (int position : dataPositions) {
-			int rowIndex = marker.getDiscreteFeature(userDimension, position);
-			int columnIndex = marker.getDiscreteFeature(itemDimension, position);
-			dataTable.put(rowIndex, columnIndex, marker.getMark(position));
-		}
-		trainMatrix = SparseMatrix.valueOf(numberOfUsers, numberOfItems, dataTable);
+		// 同一折的数据只准备一次
+		dataCache = DataCache.getCache(marker, userDimension, itemDimension, configuration.getString("data.merger", "last"));
+		dataPaginations = dataCache.getPaginations();
+		dataPositions = dataCache.getPositions();
+		trainMatrix = dataCache.getMatrix();
 		numberOfActions = trainMatrix.getElementSize();
 
 		// TODO 此处会与scoreIndexes一起重构,本质为连续特征离散化.
@@ -110,12 +101,51 @@ public abstract class AbstractRecommender implements Recommender {
 	protected void destructEnvironment() {
 	}
 
+	/**
+	 * 训练开始之前(环境已经构建)
+	 */
+	protected void startPractice() {
+	}
+
 	@Override
 	public final void practice() {
 		EnvironmentContext context = EnvironmentContext.getContext();
 		context.doAlgorithmByEvery(this::constructEnvironment);
+		startPractice();
 		doPractice();
 		context.doAlgorithmByEvery(this::destructEnvironment);
 	}
 
+	@Override
+	public void predict(int[] dicreteFeatures, float[] continuousFeatures, int[] itemIndexes, float[] scores) {
+		for (int index = 0, size = itemIndexes.length; index < size; index++) {
+			dicreteFeatures[itemDimension] = itemIndexes[index];
+			scores[index] = predict(dicreteFeatures, continuousFeatures);
+		}
+	}
+
+	/**
+	 * 判断方法是否被子类重写
+	 * 
+	 * <pre>
+	 * 用于判断批量预测的优化实现是否仍然与单个预测保持一致.
+	 * </pre>
+	 * 
+	 * @param clazz
+	 *            声明方法的类
+	 * @param name
+	 * @param parameters
+	 * @return
+	 */
+	protected boolean isOverridden(Class<?> clazz, String name, Class<?>... parameters) {
+		for (Class<?> type = this.getClass(); type != clazz && type != null; type = type.getSuperclass()) {
+			try {
+				type.getDeclaredMethod(name, parameters);
+				return true;
+			} catch (NoSuchMethodException exception) {
+			}
+		}
+		return false;
+	}
+
 }
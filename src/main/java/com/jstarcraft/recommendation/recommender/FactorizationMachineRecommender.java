@@ -11,6 +11,7 @@ import com.jstarcraft.ai.math.structure.vector.ArrayVector;
 import com.jstarcraft.ai.math.structure.vector.DenseVector;
 import com.jstarcraft.ai.math.structure.vector.MathVector;
 import com.jstarcraft.ai.math.structure.vector.VectorScalar;
+import com.jstarcraft.ai.model.ModelDefinition;
 import com.jstarcraft.recommendation.configure.Configuration;
 import com.jstarcraft.recommendation.data.DataSpace;
 import com.jstarcraft.recommendation.data.accessor.InstanceAccessor;
@@ -26,6 +27,7 @@ import com.jstarcraft.recommendation.exception.RecommendationException;
  * @author Tang Jiaxi and Ma Chen
  */
 // TODO 论文中需要支持组合特征(比如:历史评价过的电影),现在的代码并没有实现.
+@ModelDefinition(value = { "userDimension", "itemDimension", "globalBias", "numberOfFeatures", "numberOfFactors", "weightVector", "featureFactors", "featureOffsets" })
 public abstract class FactorizationMachineRecommender extends ModelRecommender {
 
 	protected SampleAccessor marker;
@@ -39,6 +41,10 @@ public abstract class FactorizationMachineRecommender extends ModelRecommender {
 	 * contextual conditions
 	 */
 	protected int numberOfFeatures;
+	/**
+	 * 每个维度的特征在特征向量中的偏移(预测时不再依赖标记器)
+	 */
+	protected int[] featureOffsets;
 	/**
 	 * number of factors
 	 */
@@ -73,6 +79,9 @@ public abstract class FactorizationMachineRecommender extends ModelRecommender {
 
 	protected ContinuousProbability distribution;
 
+	/** 是否使用批量预测的优化实现(子类重写了单个预测时不使用,只取决于类,所以在构造时计算) */
+	private final boolean isBatched = !isOverridden(FactorizationMachineRecommender.class, "predict", DefaultScalar.class, MathVector.class) && !isOverridden(FactorizationMachineRecommender.class, "predict", int[].class, float[].class) && !isOverridden(FactorizationMachineRecommender.class, "getFeatureVector", int[].class);
+
 	@Override
 	public void prepare(Configuration configuration, SampleAccessor marker, InstanceAccessor model, DataSpace space) {
 		super.prepare(configuration, marker, model, space);
@@ -89,7 +98,9 @@ public abstract class FactorizationMachineRecommender extends ModelRecommender {
 		minimumOfScore = configuration.getFloat("rec.recommender.minrate", 0F);
 
 		// initialize the parameters of FM
+		featureOffsets = new int[marker.getDiscreteOrder()];
 		for (int dimension = 0; dimension < marker.getDiscreteOrder(); dimension++) {
+			featureOffsets[dimension] = numberOfFeatures;
 			numberOfFeatures += marker.getDiscreteAttribute(dimension).getSize();
 		}
 
@@ -129,10 +140,8 @@ public abstract class FactorizationMachineRecommender extends ModelRecommender {
 	protected MathVector getFeatureVector(int[] featureIndexes) {
 		int size = featureIndexes.length;
 		int[] keys = new int[size];
-		int cursor = 0;
 		for (int index = 0; index < size; index++) {
-			keys[index] += cursor + featureIndexes[index];
-			cursor += marker.getDiscreteAttribute(index).getSize();
+			keys[index] += featureOffsets[index] + featureIndexes[index];
 		}
 		ArrayVector vector = new ArrayVector(numberOfFeatures, keys);
 		vector.setValues(1F);
@@ -186,4 +195,52 @@ public abstract class FactorizationMachineRecommender extends ModelRecommender {
 		return predict(scalar, featureVector);
 	}
 
+	@Override
+	public void predict(int[] dicreteFeatures, float[] continuousFeatures, int[] itemIndexes, float[] scores) {
+		if (!isBatched) {
+			super.predict(dicreteFeatures, continuousFeatures, itemIndexes, scores);
+			return;
+		}
+		int size = dicreteFeatures.length;
+		int[] cursors = featureOffsets;
+		// 物品维度之前的特征与物品无关,1-way与2-way interaction的前缀和只计算一次(保持与单个预测相同的累加顺序)
+		// 一位有效编码的值都为1,直接按照特征索引读取,不为每个物品构建特征向量
+		float weightPrefix = 0F;
+		float[] scoreSums = new float[numberOfFactors];
+		float[] predictSums = new float[numberOfFactors];
+		for (int dimension = 0; dimension < itemDimension; dimension++) {
+			int featureIndex = cursors[dimension] + dicreteFeatures[dimension];
+			weightPrefix += weightVector.getValue(featureIndex);
+			for (int factorIndex = 0; factorIndex < numberOfFactors; factorIndex++) {
+				float predictValue = featureFactors.getValue(featureIndex, factorIndex);
+				scoreSums[factorIndex] += predictValue;
+				predictSums[factorIndex] += predictValue * predictValue;
+			}
+		}
+		for (int index = 0, length = itemIndexes.length; index < length; index++) {
+			dicreteFeatures[itemDimension] = itemIndexes[index];
+			float value = 0;
+			// global bias
+			value += globalBias;
+			// 1-way interaction
+			float weightSum = weightPrefix;
+			for (int dimension = itemDimension; dimension < size; dimension++) {
+				weightSum += weightVector.getValue(cursors[dimension] + dicreteFeatures[dimension]);
+			}
+			value += weightSum;
+			// 2-way interaction
+			for (int factorIndex = 0; factorIndex < numberOfFactors; factorIndex++) {
+				float scoreSum = scoreSums[factorIndex];
+				float predictSum = predictSums[factorIndex];
+				for (int dimension = itemDimension; dimension < size; dimension++) {
+					float predictValue = featureFactors.getValue(cursors[dimension] + dicreteFeatures[dimension], factorIndex);
+					scoreSum += predictValue;
+					predictSum += predictValue * predictValue;
+				}
+				value += (scoreSum * scoreSum - predictSum) / 2F;
+			}
+			scores[index] = value;
+		}
+	}
+
 }
@@ -1,23 +1,48 @@
 package com.jstarcraft.recommendation.recommender;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.IntConsumer;
+import java.util.function.IntPredicate;
 
 import org.apache.commons.math3.distribution.NormalDistribution;
 import org.apache.commons.math3.random.JDKRandomGenerator;
 
+import com.jstarcraft.ai.environment.EnvironmentContext;
 import com.jstarcraft.ai.math.algorithm.distribution.ContinuousProbability;
 import com.jstarcraft.ai.math.structure.DefaultScalar;
 import com.jstarcraft.ai.math.structure.MathCalculator;
 import com.jstarcraft.ai.math.structure.matrix.DenseMatrix;
+import com.jstarcraft.ai.math.structure.matrix.MatrixScalar;
 import com.jstarcraft.ai.math.structure.matrix.SparseMatrix;
+import com.jstarcraft.ai.math.structure.vector.ArrayVector;
 import com.jstarcraft.ai.math.structure.vector.DenseVector;
+import com.jstarcraft.ai.math.structure.vector.MathVector;
 import com.jstarcraft.ai.math.structure.vector.SparseVector;
+import com.jstarcraft.ai.model.ModelDefinition;
+import com.jstarcraft.core.utility.StringUtility;
 import com.jstarcraft.recommendation.configure.Configuration;
 import com.jstarcraft.recommendation.data.DataSpace;
 import com.jstarcraft.recommendation.data.accessor.InstanceAccessor;
 import com.jstarcraft.recommendation.data.accessor.SampleAccessor;
+import com.jstarcraft.recommendation.exception.RecommendationException;
+import com.jstarcraft.recommendation.utility.ExactProductIndex;
+import com.jstarcraft.recommendation.utility.MatrixUtility;
+import com.jstarcraft.recommendation.utility.ProductIndex;
+import com.jstarcraft.recommendation.utility.RandomUtility;
+import com.jstarcraft.recommendation.utility.RankingHeap;
+import com.jstarcraft.recommendation.utility.SampleUtility;
 
+import it.unimi.dsi.fastutil.ints.Int2FloatMap;
+import it.unimi.dsi.fastutil.ints.Int2FloatOpenHashMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
 import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
 import it.unimi.dsi.fastutil.ints.IntSet;
 
@@ -27,8 +52,65 @@ import it.unimi.dsi.fastutil.ints.IntSet;
  * @author Birdy
  *
  */
+@ModelDefinition(value = { "userDimension", "itemDimension", "numberOfUsers", "numberOfItems", "numberOfFactors", "userFactors", "itemFactors" })
 public abstract class MatrixFactorizationRecommender extends ModelRecommender {
 
+	/**
+	 * 梯度学习器
+	 * 
+	 * <pre>
+	 * 学习一个周期中分配给某个工作者的样本区间.
+	 * </pre>
+	 * 
+	 * @author Birdy
+	 *
+	 */
+	@FunctionalInterface
+	protected interface GradientLearner {
+
+		/**
+		 * 学习
+		 * 
+		 * @param random
+		 *            工作者独立的随机数(只有一个工作者时委托给RandomUtility)
+		 * @param from
+		 *            样本开始(包含)
+		 * @param to
+		 *            样本结束(不包含)
+		 * @return 损失
+		 */
+		float learn(Random random, int from, int to);
+
+	}
+
+	/**
+	 * 评分学习器
+	 * 
+	 * <pre>
+	 * 学习单个评分,只能更新此评分的用户与物品相关的参数.
+	 * 损失直接在传入的损失上逐项累加,保证单个工作者时与原有实现的求和顺序一致.
+	 * </pre>
+	 * 
+	 * @author Birdy
+	 *
+	 */
+	@FunctionalInterface
+	protected interface RatingLearner {
+
+		/**
+		 * 学习
+		 * 
+		 * @param userIndex
+		 * @param itemIndex
+		 * @param rate
+		 * @param loss
+		 *            之前累加的损失
+		 * @return 累加之后的损失
+		 */
+		float learn(int userIndex, int itemIndex, float rate, float loss);
+
+	}
+
 	/** 是否自动调整学习率 */
 	protected boolean isLearned;
 
@@ -42,13 +124,21 @@ public abstract class MatrixFactorizationRecommender extends ModelRecommender {
 
 	/**
 	 * user latent factors
+	 * 
+	 * <pre>
+	 * 增量更新时整体替换(volatile发布),读取方应该先取局部引用再以矩阵的行数作为数量.
+	 * </pre>
 	 */
-	protected DenseMatrix userFactors;
+	protected volatile DenseMatrix userFactors;
 
 	/**
 	 * item latent factors
+	 * 
+	 * <pre>
+	 * 增量更新时整体替换(volatile发布),读取方应该先取局部引用再以矩阵的行数作为数量.
+	 * </pre>
 	 */
-	protected DenseMatrix itemFactors;
+	protected volatile DenseMatrix itemFactors;
 
 	/**
 	 * the number of latent factors;
@@ -77,6 +167,48 @@ public abstract class MatrixFactorizationRecommender extends ModelRecommender {
 
 	protected ContinuousProbability distribution;
 
+	/** 是否使用批量预测的优化实现(子类重写了单个预测时不使用,只取决于类,所以在构造时计算) */
+	private final boolean isBatched = !isOverridden(MatrixFactorizationRecommender.class, "predict", int.class, int.class) && !isOverridden(MatrixFactorizationRecommender.class, "predict", int[].class, float[].class);
+
+	/** 工作者数量 */
+	protected int numberOfWorkers;
+
+	/** 工作者的随机数 */
+	private Random[] workerRandoms;
+
+	/** 是否分层学习(DSGD) */
+	protected boolean isStratified;
+
+	/** 用户块与物品块的边界(延迟构建) */
+	private int[] userBlocks, itemBlocks;
+
+	/** 每个用户在每个物品块的开始位置(延迟构建) */
+	private int[] blockPositions;
+
+	/** 内积索引的类型(参考{@link ProductIndex#nameOf}) */
+	private String indexType = "exact";
+
+	/** 内积索引的簇数量, 探测数量(0表示根据物品数量决定), 迭代次数 */
+	private int indexClusters, indexProbes, indexIterations = 10;
+
+	/** 评估内积索引召回率的抽样用户数量, TopN的大小 */
+	private int recallSamples, recallSize = 10;
+
+	/** 抽样用户的随机数种子(使用独立的随机数,不影响RandomUtility的序列) */
+	private long recallSeed;
+
+	/** 内积索引(延迟构建) */
+	private volatile ProductIndex productIndex;
+
+	/** 增量的评分(用户->物品->评分, 物品->用户->评分) */
+	private Int2ObjectOpenHashMap<Int2FloatOpenHashMap> userIncrements = new Int2ObjectOpenHashMap<>(), itemIncrements = new Int2ObjectOpenHashMap<>();
+
+	/** 清扫的物品游标 */
+	private int sweepCursor;
+
+	/** 后台清扫的执行器 */
+	private ScheduledExecutorService sweepExecutor;
+
 	@Override
 	public void prepare(Configuration configuration, SampleAccessor marker, InstanceAccessor model, DataSpace space) {
 		super.prepare(configuration, marker, model, space);
@@ -104,6 +236,32 @@ public abstract class MatrixFactorizationRecommender extends ModelRecommender {
 		itemFactors.iterateElement(MathCalculator.SERIAL, (scalar) -> {
 			scalar.setValue(distribution.sample().floatValue());
 		});
+		numberOfWorkers = configuration.getInteger("rec.thread.count", 1);
+		if (numberOfWorkers < 1) {
+			throw new RecommendationException("工作者数量必须大于0");
+		}
+		isStratified = configuration.getBoolean("rec.thread.stratified", false);
+		userBlocks = null;
+		itemBlocks = null;
+		blockPositions = null;
+		if (numberOfWorkers > 1) {
+			// 随机数的种子来自RandomUtility,保证相同的种子得到相同的随机序列
+			workerRandoms = new Random[numberOfWorkers];
+			for (int index = 0; index < numberOfWorkers; index++) {
+				workerRandoms[index] = new Random(RandomUtility.randomInteger(Integer.MAX_VALUE));
+			}
+		}
+		indexType = configuration.getString("rec.index.type", "exact");
+		indexClusters = configuration.getInteger("rec.index.cluster.number", 0);
+		indexProbes = configuration.getInteger("rec.index.cluster.probe", 0);
+		indexIterations = configuration.getInteger("rec.index.cluster.iteration", 10);
+		recallSamples = configuration.getInteger("rec.index.recall.sample", 0);
+		recallSize = configuration.getInteger("rec.recommender.ranking.topn", 10);
+		recallSeed = configuration.getLong("rec.random.seed", 0L);
+		productIndex = null;
+		userIncrements.clear();
+		itemIncrements.clear();
+		sweepCursor = 0;
 	}
 
 	protected float predict(int userIndex, int itemIndex) {
@@ -120,6 +278,694 @@ public abstract class MatrixFactorizationRecommender extends ModelRecommender {
 		return predict(userIndex, itemIndex);
 	}
 
+	@Override
+	public void predict(int[] dicreteFeatures, float[] continuousFeatures, int[] itemIndexes, float[] scores) {
+		if (!isBatched) {
+			super.predict(dicreteFeatures, continuousFeatures, itemIndexes, scores);
+			return;
+		}
+		// 用户因子只复制一次,物品因子直接按照元素读取,不为每个物品构建行向量(累加顺序与单个预测相同)
+		int userIndex = dicreteFeatures[userDimension];
+		DenseMatrix itemMatrix = itemFactors;
+		float[] userVector = getUserVector(userIndex);
+		for (int index = 0, size = itemIndexes.length; index < size; index++) {
+			int itemIndex = itemIndexes[index];
+			dicreteFeatures[itemDimension] = itemIndex;
+			float value = 0F;
+			for (int factorIndex = 0; factorIndex < numberOfFactors; factorIndex++) {
+				value += userVector[factorIndex] * itemMatrix.getValue(itemIndex, factorIndex);
+			}
+			scores[index] = value;
+		}
+	}
+
+	/**
+	 * 获取内积索引
+	 * 
+	 * <pre>
+	 * 在practice之后根据itemFactors延迟构建,重新prepare之后失效.
+	 * rec.index.recall.sample大于0时,抽样用户计算索引相对于精确搜索的召回率并记录日志.
+	 * </pre>
+	 * 
+	 * @return
+	 */
+	public ProductIndex getIndex() {
+		if (productIndex == null) {
+			synchronized (this) {
+				if (productIndex == null) {
+					productIndex = buildIndex();
+				}
+			}
+		}
+		return productIndex;
+	}
+
+	private ProductIndex buildIndex() {
+		DenseMatrix itemMatrix = itemFactors;
+		int itemSize = itemMatrix.getRowSize();
+		float[] vectors = new float[itemSize * numberOfFactors];
+		for (int itemIndex = 0; itemIndex < itemSize; itemIndex++) {
+			for (int factorIndex = 0; factorIndex < numberOfFactors; factorIndex++) {
+				vectors[itemIndex * numberOfFactors + factorIndex] = itemMatrix.getValue(itemIndex, factorIndex);
+			}
+		}
+		// 从快照加载时没有经过prepare,使用默认的配置
+		int clusters = indexClusters > 0 ? indexClusters : Math.max(1, (int) Math.sqrt(itemSize));
+		int probes = indexProbes > 0 ? indexProbes : Math.max(1, clusters / 10);
+		long now = System.currentTimeMillis();
+		ProductIndex index = ProductIndex.nameOf(indexType, vectors, numberOfFactors, clusters, probes, indexIterations);
+		if (logger.isInfoEnabled()) {
+			logger.info(StringUtility.format("{} index build time is {}", indexType, System.currentTimeMillis() - now));
+		}
+		if (recallSamples > 0 && !(index instanceof ExactProductIndex) && logger.isInfoEnabled()) {
+			Random random = new Random(recallSeed);
+			float[][] queries = new float[recallSamples][];
+			for (int sample = 0; sample < recallSamples; sample++) {
+				queries[sample] = getUserVector(random.nextInt(getNumberOfUsers()));
+			}
+			float recall = ProductIndex.getRecall(index, new ExactProductIndex(vectors, numberOfFactors), queries, recallSize);
+			logger.info(StringUtility.format("{} index recall@{} is {}", indexType, recallSize, recall));
+		}
+		return index;
+	}
+
+	private float[] getUserVector(int userIndex) {
+		DenseMatrix userMatrix = userFactors;
+		float[] query = new float[numberOfFactors];
+		for (int factorIndex = 0; factorIndex < numberOfFactors; factorIndex++) {
+			query[factorIndex] = userMatrix.getValue(userIndex, factorIndex);
+		}
+		return query;
+	}
+
+	/**
+	 * 获取用户得分最高的N个物品
+	 * 
+	 * <pre>
+	 * 得分为用户因子与物品因子的内积时使用内积索引(可能是近似的),
+	 * 子类重写了预测(例如包含偏置)时遍历所有物品.
+	 * </pre>
+	 * 
+	 * @param userIndex
+	 * @param size
+	 *            TopN的大小
+	 * @param excludes
+	 *            需要排除的物品(可以为null)
+	 * @return 按照得分降序整理过的排名堆
+	 */
+	public RankingHeap topN(int userIndex, int size, IntSet excludes) {
+		return topN(userIndex, size, excludes == null ? null : (IntPredicate) excludes::contains);
+	}
+
+	/**
+	 * 获取用户得分最高的N个物品
+	 * 
+	 * @param userIndex
+	 * @param size
+	 *            TopN的大小
+	 * @param excludes
+	 *            需要排除的物品(可以为null)
+	 * @return 按照得分降序整理过的排名堆
+	 */
+	public RankingHeap topN(int userIndex, int size, IntPredicate excludes) {
+		if (isBatched) {
+			return getIndex().topN(getUserVector(userIndex), size, excludes);
+		}
+		int itemSize = getNumberOfItems();
+		RankingHeap heap = new RankingHeap(Math.min(size, itemSize));
+		for (int itemIndex = 0; itemIndex < itemSize; itemIndex++) {
+			if (excludes != null && excludes.test(itemIndex)) {
+				continue;
+			}
+			heap.offer(itemIndex, predict(userIndex, itemIndex));
+		}
+		heap.sort();
+		return heap;
+	}
+
+	/**
+	 * 增量更新
+	 * 
+	 * <pre>
+	 * 在不重新训练的情况下合并新的评分(用于交替最小二乘的推荐器):
+	 * 1.索引超出当前数量的用户与物品(通过DiscreteAttribute.makeValue追加)扩展因子矩阵;
+	 * 2.固定物品因子,重新求解受影响的用户行;
+	 * 3.固定用户因子,求解新的物品行,再重新求解评分了新物品的用户行.
+	 * 已有的物品行只由{@link #sweep}刷新.
+	 * 相同的用户与物品以最后的评分为准.更新期间不阻塞预测.
+	 * 因子矩阵先于数量替换,并发的读取方以矩阵的行数为准(参考{@link #getNumberOfUsers}与{@link #getNumberOfItems}).
+	 * </pre>
+	 * 
+	 * @param userIndexes
+	 * @param itemIndexes
+	 * @param scores
+	 */
+	public synchronized void update(int[] userIndexes, int[] itemIndexes, float[] scores) {
+		// 在修改任何状态之前检查,避免不支持的推荐器留下扩展之后的因子与数量
+		if (!isUpdatable()) {
+			throw new RecommendationException(getClass().getSimpleName() + "不支持增量更新");
+		}
+		if (userIndexes.length != itemIndexes.length || userIndexes.length != scores.length) {
+			throw new RecommendationException("用户,物品与评分的数量必须相同");
+		}
+		int userSize = numberOfUsers, itemSize = numberOfItems;
+		int maximumOfUser = userSize - 1, maximumOfItem = itemSize - 1;
+		for (int index = 0, size = scores.length; index < size; index++) {
+			maximumOfUser = Math.max(maximumOfUser, userIndexes[index]);
+			maximumOfItem = Math.max(maximumOfItem, itemIndexes[index]);
+		}
+		if (maximumOfUser >= userSize || maximumOfItem >= itemSize) {
+			// 先替换矩阵再修改数量,保证并发的预测不会越界
+			userFactors = expandFactors(userFactors, maximumOfUser + 1);
+			itemFactors = expandFactors(itemFactors, maximumOfItem + 1);
+			numberOfUsers = maximumOfUser + 1;
+			numberOfItems = maximumOfItem + 1;
+			expandModel(userSize, itemSize);
+		}
+		IntOpenHashSet users = new IntOpenHashSet();
+		IntOpenHashSet items = new IntOpenHashSet();
+		for (int index = 0, size = scores.length; index < size; index++) {
+			int userIndex = userIndexes[index];
+			int itemIndex = itemIndexes[index];
+			float score = scores[index];
+			getIncrements(userIncrements, userIndex).put(itemIndex, score);
+			getIncrements(itemIncrements, itemIndex).put(userIndex, score);
+			users.add(userIndex);
+			if (itemIndex >= itemSize) {
+				items.add(itemIndex);
+			}
+		}
+		updateUsers(getIndexes(users));
+		if (!items.isEmpty()) {
+			updateItems(getIndexes(items));
+			users.clear();
+			for (int index = 0, size = scores.length; index < size; index++) {
+				if (itemIndexes[index] >= itemSize) {
+					users.add(userIndexes[index]);
+				}
+			}
+			updateUsers(getIndexes(users));
+		}
+		productIndex = null;
+	}
+
+	/**
+	 * 清扫(按照顺序循环地刷新物品行)
+	 * 
+	 * <pre>
+	 * 固定用户因子,重新求解从上次清扫结束位置开始的numberOfRows个物品行.
+	 * </pre>
+	 * 
+	 * @param numberOfRows
+	 */
+	public synchronized void sweep(int numberOfRows) {
+		if (!isUpdatable()) {
+			throw new RecommendationException(getClass().getSimpleName() + "不支持增量更新");
+		}
+		int size = Math.min(numberOfRows, numberOfItems);
+		if (size <= 0) {
+			return;
+		}
+		int[] itemIndexes = new int[size];
+		for (int index = 0; index < size; index++) {
+			itemIndexes[index] = (sweepCursor + index) % numberOfItems;
+		}
+		sweepCursor = (sweepCursor + size) % numberOfItems;
+		updateItems(itemIndexes);
+		productIndex = null;
+	}
+
+	/**
+	 * 启动后台清扫
+	 * 
+	 * @param period
+	 *            清扫的间隔(毫秒)
+	 * @param numberOfRows
+	 *            每次清扫的物品行数量
+	 */
+	public synchronized void startSweep(long period, int numberOfRows) {
+		if (!isUpdatable()) {
+			throw new RecommendationException(getClass().getSimpleName() + "不支持增量更新");
+		}
+		if (sweepExecutor != null) {
+			throw new RecommendationException("后台清扫已经启动");
+		}
+		sweepExecutor = Executors.newSingleThreadScheduledExecutor((runnable) -> {
+			Thread thread = new Thread(runnable, getClass().getSimpleName() + "-sweep");
+			thread.setDaemon(true);
+			return thread;
+		});
+		sweepExecutor.scheduleWithFixedDelay(() -> {
+			try {
+				sweep(numberOfRows);
+			} catch (Exception exception) {
+				logger.error("后台清扫异常", exception);
+			}
+		}, period, period, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * 停止后台清扫(等待正在执行的清扫结束)
+	 */
+	public void stopSweep() {
+		ScheduledExecutorService executor;
+		// 在锁之外等待,避免与正在等待锁的清扫死锁
+		synchronized (this) {
+			executor = sweepExecutor;
+			sweepExecutor = null;
+		}
+		if (executor == null) {
+			return;
+		}
+		executor.shutdown();
+		try {
+			executor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+		} catch (InterruptedException exception) {
+			throw new RecommendationException(exception);
+		}
+	}
+
+	/**
+	 * 获取用户数量(包括增量更新追加的用户)
+	 * 
+	 * @return
+	 */
+	public int getNumberOfUsers() {
+		DenseMatrix factors = userFactors;
+		return factors == null ? numberOfUsers : factors.getRowSize();
+	}
+
+	/**
+	 * 获取物品数量(包括增量更新追加的物品)
+	 * 
+	 * @return
+	 */
+	public int getNumberOfItems() {
+		DenseMatrix factors = itemFactors;
+		return factors == null ? numberOfItems : factors.getRowSize();
+	}
+
+	/**
+	 * 扩展因子矩阵(新的行按照初始分布随机)
+	 * 
+	 * @param factors
+	 * @param size
+	 * @return
+	 */
+	private DenseMatrix expandFactors(DenseMatrix factors, int size) {
+		if (factors.getRowSize() == size) {
+			return factors;
+		}
+		DenseMatrix matrix = DenseMatrix.valueOf(size, numberOfFactors);
+		for (int row = 0, rowSize = factors.getRowSize(); row < size; row++) {
+			if (row < rowSize) {
+				matrix.getRowVector(row).copyVector(factors.getRowVector(row));
+			} else {
+				for (int column = 0; column < numberOfFactors; column++) {
+					// 从快照加载时没有经过prepare
+					matrix.setValue(row, column, distribution == null ? 0F : distribution.sample().floatValue());
+				}
+			}
+		}
+		return matrix;
+	}
+
+	private static Int2FloatOpenHashMap getIncrements(Int2ObjectOpenHashMap<Int2FloatOpenHashMap> increments, int index) {
+		Int2FloatOpenHashMap scores = increments.get(index);
+		if (scores == null) {
+			scores = new Int2FloatOpenHashMap();
+			increments.put(index, scores);
+		}
+		return scores;
+	}
+
+	private static int[] getIndexes(IntOpenHashSet indexes) {
+		int[] keys = indexes.toIntArray();
+		Arrays.sort(keys);
+		return keys;
+	}
+
+	/**
+	 * 扩展模型(用户与物品的数量增加之后,因子矩阵已经扩展)
+	 * 
+	 * <pre>
+	 * 子类在此扩展与用户或者物品数量相关的状态.
+	 * </pre>
+	 * 
+	 * @param userSize
+	 *            扩展之前的用户数量
+	 * @param itemSize
+	 *            扩展之前的物品数量
+	 */
+	protected void expandModel(int userSize, int itemSize) {
+	}
+
+	/**
+	 * 是否支持增量更新({@link #update}与{@link #sweep})
+	 * 
+	 * <pre>
+	 * 支持的推荐器(交替最小二乘)必须同时重写{@link #updateUsers}与{@link #updateItems}.
+	 * </pre>
+	 * 
+	 * @return
+	 */
+	protected boolean isUpdatable() {
+		return false;
+	}
+
+	/**
+	 * 固定物品因子,重新求解指定的用户行
+	 * 
+	 * @param userIndexes
+	 */
+	protected void updateUsers(int[] userIndexes) {
+		throw new RecommendationException(getClass().getSimpleName() + "不支持增量更新");
+	}
+
+	/**
+	 * 固定用户因子,重新求解指定的物品行
+	 * 
+	 * @param itemIndexes
+	 */
+	protected void updateItems(int[] itemIndexes) {
+		throw new RecommendationException(getClass().getSimpleName() + "不支持增量更新");
+	}
+
+	/**
+	 * 获取用户的评分(合并训练数据与增量的评分,按照物品索引升序)
+	 * 
+	 * @param userIndex
+	 * @return
+	 */
+	protected ArrayVector getUserScores(int userIndex) {
+		SparseVector vector = trainMatrix == null || userIndex >= trainMatrix.getRowSize() ? null : trainMatrix.getRowVector(userIndex);
+		return getScores(vector, userIncrements.get(userIndex));
+	}
+
+	/**
+	 * 获取物品的评分(合并训练数据与增量的评分,按照用户索引升序)
+	 * 
+	 * @param itemIndex
+	 * @return
+	 */
+	protected ArrayVector getItemScores(int itemIndex) {
+		SparseVector vector = trainMatrix == null || itemIndex >= trainMatrix.getColumnSize() ? null : trainMatrix.getColumnVector(itemIndex);
+		return getScores(vector, itemIncrements.get(itemIndex));
+	}
+
+	private static ArrayVector getScores(SparseVector vector, Int2FloatOpenHashMap increments) {
+		Int2FloatOpenHashMap scores = new Int2FloatOpenHashMap();
+		if (vector != null) {
+			for (int position = 0, size = vector.getElementSize(); position < size; position++) {
+				scores.put(vector.getIndex(position), vector.getValue(position));
+			}
+		}
+		if (increments != null) {
+			scores.putAll(increments);
+		}
+		int capacity = scores.size();
+		int[] indexes = scores.keySet().toIntArray();
+		Arrays.sort(indexes);
+		float[] values = new float[capacity];
+		for (int position = 0; position < capacity; position++) {
+			values[position] = scores.get(indexes[position]);
+		}
+		return new ArrayVector(capacity, indexes, values);
+	}
+
+	/**
+	 * 求解一行因子(加权最小二乘)
+	 * 
+	 * <pre>
+	 * x = (G + Σ a_j * y_j * y_j^T + λ * I)^-1 * Σ b_j * y_j
+	 * 其中y_j为固定因子中与此行有评分的行.
+	 * </pre>
+	 * 
+	 * @param factors
+	 *            需要求解的因子
+	 * @param row
+	 * @param fixedFactors
+	 *            固定的因子
+	 * @param symmetryMatrix
+	 *            G(可以为null)
+	 * @param vector
+	 *            此行的评分(索引为固定因子的行)
+	 * @param matrixWeights
+	 *            a(按照评分的位置)
+	 * @param vectorWeights
+	 *            b(按照评分的位置)
+	 * @param regularization
+	 *            λ
+	 */
+	protected void solveFactors(DenseMatrix factors, int row, DenseMatrix fixedFactors, DenseMatrix symmetryMatrix, MathVector vector, float[] matrixWeights, float[] vectorWeights, float regularization) {
+		DenseMatrix factorMatrix = DenseMatrix.valueOf(numberOfFactors, numberOfFactors);
+		DenseMatrix copyMatrix = DenseMatrix.valueOf(numberOfFactors, numberOfFactors);
+		DenseMatrix inverseMatrix = DenseMatrix.valueOf(numberOfFactors, numberOfFactors);
+		DenseVector factorVector = DenseVector.valueOf(numberOfFactors);
+		for (int position = 0, size = vector.getElementSize(); position < size; position++) {
+			int index = vector.getIndex(position);
+			float matrixWeight = matrixWeights[position];
+			float vectorWeight = vectorWeights[position];
+			for (int leftFactorIndex = 0; leftFactorIndex < numberOfFactors; leftFactorIndex++) {
+				float value = fixedFactors.getValue(index, leftFactorIndex);
+				factorVector.shiftValue(leftFactorIndex, vectorWeight * value);
+				for (int rightFactorIndex = 0; rightFactorIndex < numberOfFactors; rightFactorIndex++) {
+					factorMatrix.shiftValue(leftFactorIndex, rightFactorIndex, matrixWeight * value * fixedFactors.getValue(index, rightFactorIndex));
+				}
+			}
+		}
+		for (int leftFactorIndex = 0; leftFactorIndex < numberOfFactors; leftFactorIndex++) {
+			if (symmetryMatrix != null) {
+				for (int rightFactorIndex = 0; rightFactorIndex < numberOfFactors; rightFactorIndex++) {
+					factorMatrix.shiftValue(leftFactorIndex, rightFactorIndex, symmetryMatrix.getValue(leftFactorIndex, rightFactorIndex));
+				}
+			}
+			factorMatrix.shiftValue(leftFactorIndex, leftFactorIndex, regularization);
+		}
+		factors.getRowVector(row).dotProduct(MatrixUtility.inverse(factorMatrix, copyMatrix, inverseMatrix), false, factorVector, MathCalculator.SERIAL);
+	}
+
+	/**
+	 * 累计的正则收缩系数
+	 * 
+	 * <pre>
+	 * 批量更新时把count次正则收缩(1 - learnRate * regularization)合并为一次乘法,结果限制在[0,1]之间.
+	 * 直接减去learnRate * count * regularization * factor在其大于2时会使因子反号并且逐个周期发散.
+	 * </pre>
+	 * 
+	 * @param learnRate
+	 * @param regularization
+	 * @param count
+	 *            收缩的次数
+	 * @return
+	 */
+	protected static float getShrink(float learnRate, float regularization, int count) {
+		float shrink = 1F - learnRate * regularization;
+		if (shrink <= 0F) {
+			return 0F;
+		}
+		if (shrink >= 1F) {
+			return 1F;
+		}
+		return (float) Math.pow(shrink, count);
+	}
+
+	/**
+	 * 学习一个周期
+	 * 
+	 * <pre>
+	 * Hogwild!: A lock-free approach to parallelizing stochastic gradient descent
+	 * 样本按照连续的区间分配给各个工作者,工作者之间不加锁直接更新共享的因子.
+	 * 损失按照工作者的顺序汇总,学习率在周期之间由isLearned调整.
+	 * 只有一个工作者时在当前线程执行,随机数委托给RandomUtility,
+	 * 样本的顺序与损失的求和顺序都与原有实现一致(学习器在从0开始的局部损失上逐项累加).
+	 * </pre>
+	 * 
+	 * @param numberOfSamples
+	 *            样本数量
+	 * @param learner
+	 * @return 损失
+	 */
+	protected float doEpoch(int numberOfSamples, GradientLearner learner) {
+		if (numberOfWorkers == 1) {
+			// 委托给RandomUtility,保证单个工作者时与原有实现一致
+			return learner.learn(SampleUtility.UTILITY_RANDOM, 0, numberOfSamples);
+		}
+		float[] losses = new float[numberOfWorkers];
+		doWorkers((worker) -> {
+			int from = (int) ((long) numberOfSamples * worker / numberOfWorkers);
+			int to = (int) ((long) numberOfSamples * (worker + 1) / numberOfWorkers);
+			losses[worker] = learner.learn(workerRandoms[worker], from, to);
+		});
+		float loss = 0F;
+		for (int index = 0; index < numberOfWorkers; index++) {
+			loss += losses[index];
+		}
+		return loss;
+	}
+
+	/**
+	 * 按照评分学习一个周期
+	 * 
+	 * <pre>
+	 * 只有一个工作者时按照trainMatrix的迭代顺序学习,损失在同一个累加器上逐项累加,与原有实现的结果完全一致.
+	 * 多个工作者时默认按照用户切割评分(Hogwild!),损失的求和顺序与串行不同.
+	 * 分层学习时(rec.thread.stratified)参考DSGD:
+	 * Gemulla et al., Large-scale matrix factorization with distributed stochastic gradient descent, KDD 2011.
+	 * 按照用户与物品把trainMatrix切割为p×p个块(p为工作者数量,按照评分数量均衡),
+	 * 每个子周期并行处理一层互不冲突(用户与物品都不重叠)的块,因此结果与线程调度无关.
+	 * </pre>
+	 * 
+	 * @param learner
+	 * @return 损失
+	 */
+	protected float doEpoch(RatingLearner learner) {
+		if (numberOfWorkers == 1) {
+			float loss = 0F;
+			for (MatrixScalar term : trainMatrix) {
+				loss = learner.learn(term.getRow(), term.getColumn(), term.getValue(), loss);
+			}
+			return loss;
+		}
+		if (!isStratified) {
+			return doEpoch(numberOfUsers, (random, from, to) -> {
+				float loss = 0F;
+				for (int userIndex = from; userIndex < to; userIndex++) {
+					SparseVector userVector = trainMatrix.getRowVector(userIndex);
+					for (int position = 0, size = userVector.getElementSize(); position < size; position++) {
+						loss = learner.learn(userIndex, userVector.getIndex(position), userVector.getValue(position), loss);
+					}
+				}
+				return loss;
+			});
+		}
+		if (blockPositions == null) {
+			buildBlocks();
+		}
+		// 每个周期随机打乱层的顺序
+		int[] strata = new int[numberOfWorkers];
+		for (int index = 0; index < numberOfWorkers; index++) {
+			strata[index] = index;
+		}
+		RandomUtility.shuffle(strata);
+		float[] losses = new float[numberOfWorkers * numberOfWorkers];
+		for (int stratum : strata) {
+			doWorkers((userBlock) -> {
+				int itemBlock = (userBlock + stratum) % numberOfWorkers;
+				float loss = 0F;
+				for (int userIndex = userBlocks[userBlock], userSize = userBlocks[userBlock + 1]; userIndex < userSize; userIndex++) {
+					SparseVector userVector = trainMatrix.getRowVector(userIndex);
+					int cursor = userIndex * (numberOfWorkers + 1) + itemBlock;
+					for (int position = blockPositions[cursor], size = blockPositions[cursor + 1]; position < size; position++) {
+						loss = learner.learn(userIndex, userVector.getIndex(position), userVector.getValue(position), loss);
+					}
+				}
+				losses[userBlock * numberOfWorkers + itemBlock] = loss;
+			});
+		}
+		// 按照块的顺序汇总,保证结果确定
+		float loss = 0F;
+		for (int index = 0, size = losses.length; index < size; index++) {
+			loss += losses[index];
+		}
+		return loss;
+	}
+
+	/**
+	 * 构建块
+	 */
+	private void buildBlocks() {
+		userBlocks = new int[numberOfWorkers + 1];
+		itemBlocks = new int[numberOfWorkers + 1];
+		int[] userCounts = new int[numberOfUsers];
+		for (int userIndex = 0; userIndex < numberOfUsers; userIndex++) {
+			userCounts[userIndex] = trainMatrix.getRowScope(userIndex);
+		}
+		int[] itemCounts = new int[numberOfItems];
+		for (int itemIndex = 0; itemIndex < numberOfItems; itemIndex++) {
+			itemCounts[itemIndex] = trainMatrix.getColumnScope(itemIndex);
+		}
+		balanceBlocks(userCounts, userBlocks);
+		balanceBlocks(itemCounts, itemBlocks);
+		blockPositions = new int[numberOfUsers * (numberOfWorkers + 1)];
+		for (int userIndex = 0; userIndex < numberOfUsers; userIndex++) {
+			SparseVector userVector = trainMatrix.getRowVector(userIndex);
+			int cursor = userIndex * (numberOfWorkers + 1);
+			int position = 0, size = userVector.getElementSize();
+			for (int itemBlock = 0; itemBlock <= numberOfWorkers; itemBlock++) {
+				// 行向量按照物品索引有序
+				while (position < size && userVector.getIndex(position) < itemBlocks[itemBlock]) {
+					position++;
+				}
+				blockPositions[cursor + itemBlock] = position;
+			}
+		}
+	}
+
+	/**
+	 * 按照数量均衡地切割连续的索引
+	 * 
+	 * @param counts
+	 * @param blocks
+	 */
+	private void balanceBlocks(int[] counts, int[] blocks) {
+		long total = 0L;
+		for (int count : counts) {
+			total += count;
+		}
+		int numberOfBlocks = blocks.length - 1;
+		long sum = 0L;
+		for (int index = 0, block = 1; index < counts.length && block < numberOfBlocks; index++) {
+			sum += counts[index];
+			while (block < numberOfBlocks && sum * numberOfBlocks >= total * block) {
+				blocks[block++] = index + 1;
+			}
+		}
+		blocks[numberOfBlocks] = counts.length;
+		for (int block = 1; block < numberOfBlocks; block++) {
+			if (blocks[block] < blocks[block - 1]) {
+				blocks[block] = blocks[block - 1];
+			}
+		}
+	}
+
+	/**
+	 * 每个工作者执行一次任务,等待所有工作者结束
+	 * 
+	 * @param task
+	 *            参数为工作者索引
+	 */
+	private void doWorkers(IntConsumer task) {
+		EnvironmentContext context = EnvironmentContext.getContext();
+		AtomicReference<Throwable> failure = new AtomicReference<>();
+		CountDownLatch latch = new CountDownLatch(numberOfWorkers);
+		for (int index = 0; index < numberOfWorkers; index++) {
+			int worker = index;
+			context.doAlgorithmByAny(worker, monitor.measure(() -> {
+				try {
+					task.accept(worker);
+				} catch (Throwable throwable) {
+					failure.compareAndSet(null, throwable);
+				} finally {
+					latch.countDown();
+				}
+			}));
+		}
+		try {
+			latch.await();
+		} catch (Exception exception) {
+			throw new RecommendationException(exception);
+		}
+		if (failure.get() != null) {
+			throw new RecommendationException(failure.get());
+		}
+	}
+
+	@Override
+	protected float getLearnRate() {
+		return learnRate;
+	}
+
 	/**
 	 * Update current learning rate after each epoch <br>
 	 * <ol>
@@ -154,6 +1000,13 @@ public abstract class MatrixFactorizationRecommender extends ModelRecommender {
 	// TODO 此方法准备取消,利用向量的有序性代替
 	protected List<IntSet> getUserItemSet(SparseMatrix sparseMatrix) {
 		List<IntSet> userItemSet = new ArrayList<>(numberOfUsers);
+		// 共享的训练矩阵直接使用缓存的只读集合
+		if (sparseMatrix == dataCache.getMatrix()) {
+			for (int userIndex = 0; userIndex < numberOfUsers; userIndex++) {
+				userItemSet.add(dataCache.getRowSet(userIndex));
+			}
+			return userItemSet;
+		}
 		for (int userIndex = 0; userIndex < numberOfUsers; userIndex++) {
 			SparseVector userVector = sparseMatrix.getRowVector(userIndex);
 			IntSet indexes = new IntOpenHashSet();
@@ -1,11 +1,15 @@
 package com.jstarcraft.recommendation.recommender;
 
 import com.jstarcraft.ai.utility.MathUtility;
+import com.jstarcraft.core.utility.StringUtility;
 import com.jstarcraft.recommendation.configure.Configuration;
 import com.jstarcraft.recommendation.data.DataSpace;
 import com.jstarcraft.recommendation.data.accessor.InstanceAccessor;
 import com.jstarcraft.recommendation.data.accessor.SampleAccessor;
 import com.jstarcraft.recommendation.exception.RecommendationException;
+import com.jstarcraft.recommendation.monitor.TrainingListener;
+import com.jstarcraft.recommendation.monitor.TrainingMetric;
+import com.jstarcraft.recommendation.monitor.TrainingMonitor;
 import com.jstarcraft.recommendation.utility.LogisticUtility;
 
 /**
@@ -29,6 +33,9 @@ public abstract class ModelRecommender extends AbstractRecommender {
 	/** 用于观察损失率 */
 	protected float totalLoss, currentLoss = 0F;
 
+	/** 训练监控 */
+	protected final TrainingMonitor monitor = new TrainingMonitor(getClass().getSimpleName());
+
 	@Override
 	public void prepare(Configuration configuration, SampleAccessor marker, InstanceAccessor model, DataSpace space) {
 		super.prepare(configuration, marker, model, space);
@@ -37,6 +44,54 @@ public abstract class ModelRecommender extends AbstractRecommender {
 		isConverged = configuration.getBoolean("rec.recommender.earlystop", false);
 	}
 
+	@Override
+	protected void startPractice() {
+		monitor.start();
+	}
+
+	public void addListener(TrainingListener listener) {
+		monitor.addListener(listener);
+	}
+
+	public void removeListener(TrainingListener listener) {
+		monitor.removeListener(listener);
+	}
+
+	/**
+	 * 获取学习率
+	 * 
+	 * @return 学习率(没有则为NaN)
+	 */
+	protected float getLearnRate() {
+		return Float.NaN;
+	}
+
+	/**
+	 * 标记阶段
+	 * 
+	 * @param iteration
+	 * @param phase
+	 */
+	protected void notifyPhase(int iteration, String phase) {
+		TrainingMetric metric = monitor.notifyPhase(iteration, phase);
+		if (logger.isInfoEnabled()) {
+			logger.info(StringUtility.format("{} time is {}", phase, metric.getWallTime() / 1000000L));
+		}
+	}
+
+	/**
+	 * 标记周期
+	 * 
+	 * <pre>
+	 * 样本数量按照行为数量估计.
+	 * </pre>
+	 * 
+	 * @param iteration
+	 */
+	protected void notifyEpoch(int iteration) {
+		monitor.notifyEpoch(iteration, totalLoss, currentLoss - totalLoss, getLearnRate(), numberOfActions);
+	}
+
 	/**
 	 * 是否收敛
 	 * 
@@ -44,6 +99,7 @@ public abstract class ModelRecommender extends AbstractRecommender {
 	 * @return
 	 */
 	protected boolean isConverged(int iteration) {
+		notifyEpoch(iteration);
 		float deltaError = currentLoss - totalLoss;
 		// print out debug info
 		if (logger.isInfoEnabled()) {
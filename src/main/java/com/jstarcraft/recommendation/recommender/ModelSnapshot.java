@@ -0,0 +1,832 @@
+package com.jstarcraft.recommendation.recommender;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.Map;
+
+import com.jstarcraft.ai.math.structure.matrix.DenseMatrix;
+import com.jstarcraft.ai.math.structure.matrix.SparseMatrix;
+import com.jstarcraft.ai.math.structure.vector.ArrayVector;
+import com.jstarcraft.ai.math.structure.vector.DenseVector;
+import com.jstarcraft.ai.math.structure.vector.MathVector;
+import com.jstarcraft.ai.math.structure.vector.SparseVector;
+import com.jstarcraft.ai.model.ModelDefinition;
+import com.jstarcraft.core.utility.ReflectionUtility;
+import com.jstarcraft.recommendation.data.processor.DataMerger;
+import com.jstarcraft.recommendation.data.processor.SparseTable;
+import com.jstarcraft.recommendation.exception.RecommendationException;
+import com.jstarcraft.recommendation.utility.NeighborMatrix;
+
+/**
+ * 模型快照
+ *
+ * <pre>
+ * 按照{@link ModelDefinition}声明的字段(沿着继承层次合并)保存与加载推荐器的模型.
+ *
+ * 格式(小端序):
+ * 头部:魔数,版本,推荐器类型,字段数量
+ * 字段:名称,类型,内容
+ *
+ * 数组(包括稠密向量/矩阵,邻居矩阵,稀疏矩阵与稀疏向量数组的CSR)按照8字节对齐,
+ * 加载时通过FileChannel.map按照不超过1GB的窗口映射(快照与单个数组都可以超过2GB),
+ * {@link #getIntBuffers}/{@link #getFloatBuffers}直接访问映射的内容(不复制),多个进程加载同一个快照时共享页缓存.
+ * 服务只需要读取模型时应该使用映射的视图.
+ * {@link #setModel}恢复推荐器时,由于稠密矩阵等结构基于堆数组,需要从映射批量复制一次(占用与模型相同的堆内存).
+ * </pre>
+ *
+ * @author Birdy
+ *
+ */
+public class ModelSnapshot {
+
+	/** 魔数 */
+	private static final int MAGIC = 0x4A53524D;
+
+	/** 版本 */
+	public static final int VERSION = 1;
+
+	/** 对齐 */
+	private static final int ALIGNMENT = 8;
+
+	/** 映射窗口(字节) */
+	private static final int WINDOW = 1 << 30;
+
+	/** 字段类型 */
+	private static final byte NULL = 0, BOOLEAN = 1, INTEGER = 2, LONG = 3, FLOAT = 4, DOUBLE = 5, STRING = 6, INTEGER_ARRAY = 7, FLOAT_ARRAY = 8, DENSE_VECTOR = 9, DENSE_MATRIX = 10, NEIGHBOR_MATRIX = 11, SPARSE_MATRIX = 12, SPARSE_VECTORS = 13, ARRAY_VECTORS = 14, OBJECT = 15;
+
+	/**
+	 * 字段条目
+	 */
+	private static class Entry {
+
+		/** 类型 */
+		private byte type;
+
+		/** 标量的值 */
+		private Object value;
+
+		/** 尺寸(行数量,列数量等) */
+		private int[] sizes;
+
+		/** 映射的数组(区段,窗口) */
+		private ByteBuffer[][] buffers;
+
+	}
+
+	/**
+	 * 快照写出器
+	 *
+	 * <pre>
+	 * 通过直接缓冲区分块写出,记录位置用于对齐.
+	 * </pre>
+	 */
+	private static class SnapshotWriter implements AutoCloseable {
+
+		private final FileChannel channel;
+
+		private final ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 20).order(ByteOrder.LITTLE_ENDIAN);
+
+		private long position;
+
+		private SnapshotWriter(File file) throws Exception {
+			channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+		}
+
+		private void ensure(int size) throws Exception {
+			if (buffer.remaining() < size) {
+				flush();
+			}
+		}
+
+		private void flush() throws Exception {
+			buffer.flip();
+			while (buffer.hasRemaining()) {
+				channel.write(buffer);
+			}
+			buffer.clear();
+		}
+
+		private void putByte(byte value) throws Exception {
+			ensure(Byte.BYTES);
+			buffer.put(value);
+			position += Byte.BYTES;
+		}
+
+		private void putInteger(int value) throws Exception {
+			ensure(Integer.BYTES);
+			buffer.putInt(value);
+			position += Integer.BYTES;
+		}
+
+		private void putLong(long value) throws Exception {
+			ensure(Long.BYTES);
+			buffer.putLong(value);
+			position += Long.BYTES;
+		}
+
+		private void putFloat(float value) throws Exception {
+			ensure(Float.BYTES);
+			buffer.putFloat(value);
+			position += Float.BYTES;
+		}
+
+		private void putDouble(double value) throws Exception {
+			ensure(Double.BYTES);
+			buffer.putDouble(value);
+			position += Double.BYTES;
+		}
+
+		private void putBytes(byte[] values) throws Exception {
+			putInteger(values.length);
+			for (int offset = 0; offset < values.length;) {
+				ensure(1);
+				int length = Math.min(buffer.remaining(), values.length - offset);
+				buffer.put(values, offset, length);
+				offset += length;
+				position += length;
+			}
+		}
+
+		private void putString(String value) throws Exception {
+			putBytes(value.getBytes(StandardCharsets.UTF_8));
+		}
+
+		/**
+		 * 写出数组的长度并对齐(之后紧接着写出length个元素)
+		 */
+		private void putLength(int length) throws Exception {
+			putInteger(length);
+			while (position % ALIGNMENT != 0) {
+				putByte((byte) 0);
+			}
+		}
+
+		private void putIntegers(int[] values) throws Exception {
+			putLength(values.length);
+			for (int value : values) {
+				putInteger(value);
+			}
+		}
+
+		private void putFloats(float[] values) throws Exception {
+			putLength(values.length);
+			for (float value : values) {
+				putFloat(value);
+			}
+		}
+
+		@Override
+		public void close() throws Exception {
+			try {
+				flush();
+			} finally {
+				channel.close();
+			}
+		}
+
+	}
+
+	/**
+	 * 快照读取器
+	 *
+	 * <pre>
+	 * 标量通过滑动的窗口读取,数组按照窗口单独映射(窗口边界与元素对齐).
+	 * </pre>
+	 */
+	private static class SnapshotReader {
+
+		private final FileChannel channel;
+
+		private final long size;
+
+		private final int window;
+
+		/** 当前窗口 */
+		private MappedByteBuffer buffer;
+
+		/** 当前窗口在文件中的偏移 */
+		private long offset;
+
+		private SnapshotReader(FileChannel channel, int window) throws Exception {
+			this.channel = channel;
+			this.size = channel.size();
+			this.window = window;
+		}
+
+		private long getPosition() {
+			return buffer == null ? offset : offset + buffer.position();
+		}
+
+		private void ensure(int bytes) throws Exception {
+			if (buffer == null || buffer.remaining() < bytes) {
+				long position = getPosition();
+				long length = Math.min(window, size - position);
+				if (length < bytes) {
+					throw new RecommendationException("模型快照不完整");
+				}
+				buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+				buffer.order(ByteOrder.LITTLE_ENDIAN);
+				offset = position;
+			}
+		}
+
+		private byte getByte() throws Exception {
+			ensure(Byte.BYTES);
+			return buffer.get();
+		}
+
+		private int getInteger() throws Exception {
+			ensure(Integer.BYTES);
+			return buffer.getInt();
+		}
+
+		private long getLong() throws Exception {
+			ensure(Long.BYTES);
+			return buffer.getLong();
+		}
+
+		private float getFloat() throws Exception {
+			ensure(Float.BYTES);
+			return buffer.getFloat();
+		}
+
+		private double getDouble() throws Exception {
+			ensure(Double.BYTES);
+			return buffer.getDouble();
+		}
+
+		private byte[] getBytes() throws Exception {
+			byte[] values = new byte[getInteger()];
+			for (int from = 0; from < values.length;) {
+				ensure(1);
+				int length = Math.min(buffer.remaining(), values.length - from);
+				buffer.get(values, from, length);
+				from += length;
+			}
+			return values;
+		}
+
+		private String getString() throws Exception {
+			return new String(getBytes(), StandardCharsets.UTF_8);
+		}
+
+		/**
+		 * 读取数组的长度并对齐,返回映射的数组窗口(不复制)
+		 */
+		private ByteBuffer[] getBuffers(int bytes) throws Exception {
+			int length = getInteger();
+			long from = (getPosition() + ALIGNMENT - 1) / ALIGNMENT * ALIGNMENT;
+			long to = from + (long) length * bytes;
+			if (to > size) {
+				throw new RecommendationException("模型快照不完整");
+			}
+			long step = window / bytes * bytes;
+			ByteBuffer[] buffers = new ByteBuffer[Math.max(1, (int) ((to - from + step - 1) / step))];
+			for (int index = 0; index < buffers.length; index++) {
+				long position = from + index * step;
+				buffers[index] = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(step, to - position)).order(ByteOrder.LITTLE_ENDIAN);
+			}
+			buffer = null;
+			offset = to;
+			return buffers;
+		}
+
+	}
+
+	/** 推荐器类型 */
+	private final Class<? extends Recommender> clazz;
+
+	/** 字段条目 */
+	private final Map<String, Entry> entries;
+
+	private ModelSnapshot(Class<? extends Recommender> clazz, Map<String, Entry> entries) {
+		this.clazz = clazz;
+		this.entries = entries;
+	}
+
+	/**
+	 * 获取模型的字段名称(父类声明的字段在前)
+	 *
+	 * @param clazz
+	 * @return
+	 */
+	private static Collection<String> getNames(Class<?> clazz) {
+		LinkedList<Class<?>> hierarchy = new LinkedList<>();
+		for (Class<?> type = clazz; type != null && type != Object.class; type = type.getSuperclass()) {
+			hierarchy.addFirst(type);
+		}
+		LinkedHashSet<String> names = new LinkedHashSet<>();
+		for (Class<?> type : hierarchy) {
+			ModelDefinition definition = type.getDeclaredAnnotation(ModelDefinition.class);
+			if (definition != null) {
+				for (String name : definition.value()) {
+					names.add(name);
+				}
+			}
+		}
+		if (names.isEmpty()) {
+			throw new RecommendationException(clazz.getName() + "没有声明ModelDefinition");
+		}
+		return names;
+	}
+
+	private static Field getField(Class<?> clazz, String name) {
+		for (Class<?> type = clazz; type != null; type = type.getSuperclass()) {
+			try {
+				Field field = type.getDeclaredField(name);
+				field.setAccessible(true);
+				return field;
+			} catch (NoSuchFieldException exception) {
+				continue;
+			}
+		}
+		throw new RecommendationException(clazz.getName() + "不存在模型字段" + name);
+	}
+
+	/**
+	 * 保存模型
+	 *
+	 * @param recommender
+	 * @param file
+	 */
+	public static void saveModel(Recommender recommender, File file) {
+		Class<?> clazz = recommender.getClass();
+		Collection<String> names = getNames(clazz);
+		try (SnapshotWriter writer = new SnapshotWriter(file)) {
+			writer.putInteger(MAGIC);
+			writer.putInteger(VERSION);
+			writer.putString(clazz.getName());
+			writer.putInteger(names.size());
+			for (String name : names) {
+				Field field = getField(clazz, name);
+				writer.putString(name);
+				writeField(writer, field.getType(), field.get(recommender));
+			}
+		} catch (RecommendationException exception) {
+			throw exception;
+		} catch (Exception exception) {
+			throw new RecommendationException(exception);
+		}
+	}
+
+	private static void writeField(SnapshotWriter writer, Class<?> type, Object value) throws Exception {
+		if (value == null) {
+			writer.putByte(NULL);
+		} else if (type == boolean.class) {
+			writer.putByte(BOOLEAN);
+			writer.putByte((byte) (((Boolean) value) ? 1 : 0));
+		} else if (type == int.class) {
+			writer.putByte(INTEGER);
+			writer.putInteger((Integer) value);
+		} else if (type == long.class) {
+			writer.putByte(LONG);
+			writer.putLong((Long) value);
+		} else if (type == float.class) {
+			writer.putByte(FLOAT);
+			writer.putFloat((Float) value);
+		} else if (type == double.class) {
+			writer.putByte(DOUBLE);
+			writer.putDouble((Double) value);
+		} else if (type == String.class) {
+			writer.putByte(STRING);
+			writer.putString((String) value);
+		} else if (type == int[].class) {
+			writer.putByte(INTEGER_ARRAY);
+			writer.putIntegers((int[]) value);
+		} else if (type == float[].class) {
+			writer.putByte(FLOAT_ARRAY);
+			writer.putFloats((float[]) value);
+		} else if (value instanceof DenseVector) {
+			DenseVector vector = (DenseVector) value;
+			int size = vector.getElementSize();
+			writer.putByte(DENSE_VECTOR);
+			writer.putLength(size);
+			for (int index = 0; index < size; index++) {
+				writer.putFloat(vector.getValue(index));
+			}
+		} else if (value instanceof DenseMatrix) {
+			DenseMatrix matrix = (DenseMatrix) value;
+			int rowSize = matrix.getRowSize(), columnSize = matrix.getColumnSize();
+			writer.putByte(DENSE_MATRIX);
+			writer.putInteger(rowSize);
+			writer.putInteger(columnSize);
+			// 按照行存储
+			writer.putLength(rowSize * columnSize);
+			for (int row = 0; row < rowSize; row++) {
+				for (int column = 0; column < columnSize; column++) {
+					writer.putFloat(matrix.getValue(row, column));
+				}
+			}
+		} else if (value instanceof NeighborMatrix) {
+			NeighborMatrix matrix = (NeighborMatrix) value;
+			writer.putByte(NEIGHBOR_MATRIX);
+			writer.putIntegers(matrix.getPaginations());
+			writer.putIntegers(matrix.getIndexes());
+			writer.putFloats(matrix.getValues());
+		} else if (value instanceof SparseMatrix) {
+			SparseMatrix matrix = (SparseMatrix) value;
+			SparseVector[] vectors = new SparseVector[matrix.getRowSize()];
+			for (int row = 0; row < vectors.length; row++) {
+				vectors[row] = matrix.getRowVector(row);
+			}
+			writer.putByte(SPARSE_MATRIX);
+			writeVectors(writer, vectors, matrix.getColumnSize());
+		} else if (type == SparseVector[].class || type == ArrayVector[].class) {
+			MathVector[] vectors = (MathVector[]) value;
+			int columnSize = 0;
+			for (MathVector vector : vectors) {
+				for (int position = 0, size = vector.getElementSize(); position < size; position++) {
+					columnSize = Math.max(columnSize, vector.getIndex(position) + 1);
+				}
+			}
+			writer.putByte(type == SparseVector[].class ? SPARSE_VECTORS : ARRAY_VECTORS);
+			writeVectors(writer, vectors, columnSize);
+		} else if (value instanceof Serializable) {
+			ByteArrayOutputStream stream = new ByteArrayOutputStream();
+			try (ObjectOutputStream output = new ObjectOutputStream(stream)) {
+				output.writeObject(value);
+			}
+			writer.putByte(OBJECT);
+			writer.putBytes(stream.toByteArray());
+		} else {
+			throw new RecommendationException("不支持的模型字段类型" + type.getName());
+		}
+	}
+
+	/**
+	 * 按照CSR写出向量数组
+	 */
+	private static void writeVectors(SnapshotWriter writer, MathVector[] vectors, int columnSize) throws Exception {
+		int rowSize = vectors.length;
+		int[] paginations = new int[rowSize + 1];
+		for (int row = 0; row < rowSize; row++) {
+			paginations[row + 1] = paginations[row] + vectors[row].getElementSize();
+		}
+		writer.putInteger(rowSize);
+		writer.putInteger(columnSize);
+		writer.putIntegers(paginations);
+		writer.putLength(paginations[rowSize]);
+		for (MathVector vector : vectors) {
+			for (int position = 0, size = vector.getElementSize(); position < size; position++) {
+				writer.putInteger(vector.getIndex(position));
+			}
+		}
+		writer.putLength(paginations[rowSize]);
+		for (MathVector vector : vectors) {
+			for (int position = 0, size = vector.getElementSize(); position < size; position++) {
+				writer.putFloat(vector.getValue(position));
+			}
+		}
+	}
+
+	/**
+	 * 加载快照(映射文件,不恢复推荐器)
+	 *
+	 * @param file
+	 * @return
+	 */
+	public static ModelSnapshot loadModel(File file) {
+		return loadModel(file, WINDOW);
+	}
+
+	/**
+	 * 按照指定的映射窗口加载快照
+	 *
+	 * @param file
+	 * @param window
+	 *            映射窗口(字节,必须为对齐的倍数)
+	 * @return
+	 */
+	static ModelSnapshot loadModel(File file, int window) {
+		if (window < ALIGNMENT || window % ALIGNMENT != 0) {
+			throw new RecommendationException("映射窗口必须为" + ALIGNMENT + "的倍数");
+		}
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			// 关闭通道之后映射仍然有效
+			SnapshotReader reader = new SnapshotReader(channel, window);
+			if (reader.getInteger() != MAGIC) {
+				throw new RecommendationException("不是模型快照");
+			}
+			int version = reader.getInteger();
+			if (version != VERSION) {
+				throw new RecommendationException("不支持的模型快照版本" + version);
+			}
+			Class<? extends Recommender> clazz = (Class<? extends Recommender>) Class.forName(reader.getString());
+			int size = reader.getInteger();
+			Map<String, Entry> entries = new LinkedHashMap<>();
+			for (int index = 0; index < size; index++) {
+				String name = reader.getString();
+				entries.put(name, readField(reader));
+			}
+			return new ModelSnapshot(clazz, entries);
+		} catch (RecommendationException exception) {
+			throw exception;
+		} catch (Exception exception) {
+			throw new RecommendationException(exception);
+		}
+	}
+
+	private static Entry readField(SnapshotReader reader) throws Exception {
+		Entry entry = new Entry();
+		entry.type = reader.getByte();
+		switch (entry.type) {
+		case NULL:
+			break;
+		case BOOLEAN:
+			entry.value = reader.getByte() != 0;
+			break;
+		case INTEGER:
+			entry.value = reader.getInteger();
+			break;
+		case LONG:
+			entry.value = reader.getLong();
+			break;
+		case FLOAT:
+			entry.value = reader.getFloat();
+			break;
+		case DOUBLE:
+			entry.value = reader.getDouble();
+			break;
+		case STRING:
+			entry.value = reader.getString();
+			break;
+		case INTEGER_ARRAY:
+			entry.buffers = new ByteBuffer[][] { reader.getBuffers(Integer.BYTES) };
+			break;
+		case FLOAT_ARRAY:
+		case DENSE_VECTOR:
+			entry.buffers = new ByteBuffer[][] { reader.getBuffers(Float.BYTES) };
+			break;
+		case DENSE_MATRIX:
+			entry.sizes = new int[] { reader.getInteger(), reader.getInteger() };
+			entry.buffers = new ByteBuffer[][] { reader.getBuffers(Float.BYTES) };
+			break;
+		case NEIGHBOR_MATRIX:
+			entry.buffers = new ByteBuffer[][] { reader.getBuffers(Integer.BYTES), reader.getBuffers(Integer.BYTES), reader.getBuffers(Float.BYTES) };
+			break;
+		case SPARSE_MATRIX:
+		case SPARSE_VECTORS:
+		case ARRAY_VECTORS:
+			entry.sizes = new int[] { reader.getInteger(), reader.getInteger() };
+			entry.buffers = new ByteBuffer[][] { reader.getBuffers(Integer.BYTES), reader.getBuffers(Integer.BYTES), reader.getBuffers(Float.BYTES) };
+			break;
+		case OBJECT:
+			try (ObjectInputStream input = new ObjectInputStream(new ByteArrayInputStream(reader.getBytes()))) {
+				entry.value = input.readObject();
+			}
+			break;
+		default:
+			throw new RecommendationException("不支持的模型字段类型" + entry.type);
+		}
+		return entry;
+	}
+
+	private Entry getEntry(String name) {
+		Entry entry = entries.get(name);
+		if (entry == null) {
+			throw new RecommendationException("模型快照不存在字段" + name);
+		}
+		return entry;
+	}
+
+	/**
+	 * 获取推荐器类型
+	 *
+	 * @return
+	 */
+	public Class<? extends Recommender> getClazz() {
+		return clazz;
+	}
+
+	/**
+	 * 获取字段名称
+	 *
+	 * @return
+	 */
+	public Collection<String> getNames() {
+		return new ArrayList<>(entries.keySet());
+	}
+
+	private ByteBuffer[] getWindows(String name, int section) {
+		ByteBuffer[][] buffers = getEntry(name).buffers;
+		if (buffers == null || section < 0 || section >= buffers.length) {
+			throw new RecommendationException("模型快照字段" + name + "不存在区段" + section);
+		}
+		return buffers[section];
+	}
+
+	private ByteBuffer getWindow(String name, int section) {
+		ByteBuffer[] windows = getWindows(name, section);
+		if (windows.length != 1) {
+			throw new RecommendationException("模型快照字段" + name + "超过映射窗口,需要按照窗口访问");
+		}
+		return windows[0];
+	}
+
+	/**
+	 * 获取映射的整数数组(不复制,只适用于不超过映射窗口的数组)
+	 *
+	 * @param name
+	 *            字段名称
+	 * @param section
+	 *            区段(邻居矩阵,稀疏矩阵与稀疏向量数组依次为分页,索引,值,其它类型为0)
+	 * @return
+	 */
+	public IntBuffer getIntBuffer(String name, int section) {
+		return getWindow(name, section).duplicate().order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+	}
+
+	/**
+	 * 获取映射的浮点数组(不复制,只适用于不超过映射窗口的数组,稠密矩阵按照行存储)
+	 *
+	 * @param name
+	 *            字段名称
+	 * @param section
+	 *            区段(邻居矩阵,稀疏矩阵与稀疏向量数组依次为分页,索引,值,其它类型为0)
+	 * @return
+	 */
+	public FloatBuffer getFloatBuffer(String name, int section) {
+		return getWindow(name, section).duplicate().order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer();
+	}
+
+	/**
+	 * 按照窗口获取映射的整数数组(不复制,窗口依次连接为完整的数组)
+	 *
+	 * @param name
+	 *            字段名称
+	 * @param section
+	 *            区段(邻居矩阵,稀疏矩阵与稀疏向量数组依次为分页,索引,值,其它类型为0)
+	 * @return
+	 */
+	public IntBuffer[] getIntBuffers(String name, int section) {
+		ByteBuffer[] windows = getWindows(name, section);
+		IntBuffer[] buffers = new IntBuffer[windows.length];
+		for (int index = 0; index < windows.length; index++) {
+			buffers[index] = windows[index].duplicate().order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+		}
+		return buffers;
+	}
+
+	/**
+	 * 按照窗口获取映射的浮点数组(不复制,窗口依次连接为完整的数组,稠密矩阵按照行存储)
+	 *
+	 * @param name
+	 *            字段名称
+	 * @param section
+	 *            区段(邻居矩阵,稀疏矩阵与稀疏向量数组依次为分页,索引,值,其它类型为0)
+	 * @return
+	 */
+	public FloatBuffer[] getFloatBuffers(String name, int section) {
+		ByteBuffer[] windows = getWindows(name, section);
+		FloatBuffer[] buffers = new FloatBuffer[windows.length];
+		for (int index = 0; index < windows.length; index++) {
+			buffers[index] = windows[index].duplicate().order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer();
+		}
+		return buffers;
+	}
+
+	private int[] getIntegers(Entry entry, int section) {
+		int size = 0;
+		for (ByteBuffer window : entry.buffers[section]) {
+			size += window.remaining() / Integer.BYTES;
+		}
+		int[] values = new int[size];
+		int position = 0;
+		for (ByteBuffer window : entry.buffers[section]) {
+			IntBuffer buffer = window.duplicate().order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+			int length = buffer.remaining();
+			buffer.get(values, position, length);
+			position += length;
+		}
+		return values;
+	}
+
+	private float[] getFloats(Entry entry, int section) {
+		int size = 0;
+		for (ByteBuffer window : entry.buffers[section]) {
+			size += window.remaining() / Float.BYTES;
+		}
+		float[] values = new float[size];
+		int position = 0;
+		for (ByteBuffer window : entry.buffers[section]) {
+			FloatBuffer buffer = window.duplicate().order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer();
+			int length = buffer.remaining();
+			buffer.get(values, position, length);
+			position += length;
+		}
+		return values;
+	}
+
+	private SparseMatrix getMatrix(Entry entry) {
+		int rowSize = entry.sizes[0], columnSize = entry.sizes[1];
+		int[] paginations = getIntegers(entry, 0);
+		int[] indexes = getIntegers(entry, 1);
+		float[] values = getFloats(entry, 2);
+		int[] positions = new int[indexes.length];
+		for (int position = 0; position < positions.length; position++) {
+			positions[position] = position;
+		}
+		SparseTable table = SparseTable.valueOf(rowSize, columnSize, paginations, positions, (position) -> indexes[position], (position) -> values[position], DataMerger.LAST_MERGER);
+		return table.toMatrix();
+	}
+
+	private Object getValue(Entry entry) {
+		switch (entry.type) {
+		case INTEGER_ARRAY:
+			return getIntegers(entry, 0);
+		case FLOAT_ARRAY:
+			return getFloats(entry, 0);
+		case DENSE_VECTOR: {
+			float[] values = getFloats(entry, 0);
+			return DenseVector.valueOf(values.length, values);
+		}
+		case DENSE_MATRIX:
+			return DenseMatrix.valueOf(entry.sizes[0], entry.sizes[1], getFloats(entry, 0));
+		case NEIGHBOR_MATRIX:
+			return NeighborMatrix.valueOf(getIntegers(entry, 0), getIntegers(entry, 1), getFloats(entry, 2));
+		case SPARSE_MATRIX:
+			return getMatrix(entry);
+		case SPARSE_VECTORS: {
+			SparseMatrix matrix = getMatrix(entry);
+			SparseVector[] vectors = new SparseVector[entry.sizes[0]];
+			for (int row = 0; row < vectors.length; row++) {
+				vectors[row] = matrix.getRowVector(row);
+			}
+			return vectors;
+		}
+		case ARRAY_VECTORS: {
+			int[] paginations = getIntegers(entry, 0);
+			int[] indexes = getIntegers(entry, 1);
+			float[] values = getFloats(entry, 2);
+			ArrayVector[] vectors = new ArrayVector[entry.sizes[0]];
+			for (int row = 0; row < vectors.length; row++) {
+				int from = paginations[row], to = paginations[row + 1];
+				int[] keys = new int[to - from];
+				float[] scores = new float[to - from];
+				System.arraycopy(indexes, from, keys, 0, keys.length);
+				System.arraycopy(values, from, scores, 0, scores.length);
+				vectors[row] = new ArrayVector(keys.length, keys, scores);
+			}
+			return vectors;
+		}
+		default:
+			return entry.value;
+		}
+	}
+
+	/**
+	 * 恢复推荐器的模型
+	 *
+	 * <pre>
+	 * 只恢复ModelDefinition声明的字段,不需要再调用prepare与practice.
+	 * 数组会从映射复制到堆,只读取模型的服务应该使用{@link #getIntBuffers}/{@link #getFloatBuffers}.
+	 * </pre>
+	 *
+	 * @param recommender
+	 */
+	public void setModel(Recommender recommender) {
+		if (recommender.getClass() != clazz) {
+			throw new RecommendationException("模型快照的类型为" + clazz.getName());
+		}
+		try {
+			for (String name : getNames(clazz)) {
+				Field field = getField(clazz, name);
+				field.set(recommender, getValue(getEntry(name)));
+			}
+		} catch (RecommendationException exception) {
+			throw exception;
+		} catch (Exception exception) {
+			throw new RecommendationException(exception);
+		}
+	}
+
+	/**
+	 * 根据快照构建推荐器
+	 *
+	 * @return
+	 */
+	public Recommender getModel() {
+		Recommender recommender = ReflectionUtility.getInstance(clazz);
+		setModel(recommender);
+		return recommender;
+	}
+
+}
@@ -80,6 +80,11 @@ public abstract class NeuralNetworkRecommender extends ModelRecommender {
 		weightRegularization = configuration.getFloat("rec.weight.regularization");
 	}
 
+	@Override
+	protected float getLearnRate() {
+		return learnRate;
+	}
+
 	@Override
 	protected void doPractice() {
 		MultiLayerConfiguration configuration = getNetworkConfiguration();
@@ -1,6 +1,5 @@
 package com.jstarcraft.recommendation.recommender;
 
-import com.jstarcraft.core.utility.StringUtility;
 import com.jstarcraft.recommendation.configure.Configuration;
 import com.jstarcraft.recommendation.data.DataSpace;
 import com.jstarcraft.recommendation.data.accessor.InstanceAccessor;
@@ -54,50 +53,33 @@ public abstract class ProbabilisticGraphicalRecommender extends ModelRecommender
 
 	@Override
 	protected void doPractice() {
-		long now = System.currentTimeMillis();
+		int epoch = 0;
 		for (int iter = 1; iter <= numberOfEpoches; iter++) {
+			epoch = iter;
 			// E-step: infer parameters
 			eStep();
-			if (logger.isInfoEnabled()) {
-				String message = StringUtility.format("eStep time is {}", System.currentTimeMillis() - now);
-				now = System.currentTimeMillis();
-				logger.info(message);
-			}
+			notifyPhase(iter, "eStep");
 
 			// M-step: update hyper-parameters
 			mStep();
-			if (logger.isInfoEnabled()) {
-				String message = StringUtility.format("mStep time is {}", System.currentTimeMillis() - now);
-				now = System.currentTimeMillis();
-				logger.info(message);
-			}
+			notifyPhase(iter, "mStep");
 			// get statistics after burn-in
 			if ((iter > burnIn) && (iter % numberOfSamples == 0)) {
 				readoutParams();
-				if (logger.isInfoEnabled()) {
-					String message = StringUtility.format("readoutParams time is {}", System.currentTimeMillis() - now);
-					now = System.currentTimeMillis();
-					logger.info(message);
-				}
+				notifyPhase(iter, "readoutParams");
 				estimateParams();
-				if (logger.isInfoEnabled()) {
-					String message = StringUtility.format("estimateParams time is {}", System.currentTimeMillis() - now);
-					now = System.currentTimeMillis();
-					logger.info(message);
-				}
+				notifyPhase(iter, "estimateParams");
 			}
-			if (isConverged(iter) && isConverged) {
+			boolean converged = isConverged(iter);
+			notifyEpoch(iter);
+			if (converged && isConverged) {
 				break;
 			}
 			currentLoss = totalLoss;
 		}
 		// retrieve posterior probability distributions
 		estimateParams();
-		if (logger.isInfoEnabled()) {
-			String message = StringUtility.format("estimateParams time is {}", System.currentTimeMillis() - now);
-			now = System.currentTimeMillis();
-			logger.info(message);
-		}
+		notifyPhase(epoch, "estimateParams");
 	}
 
 	protected boolean isConverged(int iter) {
@@ -49,4 +49,20 @@ public interface Recommender {
 	float predict(int[] dicreteFeatures, float[] continuousFeatures);
 	// double predict(int userIndex, int itemIndex, int... featureIndexes);
 
+	/**
+	 * 批量预测
+	 * 
+	 * <pre>
+	 * 以dicreteFeatures与continuousFeatures为模板,依次将物品维度替换为itemIndexes中的物品并预测得分.
+	 * 注意:调用之后dicreteFeatures的物品维度会被修改.
+	 * </pre>
+	 * 
+	 * @param dicreteFeatures
+	 * @param continuousFeatures
+	 * @param itemIndexes
+	 * @param scores
+	 *            得分(与itemIndexes一一对应)
+	 */
+	void predict(int[] dicreteFeatures, float[] continuousFeatures, int[] itemIndexes, float[] scores);
+
 }
@@ -1,13 +1,13 @@
 package com.jstarcraft.recommendation.recommender;
 
-import com.google.common.collect.HashBasedTable;
-import com.google.common.collect.Table;
 import com.jstarcraft.ai.math.structure.matrix.SparseMatrix;
 import com.jstarcraft.recommendation.configure.Configuration;
 import com.jstarcraft.recommendation.data.DataSpace;
-import com.jstarcraft.recommendation.data.accessor.DataInstance;
 import com.jstarcraft.recommendation.data.accessor.InstanceAccessor;
 import com.jstarcraft.recommendation.data.accessor.SampleAccessor;
+import com.jstarcraft.recommendation.data.processor.DataMatcher;
+import com.jstarcraft.recommendation.data.processor.DataMerger;
+import com.jstarcraft.recommendation.data.processor.SparseTable;
 
 /**
  * 社交推荐器
@@ -51,11 +51,16 @@ public abstract class SocialRecommender extends MatrixFactorizationRecommender {
 		trusterDimension = socialModel.getDiscreteDimension(trusterField);
 		trusteeDimension = socialModel.getDiscreteDimension(trusteeField);
 		coefficientDimension = socialModel.getContinuousDimension(coefficientField);
-		Table<Integer, Integer, Float> socialTabel = HashBasedTable.create();
-		for (DataInstance instance : socialModel) {
-			socialTabel.put(instance.getDiscreteFeature(trusterDimension), instance.getDiscreteFeature(trusteeDimension), instance.getContinuousFeature(coefficientDimension));
+		int[] socialPaginations = new int[numberOfUsers + 1];
+		int[] socialPositions = new int[socialModel.getSize()];
+		for (int position = 0; position < socialModel.getSize(); position++) {
+			socialPositions[position] = position;
 		}
-		socialMatrix = SparseMatrix.valueOf(numberOfUsers, numberOfUsers, socialTabel);
+		DataMatcher socialMatcher = DataMatcher.discreteOf(socialModel, trusterDimension);
+		socialMatcher.match(socialPaginations, socialPositions);
+		DataMerger socialMerger = DataMerger.nameOf(configuration.getString("data.merger", "last"));
+		SparseTable socialTable = SparseTable.valueOf(numberOfUsers, numberOfUsers, socialPaginations, socialPositions, (position) -> socialModel.getDiscreteFeature(trusteeDimension, position), (position) -> socialModel.getContinuousFeature(coefficientDimension, position), socialMerger);
+		socialMatrix = socialTable.toMatrix();
 	}
 
 	/**
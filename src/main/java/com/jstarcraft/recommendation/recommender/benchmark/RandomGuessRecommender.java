@@ -1,8 +1,8 @@
 package com.jstarcraft.recommendation.recommender.benchmark;
 
 import com.jstarcraft.ai.model.ModelDefinition;
-import com.jstarcraft.core.utility.RandomUtility;
 import com.jstarcraft.recommendation.recommender.AbstractRecommender;
+import com.jstarcraft.recommendation.utility.RandomUtility;
 
 /**
  * 
@@ -1,23 +1,20 @@
 package com.jstarcraft.recommendation.recommender.collaborative;
 
-import java.util.AbstractMap.SimpleImmutableEntry;
-import java.util.Arrays;
-import java.util.Comparator;
-import java.util.HashMap;
-import java.util.Map.Entry;
-import java.util.TreeSet;
-
 import com.jstarcraft.ai.math.algorithm.similarity.Similarity;
-import com.jstarcraft.ai.math.structure.matrix.MatrixScalar;
 import com.jstarcraft.ai.math.structure.matrix.SymmetryMatrix;
 import com.jstarcraft.ai.math.structure.vector.DenseVector;
 import com.jstarcraft.ai.math.structure.vector.SparseVector;
+import com.jstarcraft.ai.math.structure.vector.VectorScalar;
+import com.jstarcraft.ai.model.ModelDefinition;
 import com.jstarcraft.core.utility.ReflectionUtility;
 import com.jstarcraft.recommendation.configure.Configuration;
 import com.jstarcraft.recommendation.data.DataSpace;
 import com.jstarcraft.recommendation.data.accessor.InstanceAccessor;
 import com.jstarcraft.recommendation.data.accessor.SampleAccessor;
 import com.jstarcraft.recommendation.recommender.AbstractRecommender;
+import com.jstarcraft.recommendation.utility.NeighborMatrix;
+import com.jstarcraft.recommendation.utility.NeighborUtility;
+import com.jstarcraft.recommendation.utility.SparseSimilarity;
 
 /**
  * 
@@ -30,90 +27,48 @@ import com.jstarcraft.recommendation.recommender.AbstractRecommender;
  * @author Birdy
  *
  */
+@ModelDefinition(value = { "userDimension", "itemDimension", "numberOfItems", "meanOfScore", "itemMeans", "itemNeighbors", "userVectors" })
 public abstract class ItemKNNRecommender extends AbstractRecommender {
 
 	/** 邻居数量 */
 	private int neighborSize;
 
-	protected SymmetryMatrix similarityMatrix;
-
 	protected DenseVector itemMeans;
 
 	/**
 	 * item's nearest neighbors for kNN > 0
 	 */
-	protected int[][] itemNeighbors;
+	protected NeighborMatrix itemNeighbors;
 
 	protected SparseVector[] userVectors;
 
 	protected SparseVector[] itemVectors;
 
-	private Comparator<Entry<Integer, Double>> comparator = new Comparator<Entry<Integer, Double>>() {
-		public int compare(Entry<Integer, Double> left, Entry<Integer, Double> right) {
-			int value = -(left.getValue().compareTo(right.getValue()));
-			if (value == 0) {
-				value = left.getKey().compareTo(right.getKey());
-			}
-			return value;
-		}
-	};
+	/** 展开的用户向量(每个线程一份,用完之后只清理用户向量的位置) */
+	private ThreadLocal<boolean[]> markStorage = new ThreadLocal<>();
+	private ThreadLocal<float[]> scoreStorage = new ThreadLocal<>();
 
 	@Override
 	public void prepare(Configuration configuration, SampleAccessor marker, InstanceAccessor model, DataSpace space) {
 		super.prepare(configuration, marker, model, space);
 		neighborSize = configuration.getInteger("rec.neighbors.knn.number", 50);
-		// TODO 修改为配置枚举
-		try {
-			Class<Similarity> similarityClass = (Class<Similarity>) Class.forName(configuration.getString("rec.similarity.class"));
-			Similarity similarity = ReflectionUtility.getInstance(similarityClass);
-			similarityMatrix = similarity.makeSimilarityMatrix(trainMatrix, true, configuration.getFloat("rec.similarity.shrinkage", 0F));
-		} catch (Exception exception) {
-			throw new RuntimeException(exception);
-		}
-		itemMeans = DenseVector.valueOf(numberOfItems);
-
-		// TODO 设置容量
-		itemNeighbors = new int[numberOfItems][];
-		HashMap<Integer, TreeSet<Entry<Integer, Double>>> itemNNs = new HashMap<>();
-		for (MatrixScalar term : similarityMatrix) {
-			int row = term.getRow();
-			int column = term.getColumn();
-			double value = term.getValue();
-			if (row == column) {
-				continue;
-			}
-			// 忽略相似度为0的物品
-			if (value == 0D) {
-				continue;
-			}
-			TreeSet<Entry<Integer, Double>> neighbors = itemNNs.get(row);
-			if (neighbors == null) {
-				neighbors = new TreeSet<>(comparator);
-				itemNNs.put(row, neighbors);
-			}
-			neighbors.add(new SimpleImmutableEntry<>(column, value));
-			neighbors = itemNNs.get(column);
-			if (neighbors == null) {
-				neighbors = new TreeSet<>(comparator);
-				itemNNs.put(column, neighbors);
-			}
-			neighbors.add(new SimpleImmutableEntry<>(row, value));
-		}
-
-		// 构建用户邻居映射
-		for (Entry<Integer, TreeSet<Entry<Integer, Double>>> term : itemNNs.entrySet()) {
-			TreeSet<Entry<Integer, Double>> neighbors = term.getValue();
-			int[] value = new int[neighbors.size() < neighborSize ? neighbors.size() : neighborSize];
-			int index = 0;
-			for (Entry<Integer, Double> neighbor : neighbors) {
-				value[index++] = neighbor.getKey();
-				if (index >= neighborSize) {
-					break;
-				}
+		String similarityClass = configuration.getString("rec.similarity.class");
+		float shrinkage = configuration.getFloat("rec.similarity.shrinkage", 0F);
+		if (configuration.getBoolean("rec.similarity.sparse", false)) {
+			// 通过稀疏矩阵的乘积只计算最近邻居,不构建完整的相似度矩阵
+			itemNeighbors = NeighborUtility.getNeighbors(trainMatrix, true, shrinkage, neighborSize, SparseSimilarity.classOf(similarityClass));
+		} else {
+			// TODO 修改为配置枚举
+			SymmetryMatrix similarityMatrix;
+			try {
+				Similarity similarity = ReflectionUtility.getInstance((Class<Similarity>) Class.forName(similarityClass));
+				similarityMatrix = similarity.makeSimilarityMatrix(trainMatrix, true, shrinkage);
+			} catch (Exception exception) {
+				throw new RuntimeException(exception);
 			}
-			Arrays.sort(value);
-			itemNeighbors[term.getKey()] = value;
+			itemNeighbors = NeighborUtility.getNeighbors(similarityMatrix, numberOfItems, neighborSize);
 		}
+		itemMeans = DenseVector.valueOf(numberOfItems);
 
 		userVectors = new SparseVector[numberOfUsers];
 		for (int userIndex = 0; userIndex < numberOfUsers; userIndex++) {
@@ -135,4 +90,49 @@ public abstract class ItemKNNRecommender extends AbstractRecommender {
 		}
 	}
 
+	@Override
+	public void predict(int[] dicreteFeatures, float[] continuousFeatures, int[] itemIndexes, float[] scores) {
+		int userIndex = dicreteFeatures[userDimension];
+		SparseVector userVector = userVectors[userIndex];
+		// 将用户向量展开为稠密数组,每个物品只需要遍历邻居,避免重复合并有序数组
+		boolean[] userMarks = markStorage.get();
+		float[] userScores = scoreStorage.get();
+		if (userMarks == null || userMarks.length != numberOfItems) {
+			userMarks = new boolean[numberOfItems];
+			userScores = new float[numberOfItems];
+			markStorage.set(userMarks);
+			scoreStorage.set(userScores);
+		}
+		for (VectorScalar term : userVector) {
+			userMarks[term.getIndex()] = true;
+			userScores[term.getIndex()] = term.getValue();
+		}
+		try {
+			for (int index = 0, size = itemIndexes.length; index < size; index++) {
+				int itemIndex = itemIndexes[index];
+				dicreteFeatures[itemDimension] = itemIndex;
+				scores[index] = predict(userVector.getElementSize(), userMarks, userScores, itemIndex);
+			}
+		} finally {
+			for (VectorScalar term : userVector) {
+				userMarks[term.getIndex()] = false;
+				userScores[term.getIndex()] = 0F;
+			}
+		}
+	}
+
+	/**
+	 * 根据展开的用户向量预测
+	 * 
+	 * @param userSize
+	 *            用户向量的元素数量
+	 * @param userMarks
+	 *            用户是否对物品有行为
+	 * @param userScores
+	 *            用户对物品的分数
+	 * @param itemIndex
+	 * @return
+	 */
+	protected abstract float predict(int userSize, boolean[] userMarks, float[] userScores, int itemIndex);
+
 }
@@ -1,23 +1,19 @@
 package com.jstarcraft.recommendation.recommender.collaborative;
 
-import java.util.AbstractMap.SimpleImmutableEntry;
-import java.util.Arrays;
-import java.util.Comparator;
-import java.util.HashMap;
-import java.util.Map.Entry;
-import java.util.TreeSet;
-
 import com.jstarcraft.ai.math.algorithm.similarity.Similarity;
-import com.jstarcraft.ai.math.structure.matrix.MatrixScalar;
 import com.jstarcraft.ai.math.structure.matrix.SymmetryMatrix;
 import com.jstarcraft.ai.math.structure.vector.DenseVector;
 import com.jstarcraft.ai.math.structure.vector.SparseVector;
+import com.jstarcraft.ai.model.ModelDefinition;
 import com.jstarcraft.core.utility.ReflectionUtility;
 import com.jstarcraft.recommendation.configure.Configuration;
 import com.jstarcraft.recommendation.data.DataSpace;
 import com.jstarcraft.recommendation.data.accessor.InstanceAccessor;
 import com.jstarcraft.recommendation.data.accessor.SampleAccessor;
 import com.jstarcraft.recommendation.recommender.AbstractRecommender;
+import com.jstarcraft.recommendation.utility.NeighborMatrix;
+import com.jstarcraft.recommendation.utility.NeighborUtility;
+import com.jstarcraft.recommendation.utility.SparseSimilarity;
 
 /**
  * 
@@ -30,90 +26,44 @@ import com.jstarcraft.recommendation.recommender.AbstractRecommender;
  * @author Birdy
  *
  */
+@ModelDefinition(value = { "userDimension", "itemDimension", "numberOfItems", "meanOfScore", "userMeans", "userNeighbors", "itemVectors" })
 public abstract class UserKNNRecommender extends AbstractRecommender {
 
 	/** 邻居数量 */
 	private int neighborSize;
 
-	protected SymmetryMatrix similarityMatrix;
-
 	protected DenseVector userMeans;
 
 	/**
 	 * user's nearest neighbors for kNN > 0
 	 */
-	protected int[][] userNeighbors;
+	protected NeighborMatrix userNeighbors;
 
 	protected SparseVector[] userVectors;
 
 	protected SparseVector[] itemVectors;
 
-	private Comparator<Entry<Integer, Double>> comparator = new Comparator<Entry<Integer, Double>>() {
-		public int compare(Entry<Integer, Double> left, Entry<Integer, Double> right) {
-			int value = -(left.getValue().compareTo(right.getValue()));
-			if (value == 0) {
-				value = left.getKey().compareTo(right.getKey());
-			}
-			return value;
-		}
-	};
-
 	@Override
 	public void prepare(Configuration configuration, SampleAccessor marker, InstanceAccessor model, DataSpace space) {
 		super.prepare(configuration, marker, model, space);
 		neighborSize = configuration.getInteger("rec.neighbors.knn.number");
-		// TODO 修改为配置枚举
-		try {
-			Class<Similarity> similarityClass = (Class<Similarity>) Class.forName(configuration.getString("rec.similarity.class"));
-			Similarity similarity = ReflectionUtility.getInstance(similarityClass);
-			similarityMatrix = similarity.makeSimilarityMatrix(trainMatrix, false, configuration.getFloat("rec.similarity.shrinkage", 0F));
-		} catch (Exception exception) {
-			throw new RuntimeException(exception);
-		}
-		userMeans = DenseVector.valueOf(numberOfUsers);
-
-		// TODO 设置容量
-		userNeighbors = new int[numberOfUsers][];
-		HashMap<Integer, TreeSet<Entry<Integer, Double>>> userNNs = new HashMap<>();
-		for (MatrixScalar term : similarityMatrix) {
-			int row = term.getRow();
-			int column = term.getColumn();
-			double value = term.getValue();
-			if (row == column) {
-				continue;
+		String similarityClass = configuration.getString("rec.similarity.class");
+		float shrinkage = configuration.getFloat("rec.similarity.shrinkage", 0F);
+		if (configuration.getBoolean("rec.similarity.sparse", false)) {
+			// 通过稀疏矩阵的乘积只计算最近邻居,不构建完整的相似度矩阵
+			userNeighbors = NeighborUtility.getNeighbors(trainMatrix, false, shrinkage, neighborSize, SparseSimilarity.classOf(similarityClass));
+		} else {
+			// TODO 修改为配置枚举
+			SymmetryMatrix similarityMatrix;
+			try {
+				Similarity similarity = ReflectionUtility.getInstance((Class<Similarity>) Class.forName(similarityClass));
+				similarityMatrix = similarity.makeSimilarityMatrix(trainMatrix, false, shrinkage);
+			} catch (Exception exception) {
+				throw new RuntimeException(exception);
 			}
-			// 忽略相似度为0的用户
-			if (value == 0D) {
-				continue;
-			}
-			TreeSet<Entry<Integer, Double>> neighbors = userNNs.get(row);
-			if (neighbors == null) {
-				neighbors = new TreeSet<>(comparator);
-				userNNs.put(row, neighbors);
-			}
-			neighbors.add(new SimpleImmutableEntry<>(column, value));
-			neighbors = userNNs.get(column);
-			if (neighbors == null) {
-				neighbors = new TreeSet<>(comparator);
-				userNNs.put(column, neighbors);
-			}
-			neighbors.add(new SimpleImmutableEntry<>(row, value));
-		}
-
-		// 构建用户邻居映射
-		for (Entry<Integer, TreeSet<Entry<Integer, Double>>> term : userNNs.entrySet()) {
-			TreeSet<Entry<Integer, Double>> neighbors = term.getValue();
-			int[] value = new int[neighbors.size() < neighborSize ? neighbors.size() : neighborSize];
-			int index = 0;
-			for (Entry<Integer, Double> neighbor : neighbors) {
-				value[index++] = neighbor.getKey();
-				if (index >= neighborSize) {
-					break;
-				}
-			}
-			Arrays.sort(value);
-			userNeighbors[term.getKey()] = value;
+			userNeighbors = NeighborUtility.getNeighbors(similarityMatrix, numberOfUsers, neighborSize);
 		}
+		userMeans = DenseVector.valueOf(numberOfUsers);
 
 		userVectors = new SparseVector[numberOfUsers];
 		for (int userIndex = 0; userIndex < numberOfUsers; userIndex++) {
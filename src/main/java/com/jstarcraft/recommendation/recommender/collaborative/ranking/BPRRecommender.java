@@ -1,10 +1,15 @@
 package com.jstarcraft.recommendation.recommender.collaborative.ranking;
 
+import java.util.Random;
+
 import com.jstarcraft.ai.math.structure.vector.SparseVector;
-import com.jstarcraft.ai.math.structure.vector.VectorScalar;
-import com.jstarcraft.core.utility.RandomUtility;
+import com.jstarcraft.recommendation.configure.Configuration;
+import com.jstarcraft.recommendation.data.DataSpace;
+import com.jstarcraft.recommendation.data.accessor.InstanceAccessor;
+import com.jstarcraft.recommendation.data.accessor.SampleAccessor;
 import com.jstarcraft.recommendation.recommender.MatrixFactorizationRecommender;
 import com.jstarcraft.recommendation.utility.LogisticUtility;
+import com.jstarcraft.recommendation.utility.NegativeSampler;
 
 /**
  * 
@@ -20,49 +25,19 @@ import com.jstarcraft.recommendation.utility.LogisticUtility;
  */
 public class BPRRecommender extends MatrixFactorizationRecommender {
 
+	/** 负样本采样器 */
+	private NegativeSampler negativeSampler;
+
+	@Override
+	public void prepare(Configuration configuration, SampleAccessor marker, InstanceAccessor model, DataSpace space) {
+		super.prepare(configuration, marker, model, space);
+		negativeSampler = NegativeSampler.nameOf(configuration.getString("rec.sampler.negative", "skip"), trainMatrix);
+	}
+
 	@Override
 	protected void doPractice() {
 		for (int iterationStep = 1; iterationStep <= numberOfEpoches; iterationStep++) {
-			totalLoss = 0F;
-			for (int sampleIndex = 0, sampleTimes = numberOfUsers * 100; sampleIndex < sampleTimes; sampleIndex++) {
-				// randomly draw (userIdx, posItemIdx, negItemIdx)
-				int userIndex, positiveItemIndex, negativeItemIndex;
-				while (true) {
-					userIndex = RandomUtility.randomInteger(numberOfUsers);
-					SparseVector userVector = trainMatrix.getRowVector(userIndex);
-					if (userVector.getElementSize() == 0) {
-						continue;
-					}
-					positiveItemIndex = userVector.getIndex(RandomUtility.randomInteger(userVector.getElementSize()));
-					negativeItemIndex = RandomUtility.randomInteger(numberOfItems - userVector.getElementSize());
-					for (VectorScalar term : userVector) {
-						if (negativeItemIndex >= term.getIndex()) {
-							negativeItemIndex++;
-						} else {
-							break;
-						}
-					}
-					break;
-				}
-
-				// update parameters
-				float positiveRate = predict(userIndex, positiveItemIndex);
-				float negativeRate = predict(userIndex, negativeItemIndex);
-				float error = positiveRate - negativeRate;
-				float value = (float) -Math.log(LogisticUtility.getValue(error));
-				totalLoss += value;
-				value = LogisticUtility.getValue(-error);
-
-				for (int factorIndex = 0; factorIndex < numberOfFactors; factorIndex++) {
-					float userFactor = userFactors.getValue(userIndex, factorIndex);
-					float positiveFactor = itemFactors.getValue(positiveItemIndex, factorIndex);
-					float negativeFactor = itemFactors.getValue(negativeItemIndex, factorIndex);
-					userFactors.shiftValue(userIndex, factorIndex, learnRate * (value * (positiveFactor - negativeFactor) - userRegularization * userFactor));
-					itemFactors.shiftValue(positiveItemIndex, factorIndex, learnRate * (value * userFactor - itemRegularization * positiveFactor));
-					itemFactors.shiftValue(negativeItemIndex, factorIndex, learnRate * (value * (-userFactor) - itemRegularization * negativeFactor));
-					totalLoss += userRegularization * userFactor * userFactor + itemRegularization * positiveFactor * positiveFactor + itemRegularization * negativeFactor * negativeFactor;
-				}
-			}
+			totalLoss = doEpoch(numberOfUsers * 100, this::doSamples);
 			if (isConverged(iterationStep) && isConverged) {
 				break;
 			}
@@ -71,4 +46,41 @@ public class BPRRecommender extends MatrixFactorizationRecommender {
 		}
 	}
 
+	private float doSamples(Random random, int from, int to) {
+		float loss = 0F;
+		for (int sampleIndex = from; sampleIndex < to; sampleIndex++) {
+			// randomly draw (userIdx, posItemIdx, negItemIdx)
+			int userIndex, positiveItemIndex, negativeItemIndex;
+			while (true) {
+				userIndex = random.nextInt(numberOfUsers);
+				SparseVector userVector = trainMatrix.getRowVector(userIndex);
+				if (userVector.getElementSize() == 0) {
+					continue;
+				}
+				positiveItemIndex = userVector.getIndex(random.nextInt(userVector.getElementSize()));
+				negativeItemIndex = negativeSampler.sample(random, userIndex);
+				break;
+			}
+
+			// update parameters
+			float positiveRate = predict(userIndex, positiveItemIndex);
+			float negativeRate = predict(userIndex, negativeItemIndex);
+			float error = positiveRate - negativeRate;
+			float value = (float) -Math.log(LogisticUtility.getValue(error));
+			loss += value;
+			value = LogisticUtility.getValue(-error);
+
+			for (int factorIndex = 0; factorIndex < numberOfFactors; factorIndex++) {
+				float userFactor = userFactors.getValue(userIndex, factorIndex);
+				float positiveFactor = itemFactors.getValue(positiveItemIndex, factorIndex);
+				float negativeFactor = itemFactors.getValue(negativeItemIndex, factorIndex);
+				userFactors.shiftValue(userIndex, factorIndex, learnRate * (value * (positiveFactor - negativeFactor) - userRegularization * userFactor));
+				itemFactors.shiftValue(positiveItemIndex, factorIndex, learnRate * (value * userFactor - itemRegularization * positiveFactor));
+				itemFactors.shiftValue(negativeItemIndex, factorIndex, learnRate * (value * (-userFactor) - itemRegularization * negativeFactor));
+				loss += userRegularization * userFactor * userFactor + itemRegularization * positiveFactor * positiveFactor + itemRegularization * negativeFactor * negativeFactor;
+			}
+		}
+		return loss;
+	}
+
 }
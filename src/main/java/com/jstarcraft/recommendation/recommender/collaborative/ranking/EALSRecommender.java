@@ -1,5 +1,6 @@
 package com.jstarcraft.recommendation.recommender.collaborative.ranking;
 
+import java.util.Arrays;
 import java.util.concurrent.CountDownLatch;
 
 import com.jstarcraft.ai.environment.EnvironmentContext;
@@ -7,6 +8,7 @@ import com.jstarcraft.ai.math.structure.DefaultScalar;
 import com.jstarcraft.ai.math.structure.MathCalculator;
 import com.jstarcraft.ai.math.structure.matrix.DenseMatrix;
 import com.jstarcraft.ai.math.structure.matrix.SparseMatrix;
+import com.jstarcraft.ai.math.structure.vector.ArrayVector;
 import com.jstarcraft.ai.math.structure.vector.DenseVector;
 import com.jstarcraft.ai.math.structure.vector.SparseVector;
 import com.jstarcraft.ai.math.structure.vector.VectorScalar;
@@ -89,11 +91,7 @@ public class EALSRecommender extends MatrixFactorizationRecommender {
 
 		weights = SparseMatrix.copyOf(trainMatrix, false);
 		weights.iterateElement(MathCalculator.SERIAL, (scalar) -> {
-			if (type == 1 || type == 2) {
-				scalar.setValue(1F + weightCoefficient * scalar.getValue());
-			} else {
-				scalar.setValue(1F);
-			}
+			scalar.setValue(getWeight(scalar.getValue()));
 		});
 	}
 
@@ -142,7 +140,7 @@ public class EALSRecommender extends MatrixFactorizationRecommender {
 			CountDownLatch userLatch = new CountDownLatch(numberOfUsers);
 			for (int index = 0; index < numberOfUsers; index++) {
 				int userIndex = index;
-				context.doAlgorithmByAny(index, () -> {
+				context.doAlgorithmByAny(index, monitor.measure(() -> {
 					DefaultScalar scalar = DefaultScalar.getInstance();
 					SparseVector userVector = weights.getRowVector(userIndex);
 					DenseVector factorVector = userFactors.getRowVector(userIndex);
@@ -175,7 +173,7 @@ public class EALSRecommender extends MatrixFactorizationRecommender {
 						}
 					}
 					userLatch.countDown();
-				});
+				}));
 			}
 			try {
 				userLatch.await();
@@ -190,7 +188,7 @@ public class EALSRecommender extends MatrixFactorizationRecommender {
 			CountDownLatch itemLatch = new CountDownLatch(numberOfItems);
 			for (int index = 0; index < numberOfItems; index++) {
 				int itemIndex = index;
-				context.doAlgorithmByAny(index, () -> {
+				context.doAlgorithmByAny(index, monitor.measure(() -> {
 					DefaultScalar scalar = DefaultScalar.getInstance();
 					SparseVector itemVector = weights.getColumnVector(itemIndex);
 					DenseVector factorVector = itemFactors.getRowVector(itemIndex);
@@ -224,13 +222,87 @@ public class EALSRecommender extends MatrixFactorizationRecommender {
 						}
 					}
 					itemLatch.countDown();
-				});
+				}));
 			}
 			try {
 				itemLatch.await();
 			} catch (Exception exception) {
 				throw new RecommendationException(exception);
 			}
+			notifyEpoch(iterationStep);
+		}
+	}
+
+	private float getWeight(float score) {
+		if (type == 1 || type == 2) {
+			return 1F + weightCoefficient * score;
+		} else {
+			return 1F;
+		}
+	}
+
+	@Override
+	protected void expandModel(int userSize, int itemSize) {
+		// 新物品的流行度为0
+		confidences = Arrays.copyOf(confidences, numberOfItems);
+		for (int itemIndex = itemSize; itemIndex < numberOfItems; itemIndex++) {
+			confidences[itemIndex] = type == 0 || type == 2 ? 0F : 1F;
+		}
+	}
+
+	@Override
+	protected boolean isUpdatable() {
+		return true;
+	}
+
+	@Override
+	protected void updateUsers(int[] userIndexes) {
+		// Sq = Σ c_i * q_i * q_i^T
+		DenseMatrix itemDeltas = DenseMatrix.valueOf(numberOfFactors, numberOfFactors);
+		for (int itemIndex = 0; itemIndex < numberOfItems; itemIndex++) {
+			float confidence = confidences[itemIndex];
+			for (int leftFactorIndex = 0; leftFactorIndex < numberOfFactors; leftFactorIndex++) {
+				float value = confidence * itemFactors.getValue(itemIndex, leftFactorIndex);
+				for (int rightFactorIndex = 0; rightFactorIndex < numberOfFactors; rightFactorIndex++) {
+					itemDeltas.shiftValue(leftFactorIndex, rightFactorIndex, value * itemFactors.getValue(itemIndex, rightFactorIndex));
+				}
+			}
+		}
+		for (int userIndex : userIndexes) {
+			ArrayVector scoreVector = getUserScores(userIndex);
+			int size = scoreVector.getElementSize();
+			float[] matrixWeights = new float[size];
+			float[] vectorWeights = new float[size];
+			for (int position = 0; position < size; position++) {
+				float weight = getWeight(scoreVector.getValue(position));
+				matrixWeights[position] = weight - confidences[scoreVector.getIndex(position)];
+				vectorWeights[position] = weight;
+			}
+			solveFactors(userFactors, userIndex, itemFactors, itemDeltas, scoreVector, matrixWeights, vectorWeights, userRegularization);
+		}
+	}
+
+	@Override
+	protected void updateItems(int[] itemIndexes) {
+		// Sp = Σ p_u * p_u^T
+		DenseMatrix userDeltas = DenseMatrix.valueOf(numberOfFactors, numberOfFactors);
+		userDeltas.dotProduct(userFactors, true, userFactors, false, MathCalculator.SERIAL);
+		DenseMatrix itemDeltas = DenseMatrix.valueOf(numberOfFactors, numberOfFactors);
+		for (int itemIndex : itemIndexes) {
+			float confidence = confidences[itemIndex];
+			itemDeltas.iterateElement(MathCalculator.SERIAL, (scalar) -> {
+				scalar.setValue(confidence * userDeltas.getValue(scalar.getRow(), scalar.getColumn()));
+			});
+			ArrayVector scoreVector = getItemScores(itemIndex);
+			int size = scoreVector.getElementSize();
+			float[] matrixWeights = new float[size];
+			float[] vectorWeights = new float[size];
+			for (int position = 0; position < size; position++) {
+				float weight = getWeight(scoreVector.getValue(position));
+				matrixWeights[position] = weight - confidence;
+				vectorWeights[position] = weight;
+			}
+			solveFactors(itemFactors, itemIndex, userFactors, itemDeltas, scoreVector, matrixWeights, vectorWeights, itemRegularization);
 		}
 	}
 
@@ -9,13 +9,15 @@ import com.jstarcraft.ai.math.structure.matrix.DenseMatrix;
 import com.jstarcraft.ai.math.structure.vector.DenseVector;
 import com.jstarcraft.ai.math.structure.vector.SparseVector;
 import com.jstarcraft.ai.math.structure.vector.VectorScalar;
-import com.jstarcraft.core.utility.RandomUtility;
 import com.jstarcraft.recommendation.configure.Configuration;
 import com.jstarcraft.recommendation.data.DataSpace;
 import com.jstarcraft.recommendation.data.accessor.InstanceAccessor;
 import com.jstarcraft.recommendation.data.accessor.SampleAccessor;
 import com.jstarcraft.recommendation.recommender.MatrixFactorizationRecommender;
 import com.jstarcraft.recommendation.utility.LogisticUtility;
+import com.jstarcraft.recommendation.utility.NegativeSampler;
+import com.jstarcraft.recommendation.utility.RandomUtility;
+import com.jstarcraft.recommendation.utility.SampleUtility;
 
 /**
  * 
@@ -45,6 +47,9 @@ public class GBPRRecommender extends MatrixFactorizationRecommender {
 	 */
 	private DenseVector itemBiases;
 
+	/** 负样本采样器 */
+	private NegativeSampler negativeSampler;
+
 	@Override
 	public void prepare(Configuration configuration, SampleAccessor marker, InstanceAccessor model, DataSpace space) {
 		super.prepare(configuration, marker, model, space);
@@ -55,6 +60,7 @@ public class GBPRRecommender extends MatrixFactorizationRecommender {
 
 		rho = configuration.getFloat("rec.gpbr.rho", 1.5f);
 		gLen = configuration.getInteger("rec.gpbr.gsize", 2);
+		negativeSampler = NegativeSampler.nameOf(configuration.getString("rec.sampler.negative", "skip"), trainMatrix);
 	}
 
 	@Override
@@ -88,14 +94,7 @@ public class GBPRRecommender extends MatrixFactorizationRecommender {
 					}
 				}
 				float positiveRate = predict(userIndex, positiveItemIndex, memberSet);
-				negativeItemIndex = RandomUtility.randomInteger(numberOfItems - userVector.getElementSize());
-				for (VectorScalar term : userVector) {
-					if (negativeItemIndex >= term.getIndex()) {
-						negativeItemIndex++;
-					} else {
-						break;
-					}
-				}
+				negativeItemIndex = negativeSampler.sample(SampleUtility.UTILITY_RANDOM, userIndex);
 				float negativeRate = predict(userIndex, negativeItemIndex);
 				float error = positiveRate - negativeRate;
 				float value = (float) -Math.log(LogisticUtility.getValue(error));
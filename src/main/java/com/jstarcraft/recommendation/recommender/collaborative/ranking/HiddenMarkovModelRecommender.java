@@ -17,7 +17,6 @@ import com.jstarcraft.ai.math.structure.vector.DenseVector;
 import com.jstarcraft.ai.math.structure.vector.MathVector;
 import com.jstarcraft.ai.math.structure.vector.SparseVector;
 import com.jstarcraft.ai.math.structure.vector.VectorScalar;
-import com.jstarcraft.core.utility.RandomUtility;
 import com.jstarcraft.recommendation.configure.Configuration;
 import com.jstarcraft.recommendation.data.DataSpace;
 import com.jstarcraft.recommendation.data.accessor.InstanceAccessor;
@@ -25,6 +24,7 @@ import com.jstarcraft.recommendation.data.accessor.SampleAccessor;
 import com.jstarcraft.recommendation.exception.RecommendationException;
 import com.jstarcraft.recommendation.recommender.ProbabilisticGraphicalRecommender;
 import com.jstarcraft.recommendation.utility.GammaUtility;
+import com.jstarcraft.recommendation.utility.RandomUtility;
 
 /**
  * 
@@ -385,7 +385,7 @@ public class HiddenMarkovModelRecommender extends ProbabilisticGraphicalRecommen
 		Table<Integer, Integer, Float> data = HashBasedTable.create();
 
 		for (int userIndex = 0; userIndex < numberOfUsers; userIndex++) {
-			for (int from = dataPaginations[userIndex], to = dataPaginations[userIndex + 1]; from < to; from++) {
+			for (int from = dataPaginations.get(userIndex), to = dataPaginations.get(userIndex + 1); from < to; from++) {
 				int rowKey = (Integer) levels[marker.getDiscreteFeature(contextDimension, from)];
 				int columnKey = marker.getDiscreteFeature(itemDimension, from);
 				Float count = table.get(rowKey, columnKey);
@@ -717,10 +717,10 @@ public class HiddenMarkovModelRecommender extends ProbabilisticGraphicalRecommen
 			modelNumerator.setValues(0F);
 			modelDenominator.setValues(0F);
 			{
-				context.doAlgorithmByEvery(() -> {
+				context.doAlgorithmByEvery(monitor.measure(() -> {
 					numeratorStorage.get().setValues(0F);
 					denominatorStorage.get().setValues(0F);
-				});
+				}));
 			}
 
 			for (int stateIndex = 0; stateIndex < numberOfStates; stateIndex++) {
@@ -736,7 +736,7 @@ public class HiddenMarkovModelRecommender extends ProbabilisticGraphicalRecommen
 				for (int userIndex = 0; userIndex < numberOfUsers; userIndex++) {
 					DenseMatrix gamma = gammas[userIndex];
 					DenseVector nut = nuts[userIndex];
-					context.doAlgorithmByAny(userIndex, () -> {
+					context.doAlgorithmByAny(userIndex, monitor.measure(() -> {
 						// numeratorMatrix => {sizeOfContexts, numberOfStates}
 						DenseVector numeratorCache = numeratorStorage.get();
 						// denominatorMatrix => {sizeOfContexts, numberOfStates}
@@ -748,7 +748,7 @@ public class HiddenMarkovModelRecommender extends ProbabilisticGraphicalRecommen
 							denominatorCache.shiftValue(column, term.getValue() * (GammaUtility.trigamma(nut.getValue(row) + alpha.getValue(column)) - denominatorPsiGamma.getValue(column) - denominatorLogGamma.getValue(column) + (1F / alpha.getValue(column))));
 						}
 						latch.countDown();
-					});
+					}));
 				}
 				try {
 					latch.await();
@@ -758,14 +758,14 @@ public class HiddenMarkovModelRecommender extends ProbabilisticGraphicalRecommen
 			}
 
 			{
-				context.doAlgorithmByEvery(() -> {
+				context.doAlgorithmByEvery(monitor.measure(() -> {
 					synchronized (modelNumerator) {
 						modelNumerator.addVector(numeratorStorage.get());
 					}
 					synchronized (modelDenominator) {
 						modelDenominator.addVector(denominatorStorage.get());
 					}
-				});
+				}));
 			}
 
 			// TODO 此处相当于学习率
@@ -840,10 +840,10 @@ public class HiddenMarkovModelRecommender extends ProbabilisticGraphicalRecommen
 		CountDownLatch latch = new CountDownLatch(numberOfUsers);
 		for (int userIndex = 0; userIndex < numberOfUsers; userIndex++) {
 			int user = userIndex;
-			context.doAlgorithmByAny(userIndex, () -> {
+			context.doAlgorithmByAny(userIndex, monitor.measure(() -> {
 				calculateGammaRho(user, dataMatrixes[user]);
 				latch.countDown();
-			});
+			}));
 		}
 		try {
 			latch.await();
@@ -862,14 +862,14 @@ public class HiddenMarkovModelRecommender extends ProbabilisticGraphicalRecommen
 		viewDenominator.setValues(0F);
 
 		{
-			context.doAlgorithmByEvery(() -> {
+			context.doAlgorithmByEvery(monitor.measure(() -> {
 				probabilityNumeratorStorage.get().setValues(0F);
 				probabilityDenominatorStorage.get().set(0D);
 				stateNumerator.addMatrix(stateNumeratorStorage.get(), false);
 				stateNumeratorStorage.get().setValues(0F);
 				viewNumeratorStorage.get().setValues(0F);
 				viewDenominatorStorage.get().setValues(0F);
-			});
+			}));
 		}
 
 		stateDenominator.iterateElement(MathCalculator.SERIAL, (scalar) -> {
@@ -890,7 +890,7 @@ public class HiddenMarkovModelRecommender extends ProbabilisticGraphicalRecommen
 				}
 				DenseVector nut = nuts[userIndex];
 				SparseMatrix dataMatrix = dataMatrixes[userIndex];
-				context.doAlgorithmByAny(userIndex, () -> {
+				context.doAlgorithmByAny(userIndex, monitor.measure(() -> {
 					MathVector gammaVector = gamma.getRowVector(0);
 					probabilityNumeratorStorage.get().addVector(gammaVector);
 					probabilityDenominatorStorage.get().addAndGet(gammaVector.getSum(false));
@@ -919,7 +919,7 @@ public class HiddenMarkovModelRecommender extends ProbabilisticGraphicalRecommen
 						scalar.setValue(value);
 					});
 					latch.countDown();
-				});
+				}));
 			}
 			try {
 				latch.await();
@@ -929,7 +929,7 @@ public class HiddenMarkovModelRecommender extends ProbabilisticGraphicalRecommen
 		}
 
 		{
-			context.doAlgorithmByEvery(() -> {
+			context.doAlgorithmByEvery(monitor.measure(() -> {
 				synchronized (probabilityNumerator) {
 					probabilityNumerator.addVector(probabilityNumeratorStorage.get());
 				}
@@ -942,7 +942,7 @@ public class HiddenMarkovModelRecommender extends ProbabilisticGraphicalRecommen
 				synchronized (viewDenominator) {
 					viewDenominator.addVector(viewDenominatorStorage.get());
 				}
-			});
+			}));
 		}
 
 		// Formula 1.7
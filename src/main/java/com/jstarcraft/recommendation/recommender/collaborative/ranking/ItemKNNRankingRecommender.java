@@ -24,21 +24,23 @@ public class ItemKNNRankingRecommender extends ItemKNNRecommender {
 		int userIndex = dicreteFeatures[userDimension];
 		int itemIndex = dicreteFeatures[itemDimension];
 		SparseVector userVector = userVectors[userIndex];
-		int[] neighbors = itemNeighbors[itemIndex];
-		if (userVector.getElementSize() == 0 || neighbors == null) {
+		int[] paginations = itemNeighbors.getPaginations();
+		int[] neighbors = itemNeighbors.getIndexes();
+		float[] similarities = itemNeighbors.getValues();
+		if (userVector.getElementSize() == 0 || paginations[itemIndex] == paginations[itemIndex + 1]) {
 			return 0F;
 		}
 
 		float sum = 0F, absolute = 0F;
 		int count = 0;
-		int leftIndex = 0, rightIndex = 0, leftSize = userVector.getElementSize(), rightSize = neighbors.length;
+		int leftIndex = 0, rightIndex = paginations[itemIndex], leftSize = userVector.getElementSize(), rightSize = paginations[itemIndex + 1];
 		Iterator<VectorScalar> iterator = userVector.iterator();
 		VectorScalar term = iterator.next();
 		// 判断两个有序数组中是否存在相同的数字
 		while (leftIndex < leftSize && rightIndex < rightSize) {
 			if (term.getIndex() == neighbors[rightIndex]) {
 				count++;
-				sum += similarityMatrix.getValue(itemIndex, neighbors[rightIndex]);
+				sum += similarities[rightIndex];
 				if (iterator.hasNext()) {
 					term = iterator.next();
 				}
@@ -61,4 +63,30 @@ public class ItemKNNRankingRecommender extends ItemKNNRecommender {
 		return sum;
 	}
 
+	@Override
+	protected float predict(int userSize, boolean[] userMarks, float[] userScores, int itemIndex) {
+		int[] paginations = itemNeighbors.getPaginations();
+		int[] neighbors = itemNeighbors.getIndexes();
+		float[] similarities = itemNeighbors.getValues();
+		if (userSize == 0 || paginations[itemIndex] == paginations[itemIndex + 1]) {
+			return 0F;
+		}
+
+		float sum = 0F;
+		int count = 0;
+		for (int position = paginations[itemIndex], size = paginations[itemIndex + 1]; position < size; position++) {
+			int neighbor = neighbors[position];
+			if (userMarks[neighbor]) {
+				count++;
+				sum += similarities[position];
+			}
+		}
+
+		if (count == 0) {
+			return 0F;
+		}
+
+		return sum;
+	}
+
 }
@@ -7,8 +7,8 @@ import com.jstarcraft.ai.math.structure.DefaultScalar;
 import com.jstarcraft.ai.math.structure.MathCalculator;
 import com.jstarcraft.ai.math.structure.matrix.DenseMatrix;
 import com.jstarcraft.ai.math.structure.matrix.MatrixScalar;
+import com.jstarcraft.ai.math.structure.matrix.SparseMatrix;
 import com.jstarcraft.ai.math.structure.vector.DenseVector;
-import com.jstarcraft.core.utility.RandomUtility;
 import com.jstarcraft.recommendation.configure.Configuration;
 import com.jstarcraft.recommendation.data.DataSpace;
 import com.jstarcraft.recommendation.data.accessor.InstanceAccessor;
@@ -16,6 +16,7 @@ import com.jstarcraft.recommendation.data.accessor.SampleAccessor;
 import com.jstarcraft.recommendation.exception.RecommendationException;
 import com.jstarcraft.recommendation.recommender.ProbabilisticGraphicalRecommender;
 import com.jstarcraft.recommendation.utility.GammaUtility;
+import com.jstarcraft.recommendation.utility.RandomUtility;
 import com.jstarcraft.recommendation.utility.SampleUtility;
 
 /**
@@ -84,6 +85,8 @@ public class LDARecommender extends ProbabilisticGraphicalRecommender {
 	public void prepare(Configuration configuration, SampleAccessor marker, InstanceAccessor model, DataSpace space) {
 		super.prepare(configuration, marker, model, space);
 
+		// 训练矩阵是共享的,修改之前复制
+		trainMatrix = SparseMatrix.copyOf(trainMatrix, false);
 		// TODO 此处代码可以消除(使用常量Marker代替或者使用binarize.threshold)
 		for (MatrixScalar term : trainMatrix) {
 			term.setValue(1F);
@@ -8,12 +8,12 @@ import com.jstarcraft.ai.math.structure.MathCalculator;
 import com.jstarcraft.ai.math.structure.vector.DenseVector;
 import com.jstarcraft.ai.math.structure.vector.MathVector;
 import com.jstarcraft.ai.math.structure.vector.SparseVector;
-import com.jstarcraft.core.utility.RandomUtility;
 import com.jstarcraft.recommendation.configure.Configuration;
 import com.jstarcraft.recommendation.data.DataSpace;
 import com.jstarcraft.recommendation.data.accessor.InstanceAccessor;
 import com.jstarcraft.recommendation.data.accessor.SampleAccessor;
 import com.jstarcraft.recommendation.utility.LogisticUtility;
+import com.jstarcraft.recommendation.utility.RandomUtility;
 import com.jstarcraft.recommendation.utility.SampleUtility;
 
 /**
@@ -77,14 +77,7 @@ public class LambdaFMDynamicRecommender extends LambdaFMRecommender {
 			}
 			// TODO negativeGroup.size()可能永远达不到numberOfNegatives,需要处理
 			for (int orderIndex = 0; orderIndex < numberOfOrders; orderIndex++) {
-				int negativeItemIndex = RandomUtility.randomInteger(numberOfItems - userVector.getElementSize());
-				for (int position = 0, size = userVector.getElementSize(); position < size; position++) {
-					if (negativeItemIndex >= userVector.getIndex(position)) {
-						negativeItemIndex++;
-						continue;
-					}
-					break;
-				}
+				int negativeItemIndex = SampleUtility.skipSearch(userVector, RandomUtility.randomInteger(numberOfItems - userVector.getElementSize()));
 				negativeKeys = negativeIndexes[orderIndex];
 				// TODO 注意,此处为了故意制造负面特征.
 				int negativePosition = dataPositions[RandomUtility.randomInteger(from, to)];
@@ -4,6 +4,7 @@ import java.util.Iterator;
 
 import com.jstarcraft.ai.math.structure.DefaultScalar;
 import com.jstarcraft.ai.math.structure.matrix.MatrixScalar;
+import com.jstarcraft.ai.math.structure.matrix.SparseMatrix;
 import com.jstarcraft.ai.math.structure.vector.DenseVector;
 import com.jstarcraft.ai.math.structure.vector.MathVector;
 import com.jstarcraft.ai.math.structure.vector.VectorScalar;
@@ -46,6 +47,8 @@ public abstract class LambdaFMRecommender extends FactorizationMachineRecommende
 	@Override
 	public void prepare(Configuration configuration, SampleAccessor marker, InstanceAccessor model, DataSpace space) {
 		super.prepare(configuration, marker, model, space);
+		// 训练矩阵是共享的,修改之前复制
+		trainMatrix = SparseMatrix.copyOf(trainMatrix, false);
 		// TODO 此处代码可以消除(使用常量Marker代替或者使用binarize.threshold)
 		for (MatrixScalar term : trainMatrix) {
 			term.setValue(1F);
@@ -68,6 +71,11 @@ public abstract class LambdaFMRecommender extends FactorizationMachineRecommende
 
 	protected abstract float getGradientValue(DefaultScalar scalar, int[] dataPaginations, int[] dataPositions);
 
+	@Override
+	protected float getLearnRate() {
+		return learnRate;
+	}
+
 	@Override
 	protected void doPractice() {
 		DefaultScalar scalar = DefaultScalar.getInstance();
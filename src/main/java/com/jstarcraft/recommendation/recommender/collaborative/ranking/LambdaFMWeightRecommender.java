@@ -2,12 +2,13 @@ package com.jstarcraft.recommendation.recommender.collaborative.ranking;
 
 import com.jstarcraft.ai.math.structure.DefaultScalar;
 import com.jstarcraft.ai.math.structure.vector.SparseVector;
-import com.jstarcraft.core.utility.RandomUtility;
 import com.jstarcraft.recommendation.configure.Configuration;
 import com.jstarcraft.recommendation.data.DataSpace;
 import com.jstarcraft.recommendation.data.accessor.InstanceAccessor;
 import com.jstarcraft.recommendation.data.accessor.SampleAccessor;
 import com.jstarcraft.recommendation.utility.LogisticUtility;
+import com.jstarcraft.recommendation.utility.RandomUtility;
+import com.jstarcraft.recommendation.utility.SampleUtility;
 
 /**
  * 
@@ -65,14 +66,7 @@ public class LambdaFMWeightRecommender extends LambdaFMRecommender {
 			positiveScore = predict(scalar, positiveVector);
 			do {
 				N++;
-				int negativeItemIndex = RandomUtility.randomInteger(numberOfItems - userVector.getElementSize());
-				for (int position = 0, size = userVector.getElementSize(); position < size; position++) {
-					if (negativeItemIndex >= userVector.getIndex(position)) {
-						negativeItemIndex++;
-						continue;
-					}
-					break;
-				}
+				int negativeItemIndex = SampleUtility.skipSearch(userVector, RandomUtility.randomInteger(numberOfItems - userVector.getElementSize()));
 				// TODO 注意,此处为了故意制造负面特征.
 				int negativePosition = dataPositions[RandomUtility.randomInteger(from, to)];
 				// TODO 注意,此处为了故意制造负面特征.
@@ -6,13 +6,14 @@ import com.jstarcraft.ai.math.structure.DefaultScalar;
 import com.jstarcraft.ai.math.structure.MathCalculator;
 import com.jstarcraft.ai.math.structure.matrix.DenseMatrix;
 import com.jstarcraft.ai.math.structure.matrix.MatrixScalar;
+import com.jstarcraft.ai.math.structure.matrix.SparseMatrix;
 import com.jstarcraft.ai.math.structure.vector.DenseVector;
-import com.jstarcraft.core.utility.RandomUtility;
 import com.jstarcraft.recommendation.configure.Configuration;
 import com.jstarcraft.recommendation.data.DataSpace;
 import com.jstarcraft.recommendation.data.accessor.InstanceAccessor;
 import com.jstarcraft.recommendation.data.accessor.SampleAccessor;
 import com.jstarcraft.recommendation.recommender.ProbabilisticGraphicalRecommender;
+import com.jstarcraft.recommendation.utility.RandomUtility;
 
 /**
  * 
@@ -57,6 +58,8 @@ public class PLSARecommender extends ProbabilisticGraphicalRecommender {
 	public void prepare(Configuration configuration, SampleAccessor marker, InstanceAccessor model, DataSpace space) {
 		super.prepare(configuration, marker, model, space);
 
+		// 训练矩阵是共享的,修改之前复制
+		trainMatrix = SparseMatrix.copyOf(trainMatrix, false);
 		// TODO 此处代码可以消除(使用常量Marker代替或者使用binarize.threshold)
 		for (MatrixScalar term : trainMatrix) {
 			term.setValue(1F);
@@ -6,6 +6,7 @@ import java.util.List;
 
 import com.jstarcraft.ai.math.structure.MathCalculator;
 import com.jstarcraft.ai.math.structure.matrix.DenseMatrix;
+import com.jstarcraft.ai.math.structure.vector.ArrayVector;
 import com.jstarcraft.ai.math.structure.vector.DenseVector;
 import com.jstarcraft.ai.math.structure.vector.SparseVector;
 import com.jstarcraft.ai.math.structure.vector.VectorScalar;
@@ -239,4 +240,200 @@ public class RankALSRecommender extends MatrixFactorizationRecommender {
 		}
 	}
 
+	@Override
+	protected void expandModel(int userSize, int itemSize) {
+		// 新物品的支持度在更新物品行时刷新
+		DenseVector supportVector = DenseVector.valueOf(numberOfItems);
+		for (int itemIndex = 0; itemIndex < numberOfItems; itemIndex++) {
+			float supportValue = itemIndex < itemSize ? weightVector.getValue(itemIndex) : (weight ? 0F : 1F);
+			supportVector.setValue(itemIndex, supportValue);
+			if (itemIndex >= itemSize) {
+				sumSupport += supportValue;
+			}
+		}
+		weightVector = supportVector;
+	}
+
+	@Override
+	protected boolean isUpdatable() {
+		return true;
+	}
+
+	@Override
+	protected void updateUsers(int[] userIndexes) {
+		// 特征权重矩阵和特征权重向量
+		DenseMatrix factorWeightMatrix = DenseMatrix.valueOf(numberOfFactors, numberOfFactors);
+		DenseVector factorWeightVector = DenseVector.valueOf(numberOfFactors);
+		for (int itemIndex = 0; itemIndex < numberOfItems; itemIndex++) {
+			float weight = weightVector.getValue(itemIndex);
+			for (int leftFactorIndex = 0; leftFactorIndex < numberOfFactors; leftFactorIndex++) {
+				float value = itemFactors.getValue(itemIndex, leftFactorIndex) * weight;
+				factorWeightVector.shiftValue(leftFactorIndex, value);
+				for (int rightFactorIndex = 0; rightFactorIndex < numberOfFactors; rightFactorIndex++) {
+					factorWeightMatrix.shiftValue(leftFactorIndex, rightFactorIndex, value * itemFactors.getValue(itemIndex, rightFactorIndex));
+				}
+			}
+		}
+		DenseMatrix copyCache = DenseMatrix.valueOf(numberOfFactors, numberOfFactors);
+		DenseMatrix inverseCache = DenseMatrix.valueOf(numberOfFactors, numberOfFactors);
+		for (int userIndex : userIndexes) {
+			ArrayVector scoreVector = getUserScores(userIndex);
+			int size = scoreVector.getElementSize();
+			if (size == 0) {
+				continue;
+			}
+			DenseMatrix factorValues = DenseMatrix.valueOf(numberOfFactors, numberOfFactors);
+			DenseVector deltaValues = DenseVector.valueOf(numberOfFactors);
+			DenseVector rateValues = DenseVector.valueOf(numberOfFactors);
+			DenseVector weightValues = DenseVector.valueOf(numberOfFactors);
+			float weightSum = 0F, rateSum = 0F, timeSum = size;
+			for (int position = 0; position < size; position++) {
+				int itemIndex = scoreVector.getIndex(position);
+				float rate = scoreVector.getValue(position);
+				float weight = weightVector.getValue(itemIndex) * rate;
+				for (int leftFactorIndex = 0; leftFactorIndex < numberOfFactors; leftFactorIndex++) {
+					float value = itemFactors.getValue(itemIndex, leftFactorIndex);
+					deltaValues.shiftValue(leftFactorIndex, value);
+					rateValues.shiftValue(leftFactorIndex, value * rate);
+					weightValues.shiftValue(leftFactorIndex, value * weight);
+					for (int rightFactorIndex = 0; rightFactorIndex < numberOfFactors; rightFactorIndex++) {
+						factorValues.shiftValue(leftFactorIndex, rightFactorIndex, value * itemFactors.getValue(itemIndex, rightFactorIndex));
+					}
+				}
+				rateSum += rate;
+				weightSum += weight;
+			}
+			// 与doPractice的P step相同
+			factorValues.iterateElement(MathCalculator.SERIAL, (scalar) -> {
+				int row = scalar.getRow();
+				int column = scalar.getColumn();
+				float value = scalar.getValue();
+				scalar.setValue((row == column ? userRegularization : 0F) + value * sumSupport - (deltaValues.getValue(row) * factorWeightVector.getValue(column)) - (factorWeightVector.getValue(row) * deltaValues.getValue(column)) + (factorWeightMatrix.getValue(row, column) * timeSum));
+			});
+			float rateScale = rateSum;
+			float weightScale = weightSum;
+			rateValues.iterateElement(MathCalculator.SERIAL, (scalar) -> {
+				int index = scalar.getIndex();
+				float value = scalar.getValue();
+				scalar.setValue((value * sumSupport - deltaValues.getValue(index) * weightScale) - (factorWeightVector.getValue(index) * rateScale) + (weightValues.getValue(index) * timeSum));
+			});
+			userFactors.getRowVector(userIndex).dotProduct(MatrixUtility.inverse(factorValues, copyCache, inverseCache), false, rateValues, MathCalculator.SERIAL);
+		}
+	}
+
+	/**
+	 * 固定用户因子,重新求解指定的物品行
+	 * 
+	 * <pre>
+	 * 与doPractice的Q step相同,需要遍历所有用户的评分汇总用户的统计量.
+	 * </pre>
+	 */
+	@Override
+	protected void updateItems(int[] itemIndexes) {
+		// 刷新物品的支持度
+		if (weight) {
+			for (int itemIndex : itemIndexes) {
+				float supportValue = getItemScores(itemIndex).getElementSize();
+				sumSupport += supportValue - weightVector.getValue(itemIndex);
+				weightVector.setValue(itemIndex, supportValue);
+			}
+		}
+		DenseVector factorWeightVector = DenseVector.valueOf(numberOfFactors);
+		for (int itemIndex = 0; itemIndex < numberOfItems; itemIndex++) {
+			float weight = weightVector.getValue(itemIndex);
+			for (int factorIndex = 0; factorIndex < numberOfFactors; factorIndex++) {
+				factorWeightVector.shiftValue(factorIndex, itemFactors.getValue(itemIndex, factorIndex) * weight);
+			}
+		}
+
+		// 用户权重向量,用户次数向量
+		float[] userWeights = new float[numberOfUsers];
+		float[] userTimes = new float[numberOfUsers];
+		DenseMatrix itemFactorMatrix = DenseMatrix.valueOf(numberOfFactors, numberOfFactors);
+		DenseMatrix itemTimeMatrix = DenseMatrix.valueOf(numberOfFactors, numberOfFactors);
+		DenseVector itemFactorVector = DenseVector.valueOf(numberOfFactors);
+		DenseVector factorValues = DenseVector.valueOf(numberOfFactors);
+		DenseVector deltaValues = DenseVector.valueOf(numberOfFactors);
+		for (int userIndex = 0; userIndex < numberOfUsers; userIndex++) {
+			ArrayVector scoreVector = getUserScores(userIndex);
+			int size = scoreVector.getElementSize();
+			if (size == 0) {
+				continue;
+			}
+			deltaValues.setValues(0F);
+			float weightSum = 0F, rateSum = 0F;
+			for (int position = 0; position < size; position++) {
+				int itemIndex = scoreVector.getIndex(position);
+				float rate = scoreVector.getValue(position);
+				for (int factorIndex = 0; factorIndex < numberOfFactors; factorIndex++) {
+					deltaValues.shiftValue(factorIndex, itemFactors.getValue(itemIndex, factorIndex));
+				}
+				rateSum += rate;
+				weightSum += weightVector.getValue(itemIndex) * rate;
+			}
+			userWeights[userIndex] = weightSum;
+			userTimes[userIndex] = size;
+			float product = 0F;
+			for (int factorIndex = 0; factorIndex < numberOfFactors; factorIndex++) {
+				product += userFactors.getValue(userIndex, factorIndex) * deltaValues.getValue(factorIndex);
+			}
+			for (int leftFactorIndex = 0; leftFactorIndex < numberOfFactors; leftFactorIndex++) {
+				float value = userFactors.getValue(userIndex, leftFactorIndex);
+				itemFactorVector.shiftValue(leftFactorIndex, value * product);
+				factorValues.shiftValue(leftFactorIndex, value * rateSum);
+				for (int rightFactorIndex = 0; rightFactorIndex < numberOfFactors; rightFactorIndex++) {
+					float cache = value * userFactors.getValue(userIndex, rightFactorIndex);
+					itemFactorMatrix.shiftValue(leftFactorIndex, rightFactorIndex, cache);
+					itemTimeMatrix.shiftValue(leftFactorIndex, rightFactorIndex, cache * size);
+				}
+			}
+		}
+
+		DenseMatrix matrixCache = DenseMatrix.valueOf(numberOfFactors, numberOfFactors);
+		DenseMatrix copyCache = DenseMatrix.valueOf(numberOfFactors, numberOfFactors);
+		DenseMatrix inverseCache = DenseMatrix.valueOf(numberOfFactors, numberOfFactors);
+		DenseVector vectorCache = DenseVector.valueOf(numberOfFactors);
+		for (int itemIndex : itemIndexes) {
+			ArrayVector scoreVector = getItemScores(itemIndex);
+			DenseVector rateValues = DenseVector.valueOf(numberOfFactors);
+			DenseVector weightValues = DenseVector.valueOf(numberOfFactors);
+			DenseVector timeValues = DenseVector.valueOf(numberOfFactors);
+			for (int position = 0, size = scoreVector.getElementSize(); position < size; position++) {
+				int userIndex = scoreVector.getIndex(position);
+				float rate = scoreVector.getValue(position);
+				float weight = userWeights[userIndex];
+				float time = rate * userTimes[userIndex];
+				for (int factorIndex = 0; factorIndex < numberOfFactors; factorIndex++) {
+					float value = userFactors.getValue(userIndex, factorIndex);
+					rateValues.shiftValue(factorIndex, value * rate);
+					weightValues.shiftValue(factorIndex, value * weight);
+					timeValues.shiftValue(factorIndex, value * time);
+				}
+			}
+
+			float weight = weightVector.getValue(itemIndex);
+			vectorCache.dotProduct(itemFactorMatrix, false, factorWeightVector, MathCalculator.SERIAL);
+			matrixCache.iterateElement(MathCalculator.SERIAL, (scalar) -> {
+				int row = scalar.getRow();
+				int column = scalar.getColumn();
+				scalar.setValue(itemFactorMatrix.getValue(row, column) * (weight + 1));
+			});
+			DenseVector itemValues = itemFactors.getRowVector(itemIndex);
+			vectorCache.iterateElement(MathCalculator.SERIAL, (scalar) -> {
+				int index = scalar.getIndex();
+				float value = scalar.getValue();
+				value = value + (rateValues.getValue(index) * sumSupport) - weightValues.getValue(index) + (itemFactorVector.getValue(index) * weight) - (factorValues.getValue(index) * weight) + (timeValues.getValue(index) * weight);
+				value = value - scalar.dotProduct(matrixCache.getRowVector(index), itemValues).getValue();
+				scalar.setValue(value);
+			});
+			matrixCache.iterateElement(MathCalculator.SERIAL, (scalar) -> {
+				int row = scalar.getRow();
+				int column = scalar.getColumn();
+				float value = scalar.getValue();
+				scalar.setValue((row == column ? itemRegularization : 0F) + (value / (weight + 1)) * sumSupport + itemTimeMatrix.getValue(row, column) * weight - value);
+			});
+			itemValues.dotProduct(MatrixUtility.inverse(matrixCache, copyCache, inverseCache), false, vectorCache, MathCalculator.SERIAL);
+		}
+	}
+
 }
@@ -1,21 +1,14 @@
 package com.jstarcraft.recommendation.recommender.collaborative.ranking;
 
-import java.util.AbstractMap.SimpleImmutableEntry;
-import java.util.Arrays;
-import java.util.Comparator;
-import java.util.HashMap;
 import java.util.Iterator;
-import java.util.Map.Entry;
-import java.util.TreeSet;
 
 import com.jstarcraft.ai.math.algorithm.similarity.Similarity;
 import com.jstarcraft.ai.math.structure.MathCalculator;
 import com.jstarcraft.ai.math.structure.matrix.DenseMatrix;
-import com.jstarcraft.ai.math.structure.matrix.MatrixScalar;
 import com.jstarcraft.ai.math.structure.matrix.SymmetryMatrix;
 import com.jstarcraft.ai.math.structure.vector.ArrayVector;
 import com.jstarcraft.ai.math.structure.vector.VectorScalar;
-import com.jstarcraft.core.utility.RandomUtility;
+import com.jstarcraft.ai.model.ModelDefinition;
 import com.jstarcraft.core.utility.ReflectionUtility;
 import com.jstarcraft.recommendation.configure.Configuration;
 import com.jstarcraft.recommendation.data.DataSpace;
@@ -23,6 +16,10 @@ import com.jstarcraft.recommendation.data.accessor.InstanceAccessor;
 import com.jstarcraft.recommendation.data.accessor.SampleAccessor;
 import com.jstarcraft.recommendation.exception.RecommendationException;
 import com.jstarcraft.recommendation.recommender.ModelRecommender;
+import com.jstarcraft.recommendation.utility.NeighborMatrix;
+import com.jstarcraft.recommendation.utility.NeighborUtility;
+import com.jstarcraft.recommendation.utility.RandomUtility;
+import com.jstarcraft.recommendation.utility.SparseSimilarity;
 
 /**
  * 
@@ -36,6 +33,7 @@ import com.jstarcraft.recommendation.recommender.ModelRecommender;
  * @author Birdy
  *
  */
+@ModelDefinition(value = { "userDimension", "itemDimension", "numberOfItems", "coefficientMatrix", "itemNeighbors", "userVectors" })
 public class SLIMRecommender extends ModelRecommender {
 
 	/**
@@ -47,7 +45,7 @@ public class SLIMRecommender extends ModelRecommender {
 	/**
 	 * item's nearest neighbors for kNN > 0
 	 */
-	private int[][] itemNeighbors;
+	private NeighborMatrix itemNeighbors;
 
 	/**
 	 * regularization parameters for the L1 or L2 term
@@ -59,24 +57,16 @@ public class SLIMRecommender extends ModelRecommender {
 	 */
 	private int neighborSize;
 
-	/**
-	 * item similarity matrix
-	 */
-	private SymmetryMatrix similarityMatrix;
-
 	private ArrayVector[] userVectors;
 
 	private ArrayVector[] itemVectors;
 
-	private Comparator<Entry<Integer, Double>> comparator = new Comparator<Entry<Integer, Double>>() {
-		public int compare(Entry<Integer, Double> left, Entry<Integer, Double> right) {
-			int value = -(left.getValue().compareTo(right.getValue()));
-			if (value == 0) {
-				value = left.getKey().compareTo(right.getKey());
-			}
-			return value;
-		}
-	};
+	/** 是否使用批量预测的优化实现(子类重写了单个预测时不使用,只取决于类,所以在构造时计算) */
+	private final boolean isBatched = !isOverridden(SLIMRecommender.class, "predict", int[].class, float[].class);
+
+	/** 展开的用户向量(每个线程一份,用完之后只清理用户向量的位置) */
+	private ThreadLocal<boolean[]> markStorage = new ThreadLocal<>();
+	private ThreadLocal<float[]> scoreStorage = new ThreadLocal<>();
 
 	/**
 	 * initialization
@@ -102,53 +92,22 @@ public class SLIMRecommender extends ModelRecommender {
 
 		// initial guesses: make smaller guesses (e.g., W.init(0.01)) to speed
 		// up training
-		// TODO 修改为配置枚举
-		try {
-			Class<Similarity> similarityClass = (Class<Similarity>) Class.forName(configuration.getString("rec.similarity.class"));
-			Similarity similarity = ReflectionUtility.getInstance(similarityClass);
-			similarityMatrix = similarity.makeSimilarityMatrix(trainMatrix, true, configuration.getFloat("rec.similarity.shrinkage", 0F));
-		} catch (Exception exception) {
-			throw new RuntimeException(exception);
-		}
-
-		// TODO 设置容量
-		itemNeighbors = new int[numberOfItems][];
-		HashMap<Integer, TreeSet<Entry<Integer, Double>>> itemNNs = new HashMap<>();
-		for (MatrixScalar term : similarityMatrix) {
-			int row = term.getRow();
-			int column = term.getColumn();
-			double value = term.getValue();
-			// 忽略相似度为0的物品
-			if (value == 0D) {
-				continue;
-			}
-			TreeSet<Entry<Integer, Double>> neighbors = itemNNs.get(row);
-			if (neighbors == null) {
-				neighbors = new TreeSet<>(comparator);
-				itemNNs.put(row, neighbors);
-			}
-			neighbors.add(new SimpleImmutableEntry<>(column, value));
-			neighbors = itemNNs.get(column);
-			if (neighbors == null) {
-				neighbors = new TreeSet<>(comparator);
-				itemNNs.put(column, neighbors);
-			}
-			neighbors.add(new SimpleImmutableEntry<>(row, value));
-		}
-
-		// 构建物品邻居映射
-		for (Entry<Integer, TreeSet<Entry<Integer, Double>>> term : itemNNs.entrySet()) {
-			TreeSet<Entry<Integer, Double>> neighbors = term.getValue();
-			int[] value = new int[neighbors.size() < neighborSize ? neighbors.size() : neighborSize];
-			int index = 0;
-			for (Entry<Integer, Double> neighbor : neighbors) {
-				value[index++] = neighbor.getKey();
-				if (index >= neighborSize) {
-					break;
-				}
+		// 与原有实现一致,物品自身也作为候选的邻居(W_ii参与坐标下降)
+		String similarityClass = configuration.getString("rec.similarity.class");
+		float shrinkage = configuration.getFloat("rec.similarity.shrinkage", 0F);
+		if (configuration.getBoolean("rec.similarity.sparse", false)) {
+			// 通过稀疏矩阵的乘积只计算最近邻居,不构建完整的相似度矩阵
+			itemNeighbors = NeighborUtility.getNeighbors(trainMatrix, true, shrinkage, neighborSize, SparseSimilarity.classOf(similarityClass), true);
+		} else {
+			// TODO 修改为配置枚举
+			SymmetryMatrix similarityMatrix;
+			try {
+				Similarity similarity = ReflectionUtility.getInstance((Class<Similarity>) Class.forName(similarityClass));
+				similarityMatrix = similarity.makeSimilarityMatrix(trainMatrix, true, shrinkage);
+			} catch (Exception exception) {
+				throw new RuntimeException(exception);
 			}
-			Arrays.sort(value);
-			itemNeighbors[term.getKey()] = value;
+			itemNeighbors = NeighborUtility.getNeighbors(similarityMatrix, numberOfItems, neighborSize, true);
 		}
 
 		userVectors = new ArrayVector[numberOfUsers];
@@ -171,13 +130,15 @@ public class SLIMRecommender extends ModelRecommender {
 	@Override
 	protected void doPractice() {
 		float[] rates = new float[numberOfUsers];
+		int[] paginations = itemNeighbors.getPaginations();
+		int[] neighborIndexes = itemNeighbors.getIndexes();
 		// number of iteration cycles
 		for (int iterationStep = 1; iterationStep <= numberOfEpoches; iterationStep++) {
 			totalLoss = 0F;
 			// each cycle iterates through one coordinate direction
 			for (int itemIndex = 0; itemIndex < numberOfItems; itemIndex++) {
-				int[] neighborIndexes = itemNeighbors[itemIndex];
-				if (neighborIndexes == null) {
+				int from = paginations[itemIndex], to = paginations[itemIndex + 1];
+				if (from == to) {
 					continue;
 				}
 				ArrayVector itemVector = itemVectors[itemIndex];
@@ -187,7 +148,8 @@ public class SLIMRecommender extends ModelRecommender {
 				// for each nearest neighbor nearestNeighborItemIdx, update
 				// coefficienMatrix by the coordinate
 				// descent update rule
-				for (int neighborIndex : neighborIndexes) {
+				for (int position = from; position < to; position++) {
+					int neighborIndex = neighborIndexes[position];
 					itemVector = itemVectors[neighborIndex];
 					float valueSum = 0F, rateSum = 0F, errorSum = 0F;
 					int count = itemVector.getElementSize();
@@ -195,7 +157,7 @@ public class SLIMRecommender extends ModelRecommender {
 						int userIndex = term.getIndex();
 						float neighborRate = term.getValue();
 						float userRate = rates[userIndex];
-						float error = userRate - predict(userIndex, itemIndex, neighborIndexes, neighborIndex);
+						float error = userRate - predict(userIndex, itemIndex, neighborIndexes, from, to, neighborIndex);
 						valueSum += neighborRate * error;
 						rateSum += neighborRate * neighborRate;
 						errorSum += error * error;
@@ -243,13 +205,13 @@ public class SLIMRecommender extends ModelRecommender {
 	 *            excluded item index
 	 * @return a prediction without the contribution of excluded item
 	 */
-	private float predict(int userIndex, int itemIndex, int[] neighbors, int currentIndex) {
+	private float predict(int userIndex, int itemIndex, int[] neighbors, int from, int to, int currentIndex) {
 		float value = 0F;
 		ArrayVector userVector = userVectors[userIndex];
 		if (userVector.getElementSize() == 0) {
 			return value;
 		}
-		int leftIndex = 0, rightIndex = 0, leftSize = userVector.getElementSize(), rightSize = neighbors.length;
+		int leftIndex = 0, rightIndex = from, leftSize = userVector.getElementSize(), rightSize = to;
 		Iterator<VectorScalar> iterator = userVector.iterator();
 		VectorScalar term = iterator.next();
 		// 判断两个有序数组中是否存在相同的数字
@@ -290,11 +252,56 @@ public class SLIMRecommender extends ModelRecommender {
 	public float predict(int[] dicreteFeatures, float[] continuousFeatures) {
 		int userIndex = dicreteFeatures[userDimension];
 		int itemIndex = dicreteFeatures[itemDimension];
-		int[] neighbors = itemNeighbors[itemIndex];
-		if (neighbors == null) {
+		int[] paginations = itemNeighbors.getPaginations();
+		int from = paginations[itemIndex], to = paginations[itemIndex + 1];
+		if (from == to) {
 			return 0F;
 		}
-		return predict(userIndex, itemIndex, neighbors, -1);
+		return predict(userIndex, itemIndex, itemNeighbors.getIndexes(), from, to, -1);
+	}
+
+	@Override
+	public void predict(int[] dicreteFeatures, float[] continuousFeatures, int[] itemIndexes, float[] scores) {
+		if (!isBatched) {
+			super.predict(dicreteFeatures, continuousFeatures, itemIndexes, scores);
+			return;
+		}
+		int userIndex = dicreteFeatures[userDimension];
+		ArrayVector userVector = userVectors[userIndex];
+		// 将用户向量展开为稠密数组,每个物品只需要遍历邻居,避免重复合并有序数组
+		boolean[] userMarks = markStorage.get();
+		float[] userScores = scoreStorage.get();
+		if (userMarks == null || userMarks.length != numberOfItems) {
+			userMarks = new boolean[numberOfItems];
+			userScores = new float[numberOfItems];
+			markStorage.set(userMarks);
+			scoreStorage.set(userScores);
+		}
+		for (VectorScalar term : userVector) {
+			userMarks[term.getIndex()] = true;
+			userScores[term.getIndex()] = term.getValue();
+		}
+		int[] paginations = itemNeighbors.getPaginations();
+		int[] neighbors = itemNeighbors.getIndexes();
+		try {
+			for (int index = 0, size = itemIndexes.length; index < size; index++) {
+				int itemIndex = itemIndexes[index];
+				dicreteFeatures[itemDimension] = itemIndex;
+				float value = 0F;
+				for (int position = paginations[itemIndex], end = paginations[itemIndex + 1]; position < end; position++) {
+					int neighbor = neighbors[position];
+					if (userMarks[neighbor]) {
+						value += userScores[neighbor] * coefficientMatrix.getValue(neighbor, itemIndex);
+					}
+				}
+				scores[index] = value;
+			}
+		} finally {
+			for (VectorScalar term : userVector) {
+				userMarks[term.getIndex()] = false;
+				userScores[term.getIndex()] = 0F;
+			}
+		}
 	}
 
 }
@@ -24,21 +24,23 @@ public class UserKNNRankingRecommender extends UserKNNRecommender {
 		int userIndex = dicreteFeatures[userDimension];
 		int itemIndex = dicreteFeatures[itemDimension];
 		SparseVector itemVector = itemVectors[itemIndex];
-		int[] neighbors = userNeighbors[userIndex];
-		if (itemVector.getElementSize() == 0 || neighbors == null) {
+		int[] paginations = userNeighbors.getPaginations();
+		int[] neighbors = userNeighbors.getIndexes();
+		float[] similarities = userNeighbors.getValues();
+		if (itemVector.getElementSize() == 0 || paginations[userIndex] == paginations[userIndex + 1]) {
 			return 0F;
 		}
 
 		float sum = 0F, absolute = 0F;
 		int count = 0;
-		int leftIndex = 0, rightIndex = 0, leftSize = itemVector.getElementSize(), rightSize = neighbors.length;
+		int leftIndex = 0, rightIndex = paginations[userIndex], leftSize = itemVector.getElementSize(), rightSize = paginations[userIndex + 1];
 		Iterator<VectorScalar> iterator = itemVector.iterator();
 		VectorScalar term = iterator.next();
 		// 判断两个有序数组中是否存在相同的数字
 		while (leftIndex < leftSize && rightIndex < rightSize) {
 			if (term.getIndex() == neighbors[rightIndex]) {
 				count++;
-				sum += similarityMatrix.getValue(userIndex, neighbors[rightIndex]);
+				sum += similarities[rightIndex];
 				if (iterator.hasNext()) {
 					term = iterator.next();
 				}
@@ -1,7 +1,8 @@
 package com.jstarcraft.recommendation.recommender.collaborative.ranking;
 
+import java.util.Random;
+
 import com.jstarcraft.ai.math.structure.vector.SparseVector;
-import com.jstarcraft.core.utility.RandomUtility;
 import com.jstarcraft.recommendation.configure.Configuration;
 import com.jstarcraft.recommendation.data.DataSpace;
 import com.jstarcraft.recommendation.data.accessor.InstanceAccessor;
@@ -47,67 +48,70 @@ public class WARPMFRecommender extends MatrixFactorizationRecommender {
 
 	@Override
 	protected void doPractice() {
-		int Y, N;
-
 		for (int epochIndex = 1; epochIndex <= numberOfEpoches; epochIndex++) {
-			totalLoss = 0F;
-			for (int sampleIndex = 0, sampleTimes = numberOfUsers * 100; sampleIndex < sampleTimes; sampleIndex++) {
-				int userIndex, positiveItemIndex, negativeItemIndex;
-				float positiveScore;
-				float negativeScore;
-				while (true) {
-					userIndex = RandomUtility.randomInteger(numberOfUsers);
-					SparseVector userVector = trainMatrix.getRowVector(userIndex);
-					if (userVector.getElementSize() == 0 || userVector.getElementSize() == numberOfItems) {
-						continue;
-					}
+			totalLoss = doEpoch(numberOfUsers * 100, this::doSamples);
+			if (isConverged(epochIndex) && isConverged) {
+				break;
+			}
+			isLearned(epochIndex);
+			currentLoss = totalLoss;
+		}
+	}
 
-					N = 0;
-					Y = numberOfItems - trainMatrix.getRowScope(userIndex);
-					positiveItemIndex = userVector.getIndex(RandomUtility.randomInteger(userVector.getElementSize()));
-					positiveScore = predict(userIndex, positiveItemIndex);
-					do {
-						N++;
-						negativeItemIndex = RandomUtility.randomInteger(numberOfItems - userVector.getElementSize());
-						for (int index = 0, size = userVector.getElementSize(); index < size; index++) {
-							if (negativeItemIndex >= userVector.getIndex(index)) {
-								negativeItemIndex++;
-								continue;
-							}
-							break;
-						}
-						negativeScore = predict(userIndex, negativeItemIndex);
-					} while ((positiveScore - negativeScore > epsilon) && N < Y - 1);
-					break;
+	private float doSamples(Random random, int from, int to) {
+		int Y, N;
+		float loss = 0F;
+		for (int sampleIndex = from; sampleIndex < to; sampleIndex++) {
+			int userIndex, positiveItemIndex, negativeItemIndex;
+			float positiveScore;
+			float negativeScore;
+			while (true) {
+				userIndex = random.nextInt(numberOfUsers);
+				SparseVector userVector = trainMatrix.getRowVector(userIndex);
+				if (userVector.getElementSize() == 0 || userVector.getElementSize() == numberOfItems) {
+					continue;
 				}
-				// update parameters
-				float error = positiveScore - negativeScore;
 
-				float gradient = calaculateGradientValue(lossType, error);
-				int orderIndex = (int) ((Y - 1) / N);
-				float orderLoss = orderLosses[orderIndex];
-				gradient = gradient * orderLoss;
+				N = 0;
+				Y = numberOfItems - trainMatrix.getRowScope(userIndex);
+				positiveItemIndex = userVector.getIndex(random.nextInt(userVector.getElementSize()));
+				positiveScore = predict(userIndex, positiveItemIndex);
+				do {
+					N++;
+					negativeItemIndex = random.nextInt(numberOfItems - userVector.getElementSize());
+					for (int index = 0, size = userVector.getElementSize(); index < size; index++) {
+						if (negativeItemIndex >= userVector.getIndex(index)) {
+							negativeItemIndex++;
+							continue;
+						}
+						break;
+					}
+					negativeScore = predict(userIndex, negativeItemIndex);
+				} while ((positiveScore - negativeScore > epsilon) && N < Y - 1);
+				break;
+			}
+			// update parameters
+			float error = positiveScore - negativeScore;
 
-				totalLoss += -Math.log(LogisticUtility.getValue(error));
+			float gradient = calaculateGradientValue(lossType, error);
+			int orderIndex = (int) ((Y - 1) / N);
+			float orderLoss = orderLosses[orderIndex];
+			gradient = gradient * orderLoss;
 
-				for (int factorIndex = 0; factorIndex < numberOfFactors; factorIndex++) {
-					float userFactor = userFactors.getValue(userIndex, factorIndex);
-					float positiveFactor = itemFactors.getValue(positiveItemIndex, factorIndex);
-					float negativeFactor = itemFactors.getValue(negativeItemIndex, factorIndex);
+			loss += -Math.log(LogisticUtility.getValue(error));
 
-					userFactors.shiftValue(userIndex, factorIndex, learnRate * (gradient * (positiveFactor - negativeFactor) - userRegularization * userFactor));
-					itemFactors.shiftValue(positiveItemIndex, factorIndex, learnRate * (gradient * userFactor - itemRegularization * positiveFactor));
-					itemFactors.shiftValue(negativeItemIndex, factorIndex, learnRate * (gradient * (-userFactor) - itemRegularization * negativeFactor));
-					totalLoss += userRegularization * userFactor * userFactor + itemRegularization * positiveFactor * positiveFactor + itemRegularization * negativeFactor * negativeFactor;
-				}
-			}
+			for (int factorIndex = 0; factorIndex < numberOfFactors; factorIndex++) {
+				float userFactor = userFactors.getValue(userIndex, factorIndex);
+				float positiveFactor = itemFactors.getValue(positiveItemIndex, factorIndex);
+				float negativeFactor = itemFactors.getValue(negativeItemIndex, factorIndex);
 
-			if (isConverged(epochIndex) && isConverged) {
-				break;
+				userFactors.shiftValue(userIndex, factorIndex, learnRate * (gradient * (positiveFactor - negativeFactor) - userRegularization * userFactor));
+				itemFactors.shiftValue(positiveItemIndex, factorIndex, learnRate * (gradient * userFactor - itemRegularization * positiveFactor));
+				itemFactors.shiftValue(negativeItemIndex, factorIndex, learnRate * (gradient * (-userFactor) - itemRegularization * negativeFactor));
+				loss += userRegularization * userFactor * userFactor + itemRegularization * positiveFactor * positiveFactor + itemRegularization * negativeFactor * negativeFactor;
 			}
-			isLearned(epochIndex);
-			currentLoss = totalLoss;
 		}
+		return loss;
 	}
 
 }
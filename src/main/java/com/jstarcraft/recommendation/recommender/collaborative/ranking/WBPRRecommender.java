@@ -1,24 +1,19 @@
 package com.jstarcraft.recommendation.recommender.collaborative.ranking;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.LinkedList;
-import java.util.List;
-
 import com.jstarcraft.ai.math.structure.DefaultScalar;
 import com.jstarcraft.ai.math.structure.MathCalculator;
 import com.jstarcraft.ai.math.structure.vector.DenseVector;
 import com.jstarcraft.ai.math.structure.vector.SparseVector;
-import com.jstarcraft.core.utility.KeyValue;
-import com.jstarcraft.core.utility.RandomUtility;
 import com.jstarcraft.recommendation.configure.Configuration;
 import com.jstarcraft.recommendation.data.DataSpace;
 import com.jstarcraft.recommendation.data.accessor.InstanceAccessor;
 import com.jstarcraft.recommendation.data.accessor.SampleAccessor;
 import com.jstarcraft.recommendation.recommender.MatrixFactorizationRecommender;
 import com.jstarcraft.recommendation.utility.LogisticUtility;
-
-import it.unimi.dsi.fastutil.ints.IntSet;
+import com.jstarcraft.recommendation.utility.NegativeSampler;
+import com.jstarcraft.recommendation.utility.RandomUtility;
+import com.jstarcraft.recommendation.utility.SampleUtility;
+import com.jstarcraft.recommendation.utility.SortUtility;
 
 /**
  * 
@@ -39,11 +34,19 @@ public class WBPRRecommender extends MatrixFactorizationRecommender {
 	// private LoadingCache<Integer, IntSet> userItemsSet;
 
 	/**
-	 * pre-compute and sort by item's popularity
+	 * 负物品采样器(配置rec.sampler.negative时使用,例如popularity为所有用户共享的别名表)
 	 */
-	private List<KeyValue<Integer, Double>> itemPopularities;
+	private NegativeSampler negativeSampler;
 
-	private List<KeyValue<Integer, Double>>[] itemProbabilities;
+	/**
+	 * 按照流行度降序(流行度相同时按照索引升序)并且流行度大于0的物品
+	 */
+	private int[] popularItems;
+
+	/**
+	 * 物品的采样概率(未配置采样器时使用)
+	 */
+	private double[] itemProbabilities;
 
 	/**
 	 * items biases
@@ -70,38 +73,63 @@ public class WBPRRecommender extends MatrixFactorizationRecommender {
 			scalar.setValue(RandomUtility.randomFloat(0.01F));
 		});
 
-		// pre-compute and sort by item's popularity
-		itemPopularities = new ArrayList<>(numberOfItems);
+		String sampler = configuration.getString("rec.sampler.negative");
+		if (sampler != null) {
+			negativeSampler = NegativeSampler.nameOf(sampler, trainMatrix);
+			return;
+		}
+		// 未配置采样器时保持原有的采样序列(按照流行度降序逐个扫描)
+		int[] popularities = new int[numberOfItems];
+		int size = 0;
 		for (int itemIndex = 0; itemIndex < numberOfItems; itemIndex++) {
-			itemPopularities.add(new KeyValue<>(itemIndex, Double.valueOf(trainMatrix.getColumnScope(itemIndex))));
+			popularities[itemIndex] = trainMatrix.getColumnScope(itemIndex);
+			if (popularities[itemIndex] > 0) {
+				size++;
+			}
 		}
-		Collections.sort(itemPopularities, (left, right) -> {
-			// 降序
-			return right.getValue().compareTo(left.getValue());
-		});
-
-		itemProbabilities = new List[numberOfUsers];
-		List<IntSet> userItemSet = getUserItemSet(trainMatrix);
+		popularItems = new int[size];
+		itemProbabilities = new double[numberOfItems];
+		for (int itemIndex = 0, cursor = 0; itemIndex < numberOfItems; itemIndex++) {
+			if (popularities[itemIndex] > 0) {
+				popularItems[cursor++] = itemIndex;
+				itemProbabilities[itemIndex] = popularities[itemIndex];
+			}
+		}
+		// 稳定的降序
+		SortUtility.mergeSort(popularItems, (left, right) -> Integer.compare(popularities[right], popularities[left]));
+		// 原有实现的概率列表在用户之间共享同一个KeyValue,每个用户的归一化会修改其它用户的概率,
+		// 此处按照相同的顺序逐个用户归一化,只保留每个物品一个概率.
 		for (int userIndex = 0; userIndex < numberOfUsers; userIndex++) {
-			IntSet scoreSet = userItemSet.get(userIndex);
-			List<KeyValue<Integer, Double>> probabilities = new LinkedList<>();
-			itemProbabilities[userIndex] = probabilities;
-			// filter candidate items
-			double sum = 0;
-			for (KeyValue<Integer, Double> term : itemPopularities) {
-				int itemIndex = term.getKey();
-				double popularity = term.getValue();
-				if (!scoreSet.contains(itemIndex) && popularity > 0D) {
-					// make a clone to prevent bugs from normalization
-					probabilities.add(term);
-					sum += popularity;
+			SparseVector userVector = trainMatrix.getRowVector(userIndex);
+			double sum = 0D;
+			for (int itemIndex : popularItems) {
+				if (!SampleUtility.contain(userVector, itemIndex)) {
+					sum += itemProbabilities[itemIndex];
 				}
 			}
-			// normalization
-			for (KeyValue<Integer, Double> term : probabilities) {
-				term.setValue(term.getValue() / sum);
+			for (int itemIndex : popularItems) {
+				if (!SampleUtility.contain(userVector, itemIndex)) {
+					itemProbabilities[itemIndex] /= sum;
+				}
+			}
+		}
+	}
+
+	/**
+	 * 按照流行度降序逐个扫描用户的非正物品
+	 * 
+	 * @param userIndex
+	 * @return 负物品(概率之和不足时为0)
+	 */
+	private int sample(int userIndex) {
+		SparseVector userVector = trainMatrix.getRowVector(userIndex);
+		double random = RandomUtility.randomDouble(1D);
+		for (int itemIndex : popularItems) {
+			if (!SampleUtility.contain(userVector, itemIndex) && (random -= itemProbabilities[itemIndex]) <= 0D) {
+				return itemIndex;
 			}
 		}
+		return 0;
 	}
 
 	@Override
@@ -110,8 +138,7 @@ public class WBPRRecommender extends MatrixFactorizationRecommender {
 			totalLoss = 0F;
 			for (int sampleIndex = 0, sampleTimes = numberOfUsers * 100; sampleIndex < sampleTimes; sampleIndex++) {
 				// randomly draw (userIdx, posItemIdx, negItemIdx)
-				int userIndex, positiveItemIndex, negativeItemIndex = 0;
-				List<KeyValue<Integer, Double>> probabilities;
+				int userIndex, positiveItemIndex, negativeItemIndex;
 				while (true) {
 					userIndex = RandomUtility.randomInteger(numberOfUsers);
 					SparseVector userVector = trainMatrix.getRowVector(userIndex);
@@ -120,14 +147,7 @@ public class WBPRRecommender extends MatrixFactorizationRecommender {
 					}
 					positiveItemIndex = userVector.getIndex(RandomUtility.randomInteger(userVector.getElementSize()));
 					// sample j by popularity (probability)
-					probabilities = itemProbabilities[userIndex];
-					double random = RandomUtility.randomDouble(1D);
-					for (KeyValue<Integer, Double> term : probabilities) {
-						if ((random -= term.getValue()) <= 0D) {
-							negativeItemIndex = term.getKey();
-							break;
-						}
-					}
+					negativeItemIndex = negativeSampler == null ? sample(userIndex) : negativeSampler.sample(SampleUtility.UTILITY_RANDOM, userIndex);
 					break;
 				}
 
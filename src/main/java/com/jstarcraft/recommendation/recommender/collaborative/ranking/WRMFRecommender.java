@@ -7,6 +7,7 @@ import com.jstarcraft.ai.environment.EnvironmentContext;
 import com.jstarcraft.ai.math.structure.MathCalculator;
 import com.jstarcraft.ai.math.structure.matrix.DenseMatrix;
 import com.jstarcraft.ai.math.structure.matrix.SparseMatrix;
+import com.jstarcraft.ai.math.structure.vector.ArrayVector;
 import com.jstarcraft.ai.math.structure.vector.DenseVector;
 import com.jstarcraft.ai.math.structure.vector.SparseVector;
 import com.jstarcraft.ai.math.structure.vector.VectorScalar;
@@ -56,7 +57,7 @@ public class WRMFRecommender extends MatrixFactorizationRecommender {
 
 		confindenceMatrix = SparseMatrix.copyOf(trainMatrix, false);
 		confindenceMatrix.iterateElement(MathCalculator.SERIAL, (scalar) -> {
-			scalar.setValue((float) Math.log(1F + Math.pow(10, weightCoefficient) * scalar.getValue()));
+			scalar.setValue(getConfidence(scalar.getValue()));
 		});
 		preferenceMatrix = SparseMatrix.copyOf(trainMatrix, false);
 		preferenceMatrix.setValues(1F);
@@ -98,7 +99,7 @@ public class WRMFRecommender extends MatrixFactorizationRecommender {
 			CountDownLatch userLatch = new CountDownLatch(numberOfUsers);
 			for (int index = 0; index < numberOfUsers; index++) {
 				int userIndex = index;
-				context.doAlgorithmByAny(index, () -> {
+				context.doAlgorithmByAny(index, monitor.measure(() -> {
 					DenseMatrix factorMatrix = factorMatrixStorage.get();
 					DenseMatrix copyMatrix = copyMatrixStorage.get();
 					DenseMatrix inverseMatrix = inverseMatrixStorage.get();
@@ -134,7 +135,7 @@ public class WRMFRecommender extends MatrixFactorizationRecommender {
 					// udpate user factors
 					userFactors.getRowVector(userIndex).dotProduct(MatrixUtility.inverse(factorMatrix, copyMatrix, inverseMatrix), false, userFactorVector, MathCalculator.SERIAL);
 					userLatch.countDown();
-				});
+				}));
 			}
 			try {
 				userLatch.await();
@@ -149,7 +150,7 @@ public class WRMFRecommender extends MatrixFactorizationRecommender {
 			CountDownLatch itemLatch = new CountDownLatch(numberOfItems);
 			for (int index = 0; index < numberOfItems; index++) {
 				int itemIndex = index;
-				context.doAlgorithmByAny(index, () -> {
+				context.doAlgorithmByAny(index, monitor.measure(() -> {
 					DenseMatrix factorMatrix = factorMatrixStorage.get();
 					DenseMatrix copyMatrix = copyMatrixStorage.get();
 					DenseMatrix inverseMatrix = inverseMatrixStorage.get();
@@ -185,7 +186,7 @@ public class WRMFRecommender extends MatrixFactorizationRecommender {
 					// udpate item factors
 					itemFactors.getRowVector(itemIndex).dotProduct(MatrixUtility.inverse(factorMatrix, copyMatrix, inverseMatrix), false, itemFactorVector, MathCalculator.SERIAL);
 					itemLatch.countDown();
-				});
+				}));
 			}
 			try {
 				itemLatch.await();
@@ -196,7 +197,60 @@ public class WRMFRecommender extends MatrixFactorizationRecommender {
 			if (logger.isInfoEnabled()) {
 				logger.info(getClass() + " runs at iteration = " + iterationStep + " " + new Date());
 			}
+			notifyEpoch(iterationStep);
 		}
 	}
 
+	private float getConfidence(float score) {
+		return (float) Math.log(1F + Math.pow(10, weightCoefficient) * score);
+	}
+
+	@Override
+	protected boolean isUpdatable() {
+		return true;
+	}
+
+	@Override
+	protected void updateUsers(int[] userIndexes) {
+		DenseMatrix itemSymmetryMatrix = getSymmetryMatrix(itemFactors, userRegularization);
+		for (int userIndex : userIndexes) {
+			ArrayVector scoreVector = getUserScores(userIndex);
+			updateFactors(userFactors, userIndex, itemFactors, itemSymmetryMatrix, scoreVector);
+		}
+	}
+
+	@Override
+	protected void updateItems(int[] itemIndexes) {
+		DenseMatrix userSymmetryMatrix = getSymmetryMatrix(userFactors, itemRegularization);
+		for (int itemIndex : itemIndexes) {
+			ArrayVector scoreVector = getItemScores(itemIndex);
+			updateFactors(itemFactors, itemIndex, userFactors, userSymmetryMatrix, scoreVector);
+		}
+	}
+
+	// 与训练保持一致:正则项累加到法方程矩阵的每个元素(而不只是对角线),所以由对称矩阵携带并且不再传给solveFactors
+	private DenseMatrix getSymmetryMatrix(DenseMatrix fixedFactors, float regularization) {
+		DenseMatrix symmetryMatrix = DenseMatrix.valueOf(numberOfFactors, numberOfFactors);
+		symmetryMatrix.dotProduct(fixedFactors, true, fixedFactors, false, MathCalculator.SERIAL);
+		for (int leftFactorIndex = 0; leftFactorIndex < numberOfFactors; leftFactorIndex++) {
+			for (int rightFactorIndex = 0; rightFactorIndex < numberOfFactors; rightFactorIndex++) {
+				symmetryMatrix.shiftValue(leftFactorIndex, rightFactorIndex, regularization);
+			}
+		}
+		return symmetryMatrix;
+	}
+
+	// YtY + Yt * (Cu - I) * Y 与 Yt * Cu * Pu(偏好都为1)
+	private void updateFactors(DenseMatrix factors, int row, DenseMatrix fixedFactors, DenseMatrix symmetryMatrix, ArrayVector scoreVector) {
+		int size = scoreVector.getElementSize();
+		float[] matrixWeights = new float[size];
+		float[] vectorWeights = new float[size];
+		for (int position = 0; position < size; position++) {
+			float confindence = getConfidence(scoreVector.getValue(position));
+			matrixWeights[position] = confindence;
+			vectorWeights[position] = confindence + 1F;
+		}
+		solveFactors(factors, row, fixedFactors, symmetryMatrix, scoreVector, matrixWeights, vectorWeights, 0F);
+	}
+
 }
@@ -1,5 +1,8 @@
 package com.jstarcraft.recommendation.recommender.collaborative.rating;
 
+import java.util.Arrays;
+import java.util.Random;
+
 import com.jstarcraft.ai.math.structure.DefaultScalar;
 import com.jstarcraft.ai.math.structure.MathCalculator;
 import com.jstarcraft.ai.math.structure.matrix.DenseMatrix;
@@ -28,9 +31,13 @@ public class ASVDPlusPlusRecommender extends BiasedMFRecommender {
 
 	private DenseMatrix positiveFactors, negativeFactors;
 
+	/** 是否按照用户批量更新隐式反馈因子(参考SVDPlusPlusRecommender) */
+	private boolean isUserBatched;
+
 	@Override
 	public void prepare(Configuration configuration, SampleAccessor marker, InstanceAccessor model, DataSpace space) {
 		super.prepare(configuration, marker, model, space);
+		isUserBatched = configuration.getBoolean("rec.svdpp.batch", false);
 		positiveFactors = DenseMatrix.valueOf(numberOfItems, numberOfFactors);
 		positiveFactors.iterateElement(MathCalculator.SERIAL, (scalar) -> {
 			scalar.setValue(distribution.sample().floatValue());
@@ -46,13 +53,118 @@ public class ASVDPlusPlusRecommender extends BiasedMFRecommender {
 		for (int iterationStep = 1; iterationStep <= numberOfEpoches; iterationStep++) {
 			// TODO 目前没有totalLoss.
 			totalLoss = 0f;
-			for (MatrixScalar matrixTerm : trainMatrix) {
-				int userIndex = matrixTerm.getRow();
-				int itemIndex = matrixTerm.getColumn();
-				float rate = matrixTerm.getValue();
-				float predict = predict(userIndex, itemIndex);
+			if (isUserBatched) {
+				// 按照用户切割样本
+				totalLoss = doEpoch(numberOfUsers, this::doBatches);
+			} else {
+				for (MatrixScalar matrixTerm : trainMatrix) {
+					int userIndex = matrixTerm.getRow();
+					int itemIndex = matrixTerm.getColumn();
+					float rate = matrixTerm.getValue();
+					float predict = predict(userIndex, itemIndex);
+					float error = rate - predict;
+					SparseVector userVector = trainMatrix.getRowVector(userIndex);
+
+					// update factors
+					float userBiasValue = userBiases.getValue(userIndex);
+					userBiases.shiftValue(userIndex, learnRate * (error - regBias * userBiasValue));
+					float itemBiasValue = itemBiases.getValue(itemIndex);
+					itemBiases.shiftValue(itemIndex, learnRate * (error - regBias * itemBiasValue));
+
+					float squareRoot = (float) Math.sqrt(userVector.getElementSize());
+					float[] positiveSums = new float[numberOfFactors];
+					float[] negativeSums = new float[numberOfFactors];
+					for (int factorIndex = 0; factorIndex < numberOfFactors; factorIndex++) {
+						float positiveSum = 0F;
+						float negativeSum = 0F;
+						for (VectorScalar term : userVector) {
+							int ItemIdx = term.getIndex();
+							positiveSum += positiveFactors.getValue(ItemIdx, factorIndex);
+							negativeSum += negativeFactors.getValue(ItemIdx, factorIndex) * (rate - meanOfScore - userBiases.getValue(userIndex) - itemBiases.getValue(ItemIdx));
+						}
+						positiveSums[factorIndex] = squareRoot > 0 ? positiveSum / squareRoot : positiveSum;
+						negativeSums[factorIndex] = squareRoot > 0 ? negativeSum / squareRoot : negativeSum;
+					}
+
+					for (int factorIndex = 0; factorIndex < numberOfFactors; factorIndex++) {
+						float userFactor = userFactors.getValue(userIndex, factorIndex);
+						float itemFactor = itemFactors.getValue(itemIndex, factorIndex);
+						float userValue = error * itemFactor - userRegularization * userFactor;
+						float itemValue = error * (userFactor + positiveSums[factorIndex] + negativeSums[factorIndex]) - itemRegularization * itemFactor;
+						userFactors.shiftValue(userIndex, factorIndex, learnRate * userValue);
+						itemFactors.shiftValue(itemIndex, factorIndex, learnRate * itemValue);
+						for (VectorScalar term : userVector) {
+							int index = term.getIndex();
+							float positiveFactor = positiveFactors.getValue(index, factorIndex);
+							float negativeFactor = negativeFactors.getValue(index, factorIndex);
+							float positiveDelta = error * itemFactor / squareRoot - userRegularization * positiveFactor;
+							float negativeDelta = error * itemFactor * (rate - meanOfScore - userBiases.getValue(userIndex) - itemBiases.getValue(index)) / squareRoot - userRegularization * negativeFactor;
+							positiveFactors.shiftValue(index, factorIndex, learnRate * positiveDelta);
+							negativeFactors.shiftValue(index, factorIndex, learnRate * negativeDelta);
+						}
+					}
+				}
+			}
+			notifyEpoch(iterationStep);
+		}
+	}
+
+	private float doBatches(Random random, int from, int to) {
+		// 每个工作者使用独立的隐式反馈和与梯度缓存
+		float[] implicitSums = new float[numberOfFactors];
+		float[] positiveSums = new float[numberOfFactors];
+		float[] negativeSums = new float[numberOfFactors];
+		float[] biasSums = new float[numberOfFactors];
+		float[] positiveGradients = new float[numberOfFactors];
+		float[] negativeGradients = new float[numberOfFactors];
+		float loss = 0F;
+		for (int userIndex = from; userIndex < to; userIndex++) {
+			SparseVector userVector = trainMatrix.getRowVector(userIndex);
+			int size = userVector.getElementSize();
+			if (size == 0) {
+				continue;
+			}
+			float squareRoot = (float) Math.sqrt(size);
+			// 每个用户只计算一次隐式反馈的和
+			Arrays.fill(implicitSums, 0F);
+			Arrays.fill(positiveSums, 0F);
+			Arrays.fill(negativeSums, 0F);
+			Arrays.fill(biasSums, 0F);
+			Arrays.fill(positiveGradients, 0F);
+			Arrays.fill(negativeGradients, 0F);
+			float userBias = userBiases.getValue(userIndex);
+			for (VectorScalar term : userVector) {
+				int index = term.getIndex();
+				float itemBias = itemBiases.getValue(index);
+				float scale = term.getValue() - meanOfScore - userBias - itemBias;
+				for (int factorIndex = 0; factorIndex < numberOfFactors; factorIndex++) {
+					float positiveFactor = positiveFactors.getValue(index, factorIndex);
+					float negativeFactor = negativeFactors.getValue(index, factorIndex);
+					implicitSums[factorIndex] += positiveFactor + negativeFactor * scale;
+					positiveSums[factorIndex] += positiveFactor;
+					negativeSums[factorIndex] += negativeFactor;
+					biasSums[factorIndex] += negativeFactor * itemBias;
+				}
+			}
+			for (int factorIndex = 0; factorIndex < numberOfFactors; factorIndex++) {
+				implicitSums[factorIndex] /= squareRoot;
+				positiveSums[factorIndex] /= squareRoot;
+				negativeSums[factorIndex] /= squareRoot;
+				biasSums[factorIndex] /= squareRoot;
+			}
+
+			for (VectorScalar term : userVector) {
+				int itemIndex = term.getIndex();
+				float rate = term.getValue();
+				float predict = meanOfScore + userBiases.getValue(userIndex) + itemBiases.getValue(itemIndex);
+				for (int factorIndex = 0; factorIndex < numberOfFactors; factorIndex++) {
+					predict += (userFactors.getValue(userIndex, factorIndex) + implicitSums[factorIndex]) * itemFactors.getValue(itemIndex, factorIndex);
+				}
+				if (Float.isNaN(predict)) {
+					predict = meanOfScore;
+				}
 				float error = rate - predict;
-				SparseVector userVector = trainMatrix.getRowVector(userIndex);
+				loss += error * error;
 
 				// update factors
 				float userBiasValue = userBiases.getValue(userIndex);
@@ -60,40 +172,37 @@ public class ASVDPlusPlusRecommender extends BiasedMFRecommender {
 				float itemBiasValue = itemBiases.getValue(itemIndex);
 				itemBiases.shiftValue(itemIndex, learnRate * (error - regBias * itemBiasValue));
 
-				float squareRoot = (float) Math.sqrt(userVector.getElementSize());
-				float[] positiveSums = new float[numberOfFactors];
-				float[] negativeSums = new float[numberOfFactors];
-				for (int factorIndex = 0; factorIndex < numberOfFactors; factorIndex++) {
-					float positiveSum = 0F;
-					float negativeSum = 0F;
-					for (VectorScalar term : userVector) {
-						int ItemIdx = term.getIndex();
-						positiveSum += positiveFactors.getValue(ItemIdx, factorIndex);
-						negativeSum += negativeFactors.getValue(ItemIdx, factorIndex) * (rate - meanOfScore - userBiases.getValue(userIndex) - itemBiases.getValue(ItemIdx));
-					}
-					positiveSums[factorIndex] = squareRoot > 0 ? positiveSum / squareRoot : positiveSum;
-					negativeSums[factorIndex] = squareRoot > 0 ? negativeSum / squareRoot : negativeSum;
-				}
-
+				// sum(x_j * (rate - mean - b_u - b_j)) = (rate - mean - b_u) * sum(x_j) - sum(x_j * b_j)
+				float residual = rate - meanOfScore - userBiases.getValue(userIndex);
 				for (int factorIndex = 0; factorIndex < numberOfFactors; factorIndex++) {
 					float userFactor = userFactors.getValue(userIndex, factorIndex);
 					float itemFactor = itemFactors.getValue(itemIndex, factorIndex);
+					float negativeSum = residual * negativeSums[factorIndex] - biasSums[factorIndex];
 					float userValue = error * itemFactor - userRegularization * userFactor;
-					float itemValue = error * (userFactor + positiveSums[factorIndex] + negativeSums[factorIndex]) - itemRegularization * itemFactor;
+					float itemValue = error * (userFactor + positiveSums[factorIndex] + negativeSum) - itemRegularization * itemFactor;
 					userFactors.shiftValue(userIndex, factorIndex, learnRate * userValue);
 					itemFactors.shiftValue(itemIndex, factorIndex, learnRate * itemValue);
-					for (VectorScalar term : userVector) {
-						int index = term.getIndex();
-						float positiveFactor = positiveFactors.getValue(index, factorIndex);
-						float negativeFactor = negativeFactors.getValue(index, factorIndex);
-						float positiveDelta = error * itemFactor / squareRoot - userRegularization * positiveFactor;
-						float negativeDelta = error * itemFactor * (rate - meanOfScore - userBiases.getValue(userIndex) - itemBiases.getValue(index)) / squareRoot - userRegularization * negativeFactor;
-						positiveFactors.shiftValue(index, factorIndex, learnRate * positiveDelta);
-						negativeFactors.shiftValue(index, factorIndex, learnRate * negativeDelta);
-					}
+					positiveGradients[factorIndex] += error * itemFactor;
+					negativeGradients[factorIndex] += error * itemFactor * residual;
+				}
+			}
+
+			// 每个用户只更新一次隐式反馈因子(正则项按照评分数量累计收缩)
+			float shrink = getShrink(learnRate, userRegularization, size);
+			for (VectorScalar term : userVector) {
+				int index = term.getIndex();
+				float itemBias = itemBiases.getValue(index);
+				for (int factorIndex = 0; factorIndex < numberOfFactors; factorIndex++) {
+					float positiveFactor = positiveFactors.getValue(index, factorIndex);
+					float negativeFactor = negativeFactors.getValue(index, factorIndex);
+					float positiveDelta = positiveGradients[factorIndex] / squareRoot;
+					float negativeDelta = (negativeGradients[factorIndex] - itemBias * positiveGradients[factorIndex]) / squareRoot;
+					positiveFactors.setValue(index, factorIndex, positiveFactor * shrink + learnRate * positiveDelta);
+					negativeFactors.setValue(index, factorIndex, negativeFactor * shrink + learnRate * negativeDelta);
 				}
 			}
 		}
+		return loss;
 	}
 
 	@Override
@@ -282,6 +282,7 @@ public class BPMFRecommender extends MatrixFactorizationRecommender {
 				userMatrixes[iterationStep - 1] = DenseMatrix.copyOf(userFactors);
 				itemMatrixes[iterationStep - 1] = DenseMatrix.copyOf(itemFactors);
 			}
+			notifyEpoch(iterationStep + 1);
 		}
 	}
 
@@ -2,8 +2,8 @@ package com.jstarcraft.recommendation.recommender.collaborative.rating;
 
 import com.jstarcraft.ai.math.structure.DefaultScalar;
 import com.jstarcraft.ai.math.structure.MathCalculator;
-import com.jstarcraft.ai.math.structure.matrix.MatrixScalar;
 import com.jstarcraft.ai.math.structure.vector.DenseVector;
+import com.jstarcraft.ai.model.ModelDefinition;
 import com.jstarcraft.recommendation.configure.Configuration;
 import com.jstarcraft.recommendation.data.DataSpace;
 import com.jstarcraft.recommendation.data.accessor.InstanceAccessor;
@@ -22,6 +22,7 @@ import com.jstarcraft.recommendation.recommender.MatrixFactorizationRecommender;
  * @author Birdy
  *
  */
+@ModelDefinition(value = { "meanOfScore", "userBiases", "itemBiases" })
 public class BiasedMFRecommender extends MatrixFactorizationRecommender {
 	/**
 	 * bias regularization
@@ -57,36 +58,7 @@ public class BiasedMFRecommender extends MatrixFactorizationRecommender {
 	@Override
 	protected void doPractice() {
 		for (int iterationStep = 1; iterationStep <= numberOfEpoches; iterationStep++) {
-			totalLoss = 0F;
-
-			for (MatrixScalar term : trainMatrix) {
-				int userIndex = term.getRow(); // user userIdx
-				int itemIndex = term.getColumn(); // item itemIdx
-				float rate = term.getValue(); // real rating on item
-												// itemIdx rated by user
-												// userIdx
-				float predict = predict(userIndex, itemIndex);
-				float error = rate - predict;
-				totalLoss += error * error;
-
-				// update user and item bias
-				float userBias = userBiases.getValue(userIndex);
-				userBiases.shiftValue(userIndex, learnRate * (error - regBias * userBias));
-				totalLoss += regBias * userBias * userBias;
-				float itemBias = itemBiases.getValue(itemIndex);
-				itemBiases.shiftValue(itemIndex, learnRate * (error - regBias * itemBias));
-				totalLoss += regBias * itemBias * itemBias;
-
-				// update user and item factors
-				for (int factorIndex = 0; factorIndex < numberOfFactors; factorIndex++) {
-					float userFactor = userFactors.getValue(userIndex, factorIndex);
-					float itemFactor = itemFactors.getValue(itemIndex, factorIndex);
-					userFactors.shiftValue(userIndex, factorIndex, learnRate * (error * itemFactor - userRegularization * userFactor));
-					itemFactors.shiftValue(itemIndex, factorIndex, learnRate * (error * userFactor - itemRegularization * itemFactor));
-					totalLoss += userRegularization * userFactor * userFactor + itemRegularization * itemFactor * itemFactor;
-				}
-			}
-
+			totalLoss = doEpoch(this::doRating);
 			totalLoss *= 0.5D;
 			if (isConverged(iterationStep) && isConverged) {
 				break;
@@ -96,6 +68,30 @@ public class BiasedMFRecommender extends MatrixFactorizationRecommender {
 		}
 	}
 
+	private float doRating(int userIndex, int itemIndex, float rate, float loss) {
+		float predict = predict(userIndex, itemIndex);
+		float error = rate - predict;
+		loss += error * error;
+
+		// update user and item bias
+		float userBias = userBiases.getValue(userIndex);
+		userBiases.shiftValue(userIndex, learnRate * (error - regBias * userBias));
+		loss += regBias * userBias * userBias;
+		float itemBias = itemBiases.getValue(itemIndex);
+		itemBiases.shiftValue(itemIndex, learnRate * (error - regBias * itemBias));
+		loss += regBias * itemBias * itemBias;
+
+		// update user and item factors
+		for (int factorIndex = 0; factorIndex < numberOfFactors; factorIndex++) {
+			float userFactor = userFactors.getValue(userIndex, factorIndex);
+			float itemFactor = itemFactors.getValue(itemIndex, factorIndex);
+			userFactors.shiftValue(userIndex, factorIndex, learnRate * (error * itemFactor - userRegularization * userFactor));
+			itemFactors.shiftValue(itemIndex, factorIndex, learnRate * (error * userFactor - itemRegularization * itemFactor));
+			loss += userRegularization * userFactor * userFactor + itemRegularization * itemFactor * itemFactor;
+		}
+		return loss;
+	}
+
 	@Override
 	protected float predict(int userIndex, int itemIndex) {
 		DefaultScalar scalar = DefaultScalar.getInstance();
@@ -5,6 +5,7 @@ import java.util.Date;
 import com.jstarcraft.ai.math.structure.DefaultScalar;
 import com.jstarcraft.ai.math.structure.MathCalculator;
 import com.jstarcraft.ai.math.structure.matrix.DenseMatrix;
+import com.jstarcraft.ai.math.structure.matrix.SparseMatrix;
 import com.jstarcraft.ai.math.structure.vector.SparseVector;
 import com.jstarcraft.ai.math.structure.vector.VectorScalar;
 import com.jstarcraft.core.utility.StringUtility;
@@ -32,6 +33,8 @@ public class CCDRecommender extends MatrixFactorizationRecommender {
 	@Override
 	public void prepare(Configuration configuration, SampleAccessor marker, InstanceAccessor model, DataSpace space) {
 		super.prepare(configuration, marker, model, space);
+		// 训练矩阵作为残差矩阵使用,修改之前复制
+		trainMatrix = SparseMatrix.copyOf(trainMatrix, false);
 		userFactors = DenseMatrix.valueOf(numberOfUsers, numberOfFactors);
 		userFactors.iterateElement(MathCalculator.SERIAL, (scalar) -> {
 			scalar.setValue(distribution.sample().floatValue());
@@ -84,6 +87,7 @@ public class CCDRecommender extends MatrixFactorizationRecommender {
 				}
 			}
 			logger.info(StringUtility.format("{} runs at iter {}/{} {}", this.getClass().getSimpleName(), iterationStep, numberOfEpoches, new Date()));
+			notifyEpoch(iterationStep);
 		}
 	}
 
@@ -59,6 +59,11 @@ public class FFMRecommender extends FactorizationMachineRecommender {
 		learnRate = configuration.getFloat("rec.iterator.learnRate");
 	}
 
+	@Override
+	protected float getLearnRate() {
+		return learnRate;
+	}
+
 	@Override
 	protected void doPractice() {
 		DefaultScalar scalar = DefaultScalar.getInstance();
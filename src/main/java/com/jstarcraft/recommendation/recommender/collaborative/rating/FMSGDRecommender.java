@@ -34,6 +34,11 @@ public class FMSGDRecommender extends FactorizationMachineRecommender {
 		learnRate = configuration.getFloat("rec.iterator.learnRate");
 	}
 
+	@Override
+	protected float getLearnRate() {
+		return learnRate;
+	}
+
 	@Override
 	protected void doPractice() {
 		DefaultScalar scalar = DefaultScalar.getInstance();
@@ -5,18 +5,19 @@ import com.google.common.collect.Table;
 import com.jstarcraft.ai.math.structure.MathCalculator;
 import com.jstarcraft.ai.math.structure.matrix.DenseMatrix;
 import com.jstarcraft.ai.math.structure.matrix.MatrixScalar;
+import com.jstarcraft.ai.math.structure.matrix.SparseMatrix;
 import com.jstarcraft.ai.math.structure.vector.DenseVector;
 import com.jstarcraft.ai.math.structure.vector.SparseVector;
 import com.jstarcraft.ai.math.structure.vector.VectorScalar;
 import com.jstarcraft.ai.utility.MathUtility;
 import com.jstarcraft.core.utility.KeyValue;
-import com.jstarcraft.core.utility.RandomUtility;
 import com.jstarcraft.recommendation.configure.Configuration;
 import com.jstarcraft.recommendation.data.DataSpace;
 import com.jstarcraft.recommendation.data.accessor.InstanceAccessor;
 import com.jstarcraft.recommendation.data.accessor.SampleAccessor;
 import com.jstarcraft.recommendation.recommender.ProbabilisticGraphicalRecommender;
 import com.jstarcraft.recommendation.utility.GaussianUtility;
+import com.jstarcraft.recommendation.utility.RandomUtility;
 
 /**
  * 
@@ -99,6 +100,9 @@ public class GPLSARecommender extends ProbabilisticGraphicalRecommender {
 		// TODO 重构
 		probabilityTensor = HashBasedTable.create();
 
+		// 训练矩阵是共享的,修改之前复制
+		trainMatrix = SparseMatrix.copyOf(trainMatrix, false);
+
 		for (MatrixScalar term : trainMatrix) {
 			int userIndex = term.getRow();
 			int itemIndex = term.getColumn();
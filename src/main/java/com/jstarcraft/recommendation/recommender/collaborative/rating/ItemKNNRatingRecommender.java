@@ -24,21 +24,23 @@ public class ItemKNNRatingRecommender extends ItemKNNRecommender {
 		int userIndex = dicreteFeatures[userDimension];
 		int itemIndex = dicreteFeatures[itemDimension];
 		SparseVector userVector = userVectors[userIndex];
-		int[] neighbors = itemNeighbors[itemIndex];
-		if (userVector.getElementSize() == 0 || neighbors == null) {
+		int[] paginations = itemNeighbors.getPaginations();
+		int[] neighbors = itemNeighbors.getIndexes();
+		float[] similarities = itemNeighbors.getValues();
+		if (userVector.getElementSize() == 0 || paginations[itemIndex] == paginations[itemIndex + 1]) {
 			return meanOfScore;
 		}
 
 		float sum = 0F, absolute = 0F;
 		int count = 0;
-		int leftIndex = 0, rightIndex = 0, leftSize = userVector.getElementSize(), rightSize = neighbors.length;
+		int leftIndex = 0, rightIndex = paginations[itemIndex], leftSize = userVector.getElementSize(), rightSize = paginations[itemIndex + 1];
 		Iterator<VectorScalar> iterator = userVector.iterator();
 		VectorScalar term = iterator.next();
 		// 判断两个有序数组中是否存在相同的数字
 		while (leftIndex < leftSize && rightIndex < rightSize) {
 			if (term.getIndex() == neighbors[rightIndex]) {
 				count++;
-				double similarity = similarityMatrix.getValue(itemIndex, neighbors[rightIndex]);
+				double similarity = similarities[rightIndex];
 				double rate = term.getValue();
 				sum += similarity * (rate - itemMeans.getValue(neighbors[rightIndex]));
 				absolute += Math.abs(similarity);
@@ -64,4 +66,33 @@ public class ItemKNNRatingRecommender extends ItemKNNRecommender {
 		return absolute > 0 ? itemMeans.getValue(itemIndex) + sum / absolute : meanOfScore;
 	}
 
+	@Override
+	protected float predict(int userSize, boolean[] userMarks, float[] userScores, int itemIndex) {
+		int[] paginations = itemNeighbors.getPaginations();
+		int[] neighbors = itemNeighbors.getIndexes();
+		float[] similarities = itemNeighbors.getValues();
+		if (userSize == 0 || paginations[itemIndex] == paginations[itemIndex + 1]) {
+			return meanOfScore;
+		}
+
+		float sum = 0F, absolute = 0F;
+		int count = 0;
+		for (int position = paginations[itemIndex], size = paginations[itemIndex + 1]; position < size; position++) {
+			int neighbor = neighbors[position];
+			if (userMarks[neighbor]) {
+				count++;
+				double similarity = similarities[position];
+				double rate = userScores[neighbor];
+				sum += similarity * (rate - itemMeans.getValue(neighbor));
+				absolute += Math.abs(similarity);
+			}
+		}
+
+		if (count == 0) {
+			return meanOfScore;
+		}
+
+		return absolute > 0 ? itemMeans.getValue(itemIndex) + sum / absolute : meanOfScore;
+	}
+
 }
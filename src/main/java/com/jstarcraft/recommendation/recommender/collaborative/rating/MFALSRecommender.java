@@ -2,6 +2,7 @@ package com.jstarcraft.recommendation.recommender.collaborative.rating;
 
 import com.jstarcraft.ai.math.structure.MathCalculator;
 import com.jstarcraft.ai.math.structure.matrix.DenseMatrix;
+import com.jstarcraft.ai.math.structure.vector.ArrayVector;
 import com.jstarcraft.ai.math.structure.vector.DenseVector;
 import com.jstarcraft.ai.math.structure.vector.SparseVector;
 import com.jstarcraft.ai.math.structure.vector.VectorScalar;
@@ -97,9 +98,46 @@ public class MFALSRecommender extends MatrixFactorizationRecommender {
 				scoreVector.dotProduct(rateMatrix, true, rateVector, MathCalculator.SERIAL);
 				itemFactors.getRowVector(itemIndex).dotProduct(MatrixUtility.inverse(matrix, copyMatrix, inverseMatrix), false, scoreVector, MathCalculator.SERIAL);
 			}
+			notifyEpoch(iterationStep);
 		}
 	}
 
+	@Override
+	protected boolean isUpdatable() {
+		return true;
+	}
+
+	@Override
+	protected void updateUsers(int[] userIndexes) {
+		for (int userIndex : userIndexes) {
+			ArrayVector scoreVector = getUserScores(userIndex);
+			updateFactors(userFactors, userIndex, itemFactors, scoreVector, userRegularization);
+		}
+	}
+
+	@Override
+	protected void updateItems(int[] itemIndexes) {
+		for (int itemIndex : itemIndexes) {
+			ArrayVector scoreVector = getItemScores(itemIndex);
+			updateFactors(itemFactors, itemIndex, userFactors, scoreVector, itemRegularization);
+		}
+	}
+
+	// (RtR + lambda * size * I)^-1 * Rt * r
+	private void updateFactors(DenseMatrix factors, int row, DenseMatrix fixedFactors, ArrayVector scoreVector, float regularization) {
+		int size = scoreVector.getElementSize();
+		if (size == 0) {
+			return;
+		}
+		float[] matrixWeights = new float[size];
+		float[] vectorWeights = new float[size];
+		for (int position = 0; position < size; position++) {
+			matrixWeights[position] = 1F;
+			vectorWeights[position] = scoreVector.getValue(position);
+		}
+		solveFactors(factors, row, fixedFactors, null, scoreVector, matrixWeights, vectorWeights, regularization * size);
+	}
+
 	@Override
 	public float predict(int[] dicreteFeatures, float[] continuousFeatures) {
 		int userIndex = dicreteFeatures[userDimension];
@@ -1,6 +1,5 @@
 package com.jstarcraft.recommendation.recommender.collaborative.rating;
 
-import com.jstarcraft.ai.math.structure.matrix.MatrixScalar;
 import com.jstarcraft.recommendation.recommender.MatrixFactorizationRecommender;
 
 /**
@@ -20,24 +19,7 @@ public class PMFRecommender extends MatrixFactorizationRecommender {
 	@Override
 	protected void doPractice() {
 		for (int iterationStep = 1; iterationStep <= numberOfEpoches; iterationStep++) {
-			totalLoss = 0F;
-			for (MatrixScalar term : trainMatrix) {
-				int userIndex = term.getRow(); // user
-				int itemIndex = term.getColumn(); // item
-				float rate = term.getValue();
-				float predict = predict(userIndex, itemIndex);
-				float error = rate - predict;
-				totalLoss += error * error;
-
-				// update factors
-				for (int factorIndex = 0; factorIndex < numberOfFactors; factorIndex++) {
-					float userFactor = userFactors.getValue(userIndex, factorIndex), itemFactor = itemFactors.getValue(itemIndex, factorIndex);
-					userFactors.shiftValue(userIndex, factorIndex, learnRate * (error * itemFactor - userRegularization * userFactor));
-					itemFactors.shiftValue(itemIndex, factorIndex, learnRate * (error * userFactor - itemRegularization * itemFactor));
-					totalLoss += userRegularization * userFactor * userFactor + itemRegularization * itemFactor * itemFactor;
-				}
-			}
-
+			totalLoss = doEpoch(this::doRating);
 			totalLoss *= 0.5F;
 			if (isConverged(iterationStep) && isConverged) {
 				break;
@@ -47,6 +29,21 @@ public class PMFRecommender extends MatrixFactorizationRecommender {
 		}
 	}
 
+	private float doRating(int userIndex, int itemIndex, float rate, float loss) {
+		float predict = predict(userIndex, itemIndex);
+		float error = rate - predict;
+		loss += error * error;
+
+		// update factors
+		for (int factorIndex = 0; factorIndex < numberOfFactors; factorIndex++) {
+			float userFactor = userFactors.getValue(userIndex, factorIndex), itemFactor = itemFactors.getValue(itemIndex, factorIndex);
+			userFactors.shiftValue(userIndex, factorIndex, learnRate * (error * itemFactor - userRegularization * userFactor));
+			itemFactors.shiftValue(itemIndex, factorIndex, learnRate * (error * userFactor - itemRegularization * itemFactor));
+			loss += userRegularization * userFactor * userFactor + itemRegularization * itemFactor * itemFactor;
+		}
+		return loss;
+	}
+
 	@Override
 	public float predict(int[] dicreteFeatures, float[] continuousFeatures) {
 		int userIndex = dicreteFeatures[userDimension];
@@ -6,12 +6,12 @@ import com.jstarcraft.ai.math.structure.matrix.DenseMatrix;
 import com.jstarcraft.ai.math.structure.matrix.MatrixScalar;
 import com.jstarcraft.ai.math.structure.vector.DenseVector;
 import com.jstarcraft.ai.math.structure.vector.SparseVector;
-import com.jstarcraft.core.utility.RandomUtility;
 import com.jstarcraft.recommendation.configure.Configuration;
 import com.jstarcraft.recommendation.data.DataSpace;
 import com.jstarcraft.recommendation.data.accessor.InstanceAccessor;
 import com.jstarcraft.recommendation.data.accessor.SampleAccessor;
 import com.jstarcraft.recommendation.recommender.MatrixFactorizationRecommender;
+import com.jstarcraft.recommendation.utility.RandomUtility;
 
 /**
  * 
@@ -104,6 +104,7 @@ public class RFRecRecommender extends MatrixFactorizationRecommender {
 				float itemWeight = itemWeights.getValue(itemIndex) + learnRate * (error - itemRegularization * itemWeights.getValue(itemIndex));
 				itemWeights.setValue(itemIndex, itemWeight);
 			}
+			notifyEpoch(iterationStep);
 		}
 	}
 
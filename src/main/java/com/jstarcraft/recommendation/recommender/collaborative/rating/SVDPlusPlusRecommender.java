@@ -1,5 +1,8 @@
 package com.jstarcraft.recommendation.recommender.collaborative.rating;
 
+import java.util.Arrays;
+import java.util.Random;
+
 import com.jstarcraft.ai.math.structure.MathCalculator;
 import com.jstarcraft.ai.math.structure.matrix.DenseMatrix;
 import com.jstarcraft.ai.math.structure.vector.DenseVector;
@@ -32,6 +35,16 @@ public class SVDPlusPlusRecommender extends BiasedMFRecommender {
 	 */
 	private float regImpItem;
 
+	/**
+	 * 是否按照用户批量更新隐式反馈因子
+	 * 
+	 * <pre>
+	 * 每个用户只计算一次隐式反馈的和,隐式反馈因子的梯度累计到缓存,用户的评分处理完之后统一更新一次.
+	 * 每个用户每个周期的时间由O(|Nu|^2*k)降低为O(|Nu|*k),结果与逐个评分更新不同.
+	 * </pre>
+	 */
+	private boolean isUserBatched;
+
 	/*
 	 * (non-Javadoc)
 	 *
@@ -41,6 +54,7 @@ public class SVDPlusPlusRecommender extends BiasedMFRecommender {
 	public void prepare(Configuration configuration, SampleAccessor marker, InstanceAccessor model, DataSpace space) {
 		super.prepare(configuration, marker, model, space);
 		regImpItem = configuration.getFloat("rec.impItem.regularization", 0.015F);
+		isUserBatched = configuration.getBoolean("rec.svdpp.batch", false);
 		factorMatrix = DenseMatrix.valueOf(numberOfItems, numberOfFactors);
 		factorMatrix.iterateElement(MathCalculator.SERIAL, (element) -> {
 			element.setValue(distribution.sample().floatValue());
@@ -49,59 +63,120 @@ public class SVDPlusPlusRecommender extends BiasedMFRecommender {
 
 	@Override
 	protected void doPractice() {
-		DenseVector factorVector = DenseVector.valueOf(numberOfFactors);
 		for (int iterationStep = 1; iterationStep <= numberOfEpoches; iterationStep++) {
-			totalLoss = 0F;
-			for (int userIndex = 0; userIndex < numberOfUsers; userIndex++) {
-				SparseVector userVector = trainMatrix.getRowVector(userIndex);
-				if (userVector.getElementSize() == 0) {
-					continue;
+			// 按照用户切割样本
+			totalLoss = doEpoch(numberOfUsers, isUserBatched ? this::doBatches : this::doSamples);
+			totalLoss *= 0.5D;
+			if (isConverged(iterationStep) && isConverged) {
+				break;
+			}
+			isLearned(iterationStep);
+			currentLoss = totalLoss;
+		}
+	}
+
+	private float doSamples(Random random, int from, int to) {
+		// 每个工作者使用独立的隐式反馈向量
+		DenseVector factorVector = DenseVector.valueOf(numberOfFactors);
+		float loss = 0F;
+		for (int userIndex = from; userIndex < to; userIndex++) {
+			SparseVector userVector = trainMatrix.getRowVector(userIndex);
+			if (userVector.getElementSize() == 0) {
+				continue;
+			}
+			for (VectorScalar outerTerm : userVector) {
+				int itemIndex = outerTerm.getIndex();
+				// TODO 此处可以修改为按userVector重置
+				factorVector.setValues(0F);
+				for (VectorScalar innerTerm : userVector) {
+					factorVector.addVector(factorMatrix.getRowVector(innerTerm.getIndex()));
 				}
-				for (VectorScalar outerTerm : userVector) {
-					int itemIndex = outerTerm.getIndex();
-					// TODO 此处可以修改为按userVector重置
-					factorVector.setValues(0F);
-					for (VectorScalar innerTerm : userVector) {
-						factorVector.addVector(factorMatrix.getRowVector(innerTerm.getIndex()));
-					}
-					float scale = (float) Math.sqrt(userVector.getElementSize());
-					if (scale > 0F) {
-						factorVector.scaleValues(1F / scale);
-					}
-					float error = outerTerm.getValue() - predict(userIndex, itemIndex, factorVector);
-					totalLoss += error * error;
-					// update user and item bias
-					float userBias = userBiases.getValue(userIndex);
-					userBiases.shiftValue(userIndex, learnRate * (error - regBias * userBias));
-					totalLoss += regBias * userBias * userBias;
-					float itemBias = itemBiases.getValue(itemIndex);
-					itemBiases.shiftValue(itemIndex, learnRate * (error - regBias * itemBias));
-					totalLoss += regBias * itemBias * itemBias;
+				float scale = (float) Math.sqrt(userVector.getElementSize());
+				if (scale > 0F) {
+					factorVector.scaleValues(1F / scale);
+				}
+				float error = outerTerm.getValue() - predict(userIndex, itemIndex, factorVector);
+				loss += error * error;
+				// update user and item bias
+				float userBias = userBiases.getValue(userIndex);
+				userBiases.shiftValue(userIndex, learnRate * (error - regBias * userBias));
+				loss += regBias * userBias * userBias;
+				float itemBias = itemBiases.getValue(itemIndex);
+				itemBiases.shiftValue(itemIndex, learnRate * (error - regBias * itemBias));
+				loss += regBias * itemBias * itemBias;
 
-					// update user and item factors
-					for (int factorIndex = 0; factorIndex < numberOfFactors; factorIndex++) {
-						float userFactor = userFactors.getValue(userIndex, factorIndex);
-						float itemFactor = itemFactors.getValue(itemIndex, factorIndex);
-						userFactors.shiftValue(userIndex, factorIndex, learnRate * (error * itemFactor - userRegularization * userFactor));
-						itemFactors.shiftValue(itemIndex, factorIndex, learnRate * (error * (userFactor + factorVector.getValue(factorIndex)) - itemRegularization * itemFactor));
-						totalLoss += userRegularization * userFactor * userFactor + itemRegularization * itemFactor * itemFactor;
-						for (VectorScalar innerTerm : userVector) {
-							int index = innerTerm.getIndex();
-							float factor = factorMatrix.getValue(index, factorIndex);
-							factorMatrix.shiftValue(index, factorIndex, learnRate * (error * itemFactor / scale - regImpItem * factor));
-							totalLoss += regImpItem * factor * factor;
-						}
+				// update user and item factors
+				for (int factorIndex = 0; factorIndex < numberOfFactors; factorIndex++) {
+					float userFactor = userFactors.getValue(userIndex, factorIndex);
+					float itemFactor = itemFactors.getValue(itemIndex, factorIndex);
+					userFactors.shiftValue(userIndex, factorIndex, learnRate * (error * itemFactor - userRegularization * userFactor));
+					itemFactors.shiftValue(itemIndex, factorIndex, learnRate * (error * (userFactor + factorVector.getValue(factorIndex)) - itemRegularization * itemFactor));
+					loss += userRegularization * userFactor * userFactor + itemRegularization * itemFactor * itemFactor;
+					for (VectorScalar innerTerm : userVector) {
+						int index = innerTerm.getIndex();
+						float factor = factorMatrix.getValue(index, factorIndex);
+						factorMatrix.shiftValue(index, factorIndex, learnRate * (error * itemFactor / scale - regImpItem * factor));
+						loss += regImpItem * factor * factor;
 					}
 				}
 			}
+		}
+		return loss;
+	}
 
-			totalLoss *= 0.5D;
-			if (isConverged(iterationStep) && isConverged) {
-				break;
+	private float doBatches(Random random, int from, int to) {
+		// 每个工作者使用独立的隐式反馈向量与梯度缓存
+		DenseVector factorVector = DenseVector.valueOf(numberOfFactors);
+		float[] gradients = new float[numberOfFactors];
+		float loss = 0F;
+		for (int userIndex = from; userIndex < to; userIndex++) {
+			SparseVector userVector = trainMatrix.getRowVector(userIndex);
+			int size = userVector.getElementSize();
+			if (size == 0) {
+				continue;
+			}
+			// 每个用户只计算一次隐式反馈的和
+			factorVector.setValues(0F);
+			for (VectorScalar term : userVector) {
+				factorVector.addVector(factorMatrix.getRowVector(term.getIndex()));
+			}
+			float scale = (float) Math.sqrt(size);
+			factorVector.scaleValues(1F / scale);
+			Arrays.fill(gradients, 0F);
+			for (VectorScalar outerTerm : userVector) {
+				int itemIndex = outerTerm.getIndex();
+				float error = outerTerm.getValue() - predict(userIndex, itemIndex, factorVector);
+				loss += error * error;
+				// update user and item bias
+				float userBias = userBiases.getValue(userIndex);
+				userBiases.shiftValue(userIndex, learnRate * (error - regBias * userBias));
+				loss += regBias * userBias * userBias;
+				float itemBias = itemBiases.getValue(itemIndex);
+				itemBiases.shiftValue(itemIndex, learnRate * (error - regBias * itemBias));
+				loss += regBias * itemBias * itemBias;
+
+				// update user and item factors
+				for (int factorIndex = 0; factorIndex < numberOfFactors; factorIndex++) {
+					float userFactor = userFactors.getValue(userIndex, factorIndex);
+					float itemFactor = itemFactors.getValue(itemIndex, factorIndex);
+					userFactors.shiftValue(userIndex, factorIndex, learnRate * (error * itemFactor - userRegularization * userFactor));
+					itemFactors.shiftValue(itemIndex, factorIndex, learnRate * (error * (userFactor + factorVector.getValue(factorIndex)) - itemRegularization * itemFactor));
+					loss += userRegularization * userFactor * userFactor + itemRegularization * itemFactor * itemFactor;
+					gradients[factorIndex] += error * itemFactor;
+				}
+			}
+			// 每个用户只更新一次隐式反馈因子(正则项按照评分数量累计收缩)
+			float shrink = getShrink(learnRate, regImpItem, size);
+			for (VectorScalar term : userVector) {
+				int index = term.getIndex();
+				for (int factorIndex = 0; factorIndex < numberOfFactors; factorIndex++) {
+					float factor = factorMatrix.getValue(index, factorIndex);
+					factorMatrix.setValue(index, factorIndex, factor * shrink + learnRate * gradients[factorIndex] / scale);
+					loss += size * regImpItem * factor * factor;
+				}
 			}
-			isLearned(iterationStep);
-			currentLoss = totalLoss;
 		}
+		return loss;
 	}
 
 	private float predict(int userIndex, int itemIndex, DenseVector factorVector) {
@@ -15,7 +15,6 @@ import com.jstarcraft.ai.math.structure.vector.ArrayVector;
 import com.jstarcraft.ai.math.structure.vector.DenseVector;
 import com.jstarcraft.ai.math.structure.vector.SparseVector;
 import com.jstarcraft.ai.utility.MathUtility;
-import com.jstarcraft.core.utility.RandomUtility;
 import com.jstarcraft.core.utility.StringUtility;
 import com.jstarcraft.recommendation.configure.Configuration;
 import com.jstarcraft.recommendation.data.DataSpace;
@@ -23,6 +22,7 @@ import com.jstarcraft.recommendation.data.accessor.DataSample;
 import com.jstarcraft.recommendation.data.accessor.InstanceAccessor;
 import com.jstarcraft.recommendation.data.accessor.SampleAccessor;
 import com.jstarcraft.recommendation.recommender.MatrixFactorizationRecommender;
+import com.jstarcraft.recommendation.utility.RandomUtility;
 
 /**
  * 
@@ -339,6 +339,7 @@ public abstract class EFMRecommender extends MatrixFactorizationRecommender {
 			totalLoss += featureRegularization * Math.pow(featureFactors.getNorm(2), 2);
 
 			logger.info("iter:" + iterationStep + ", loss:" + totalLoss);
+			notifyEpoch(iterationStep);
 		}
 	}
 
@@ -15,13 +15,13 @@ import com.jstarcraft.ai.math.structure.vector.DenseVector;
 import com.jstarcraft.ai.neuralnetwork.activation.ActivationFunction;
 import com.jstarcraft.ai.neuralnetwork.activation.SoftMaxActivationFunction;
 import com.jstarcraft.ai.utility.MathUtility;
-import com.jstarcraft.core.utility.RandomUtility;
 import com.jstarcraft.recommendation.configure.Configuration;
 import com.jstarcraft.recommendation.data.DataSpace;
 import com.jstarcraft.recommendation.data.accessor.DataSample;
 import com.jstarcraft.recommendation.data.accessor.InstanceAccessor;
 import com.jstarcraft.recommendation.data.accessor.SampleAccessor;
 import com.jstarcraft.recommendation.recommender.MatrixFactorizationRecommender;
+import com.jstarcraft.recommendation.utility.RandomUtility;
 import com.jstarcraft.recommendation.utility.SampleUtility;
 
 /**
@@ -361,6 +361,7 @@ public class HFTRecommender extends MatrixFactorizationRecommender {
 			logger.info(" iter:" + iterationStep + ", sampling");
 			sample();
 			logger.info(" iter:" + iterationStep + ", sample finished");
+			notifyEpoch(iterationStep);
 		}
 	}
 
@@ -1,10 +1,11 @@
 package com.jstarcraft.recommendation.recommender.context.rating;
 
+import java.util.Arrays;
 import java.util.concurrent.TimeUnit;
 
 import com.google.common.collect.HashBasedTable;
-import com.google.common.collect.Table;
 import com.google.common.collect.Table.Cell;
+import com.google.common.collect.Table;
 import com.jstarcraft.ai.math.structure.DefaultScalar;
 import com.jstarcraft.ai.math.structure.MathCalculator;
 import com.jstarcraft.ai.math.structure.matrix.DenseMatrix;
@@ -12,7 +13,6 @@ import com.jstarcraft.ai.math.structure.matrix.MatrixScalar;
 import com.jstarcraft.ai.math.structure.vector.DenseVector;
 import com.jstarcraft.ai.math.structure.vector.SparseVector;
 import com.jstarcraft.ai.math.structure.vector.VectorScalar;
-import com.jstarcraft.core.utility.RandomUtility;
 import com.jstarcraft.recommendation.configure.Configuration;
 import com.jstarcraft.recommendation.data.DataSpace;
 import com.jstarcraft.recommendation.data.accessor.DataSample;
@@ -20,6 +20,7 @@ import com.jstarcraft.recommendation.data.accessor.InstanceAccessor;
 import com.jstarcraft.recommendation.data.accessor.SampleAccessor;
 import com.jstarcraft.recommendation.exception.RecommendationException;
 import com.jstarcraft.recommendation.recommender.collaborative.rating.BiasedMFRecommender;
+import com.jstarcraft.recommendation.utility.RandomUtility;
 
 /**
  * 
@@ -113,6 +114,15 @@ public class TimeSVDRecommender extends BiasedMFRecommender {
 	// TODO 既包含trainTerm,又包含testTerm
 	private Table<Integer, Integer, Integer> instantTabel;
 
+	/**
+	 * 是否按照用户批量更新隐式反馈因子(参考SVDPlusPlusRecommender)
+	 * 
+	 * <pre>
+	 * 由于按需初始化共享的表与使用RandomUtility,仍然在单个线程训练.
+	 * </pre>
+	 */
+	private boolean isUserBatched;
+
 	/*
 	 * (non-Javadoc)
 	 *
@@ -123,6 +133,7 @@ public class TimeSVDRecommender extends BiasedMFRecommender {
 		super.prepare(configuration, marker, model, space);
 		decay = configuration.getFloat("rec.learnrate.decay", 0.015F);
 		numSections = configuration.getInteger("rec.numBins", 6);
+		isUserBatched = configuration.getBoolean("rec.svdpp.batch", false);
 
 		instantField = configuration.getString("data.model.fields.instant");
 		instantDimension = marker.getDiscreteDimension(instantField);
@@ -204,6 +215,9 @@ public class TimeSVDRecommender extends BiasedMFRecommender {
 	@Override
 	protected void doPractice() {
 		DefaultScalar scalar = DefaultScalar.getInstance();
+		// 批量模式的隐式反馈和与梯度缓存
+		float[] implicitSums = new float[numberOfFactors];
+		float[] implicitGradients = new float[numberOfFactors];
 		for (int iterationStep = 1; iterationStep <= numberOfEpoches; iterationStep++) {
 			totalLoss = 0F;
 			for (int userIndex = 0; userIndex < numberOfUsers; userIndex++) {
@@ -212,6 +226,17 @@ public class TimeSVDRecommender extends BiasedMFRecommender {
 				if (size == 0) {
 					continue;
 				}
+				if (isUserBatched) {
+					// 每个用户只计算一次隐式反馈的和
+					Arrays.fill(implicitSums, 0F);
+					Arrays.fill(implicitGradients, 0F);
+					for (VectorScalar rateTerm : rateVector) {
+						int itemImplicitIndex = rateTerm.getIndex();
+						for (int factorIndex = 0; factorIndex < numberOfFactors; factorIndex++) {
+							implicitSums[factorIndex] += itemImplicitFactors.getValue(itemImplicitIndex, factorIndex);
+						}
+					}
+				}
 				for (VectorScalar term : rateVector) {
 					int itemExplicitIndex = term.getIndex();
 					float rate = term.getValue();
@@ -242,10 +267,16 @@ public class TimeSVDRecommender extends BiasedMFRecommender {
 					// qi * yj
 					DenseVector itemExplicitVector = itemExplicitFactors.getRowVector(itemExplicitIndex);
 					float sum = 0F;
-					for (VectorScalar rateTerm : rateVector) {
-						int itemImplicitIndex = rateTerm.getIndex();
-						DenseVector itemImpilcitVector = itemImplicitFactors.getRowVector(itemImplicitIndex);
-						sum += scalar.dotProduct(itemImpilcitVector, itemExplicitVector).getValue();
+					if (isUserBatched) {
+						for (int factorIndex = 0; factorIndex < numberOfFactors; factorIndex++) {
+							sum += implicitSums[factorIndex] * itemExplicitVector.getValue(factorIndex);
+						}
+					} else {
+						for (VectorScalar rateTerm : rateVector) {
+							int itemImplicitIndex = rateTerm.getIndex();
+							DenseVector itemImpilcitVector = itemImplicitFactors.getRowVector(itemImplicitIndex);
+							sum += scalar.dotProduct(itemImpilcitVector, itemExplicitVector).getValue();
+						}
 					}
 					float itemWeight = (float) (size > 0 ? Math.pow(size, -0.5F) : 0F);
 					predict += sum * itemWeight;
@@ -317,9 +348,13 @@ public class TimeSVDRecommender extends BiasedMFRecommender {
 						totalLoss += userRegularization * userExplicitFactor * userExplicitFactor;
 
 						// update itemExplicitFactors
-						for (VectorScalar rateTerm : rateVector) {
-							int itemImplicitIndex = rateTerm.getIndex();
-							sum += itemImplicitFactors.getValue(itemImplicitIndex, factorIndex);
+						if (isUserBatched) {
+							sum = implicitSums[factorIndex];
+						} else {
+							for (VectorScalar rateTerm : rateVector) {
+								int itemImplicitIndex = rateTerm.getIndex();
+								sum += itemImplicitFactors.getValue(itemImplicitIndex, factorIndex);
+							}
 						}
 						sgd = error * (userExplicitFactor + userImplicitFactor * deviation + delta + itemWeight * sum) + itemRegularization * itemExplicitFactor;
 						itemExplicitFactors.shiftValue(itemExplicitIndex, factorIndex, -learnRate * sgd);
@@ -331,13 +366,17 @@ public class TimeSVDRecommender extends BiasedMFRecommender {
 						totalLoss += userRegularization * userImplicitFactor * userImplicitFactor;
 
 						// update itemImplicitFactors
-						// TODO 此处可以整合操作
-						for (VectorScalar rateTerm : rateVector) {
-							int itemImplicitIndex = rateTerm.getIndex();
-							float itemImplicitFactor = itemImplicitFactors.getValue(itemImplicitIndex, factorIndex);
-							sgd = error * itemWeight * itemExplicitFactor + itemRegularization * itemImplicitFactor;
-							itemImplicitFactors.shiftValue(itemImplicitIndex, factorIndex, -learnRate * sgd);
-							totalLoss += itemRegularization * itemImplicitFactor * itemImplicitFactor;
+						if (isUserBatched) {
+							implicitGradients[factorIndex] += error * itemExplicitFactor;
+						} else {
+							// TODO 此处可以整合操作
+							for (VectorScalar rateTerm : rateVector) {
+								int itemImplicitIndex = rateTerm.getIndex();
+								float itemImplicitFactor = itemImplicitFactors.getValue(itemImplicitIndex, factorIndex);
+								sgd = error * itemWeight * itemExplicitFactor + itemRegularization * itemImplicitFactor;
+								itemImplicitFactors.shiftValue(itemImplicitIndex, factorIndex, -learnRate * sgd);
+								totalLoss += itemRegularization * itemImplicitFactor * itemImplicitFactor;
+							}
 						}
 
 						// update pkt
@@ -348,6 +387,20 @@ public class TimeSVDRecommender extends BiasedMFRecommender {
 					}
 
 				}
+				if (isUserBatched) {
+					// 每个用户只更新一次隐式反馈因子(正则项按照评分数量累计收缩)
+					float itemWeight = (float) Math.pow(size, -0.5F);
+					float shrink = getShrink(learnRate, itemRegularization, size);
+					for (VectorScalar rateTerm : rateVector) {
+						int itemImplicitIndex = rateTerm.getIndex();
+						for (int factorIndex = 0; factorIndex < numberOfFactors; factorIndex++) {
+							float itemImplicitFactor = itemImplicitFactors.getValue(itemImplicitIndex, factorIndex);
+							float sgd = itemWeight * implicitGradients[factorIndex];
+							itemImplicitFactors.setValue(itemImplicitIndex, factorIndex, itemImplicitFactor * shrink - learnRate * sgd);
+							totalLoss += size * itemRegularization * itemImplicitFactor * itemImplicitFactor;
+						}
+					}
+				}
 			}
 
 			totalLoss *= 0.5D;
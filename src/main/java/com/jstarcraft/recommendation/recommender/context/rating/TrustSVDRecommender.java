@@ -1,5 +1,7 @@
 package com.jstarcraft.recommendation.recommender.context.rating;
 
+import java.util.Arrays;
+
 import com.jstarcraft.ai.math.structure.DefaultScalar;
 import com.jstarcraft.ai.math.structure.MathCalculator;
 import com.jstarcraft.ai.math.structure.matrix.DenseMatrix;
@@ -68,6 +70,15 @@ public class TrustSVDRecommender extends SocialRecommender {
 	 */
 	private float regBias;
 
+	/**
+	 * 是否按照用户批量更新隐式反馈因子(参考SVDPlusPlusRecommender)
+	 * 
+	 * <pre>
+	 * 连续的同一个用户的评分共享隐式反馈与信任的和,隐式反馈因子与被信任者的梯度在用户切换时统一更新.
+	 * </pre>
+	 */
+	private boolean isUserBatched;
+
 	/**
 	 * initial the model
 	 *
@@ -80,6 +91,7 @@ public class TrustSVDRecommender extends SocialRecommender {
 		// trusterFactors.init(1.0);
 		// itemExplicitFactors.init(1.0);
 		regBias = configuration.getFloat("rec.bias.regularization", 0.01F);
+		isUserBatched = configuration.getBoolean("rec.svdpp.batch", false);
 
 		// initialize userBiases and itemBiases
 		// TODO 考虑重构
@@ -136,9 +148,24 @@ public class TrustSVDRecommender extends SocialRecommender {
 			// temp user Factors and trustee factors
 			DenseMatrix trusterDeltas = DenseMatrix.valueOf(numberOfUsers, numberOfFactors);
 			DenseMatrix trusteeDeltas = DenseMatrix.valueOf(numberOfUsers, numberOfFactors);
+			// 批量模式的当前用户,评分数量与梯度
+			int batchIndex = -1, batchCount = 0;
+			float[] batchItemSums = new float[numberOfFactors];
+			float[] batchTrusteeSums = new float[numberOfFactors];
+			float[] batchGradients = new float[numberOfFactors];
 
 			for (MatrixScalar term : trainMatrix) {
 				int trusterIndex = term.getRow(); // user userIdx
+				if (isUserBatched && trusterIndex != batchIndex) {
+					if (batchIndex >= 0) {
+						totalLoss += updateBatch(batchIndex, batchCount, batchGradients, trusteeDeltas);
+					}
+					batchIndex = trusterIndex;
+					batchCount = 0;
+					sumBatch(trusterIndex, batchItemSums, batchTrusteeSums);
+					Arrays.fill(batchGradients, 0F);
+				}
+				batchCount++;
 				int itemExplicitIndex = term.getColumn(); // item itemIdx
 				// real rating on item itemIdx rated by user userIdx
 				float rate = term.getValue();
@@ -154,7 +181,11 @@ public class TrustSVDRecommender extends SocialRecommender {
 				// get the implicit influence predict rating using items rated
 				// by user userIdx
 				SparseVector rateVector = trainMatrix.getRowVector(trusterIndex);
-				if (rateVector.getElementSize() > 0) {
+				if (isUserBatched) {
+					for (int factorIndex = 0; factorIndex < numberOfFactors; factorIndex++) {
+						predict += batchItemSums[factorIndex] * itemExplicitVector.getValue(factorIndex);
+					}
+				} else if (rateVector.getElementSize() > 0) {
 					float sum = 0F;
 					for (VectorScalar rateTerm : rateVector) {
 						int itemImplicitIndex = rateTerm.getIndex();
@@ -167,7 +198,11 @@ public class TrustSVDRecommender extends SocialRecommender {
 				// the user-specific influence of users (trustees)trusted by
 				// user userIdx
 				SparseVector socialVector = socialMatrix.getRowVector(trusterIndex);
-				if (socialVector.getElementSize() > 0) {
+				if (isUserBatched) {
+					for (int factorIndex = 0; factorIndex < numberOfFactors; factorIndex++) {
+						predict += batchTrusteeSums[factorIndex] * itemExplicitVector.getValue(factorIndex);
+					}
+				} else if (socialVector.getElementSize() > 0) {
 					float sum = 0F;
 					for (VectorScalar socialTerm : socialVector) {
 						int trusteeIndex = socialTerm.getIndex();
@@ -192,24 +227,28 @@ public class TrustSVDRecommender extends SocialRecommender {
 				itemBiases.shiftValue(itemExplicitIndex, -learnRate * sgd);
 				totalLoss += regBias * trusterWeight * userBias * userBias + regBias * itemExplicitWeight * itemBias * itemBias;
 
-				float[] itemSums = new float[numberOfFactors];
-				for (int factorIndex = 0; factorIndex < numberOfFactors; factorIndex++) {
-					float sum = 0F;
-					for (VectorScalar rateTerm : rateVector) {
-						int itemImplicitIndex = rateTerm.getIndex();
-						sum += itemImplicitFactors.getValue(itemImplicitIndex, factorIndex);
+				float[] itemSums = batchItemSums;
+				float[] trusteesSums = batchTrusteeSums;
+				if (!isUserBatched) {
+					itemSums = new float[numberOfFactors];
+					for (int factorIndex = 0; factorIndex < numberOfFactors; factorIndex++) {
+						float sum = 0F;
+						for (VectorScalar rateTerm : rateVector) {
+							int itemImplicitIndex = rateTerm.getIndex();
+							sum += itemImplicitFactors.getValue(itemImplicitIndex, factorIndex);
+						}
+						itemSums[factorIndex] = trusterDenominator > 0F ? sum / trusterDenominator : sum;
 					}
-					itemSums[factorIndex] = trusterDenominator > 0F ? sum / trusterDenominator : sum;
-				}
 
-				float[] trusteesSums = new float[numberOfFactors];
-				for (int factorIndex = 0; factorIndex < numberOfFactors; factorIndex++) {
-					float sum = 0F;
-					for (VectorScalar socialTerm : socialVector) {
-						int trusteeIndex = socialTerm.getIndex();
-						sum += trusteeFactors.getValue(trusteeIndex, factorIndex);
+					trusteesSums = new float[numberOfFactors];
+					for (int factorIndex = 0; factorIndex < numberOfFactors; factorIndex++) {
+						float sum = 0F;
+						for (VectorScalar socialTerm : socialVector) {
+							int trusteeIndex = socialTerm.getIndex();
+							sum += trusteeFactors.getValue(trusteeIndex, factorIndex);
+						}
+						trusteesSums[factorIndex] = trusteeDenominator > 0F ? sum / trusteeDenominator : sum;
 					}
-					trusteesSums[factorIndex] = trusteeDenominator > 0F ? sum / trusteeDenominator : sum;
 				}
 
 				for (int factorIndex = 0; factorIndex < numberOfFactors; factorIndex++) {
@@ -223,27 +262,34 @@ public class TrustSVDRecommender extends SocialRecommender {
 					itemExplicitFactors.shiftValue(itemExplicitIndex, factorIndex, -learnRate * itemDelta);
 					totalLoss += userRegularization * trusterWeight * userFactor * userFactor + itemRegularization * itemExplicitWeight * itemFactor * itemFactor;
 
-					// update itemImplicitFactors
-					for (VectorScalar rateTerm : rateVector) {
-						int itemImplicitIndex = rateTerm.getIndex();
-						float itemImplicitFactor = itemImplicitFactors.getValue(itemImplicitIndex, factorIndex);
-						float itemImplicitWeight = itemWeights.getValue(itemImplicitIndex);
-						float itemImplicitDelta = error * itemFactor / trusterDenominator + itemRegularization * itemImplicitWeight * itemImplicitFactor;
-						itemImplicitFactors.shiftValue(itemImplicitIndex, factorIndex, -learnRate * itemImplicitDelta);
-						totalLoss += itemRegularization * itemImplicitWeight * itemImplicitFactor * itemImplicitFactor;
-					}
-
-					// update trusteeDeltas
-					for (VectorScalar socialTerm : socialVector) {
-						int trusteeIndex = socialTerm.getIndex();
-						float trusteeFactor = trusteeFactors.getValue(trusteeIndex, factorIndex);
-						float trusteeWeight = trusteeWeights.getValue(trusteeIndex);
-						float trusteeDelta = error * itemFactor / trusteeDenominator + userRegularization * trusteeWeight * trusteeFactor;
-						trusteeDeltas.shiftValue(trusteeIndex, factorIndex, trusteeDelta);
-						totalLoss += userRegularization * trusteeWeight * trusteeFactor * trusteeFactor;
+					if (isUserBatched) {
+						batchGradients[factorIndex] += error * itemFactor;
+					} else {
+						// update itemImplicitFactors
+						for (VectorScalar rateTerm : rateVector) {
+							int itemImplicitIndex = rateTerm.getIndex();
+							float itemImplicitFactor = itemImplicitFactors.getValue(itemImplicitIndex, factorIndex);
+							float itemImplicitWeight = itemWeights.getValue(itemImplicitIndex);
+							float itemImplicitDelta = error * itemFactor / trusterDenominator + itemRegularization * itemImplicitWeight * itemImplicitFactor;
+							itemImplicitFactors.shiftValue(itemImplicitIndex, factorIndex, -learnRate * itemImplicitDelta);
+							totalLoss += itemRegularization * itemImplicitWeight * itemImplicitFactor * itemImplicitFactor;
+						}
+
+						// update trusteeDeltas
+						for (VectorScalar socialTerm : socialVector) {
+							int trusteeIndex = socialTerm.getIndex();
+							float trusteeFactor = trusteeFactors.getValue(trusteeIndex, factorIndex);
+							float trusteeWeight = trusteeWeights.getValue(trusteeIndex);
+							float trusteeDelta = error * itemFactor / trusteeDenominator + userRegularization * trusteeWeight * trusteeFactor;
+							trusteeDeltas.shiftValue(trusteeIndex, factorIndex, trusteeDelta);
+							totalLoss += userRegularization * trusteeWeight * trusteeFactor * trusteeFactor;
+						}
 					}
 				}
 			}
+			if (isUserBatched && batchIndex >= 0) {
+				totalLoss += updateBatch(batchIndex, batchCount, batchGradients, trusteeDeltas);
+			}
 
 			for (MatrixScalar socialTerm : socialMatrix) {
 				int trusterIndex = socialTerm.getRow();
@@ -289,6 +335,85 @@ public class TrustSVDRecommender extends SocialRecommender {
 		} // end of training
 	}
 
+	/**
+	 * 计算用户的隐式反馈与信任的和
+	 * 
+	 * @param trusterIndex
+	 * @param itemSums
+	 * @param trusteeSums
+	 */
+	private void sumBatch(int trusterIndex, float[] itemSums, float[] trusteeSums) {
+		Arrays.fill(itemSums, 0F);
+		Arrays.fill(trusteeSums, 0F);
+		SparseVector rateVector = trainMatrix.getRowVector(trusterIndex);
+		for (VectorScalar rateTerm : rateVector) {
+			int itemImplicitIndex = rateTerm.getIndex();
+			for (int factorIndex = 0; factorIndex < numberOfFactors; factorIndex++) {
+				itemSums[factorIndex] += itemImplicitFactors.getValue(itemImplicitIndex, factorIndex);
+			}
+		}
+		SparseVector socialVector = socialMatrix.getRowVector(trusterIndex);
+		for (VectorScalar socialTerm : socialVector) {
+			int trusteeIndex = socialTerm.getIndex();
+			for (int factorIndex = 0; factorIndex < numberOfFactors; factorIndex++) {
+				trusteeSums[factorIndex] += trusteeFactors.getValue(trusteeIndex, factorIndex);
+			}
+		}
+		float trusterDenominator = (float) Math.sqrt(rateVector.getElementSize());
+		float trusteeDenominator = (float) Math.sqrt(socialVector.getElementSize());
+		for (int factorIndex = 0; factorIndex < numberOfFactors; factorIndex++) {
+			if (trusterDenominator > 0F) {
+				itemSums[factorIndex] /= trusterDenominator;
+			}
+			if (trusteeDenominator > 0F) {
+				trusteeSums[factorIndex] /= trusteeDenominator;
+			}
+		}
+	}
+
+	/**
+	 * 统一更新用户的隐式反馈因子与被信任者的梯度(正则项按照评分数量累计)
+	 * 
+	 * @param trusterIndex
+	 * @param count
+	 *            评分数量
+	 * @param gradients
+	 *            每个评分的error * itemFactor之和
+	 * @param trusteeDeltas
+	 * @return 损失
+	 */
+	private float updateBatch(int trusterIndex, int count, float[] gradients, DenseMatrix trusteeDeltas) {
+		float loss = 0F;
+		SparseVector rateVector = trainMatrix.getRowVector(trusterIndex);
+		float trusterDenominator = (float) Math.sqrt(rateVector.getElementSize());
+		for (VectorScalar rateTerm : rateVector) {
+			int itemImplicitIndex = rateTerm.getIndex();
+			float itemImplicitWeight = itemWeights.getValue(itemImplicitIndex);
+			float shrink = getShrink(learnRate, itemRegularization * itemImplicitWeight, count);
+			for (int factorIndex = 0; factorIndex < numberOfFactors; factorIndex++) {
+				float itemImplicitFactor = itemImplicitFactors.getValue(itemImplicitIndex, factorIndex);
+				float itemImplicitDelta = gradients[factorIndex] / trusterDenominator;
+				itemImplicitFactors.setValue(itemImplicitIndex, factorIndex, itemImplicitFactor * shrink - learnRate * itemImplicitDelta);
+				loss += count * itemRegularization * itemImplicitWeight * itemImplicitFactor * itemImplicitFactor;
+			}
+		}
+		SparseVector socialVector = socialMatrix.getRowVector(trusterIndex);
+		float trusteeDenominator = (float) Math.sqrt(socialVector.getElementSize());
+		for (VectorScalar socialTerm : socialVector) {
+			int trusteeIndex = socialTerm.getIndex();
+			float trusteeWeight = trusteeWeights.getValue(trusteeIndex);
+			// 被信任者的增量在周期结束时乘以-learnRate,收缩部分折算为(1 - shrink) / learnRate
+			float decay = learnRate == 0F ? 0F : (1F - getShrink(learnRate, userRegularization * trusteeWeight, count)) / learnRate;
+			for (int factorIndex = 0; factorIndex < numberOfFactors; factorIndex++) {
+				float trusteeFactor = trusteeFactors.getValue(trusteeIndex, factorIndex);
+				float trusteeDelta = gradients[factorIndex] / trusteeDenominator + decay * trusteeFactor;
+				trusteeDeltas.shiftValue(trusteeIndex, factorIndex, trusteeDelta);
+				loss += count * userRegularization * trusteeWeight * trusteeFactor * trusteeFactor;
+			}
+		}
+		return loss;
+	}
+
 	/**
 	 * predict a specific rating for user userIdx on item itemIdx.
 	 *
@@ -15,8 +15,8 @@ import com.jstarcraft.ai.neuralnetwork.MatrixFactory;
 import com.jstarcraft.ai.neuralnetwork.Nd4jMatrixFactory;
 import com.jstarcraft.ai.neuralnetwork.activation.IdentityActivationFunction;
 import com.jstarcraft.ai.neuralnetwork.activation.SigmoidActivationFunction;
-import com.jstarcraft.ai.neuralnetwork.layer.Layer;
 import com.jstarcraft.ai.neuralnetwork.layer.Layer.Mode;
+import com.jstarcraft.ai.neuralnetwork.layer.Layer;
 import com.jstarcraft.ai.neuralnetwork.layer.ParameterConfigurator;
 import com.jstarcraft.ai.neuralnetwork.layer.WeightLayer;
 import com.jstarcraft.ai.neuralnetwork.learn.NesterovLearner;
@@ -26,12 +26,12 @@ import com.jstarcraft.ai.neuralnetwork.optimization.StochasticGradientOptimizer;
 import com.jstarcraft.ai.neuralnetwork.parameter.XavierParameterFactory;
 import com.jstarcraft.ai.neuralnetwork.schedule.ConstantSchedule;
 import com.jstarcraft.ai.neuralnetwork.vertex.LayerVertex;
-import com.jstarcraft.core.utility.RandomUtility;
 import com.jstarcraft.recommendation.configure.Configuration;
 import com.jstarcraft.recommendation.data.DataSpace;
 import com.jstarcraft.recommendation.data.accessor.InstanceAccessor;
 import com.jstarcraft.recommendation.data.accessor.SampleAccessor;
 import com.jstarcraft.recommendation.recommender.ModelRecommender;
+import com.jstarcraft.recommendation.utility.RandomUtility;
 
 /**
  * 
@@ -151,6 +151,11 @@ public class CDAERecommender extends ModelRecommender {
 		return graph;
 	}
 
+	@Override
+	protected float getLearnRate() {
+		return learnRate;
+	}
+
 	@Override
 	protected void doPractice() {
 		Graph graph = getComputationGraph();
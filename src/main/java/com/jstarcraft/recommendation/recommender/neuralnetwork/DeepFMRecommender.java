@@ -16,8 +16,8 @@ import com.jstarcraft.ai.neuralnetwork.activation.IdentityActivationFunction;
 import com.jstarcraft.ai.neuralnetwork.activation.ReLUActivationFunction;
 import com.jstarcraft.ai.neuralnetwork.activation.SigmoidActivationFunction;
 import com.jstarcraft.ai.neuralnetwork.layer.EmbedLayer;
-import com.jstarcraft.ai.neuralnetwork.layer.Layer;
 import com.jstarcraft.ai.neuralnetwork.layer.Layer.Mode;
+import com.jstarcraft.ai.neuralnetwork.layer.Layer;
 import com.jstarcraft.ai.neuralnetwork.layer.ParameterConfigurator;
 import com.jstarcraft.ai.neuralnetwork.layer.WeightLayer;
 import com.jstarcraft.ai.neuralnetwork.learn.SgdLearner;
@@ -30,12 +30,12 @@ import com.jstarcraft.ai.neuralnetwork.schedule.Schedule;
 import com.jstarcraft.ai.neuralnetwork.vertex.LayerVertex;
 import com.jstarcraft.ai.neuralnetwork.vertex.accumulation.InnerProductVertex;
 import com.jstarcraft.ai.neuralnetwork.vertex.transformation.HorizontalStackVertex;
-import com.jstarcraft.core.utility.RandomUtility;
 import com.jstarcraft.recommendation.configure.Configuration;
 import com.jstarcraft.recommendation.data.DataSpace;
 import com.jstarcraft.recommendation.data.accessor.InstanceAccessor;
 import com.jstarcraft.recommendation.data.accessor.SampleAccessor;
 import com.jstarcraft.recommendation.recommender.ModelRecommender;
+import com.jstarcraft.recommendation.utility.RandomUtility;
 
 /**
  * 
@@ -175,6 +175,11 @@ public class DeepFMRecommender extends ModelRecommender {
 		return graph;
 	}
 
+	@Override
+	protected float getLearnRate() {
+		return learnRate;
+	}
+
 	@Override
 	protected void doPractice() {
 		int[] dimensionSizes = new int[marker.getDiscreteOrder()];
@@ -205,9 +210,9 @@ public class DeepFMRecommender extends ModelRecommender {
 					continue;
 				}
 
-				int from = dataPaginations[userIndex], to = dataPaginations[userIndex + 1];
+				int from = dataPaginations.get(userIndex), to = dataPaginations.get(userIndex + 1);
 				// 获取正样本
-				int positivePosition = dataPositions[RandomUtility.randomInteger(from, to)];
+				int positivePosition = dataPositions.get(RandomUtility.randomInteger(from, to));
 				for (int index = 0; index < positiveKeys.length; index++) {
 					positiveKeys[index] = marker.getDiscreteFeature(index, positivePosition);
 				}
@@ -222,7 +227,7 @@ public class DeepFMRecommender extends ModelRecommender {
 					break;
 				}
 				// TODO 注意,此处为了故意制造负面特征.
-				int negativePosition = dataPositions[RandomUtility.randomInteger(from, to)];
+				int negativePosition = dataPositions.get(RandomUtility.randomInteger(from, to));
 				for (int index = 0; index < negativeKeys.length; index++) {
 					negativeKeys[index] = marker.getDiscreteFeature(index, negativePosition);
 				}
@@ -274,7 +279,7 @@ public class DeepFMRecommender extends ModelRecommender {
 		for (int dimension = 0; dimension < dimensionSizes.length; dimension++) {
 			if (dimension != itemDimension) {
 				for (int userIndex = 0; userIndex < numberOfUsers; userIndex++) {
-					int position = dataPositions[dataPaginations[userIndex + 1] - 1];
+					int position = dataPositions.get(dataPaginations.get(userIndex + 1) - 1);
 					int feature = marker.getDiscreteFeature(dimension, position);
 					// inputData[dimension].putScalar(userIndex, 0,
 					// keys[dimension]);
@@ -0,0 +1,82 @@
+package com.jstarcraft.recommendation.service;
+
+import java.util.function.IntPredicate;
+
+/**
+ * 排名列表
+ *
+ * <pre>
+ * 按照得分降序的物品与得分,创建之后不可修改,可以被多个线程共享(缓存).
+ * </pre>
+ *
+ * @author Birdy
+ *
+ */
+public class RankingList {
+
+	/** 物品 */
+	private final int[] keys;
+
+	/** 得分 */
+	private final float[] values;
+
+	/** 是否包含所有候选物品(没有被截断) */
+	private final boolean complete;
+
+	RankingList(int[] keys, float[] values, boolean complete) {
+		this.keys = keys;
+		this.values = values;
+		this.complete = complete;
+	}
+
+	public int getSize() {
+		return keys.length;
+	}
+
+	public int getKey(int position) {
+		return keys[position];
+	}
+
+	public float getValue(int position) {
+		return values[position];
+	}
+
+	public boolean isComplete() {
+		return complete;
+	}
+
+	/**
+	 * 按照顺序过滤出前N个物品
+	 *
+	 * @param size
+	 * @param filter
+	 *            需要排除的物品(可以为null)
+	 * @return
+	 */
+	RankingList filter(int size, IntPredicate filter) {
+		if (filter == null && size >= keys.length) {
+			return this;
+		}
+		int[] keys = new int[Math.min(size, this.keys.length)];
+		float[] values = new float[keys.length];
+		int count = 0;
+		for (int position = 0; position < this.keys.length && count < keys.length; position++) {
+			if (filter != null && filter.test(this.keys[position])) {
+				continue;
+			}
+			keys[count] = this.keys[position];
+			values[count] = this.values[position];
+			count++;
+		}
+		if (count < keys.length) {
+			int[] copyKeys = new int[count];
+			float[] copyValues = new float[count];
+			System.arraycopy(keys, 0, copyKeys, 0, count);
+			System.arraycopy(values, 0, copyValues, 0, count);
+			keys = copyKeys;
+			values = copyValues;
+		}
+		return new RankingList(keys, values, complete);
+	}
+
+}
@@ -0,0 +1,310 @@
+package com.jstarcraft.recommendation.service;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntPredicate;
+
+import com.jstarcraft.recommendation.configure.Configuration;
+import com.jstarcraft.recommendation.data.accessor.InstanceAccessor;
+import com.jstarcraft.recommendation.data.accessor.SampleAccessor;
+import com.jstarcraft.recommendation.data.processor.DataCache;
+import com.jstarcraft.recommendation.data.processor.SparseTable;
+import com.jstarcraft.recommendation.recommender.MatrixFactorizationRecommender;
+import com.jstarcraft.recommendation.recommender.Recommender;
+import com.jstarcraft.recommendation.utility.RankingHeap;
+
+import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
+
+/**
+ * 推荐服务
+ *
+ * <pre>
+ * 包装训练好的推荐器,线程安全地回答recommend(userIndex, size, filter).
+ * 每个用户的TopN列表(长度为rec.service.list.size,排除历史物品)缓存在分段LRU缓存(rec.service.cache.size)中,
+ * 请求的过滤条件在缓存的列表上执行,列表不足时才遍历所有物品.
+ * 用户历史变化时通过{@link #setHistory}或者{@link #invalidate}使缓存失效,
+ * 每个用户的版本号保证失效之前开始的计算不会把旧列表放回缓存.
+ * 矩阵分解推荐器使用内积索引(参考{@link MatrixFactorizationRecommender#topN}),
+ * 用户与物品的数量随着增量更新(参考{@link MatrixFactorizationRecommender#update})增长.
+ * </pre>
+ *
+ * @author Birdy
+ *
+ */
+public class RecommendService {
+
+	private static final int[] EMPTY = new int[0];
+
+	/** 用户分块的大小(2的幂) */
+	private static final int BLOCK_SHIFT = 10, BLOCK_SIZE = 1 << BLOCK_SHIFT, BLOCK_MASK = BLOCK_SIZE - 1;
+
+	/**
+	 * 用户分块
+	 * 
+	 * <pre>
+	 * 扩展时只追加新的分块,已有的分块不会被复制,所以并发的修改不会丢失.
+	 * </pre>
+	 */
+	private static class UserBlock {
+
+		/** 用户的历史物品(升序) */
+		private final AtomicReferenceArray<int[]> histories = new AtomicReferenceArray<>(BLOCK_SIZE);
+
+		/** 用户的版本 */
+		private final AtomicIntegerArray versions = new AtomicIntegerArray(BLOCK_SIZE);
+
+		private UserBlock() {
+			for (int index = 0; index < BLOCK_SIZE; index++) {
+				histories.set(index, EMPTY);
+			}
+		}
+
+	}
+
+	private final Recommender recommender;
+
+	private final int discreteOrder, continuousOrder;
+
+	private final int userDimension, itemDimension, numberOfItems;
+
+	/** 缓存的列表长度 */
+	private final int listSize;
+
+	/** 用户的分块(按需扩展) */
+	private volatile UserBlock[] blocks;
+
+	private final SegmentedCache<RankingList> cache;
+
+	/** 遍历所有物品的次数 */
+	private final LongAdder scanCount = new LongAdder();
+
+	/**
+	 * 根据配置构建推荐服务
+	 *
+	 * @param configuration
+	 * @param recommender
+	 * @param model
+	 * @param marker
+	 *            训练数据(作为用户的历史物品,可以为null)
+	 */
+	public RecommendService(Configuration configuration, Recommender recommender, InstanceAccessor model, SampleAccessor marker) {
+		this(recommender, model.getDiscreteOrder(), model.getContinuousOrder(), model.getDiscreteDimension(configuration.getString("data.model.fields.user", "user")), model.getDiscreteDimension(configuration.getString("data.model.fields.item", "item")), configuration.getInteger("rec.service.list.size", 100), configuration.getInteger("rec.service.cache.size", 10000), model);
+		if (marker != null) {
+			SparseTable table = DataCache.getCache(marker, userDimension, itemDimension, configuration.getString("data.merger", "last")).getTable();
+			for (int userIndex = 0, numberOfUsers = table.getRowSize(); userIndex < numberOfUsers; userIndex++) {
+				getBlock(userIndex).histories.set(userIndex & BLOCK_MASK, table.getColumnIndexes(userIndex));
+			}
+		}
+	}
+
+	private RecommendService(Recommender recommender, int discreteOrder, int continuousOrder, int userDimension, int itemDimension, int listSize, int cacheSize, InstanceAccessor model) {
+		this(recommender, discreteOrder, continuousOrder, userDimension, itemDimension, model.getDiscreteAttribute(userDimension).getSize(), model.getDiscreteAttribute(itemDimension).getSize(), listSize, cacheSize);
+	}
+
+	/**
+	 * 构建推荐服务(没有历史物品)
+	 *
+	 * @param recommender
+	 * @param discreteOrder
+	 *            离散特征数量
+	 * @param continuousOrder
+	 *            连续特征数量
+	 * @param userDimension
+	 * @param itemDimension
+	 * @param numberOfUsers
+	 *            初始的用户数量(超出的用户按需扩展)
+	 * @param numberOfItems
+	 *            物品数量(矩阵分解推荐器以推荐器的物品数量为准)
+	 * @param listSize
+	 *            缓存的列表长度
+	 * @param cacheSize
+	 *            缓存的用户数量
+	 */
+	public RecommendService(Recommender recommender, int discreteOrder, int continuousOrder, int userDimension, int itemDimension, int numberOfUsers, int numberOfItems, int listSize, int cacheSize) {
+		this.recommender = recommender;
+		this.discreteOrder = discreteOrder;
+		this.continuousOrder = continuousOrder;
+		this.userDimension = userDimension;
+		this.itemDimension = itemDimension;
+		this.numberOfItems = numberOfItems;
+		this.listSize = listSize;
+		this.blocks = new UserBlock[(numberOfUsers + BLOCK_MASK) >>> BLOCK_SHIFT];
+		for (int index = 0; index < blocks.length; index++) {
+			blocks[index] = new UserBlock();
+		}
+		this.cache = new SegmentedCache<>(cacheSize, 0.8F);
+	}
+
+	/**
+	 * 推荐
+	 *
+	 * @param userIndex
+	 * @param size
+	 *            推荐数量
+	 * @param filter
+	 *            需要排除的物品(可以为null,历史物品总是被排除)
+	 * @return
+	 */
+	public RankingList recommend(int userIndex, int size, IntPredicate filter) {
+		if (size <= listSize) {
+			RankingList list = cache.get(userIndex);
+			if (list == null) {
+				AtomicIntegerArray versions = getBlock(userIndex).versions;
+				int version = versions.get(userIndex & BLOCK_MASK);
+				list = rank(userIndex, listSize, null);
+				cache.put(userIndex, list);
+				// 计算期间历史发生变化时,丢弃旧列表
+				if (versions.get(userIndex & BLOCK_MASK) != version) {
+					cache.remove(userIndex);
+				}
+			}
+			RankingList recommend = list.filter(size, filter);
+			if (recommend.getSize() == size || list.isComplete()) {
+				return recommend;
+			}
+		}
+		// 请求超过缓存的列表或者过滤之后不足
+		return rank(userIndex, size, filter);
+	}
+
+	/**
+	 * 获取用户所在的分块(不存在时扩展)
+	 * 
+	 * @param userIndex
+	 * @return
+	 */
+	private UserBlock getBlock(int userIndex) {
+		int index = userIndex >>> BLOCK_SHIFT;
+		UserBlock[] current = blocks;
+		if (index < current.length) {
+			return current[index];
+		}
+		synchronized (this) {
+			current = blocks;
+			if (index >= current.length) {
+				UserBlock[] expand = Arrays.copyOf(current, index + 1);
+				for (int position = current.length; position < expand.length; position++) {
+					expand[position] = new UserBlock();
+				}
+				blocks = expand;
+				current = expand;
+			}
+			return current[index];
+		}
+	}
+
+	/**
+	 * 获取物品数量(矩阵分解推荐器包括增量更新追加的物品)
+	 * 
+	 * @return
+	 */
+	private int getNumberOfItems() {
+		if (recommender instanceof MatrixFactorizationRecommender) {
+			return ((MatrixFactorizationRecommender) recommender).getNumberOfItems();
+		}
+		return numberOfItems;
+	}
+
+	private RankingList rank(int userIndex, int size, IntPredicate filter) {
+		scanCount.increment();
+		int[] history = getHistory(userIndex);
+		RankingHeap heap;
+		if (recommender instanceof MatrixFactorizationRecommender) {
+			IntOpenHashSet items = new IntOpenHashSet(history);
+			IntPredicate excludes = (itemIndex) -> items.contains(itemIndex) || (filter != null && filter.test(itemIndex));
+			heap = ((MatrixFactorizationRecommender) recommender).topN(userIndex, size, excludes);
+		} else {
+			int numberOfItems = getNumberOfItems();
+			int[] itemIndexes = new int[numberOfItems];
+			int cursor = 0;
+			for (int itemIndex = 0, position = 0; itemIndex < numberOfItems; itemIndex++) {
+				if (position < history.length && history[position] == itemIndex) {
+					position++;
+					continue;
+				}
+				if (filter != null && filter.test(itemIndex)) {
+					continue;
+				}
+				itemIndexes[cursor++] = itemIndex;
+			}
+			if (cursor < itemIndexes.length) {
+				itemIndexes = Arrays.copyOf(itemIndexes, cursor);
+			}
+			int[] discreteFeatures = new int[discreteOrder];
+			float[] continuousFeatures = new float[continuousOrder];
+			discreteFeatures[userDimension] = userIndex;
+			float[] scores = new float[cursor];
+			recommender.predict(discreteFeatures, continuousFeatures, itemIndexes, scores);
+			heap = new RankingHeap(Math.min(size, cursor));
+			for (int index = 0; index < cursor; index++) {
+				heap.offer(itemIndexes[index], scores[index]);
+			}
+			heap.sort();
+		}
+		boolean complete = heap.getCount() == heap.getSize();
+		int[] keys = Arrays.copyOf(heap.getKeys(), heap.getSize());
+		float[] values = Arrays.copyOf(heap.getValues(), heap.getSize());
+		return new RankingList(keys, values, complete);
+	}
+
+	/**
+	 * 设置用户的历史物品并使缓存失效
+	 *
+	 * @param userIndex
+	 * @param itemIndexes
+	 */
+	public void setHistory(int userIndex, int[] itemIndexes) {
+		int[] history = Arrays.copyOf(itemIndexes, itemIndexes.length);
+		Arrays.sort(history);
+		getBlock(userIndex).histories.set(userIndex & BLOCK_MASK, history);
+		invalidate(userIndex);
+	}
+
+	/**
+	 * 获取用户的历史物品(升序,只读)
+	 *
+	 * @param userIndex
+	 * @return
+	 */
+	public int[] getHistory(int userIndex) {
+		return getBlock(userIndex).histories.get(userIndex & BLOCK_MASK);
+	}
+
+	/**
+	 * 使用户的缓存失效
+	 *
+	 * @param userIndex
+	 */
+	public void invalidate(int userIndex) {
+		getBlock(userIndex).versions.incrementAndGet(userIndex & BLOCK_MASK);
+		cache.remove(userIndex);
+	}
+
+	/**
+	 * 使所有缓存失效(例如重新加载模型之后)
+	 */
+	public void invalidateAll() {
+		for (UserBlock block : blocks) {
+			for (int index = 0; index < BLOCK_SIZE; index++) {
+				block.versions.incrementAndGet(index);
+			}
+		}
+		cache.clear();
+	}
+
+	public SegmentedCache<RankingList> getCache() {
+		return cache;
+	}
+
+	/**
+	 * 获取遍历所有物品的次数
+	 *
+	 * @return
+	 */
+	public long getScanCount() {
+		return scanCount.sum();
+	}
+
+}
@@ -0,0 +1,139 @@
+package com.jstarcraft.recommendation.service;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map.Entry;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 分段LRU缓存
+ *
+ * <pre>
+ * Segmented LRU:新元素进入试用段,再次命中之后晋升到保护段,保护段溢出的元素降级到试用段.
+ * 淘汰总是优先发生在试用段,因此只访问一次的用户不会挤出热点用户.
+ * 所有操作使用同一个锁,命中/未命中/淘汰次数使用LongAdder统计.
+ * </pre>
+ *
+ * @author Birdy
+ *
+ * @param <V>
+ */
+public class SegmentedCache<V> {
+
+	/** 容量, 保护段容量 */
+	private final int capacity, protectedCapacity;
+
+	/** 试用段(按照访问顺序,最久未访问的在前) */
+	private final LinkedHashMap<Integer, V> probationSegment;
+
+	/** 保护段(按照访问顺序,最久未访问的在前) */
+	private final LinkedHashMap<Integer, V> protectedSegment;
+
+	private final LongAdder hitCount = new LongAdder(), missCount = new LongAdder(), evictionCount = new LongAdder();
+
+	/**
+	 * @param capacity
+	 *            容量
+	 * @param ratio
+	 *            保护段占容量的比例
+	 */
+	public SegmentedCache(int capacity, float ratio) {
+		if (capacity < 1 || ratio < 0F || ratio >= 1F) {
+			throw new IllegalArgumentException();
+		}
+		this.capacity = capacity;
+		this.protectedCapacity = (int) (capacity * ratio);
+		this.probationSegment = new LinkedHashMap<>(16, 0.75F, true);
+		this.protectedSegment = new LinkedHashMap<>(16, 0.75F, true);
+	}
+
+	/**
+	 * 获取
+	 *
+	 * @param key
+	 * @return 不存在时返回null
+	 */
+	public synchronized V get(int key) {
+		V value = protectedSegment.get(key);
+		if (value != null) {
+			hitCount.increment();
+			return value;
+		}
+		value = probationSegment.remove(key);
+		if (value == null) {
+			missCount.increment();
+			return null;
+		}
+		hitCount.increment();
+		// 晋升到保护段
+		protectedSegment.put(key, value);
+		if (protectedSegment.size() > protectedCapacity) {
+			Iterator<Entry<Integer, V>> iterator = protectedSegment.entrySet().iterator();
+			Entry<Integer, V> eldest = iterator.next();
+			iterator.remove();
+			probationSegment.put(eldest.getKey(), eldest.getValue());
+		}
+		return value;
+	}
+
+	/**
+	 * 放入
+	 *
+	 * @param key
+	 * @param value
+	 */
+	public synchronized void put(int key, V value) {
+		if (protectedSegment.containsKey(key)) {
+			protectedSegment.put(key, value);
+			return;
+		}
+		probationSegment.put(key, value);
+		while (probationSegment.size() + protectedSegment.size() > capacity) {
+			LinkedHashMap<Integer, V> segment = probationSegment.isEmpty() ? protectedSegment : probationSegment;
+			Iterator<Integer> iterator = segment.keySet().iterator();
+			iterator.next();
+			iterator.remove();
+			evictionCount.increment();
+		}
+	}
+
+	/**
+	 * 移除
+	 *
+	 * @param key
+	 */
+	public synchronized void remove(int key) {
+		if (protectedSegment.remove(key) == null) {
+			probationSegment.remove(key);
+		}
+	}
+
+	/**
+	 * 清理
+	 */
+	public synchronized void clear() {
+		probationSegment.clear();
+		protectedSegment.clear();
+	}
+
+	public synchronized int getSize() {
+		return probationSegment.size() + protectedSegment.size();
+	}
+
+	public int getCapacity() {
+		return capacity;
+	}
+
+	public long getHitCount() {
+		return hitCount.sum();
+	}
+
+	public long getMissCount() {
+		return missCount.sum();
+	}
+
+	public long getEvictionCount() {
+		return evictionCount.sum();
+	}
+
+}
@@ -1,6 +1,13 @@
 package com.jstarcraft.recommendation.task;
 
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
 import java.lang.reflect.Type;
+import java.nio.IntBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -8,38 +15,38 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Random;
 import java.util.Set;
 import java.util.TreeMap;
-import java.util.concurrent.CountDownLatch;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.Future;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.nd4j.linalg.factory.Nd4j;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import com.google.common.collect.HashBasedTable;
-import com.google.common.collect.Table;
 import com.jstarcraft.ai.environment.EnvironmentContext;
 import com.jstarcraft.ai.math.structure.matrix.SparseMatrix;
 import com.jstarcraft.ai.utility.IntegerArray;
 import com.jstarcraft.core.utility.JsonUtility;
 import com.jstarcraft.core.utility.KeyValue;
-import com.jstarcraft.core.utility.RandomUtility;
 import com.jstarcraft.core.utility.ReflectionUtility;
 import com.jstarcraft.core.utility.StringUtility;
 import com.jstarcraft.core.utility.TypeUtility;
 import com.jstarcraft.recommendation.configure.Configuration;
 import com.jstarcraft.recommendation.data.DataSpace;
+import com.jstarcraft.recommendation.data.DataStorage;
+import com.jstarcraft.recommendation.data.SpaceSnapshot;
 import com.jstarcraft.recommendation.data.accessor.AttributeMarker;
 import com.jstarcraft.recommendation.data.accessor.InstanceAccessor;
 import com.jstarcraft.recommendation.data.accessor.SampleAccessor;
 import com.jstarcraft.recommendation.data.convertor.ArffConvertor;
 import com.jstarcraft.recommendation.data.convertor.CsvConvertor;
 import com.jstarcraft.recommendation.data.convertor.DataConvertor;
+import com.jstarcraft.recommendation.data.processor.DataCache;
 import com.jstarcraft.recommendation.data.processor.DataMatcher;
-import com.jstarcraft.recommendation.data.processor.DataSorter;
 import com.jstarcraft.recommendation.data.splitter.DataSplitter;
 import com.jstarcraft.recommendation.data.splitter.GivenDataSplitter;
 import com.jstarcraft.recommendation.data.splitter.GivenNumberSplitter;
@@ -49,7 +56,12 @@ import com.jstarcraft.recommendation.data.splitter.RandomSplitter;
 import com.jstarcraft.recommendation.data.splitter.RatioSplitter;
 import com.jstarcraft.recommendation.evaluator.Evaluator;
 import com.jstarcraft.recommendation.exception.RecommendationException;
+import com.jstarcraft.recommendation.monitor.CsvListener;
+import com.jstarcraft.recommendation.monitor.JsonListener;
+import com.jstarcraft.recommendation.monitor.TrainingListener;
+import com.jstarcraft.recommendation.recommender.ModelRecommender;
 import com.jstarcraft.recommendation.recommender.Recommender;
+import com.jstarcraft.recommendation.utility.RandomUtility;
 
 /**
  * 抽象任务
@@ -68,18 +80,26 @@ public abstract class AbstractTask<T> {
 
 	protected int userDimension, itemDimension, numberOfUsers, numberOfItems;
 
-	protected int[] trainPaginations, trainPositions, testPaginations, testPositions;
+	/** 训练数据的分页与位置(来自训练数据缓存的只读视图,每页之内按照特征排序) */
+	protected IntBuffer trainPaginations, trainPositions;
+
+	protected int[] testPaginations, testPositions;
 
 	protected SampleAccessor dataMarker, trainMarker, testMarker;
 
+	/** 训练数据缓存(与推荐器共享) */
+	protected DataCache trainCache;
+
+	/** 全量数据矩阵(与折无关) */
+	protected SparseMatrix featureMatrix;
+
 	protected Recommender recommender;
 
+	private final Class<? extends Recommender> clazz;
+
 	protected AbstractTask(Class<? extends Recommender> clazz, Configuration configuration) {
+		this.clazz = clazz;
 		this.configuration = configuration;
-		Long seed = configuration.getLong("rec.random.seed");
-		if (seed != null) {
-			RandomUtility.setSeed(seed);
-		}
 		this.recommender = (Recommender) ReflectionUtility.getInstance(clazz);
 	}
 
@@ -87,65 +107,194 @@ public abstract class AbstractTask<T> {
 
 	protected abstract Collection<T> check(int userIndex);
 
-	protected abstract List<KeyValue<Integer, Float>> recommend(Recommender recommender, int userIndex);
+	protected abstract RecommendList recommend(Recommender recommender, int userIndex);
 
-	private ExecutorService executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+	/** 评估线程数量 */
+	private int numberOfThreads = Runtime.getRuntime().availableProcessors();
 
-	private Map<Class<? extends Evaluator>, KeyValue<Integer, Float>> evaluate(Collection<Evaluator> evaluators, Recommender recommender) {
-		Map<Class<? extends Evaluator>, KeyValue<Integer, Float>[]> values = new HashMap<>();
-		for (Evaluator evaluator : evaluators) {
-			values.put(evaluator.getClass(), new KeyValue[numberOfUsers]);
-		}
-		// 按照用户切割任务.
-		CountDownLatch latch = new CountDownLatch(numberOfUsers);
-		for (int userIndex = 0; userIndex < numberOfUsers; userIndex++) {
-			int index = userIndex;
-			executor.submit(() -> {
-				if (testPaginations[index + 1] - testPaginations[index] != 0) {
-					// 校验集合
-					Collection checkCollection = check(index);
-					// 推荐列表
-					List<KeyValue<Integer, Float>> recommendList = recommend(recommender, index);
-					// 测量列表
-					for (Evaluator<?> evaluator : evaluators) {
-						KeyValue<Integer, Float>[] measures = values.get(evaluator.getClass());
-						KeyValue<Integer, Float> measure = evaluator.evaluate(checkCollection, recommendList);
-						measures[index] = measure;
-					}
+	/** 评估线程池(由任务在执行期间持有,执行结束时关闭) */
+	private ForkJoinPool pool;
+
+	/** 工作线程的用户评估缓存(每个任务独立,在块之间复用) */
+	private final ThreadLocal<EvaluateBuffer> buffers = new ThreadLocal<>();
+
+	/** 训练监听器 */
+	private final List<TrainingListener> listeners = new ArrayList<>();
+
+	/**
+	 * 添加训练监听器(只对模型推荐器有效,并行执行的折共享监听器)
+	 * 
+	 * @param listener
+	 */
+	public void addListener(TrainingListener listener) {
+		listeners.add(listener);
+	}
+
+	private TrainingListener getListener() throws IOException {
+		String path = configuration.getString("rec.monitor.file", "");
+		if (StringUtility.isBlank(path)) {
+			return null;
+		}
+		String format = configuration.getString("rec.monitor.format", "csv");
+		if (!format.equals("csv") && !format.equals("json")) {
+			throw new RecommendationException("不支持的监控格式");
+		}
+		File file = new File(path);
+		if (file.getParentFile() != null) {
+			file.getParentFile().mkdirs();
+		}
+		Writer writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8);
+		return format.equals("csv") ? new CsvListener(writer) : new JsonListener(writer);
+	}
+
+	/**
+	 * 评估用户
+	 * 
+	 * <pre>
+	 * 默认使用评估器逐个评估,子类可以融合评估器的计算.
+	 * 输出数组由工作线程复用,每个用户评估之前不会清零,所以必须覆盖所有评估器.
+	 * </pre>
+	 * 
+	 * @param evaluators
+	 * @param recommender
+	 * @param userIndex
+	 * @param counts
+	 *            输出统计值(按照评估器的索引)
+	 * @param measures
+	 *            输出测量值(按照评估器的索引)
+	 */
+	protected void evaluate(Evaluator[] evaluators, Recommender recommender, int userIndex, int[] counts, float[] measures) {
+		// 校验集合
+		Collection checkCollection = check(userIndex);
+		// 推荐列表
+		RecommendList recommendList = recommend(recommender, userIndex);
+		// 测量列表
+		for (int index = 0; index < evaluators.length; index++) {
+			KeyValue<Integer, Float> measure = evaluators[index].evaluate(checkCollection, recommendList.keys, recommendList.values, recommendList.size, recommendList.count);
+			counts[index] = measure.getKey();
+			measures[index] = measure.getValue();
+		}
+	}
+
+	/**
+	 * 用户块评估任务
+	 * 
+	 * <pre>
+	 * 按照块的范围二分,由ForkJoinPool在线程之间窃取.
+	 * 每个块把用户的统计值累加到自己的原始类型累加器,测量值按照用户写入原始类型数组,
+	 * 最后按照用户的顺序累加测量值(与逐个用户串行累加的求和顺序一致),所以结果与线程数量,调度顺序以及块大小无关.
+	 * 单个用户的输出数组属于工作线程,在块之间复用.
+	 * </pre>
+	 */
+	private class EvaluateAction extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private final Evaluator[] evaluators;
+
+		private final Recommender recommender;
+
+		private final int blockSize;
+
+		/** 块范围 */
+		private final int from, to;
+
+		/** 每个块的统计值累加器(第一维为块,第二维为评估器) */
+		private final int[][] counts;
+
+		/** 每个用户的测量值(第一维为评估器,第二维为用户) */
+		private final float[][] measures;
+
+		private EvaluateAction(Evaluator[] evaluators, Recommender recommender, int blockSize, int from, int to, int[][] counts, float[][] measures) {
+			this.evaluators = evaluators;
+			this.recommender = recommender;
+			this.blockSize = blockSize;
+			this.from = from;
+			this.to = to;
+			this.counts = counts;
+			this.measures = measures;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from > 1) {
+				int middle = (from + to) >>> 1;
+				invokeAll(new EvaluateAction(evaluators, recommender, blockSize, from, middle, counts, measures), new EvaluateAction(evaluators, recommender, blockSize, middle, to, counts, measures));
+				return;
+			}
+			int[] blockCounts = counts[from];
+			EvaluateBuffer buffer = buffers.get();
+			if (buffer == null || buffer.counts.length != evaluators.length) {
+				buffer = new EvaluateBuffer(evaluators.length);
+				buffers.set(buffer);
+			}
+			int[] userCounts = buffer.counts;
+			float[] userMeasures = buffer.measures;
+			for (int userIndex = from * blockSize, size = Math.min(userIndex + blockSize, numberOfUsers); userIndex < size; userIndex++) {
+				// 没有测试数据的用户不参与评估
+				if (testPaginations[userIndex + 1] - testPaginations[userIndex] == 0) {
+					continue;
 				}
-				latch.countDown();
-			});
+				evaluate(evaluators, recommender, userIndex, userCounts, userMeasures);
+				for (int index = 0; index < evaluators.length; index++) {
+					blockCounts[index] += userCounts[index];
+					measures[index][userIndex] = userMeasures[index];
+				}
+			}
 		}
-		try {
-			latch.await();
-		} catch (Exception exception) {
-			throw new RecommendationException(exception);
+
+	}
+
+	private Map<Class<? extends Evaluator>, KeyValue<Integer, Float>> evaluate(Collection<Evaluator> evaluators, Recommender recommender) {
+		if (pool == null) {
+			pool = new ForkJoinPool(numberOfThreads);
+		}
+		Evaluator[] array = evaluators.toArray(new Evaluator[evaluators.size()]);
+		// 按照用户块切割任务
+		int blockSize = configuration.getInteger("rec.evaluator.block", 128);
+		int numberOfBlocks = (numberOfUsers + blockSize - 1) / blockSize;
+		int[][] counts = new int[numberOfBlocks][array.length];
+		float[][] values = new float[array.length][numberOfUsers];
+		if (numberOfBlocks > 0) {
+			pool.invoke(new EvaluateAction(array, recommender, blockSize, 0, numberOfBlocks, counts, values));
 		}
 
 		Map<Class<? extends Evaluator>, KeyValue<Integer, Float>> measures = new HashMap<>();
-		for (Entry<Class<? extends Evaluator>, KeyValue<Integer, Float>[]> term : values.entrySet()) {
-			KeyValue<Integer, Float> measure = new KeyValue<>(0, 0F);
-			// if (term.getKey() == RecallEvaluator.class) {
-			// for (KeyValue<Integer, Double> element : term.getValue()) {
-			// if (element == null) {
-			// continue;
-			// }
-			// System.out.println(element.getKey() + " " + element.getValue());
-			// }
-			// }
-			for (KeyValue<Integer, Float> element : term.getValue()) {
-				if (element == null) {
+		for (int index = 0; index < array.length; index++) {
+			int count = 0;
+			for (int block = 0; block < numberOfBlocks; block++) {
+				count += counts[block][index];
+			}
+			// 按照用户的顺序累加(跳过没有测试数据的用户),与逐个用户串行评估的结果完全一致
+			float value = 0F;
+			float[] userValues = values[index];
+			for (int userIndex = 0; userIndex < numberOfUsers; userIndex++) {
+				if (testPaginations[userIndex + 1] - testPaginations[userIndex] == 0) {
 					continue;
 				}
-				measure.setKey(measure.getKey() + element.getKey());
-				measure.setValue(measure.getValue() + element.getValue());
+				value += userValues[userIndex];
 			}
-			measures.put(term.getKey(), measure);
+			measures.put(array[index].getClass(), new KeyValue<>(count, value));
 		}
 		return measures;
 	}
 
+	/**
+	 * 关闭评估线程池
+	 */
+	private void shutdown() {
+		if (pool != null) {
+			pool.shutdown();
+			pool = null;
+		}
+	}
+
 	public Map<String, Float> execute() throws Exception {
+		// 只在执行开始时设置一次种子(复制的折任务不会重新设置)
+		Long seed = configuration.getLong("rec.random.seed");
+		if (seed != null) {
+			RandomUtility.setSeed(seed);
+		}
 		// TODO 数据属性部分
 		// 离散属性
 		Type dicreteConfiguration = TypeUtility.parameterize(HashMap.class, String.class, Class.class);
@@ -158,42 +307,77 @@ public abstract class AbstractTask<T> {
 		Type featureConfiguration = TypeUtility.parameterize(HashMap.class, String.class, String.class);
 		Map<String, String> featureDifinitions = JsonUtility.string2Object(configuration.getString("data.space.features"), featureConfiguration);
 
-		// 数据空间部分
-		DataSpace space = new DataSpace(dicreteDifinitions, continuousDifinitions);
-		for (Entry<String, String> term : featureDifinitions.entrySet()) {
-			space.makeFeature(term.getKey(), term.getValue());
-		}
-
-		// TODO 数据转换器部分
-		Map<String, Integer> counts = new HashMap<>();
+		// 数据空间部分(特征的存储方式:heap/direct/mapped)
+		DataStorage storage = DataStorage.nameOf(configuration.getString("data.storage", "heap"));
 		String format = configuration.getString("data.format");
 		Type convertorConfiguration = TypeUtility.parameterize(LinkedHashMap.class, String.class, TypeUtility.parameterize(KeyValue.class, String.class, HashMap.class));
 		Map<String, KeyValue<String, HashMap<String, ?>>> convertorDifinitions = JsonUtility.string2Object(configuration.getString("data.convertors"), convertorConfiguration);
-		for (Entry<String, KeyValue<String, HashMap<String, ?>>> term : convertorDifinitions.entrySet()) {
-			String name = term.getKey();
-			KeyValue<String, HashMap<String, ?>> keyValue = term.getValue();
-			DataConvertor convertor = null;
-			switch (format) {
-			case "arff": {
-				convertor = ReflectionUtility.getInstance(ArffConvertor.class, name, keyValue.getKey(), keyValue.getValue());
-				break;
+		Type modelConfiguration = TypeUtility.parameterize(HashMap.class, String.class, String[].class);
+		Map<String, String[]> modelDifinitions = JsonUtility.string2Object(configuration.getString("data.models"), modelConfiguration);
+
+		// 数据空间快照(data.space.cache为快照目录,为空表示不使用快照)
+		File cacheFile = null;
+		String cachePath = configuration.getString("data.space.cache", "");
+		if (!StringUtility.isBlank(cachePath)) {
+			Collection<String> paths = new ArrayList<>();
+			for (KeyValue<String, HashMap<String, ?>> keyValue : convertorDifinitions.values()) {
+				paths.add(keyValue.getKey());
 			}
-			case "csv": {
-				convertor = ReflectionUtility.getInstance(CsvConvertor.class, name, configuration.getCharacter("data.splitter.delimiter", ' '), keyValue.getKey(), keyValue.getValue());
-				break;
+			StringBuilder buffer = new StringBuilder();
+			for (String key : new String[] { "data.space.attributes.dicrete", "data.space.attributes.continuous", "data.space.features", "data.format", "data.splitter.delimiter", "data.convertors", "data.models" }) {
+				buffer.append(key).append('=').append(configuration.getString(key, "")).append('\n');
 			}
-			default: {
-				throw new RecommendationException("不支持的转换格式");
+			File cacheDirectory = new File(cachePath);
+			cacheDirectory.mkdirs();
+			cacheFile = new File(cacheDirectory, SpaceSnapshot.getKey(paths, buffer.toString()) + ".space");
+		}
+
+		DataSpace space;
+		Map<String, Integer> counts;
+		if (cacheFile != null && cacheFile.exists()) {
+			SpaceSnapshot snapshot = SpaceSnapshot.loadSpace(cacheFile, storage);
+			space = snapshot.getSpace();
+			counts = snapshot.getCounts();
+			if (logger.isInfoEnabled()) {
+				logger.info(StringUtility.format("load data space from {}", cacheFile));
 			}
+		} else {
+			space = new DataSpace(dicreteDifinitions, continuousDifinitions, storage);
+			for (Entry<String, String> term : featureDifinitions.entrySet()) {
+				space.makeFeature(term.getKey(), term.getValue());
 			}
-			counts.put(name, convertor.convert(space));
-		}
 
-		// TODO 数据模型部分
-		Type modelConfiguration = TypeUtility.parameterize(HashMap.class, String.class, String[].class);
-		Map<String, String[]> modelDifinitions = JsonUtility.string2Object(configuration.getString("data.models"), modelConfiguration);
-		for (Entry<String, String[]> term : modelDifinitions.entrySet()) {
-			space.makeModule(term.getKey(), term.getValue());
+			// TODO 数据转换器部分
+			counts = new HashMap<>();
+			// 内存映射模式的块大小(0表示逐行解析)
+			int chunkSize = configuration.getInteger("data.convertor.chunk", 0);
+			for (Entry<String, KeyValue<String, HashMap<String, ?>>> term : convertorDifinitions.entrySet()) {
+				String name = term.getKey();
+				KeyValue<String, HashMap<String, ?>> keyValue = term.getValue();
+				DataConvertor convertor = null;
+				switch (format) {
+				case "arff": {
+					convertor = ReflectionUtility.getInstance(ArffConvertor.class, name, keyValue.getKey(), keyValue.getValue(), chunkSize);
+					break;
+				}
+				case "csv": {
+					convertor = ReflectionUtility.getInstance(CsvConvertor.class, name, configuration.getCharacter("data.splitter.delimiter", ' '), keyValue.getKey(), keyValue.getValue(), chunkSize);
+					break;
+				}
+				default: {
+					throw new RecommendationException("不支持的转换格式");
+				}
+				}
+				counts.put(name, convertor.convert(space));
+			}
+
+			// TODO 数据模型部分
+			for (Entry<String, String[]> term : modelDifinitions.entrySet()) {
+				space.makeModule(term.getKey(), term.getValue());
+			}
+			if (cacheFile != null) {
+				SpaceSnapshot.saveSpace(space, counts, cacheFile);
+			}
 		}
 
 		// TODO 数据切割器部分
@@ -241,70 +425,102 @@ public abstract class AbstractTask<T> {
 		scoreField = configuration.getString("data.model.fields.score", "score");
 
 		Double binarize = configuration.getDouble("data.convert.binarize.threshold");
-		Map<String, Float> measures = new TreeMap<>();
 
 		EnvironmentContext context = Nd4j.getAffinityManager().getClass().getSimpleName().equals("CpuAffinityManager") ? EnvironmentContext.CPU : EnvironmentContext.GPU;
+		String merger = configuration.getString("data.merger", "last");
 		Future<?> task = context.doTask(() -> {
-			for (int index = 0; index < splitter.getSize(); index++) {
-				IntegerArray trainReference = splitter.getTrainReference(index);
-				IntegerArray testReference = splitter.getTestReference(index);
-				trainMarker = new AttributeMarker(trainReference, space.getModule(splitterDifinition.model), scoreField);
-				testMarker = new AttributeMarker(testReference, space.getModule(splitterDifinition.model), scoreField);
-
-				IntegerArray positions = new IntegerArray();
-				for (int position = 0, size = model.getSize(); position < size; position++) {
-					positions.associateData(position);
-				}
-				dataMarker = new AttributeMarker(positions, model, scoreField);
-
-				userDimension = model.getDiscreteDimension(userField);
-				itemDimension = model.getDiscreteDimension(itemField);
-				numberOfUsers = model.getDiscreteAttribute(userDimension).getSize();
-				numberOfItems = model.getDiscreteAttribute(itemDimension).getSize();
+			userDimension = model.getDiscreteDimension(userField);
+			itemDimension = model.getDiscreteDimension(itemField);
+			numberOfUsers = model.getDiscreteAttribute(userDimension).getSize();
+			numberOfItems = model.getDiscreteAttribute(itemDimension).getSize();
+
+			// 全量数据与折无关,只准备一次
+			IntegerArray positions = new IntegerArray();
+			for (int position = 0, size = model.getSize(); position < size; position++) {
+				positions.associateData(position);
+			}
+			dataMarker = new AttributeMarker(positions, model, scoreField);
+			featureMatrix = DataCache.getCache(dataMarker, userDimension, itemDimension, merger).getMatrix();
+		});
+		task.get();
 
-				trainPaginations = new int[numberOfUsers + 1];
-				trainPositions = new int[trainMarker.getSize()];
-				for (int position = 0, size = trainMarker.getSize(); position < size; position++) {
-					trainPositions[position] = position;
+		// 训练指标(rec.monitor.file为输出文件,为空表示不输出)
+		TrainingListener monitorListener = getListener();
+		if (monitorListener != null) {
+			listeners.add(monitorListener);
+		}
+		int numberOfFolds = splitter.getSize();
+		Map<String, Float>[] foldMeasures = new Map[numberOfFolds];
+		try {
+			// 并行执行的折数量
+			int numberOfParallels = Math.min(configuration.getInteger("data.splitter.parallel", 1), numberOfFolds);
+			if (numberOfParallels <= 1) {
+				task = context.doTask(() -> {
+					for (int index = 0; index < numberOfFolds; index++) {
+						foldMeasures[index] = practice(space, model, splitterDifinition.model, splitter.getTrainReference(index), splitter.getTestReference(index), merger);
+					}
+				});
+				task.get();
+			} else {
+				// 每个折使用独立的任务与推荐器,并且平分评估线程与训练工作者(rec.thread.count),避免过度占用CPU
+				int numberOfThreads = Math.max(1, Runtime.getRuntime().availableProcessors() / numberOfParallels);
+				Configuration foldConfiguration = configuration;
+				Integer numberOfWorkers = configuration.getInteger("rec.thread.count");
+				if (numberOfWorkers != null) {
+					Map<String, String> keyValues = new HashMap<>();
+					keyValues.put("rec.thread.count", String.valueOf(Math.max(1, numberOfWorkers / numberOfParallels)));
+					foldConfiguration = Configuration.valueOf(configuration, keyValues);
 				}
-				DataMatcher trainMatcher = DataMatcher.discreteOf(trainMarker, userDimension);
-				trainMatcher.match(trainPaginations, trainPositions);
-
-				testPaginations = new int[numberOfUsers + 1];
-				testPositions = new int[testMarker.getSize()];
-				for (int position = 0, size = testMarker.getSize(); position < size; position++) {
-					testPositions[position] = position;
+				AbstractTask<T>[] foldTasks = new AbstractTask[numberOfFolds];
+				for (int index = 0; index < numberOfFolds; index++) {
+					foldTasks[index] = fork(foldConfiguration, numberOfThreads);
 				}
-				DataMatcher testMatcher = DataMatcher.discreteOf(testMarker, userDimension);
-				testMatcher.match(testPaginations, testPositions);
-
-				int[] dataPaginations = new int[numberOfUsers + 1];
-				int[] dataPositions = new int[dataMarker.getSize()];
-				for (int position = 0; position < dataMarker.getSize(); position++) {
-					dataPositions[position] = position;
+				AtomicInteger cursor = new AtomicInteger();
+				Future<?>[] tasks = new Future[numberOfParallels];
+				for (int index = 0; index < numberOfParallels; index++) {
+					tasks[index] = context.doTask(() -> {
+						for (int fold = cursor.getAndIncrement(); fold < numberOfFolds; fold = cursor.getAndIncrement()) {
+							AbstractTask<T> foldTask = foldTasks[fold];
+							// 每个折使用由种子与折索引派生的随机数,结果与折的调度顺序无关
+							if (seed != null) {
+								RandomUtility.setRandom(new Random(seed + fold));
+							}
+							try {
+								foldMeasures[fold] = foldTask.practice(space, model, splitterDifinition.model, splitter.getTrainReference(fold), splitter.getTestReference(fold), merger);
+							} finally {
+								RandomUtility.setRandom(null);
+								foldTask.shutdown();
+							}
+						}
+					});
 				}
-				DataMatcher dataMatcher = DataMatcher.discreteOf(dataMarker, userDimension);
-				dataMatcher.match(dataPaginations, dataPositions);
-				DataSorter dataSorter = DataSorter.featureOf(dataMarker);
-				dataSorter.sort(dataPaginations, dataPositions);
-				Table<Integer, Integer, Float> dataTable = HashBasedTable.create();
-				for (int position : dataPositions) {
-					int rowIndex = dataMarker.getDiscreteFeature(userDimension, position);
-					int columnIndex = dataMarker.getDiscreteFeature(itemDimension, position);
-					// TODO 处理冲突
-					dataTable.put(rowIndex, columnIndex, dataMarker.getMark(position));
+				for (Future<?> foldTask : tasks) {
+					foldTask.get();
 				}
-				SparseMatrix featureMatrix = SparseMatrix.valueOf(numberOfUsers, numberOfItems, dataTable);
-
-				recommender.prepare(configuration, trainMarker, model, space);
-				recommender.practice();
-				for (Entry<Class<? extends Evaluator>, KeyValue<Integer, Float>> measure : evaluate(getEvaluators(featureMatrix), recommender).entrySet()) {
-					Float value = measure.getValue().getValue() / measure.getValue().getKey();
-					measures.put(measure.getKey().getSimpleName(), value);
+				// 与串行一致,保留最后一个折的推荐器
+				recommender = foldTasks[numberOfFolds - 1].recommender;
+			}
+		} finally {
+			shutdown();
+			// 关闭列的文件通道并且删除临时文件(映射的数据仍然有效)
+			space.release();
+			if (monitorListener != null) {
+				listeners.remove(monitorListener);
+				if (recommender instanceof ModelRecommender) {
+					((ModelRecommender) recommender).removeListener(monitorListener);
 				}
+				monitorListener.close();
 			}
-		});
-		task.get();
+		}
+
+		// 按照折的顺序合并所有折的测量值,保证结果确定
+		Map<String, Float> measures = new TreeMap<>();
+		for (Map<String, Float> foldMeasure : foldMeasures) {
+			for (Entry<String, Float> term : foldMeasure.entrySet()) {
+				Float value = measures.get(term.getKey());
+				measures.put(term.getKey(), value == null ? term.getValue() : value + term.getValue());
+			}
+		}
 
 		for (Entry<String, Float> term : measures.entrySet()) {
 			term.setValue(term.getValue() / splitter.getSize());
@@ -315,10 +531,135 @@ public abstract class AbstractTask<T> {
 		return measures;
 	}
 
+	/**
+	 * 复制任务(用于并行执行折)
+	 * 
+	 * @param configuration
+	 *            折的配置(训练工作者数量已经平分)
+	 * @param numberOfThreads
+	 *            评估线程数量
+	 * @return
+	 */
+	private AbstractTask<T> fork(Configuration configuration, int numberOfThreads) {
+		AbstractTask<T> instance = ReflectionUtility.getInstance(this.getClass(), clazz, configuration);
+		instance.userField = userField;
+		instance.itemField = itemField;
+		instance.scoreField = scoreField;
+		instance.userDimension = userDimension;
+		instance.itemDimension = itemDimension;
+		instance.numberOfUsers = numberOfUsers;
+		instance.numberOfItems = numberOfItems;
+		instance.dataMarker = dataMarker;
+		instance.featureMatrix = featureMatrix;
+		instance.numberOfThreads = numberOfThreads;
+		instance.listeners.addAll(listeners);
+		return instance;
+	}
+
+	/**
+	 * 训练并评估单个折
+	 * 
+	 * @return 此折的测量值
+	 */
+	private Map<String, Float> practice(DataSpace space, InstanceAccessor model, String module, IntegerArray trainReference, IntegerArray testReference, String merger) {
+		trainMarker = new AttributeMarker(trainReference, space.getModule(module), scoreField);
+		testMarker = new AttributeMarker(testReference, space.getModule(module), scoreField);
+		// 与推荐器共享同一折的训练数据
+		trainCache = DataCache.getCache(trainMarker, userDimension, itemDimension, merger);
+		trainPaginations = trainCache.getPaginations();
+		trainPositions = trainCache.getPositions();
+
+		testPaginations = new int[numberOfUsers + 1];
+		testPositions = new int[testMarker.getSize()];
+		for (int position = 0, size = testMarker.getSize(); position < size; position++) {
+			testPositions[position] = position;
+		}
+		DataMatcher testMatcher = DataMatcher.discreteOf(testMarker, userDimension);
+		testMatcher.match(testPaginations, testPositions);
+
+		if (recommender instanceof ModelRecommender) {
+			for (TrainingListener listener : listeners) {
+				((ModelRecommender) recommender).addListener(listener);
+			}
+		}
+		recommender.prepare(configuration, trainMarker, model, space);
+		recommender.practice();
+		Map<String, Float> measures = new HashMap<>();
+		for (Entry<Class<? extends Evaluator>, KeyValue<Integer, Float>> measure : evaluate(getEvaluators(featureMatrix), recommender).entrySet()) {
+			Float value = measure.getValue().getValue() / measure.getValue().getKey();
+			measures.put(measure.getKey().getSimpleName(), value);
+		}
+		return measures;
+	}
+
 	public Recommender getRecommender() {
 		return recommender;
 	}
 
+	/**
+	 * 推荐列表
+	 * 
+	 * <pre>
+	 * 使用原始类型数组保存推荐结果,配合{@link Evaluator}评估.
+	 * </pre>
+	 */
+	protected static class RecommendList {
+
+		/** 推荐键 */
+		private final int[] keys;
+
+		/** 推荐值 */
+		private final float[] values;
+
+		/** 推荐数量 */
+		private final int size;
+
+		/** 候选数量 */
+		private final int count;
+
+		protected RecommendList(int[] keys, float[] values, int size, int count) {
+			this.keys = keys;
+			this.values = values;
+			this.size = size;
+			this.count = count;
+		}
+
+		public int[] getKeys() {
+			return keys;
+		}
+
+		public float[] getValues() {
+			return values;
+		}
+
+		public int getSize() {
+			return size;
+		}
+
+		public int getCount() {
+			return count;
+		}
+
+	}
+
+	/**
+	 * 用户评估缓存
+	 */
+	private static class EvaluateBuffer {
+
+		/** 统计值 */
+		private final int[] counts;
+
+		/** 测量值 */
+		private final float[] measures;
+
+		private EvaluateBuffer(int size) {
+			this.counts = new int[size];
+			this.measures = new float[size];
+		}
+
+	}
+
 	private static class SplitConfiguration {
 
 		private String model;
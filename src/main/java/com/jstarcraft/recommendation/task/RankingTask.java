@@ -1,19 +1,17 @@
 package com.jstarcraft.recommendation.task;
 
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
-import java.util.Collections;
-import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.LinkedList;
-import java.util.List;
 import java.util.Set;
 
 import com.jstarcraft.ai.math.structure.matrix.SparseMatrix;
-import com.jstarcraft.core.utility.KeyValue;
 import com.jstarcraft.recommendation.configure.Configuration;
+import com.jstarcraft.recommendation.data.processor.SparseTable;
 import com.jstarcraft.recommendation.evaluator.Evaluator;
 import com.jstarcraft.recommendation.evaluator.ranking.AUCEvaluator;
+import com.jstarcraft.recommendation.evaluator.ranking.FusedRankingEvaluator;
 import com.jstarcraft.recommendation.evaluator.ranking.MAPEvaluator;
 import com.jstarcraft.recommendation.evaluator.ranking.MRREvaluator;
 import com.jstarcraft.recommendation.evaluator.ranking.NDCGEvaluator;
@@ -21,6 +19,7 @@ import com.jstarcraft.recommendation.evaluator.ranking.NoveltyEvaluator;
 import com.jstarcraft.recommendation.evaluator.ranking.PrecisionEvaluator;
 import com.jstarcraft.recommendation.evaluator.ranking.RecallEvaluator;
 import com.jstarcraft.recommendation.recommender.Recommender;
+import com.jstarcraft.recommendation.utility.RankingHeap;
 
 /**
  * 排序任务
@@ -30,8 +29,18 @@ import com.jstarcraft.recommendation.recommender.Recommender;
  */
 public class RankingTask extends AbstractTask {
 
+	/** 推荐数量 */
+	private int recommendSize;
+
+	/** 融合评估器(为null表示逐个评估) */
+	private FusedRankingEvaluator fusedEvaluator;
+
+	/** 工作线程的推荐上下文(每个任务独立,在用户之间复用) */
+	private final ThreadLocal<RecommendContext> contexts = new ThreadLocal<>();
+
 	public RankingTask(Class<? extends Recommender> clazz, Configuration configuration) {
 		super(clazz, configuration);
+		recommendSize = configuration.getInteger("rec.recommender.ranking.topn", 10);
 	}
 
 	@Override
@@ -45,9 +54,53 @@ public class RankingTask extends AbstractTask {
 		evaluators.add(new NoveltyEvaluator(size, featureMatrix));
 		evaluators.add(new PrecisionEvaluator(size));
 		evaluators.add(new RecallEvaluator(size));
+		// 评估器的顺序与FusedRankingEvaluator.EVALUATORS一致
+		if (configuration.getBoolean("rec.evaluator.fused", true)) {
+			fusedEvaluator = new FusedRankingEvaluator(size, featureMatrix);
+		} else {
+			fusedEvaluator = null;
+		}
 		return evaluators;
 	}
 
+	@Override
+	protected void evaluate(Evaluator[] evaluators, Recommender recommender, int userIndex, int[] counts, float[] measures) {
+		FusedRankingEvaluator evaluator = fusedEvaluator;
+		if (evaluator == null || !isFused(evaluators)) {
+			super.evaluate(evaluators, recommender, userIndex, counts, measures);
+			return;
+		}
+		// 校验物品直接填充到线程缓存,不需要装箱与集合
+		int from = testPaginations[userIndex], to = testPaginations[userIndex + 1];
+		int[] checkKeys = evaluator.getBuffer(to - from);
+		for (int index = from; index < to; index++) {
+			int position = testPositions[index];
+			checkKeys[index - from] = testMarker.getDiscreteFeature(itemDimension, position);
+		}
+		RecommendList recommendList = recommend(recommender, userIndex);
+		evaluator.evaluate(checkKeys, to - from, recommendList.getKeys(), recommendList.getSize(), recommendList.getCount(), measures);
+		Arrays.fill(counts, 1);
+	}
+
+	/**
+	 * 评估器是否与{@link FusedRankingEvaluator#EVALUATORS}逐个一致(类型与顺序)
+	 * 
+	 * @param evaluators
+	 * @return
+	 */
+	private boolean isFused(Evaluator[] evaluators) {
+		Class<?>[] clazzes = FusedRankingEvaluator.EVALUATORS;
+		if (evaluators.length != clazzes.length) {
+			return false;
+		}
+		for (int index = 0; index < clazzes.length; index++) {
+			if (evaluators[index].getClass() != clazzes[index]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
 	@Override
 	protected Collection<Integer> check(int userIndex) {
 		Set<Integer> itemSet = new LinkedHashSet<>();
@@ -59,18 +112,45 @@ public class RankingTask extends AbstractTask {
 		return itemSet;
 	}
 
-	@Override
-	protected List<KeyValue<Integer, Float>> recommend(Recommender recommender, int userIndex) {
-		Set<Integer> itemSet = new HashSet<>();
-		int from = trainPaginations[userIndex], to = trainPaginations[userIndex + 1];
-		for (int index = from, size = to; index < size; index++) {
-			int position = trainPositions[index];
-			itemSet.add(trainMarker.getDiscreteFeature(itemDimension, position));
+	/**
+	 * 获取当前工作线程的推荐上下文
+	 * 
+	 * @return
+	 */
+	private RecommendContext getContext() {
+		RecommendContext context = contexts.get();
+		if (context == null || context.discreteFeatures.length != trainMarker.getDiscreteOrder() || context.continuousFeatures.length != trainMarker.getContinuousOrder() || context.itemIndexes.length != numberOfItems) {
+			context = new RecommendContext(trainMarker.getDiscreteOrder(), trainMarker.getContinuousOrder(), numberOfItems, recommendSize);
+			contexts.set(context);
 		}
-		int[] discreteFeatures = new int[trainMarker.getDiscreteOrder()];
-		float[] continuousFeatures = new float[trainMarker.getContinuousOrder()];
-		if (from < to) {
-			int position = trainPositions[to - 1];
+		return context;
+	}
+
+	/**
+	 * 推荐
+	 * 
+	 * <pre>
+	 * 推荐列表的数组属于工作线程的推荐上下文,只在同一线程推荐下一个用户之前有效.
+	 * </pre>
+	 */
+	@Override
+	protected RecommendList recommend(Recommender recommender, int userIndex) {
+		RecommendContext context = getContext();
+		int[] discreteFeatures = context.discreteFeatures;
+		float[] continuousFeatures = context.continuousFeatures;
+		int[] itemIndexes = context.itemIndexes;
+		float[] scores = context.scores;
+		RankingHeap heap = context.heap;
+		int from = trainPaginations.get(userIndex), to = trainPaginations.get(userIndex + 1);
+		if (from == to) {
+			Arrays.fill(discreteFeatures, 0);
+			Arrays.fill(continuousFeatures, 0F);
+		} else {
+			// 缓存的位置每页之内按照特征排序,以原始顺序的最后一个训练样本(位置最大者)为特征模板
+			int position = trainPositions.get(from);
+			for (int index = from + 1; index < to; index++) {
+				position = Math.max(position, trainPositions.get(index));
+			}
 			for (int dimension = 0, size = trainMarker.getDiscreteOrder(); dimension < size; dimension++) {
 				discreteFeatures[dimension] = trainMarker.getDiscreteFeature(dimension, position);
 			}
@@ -79,18 +159,57 @@ public class RankingTask extends AbstractTask {
 			}
 		}
 		discreteFeatures[userDimension] = userIndex;
-		List<KeyValue<Integer, Float>> recommendList = new ArrayList<>(numberOfItems - itemSet.size());
+		// 批量预测全部物品,候选集合与得分使用固定大小的缓存
+		recommender.predict(discreteFeatures, continuousFeatures, itemIndexes, scores);
+		// 训练物品(升序)直接读取共享的训练数据缓存,只保留TopN,避免全量排序
+		SparseTable table = trainCache.getTable();
+		int position = table.getRowPoint(userIndex), end = table.getRowPoint(userIndex + 1);
+		heap.clear();
 		for (int itemIndex = 0; itemIndex < numberOfItems; itemIndex++) {
-			if (itemSet.contains(itemIndex)) {
+			if (position < end && table.getColumnIndex(position) == itemIndex) {
+				position++;
 				continue;
 			}
-			discreteFeatures[itemDimension] = itemIndex;
-			recommendList.add(new KeyValue<>(itemIndex, recommender.predict(discreteFeatures, continuousFeatures)));
+			heap.offer(itemIndex, scores[itemIndex]);
+		}
+		heap.sort();
+		return new RecommendList(heap.getKeys(), heap.getValues(), heap.getSize(), heap.getCount());
+	}
+
+	/**
+	 * 推荐上下文
+	 * 
+	 * <pre>
+	 * 按照物品数量一次性分配,由工作线程在用户之间复用.
+	 * </pre>
+	 */
+	private static class RecommendContext {
+
+		/** 特征模板 */
+		private final int[] discreteFeatures;
+
+		private final float[] continuousFeatures;
+
+		/** 全部物品索引(只读) */
+		private final int[] itemIndexes;
+
+		/** 全部物品得分 */
+		private final float[] scores;
+
+		/** 排名堆 */
+		private final RankingHeap heap;
+
+		private RecommendContext(int discreteOrder, int continuousOrder, int numberOfItems, int recommendSize) {
+			this.discreteFeatures = new int[discreteOrder];
+			this.continuousFeatures = new float[continuousOrder];
+			this.itemIndexes = new int[numberOfItems];
+			for (int itemIndex = 0; itemIndex < numberOfItems; itemIndex++) {
+				this.itemIndexes[itemIndex] = itemIndex;
+			}
+			this.scores = new float[numberOfItems];
+			this.heap = new RankingHeap(recommendSize);
 		}
-		Collections.sort(recommendList, (left, right) -> {
-			return right.getValue().compareTo(left.getValue());
-		});
-		return recommendList;
+
 	}
 
 }
@@ -6,7 +6,6 @@ import java.util.LinkedList;
 import java.util.List;
 
 import com.jstarcraft.ai.math.structure.matrix.SparseMatrix;
-import com.jstarcraft.core.utility.KeyValue;
 import com.jstarcraft.recommendation.configure.Configuration;
 import com.jstarcraft.recommendation.evaluator.Evaluator;
 import com.jstarcraft.recommendation.evaluator.rating.MAEEvaluator;
@@ -47,12 +46,14 @@ public class RatingTask extends AbstractTask {
 	}
 
 	@Override
-	protected List<KeyValue<Integer, Float>> recommend(Recommender recommender, int userIndex) {
+	protected RecommendList recommend(Recommender recommender, int userIndex) {
 		int from = testPaginations[userIndex], to = testPaginations[userIndex + 1];
 		int[] discreteFeatures = new int[testMarker.getDiscreteOrder()];
 		float[] continuousFeatures = new float[testMarker.getContinuousOrder()];
-		List<KeyValue<Integer, Float>> recommendList = new ArrayList<>(to - from);
-		for (int index = from, size = to; index < size; index++) {
+		int size = to - from;
+		int[] recommendKeys = new int[size];
+		float[] recommendValues = new float[size];
+		for (int index = from, cursor = 0; index < to; index++, cursor++) {
 			int position = testPositions[index];
 			for (int dimension = 0; dimension < testMarker.getDiscreteOrder(); dimension++) {
 				discreteFeatures[dimension] = testMarker.getDiscreteFeature(dimension, position);
@@ -60,9 +61,10 @@ public class RatingTask extends AbstractTask {
 			for (int dimension = 0; dimension < testMarker.getContinuousOrder(); dimension++) {
 				continuousFeatures[dimension] = testMarker.getContinuousFeature(dimension, position);
 			}
-			recommendList.add(new KeyValue<>(discreteFeatures[itemDimension], recommender.predict(discreteFeatures, continuousFeatures)));
+			recommendKeys[cursor] = discreteFeatures[itemDimension];
+			recommendValues[cursor] = recommender.predict(discreteFeatures, continuousFeatures);
 		}
-		return recommendList;
+		return new RecommendList(recommendKeys, recommendValues, size, size);
 	}
 
 }
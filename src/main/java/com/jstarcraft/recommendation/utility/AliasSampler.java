@@ -0,0 +1,91 @@
+package com.jstarcraft.recommendation.utility;
+
+import java.util.Random;
+
+import com.jstarcraft.ai.math.structure.matrix.SparseMatrix;
+import com.jstarcraft.ai.math.structure.vector.SparseVector;
+
+/**
+ * 别名采样器
+ *
+ * <pre>
+ * 按照物品权重(例如流行度)采样非正物品,所有用户共享一个{@link AliasTable}.
+ * 每次尝试为O(1)采样加上O(log n)的正物品判断,被拒绝的概率等于正物品的权重比例.
+ * 超过最大尝试次数时在非正物品上精确采样(O(m)),所以分布与每个用户单独归一化一致.
+ * 非正物品的权重全部为0时退化为均匀采样.
+ * </pre>
+ *
+ * @author Birdy
+ *
+ */
+public class AliasSampler implements NegativeSampler {
+
+	private final SparseMatrix trainMatrix;
+
+	private final int numberOfItems;
+
+	private final float[] weights;
+
+	private final AliasTable table;
+
+	/** 最大尝试次数 */
+	private final int maximumTrials;
+
+	public AliasSampler(SparseMatrix trainMatrix, float[] weights, int maximumTrials) {
+		this.trainMatrix = trainMatrix;
+		this.numberOfItems = trainMatrix.getColumnSize();
+		this.weights = weights.clone();
+		this.table = new AliasTable(weights);
+		this.maximumTrials = maximumTrials;
+	}
+
+	/**
+	 * 更新权重(用于自适应的分布,不能与采样并发)
+	 *
+	 * @param weights
+	 */
+	public void update(float[] weights) {
+		table.update(weights);
+		System.arraycopy(weights, 0, this.weights, 0, numberOfItems);
+	}
+
+	@Override
+	public int sample(Random random, int userIndex) {
+		SparseVector userVector = trainMatrix.getRowVector(userIndex);
+		for (int trial = 0; trial < maximumTrials; trial++) {
+			int itemIndex = table.sample(random);
+			if (!SampleUtility.contain(userVector, itemIndex)) {
+				return itemIndex;
+			}
+		}
+		// 正物品占据了大部分权重
+		float sum = 0F;
+		for (int itemIndex = 0, position = 0, size = userVector.getElementSize(); itemIndex < numberOfItems; itemIndex++) {
+			if (position < size && userVector.getIndex(position) == itemIndex) {
+				position++;
+				continue;
+			}
+			sum += weights[itemIndex];
+		}
+		if (sum <= 0F) {
+			return SampleUtility.skipSearch(userVector, random.nextInt(numberOfItems - userVector.getElementSize()));
+		}
+		float value = random.nextFloat() * sum;
+		int last = -1;
+		for (int itemIndex = 0, position = 0, size = userVector.getElementSize(); itemIndex < numberOfItems; itemIndex++) {
+			if (position < size && userVector.getIndex(position) == itemIndex) {
+				position++;
+				continue;
+			}
+			if (weights[itemIndex] > 0F) {
+				last = itemIndex;
+				if ((value -= weights[itemIndex]) < 0F) {
+					return itemIndex;
+				}
+			}
+		}
+		// 舍入误差
+		return last;
+	}
+
+}
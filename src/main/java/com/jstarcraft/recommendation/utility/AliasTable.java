@@ -0,0 +1,113 @@
+package com.jstarcraft.recommendation.utility;
+
+import java.util.Random;
+
+import com.jstarcraft.recommendation.exception.RecommendationException;
+
+/**
+ * 别名表
+ *
+ * <pre>
+ * Walker别名方法(Vose的构造),按照权重采样的时间为O(1),构造的时间为O(n).
+ * 用于流行度等离散分布;自适应的分布可以通过{@link #update(float[])}复用数组重建.
+ * 重建不能与采样并发.
+ * </pre>
+ *
+ * @author Birdy
+ *
+ */
+public class AliasTable {
+
+	/** 每列保留自身的概率 */
+	private final float[] probabilities;
+
+	/** 每列的别名 */
+	private final int[] aliases;
+
+	/** 构造时的工作栈 */
+	private final int[] smalls, larges;
+
+	/** 构造时的缩放权重 */
+	private final double[] scales;
+
+	public AliasTable(float[] weights) {
+		int size = weights.length;
+		this.probabilities = new float[size];
+		this.aliases = new int[size];
+		this.smalls = new int[size];
+		this.larges = new int[size];
+		this.scales = new double[size];
+		update(weights);
+	}
+
+	/**
+	 * 更新权重
+	 *
+	 * @param weights
+	 *            非负权重(不需要归一化,权重为0的列不会被采样)
+	 */
+	public void update(float[] weights) {
+		int size = probabilities.length;
+		if (weights.length != size) {
+			throw new RecommendationException("权重数量与别名表不一致");
+		}
+		double sum = 0D;
+		for (float weight : weights) {
+			if (weight < 0F) {
+				throw new RecommendationException("权重不能为负数");
+			}
+			sum += weight;
+		}
+		if (sum <= 0D) {
+			throw new RecommendationException("权重之和必须为正数");
+		}
+		int numberOfSmalls = 0, numberOfLarges = 0;
+		for (int index = 0; index < size; index++) {
+			scales[index] = weights[index] * size / sum;
+			if (scales[index] < 1D) {
+				smalls[numberOfSmalls++] = index;
+			} else {
+				larges[numberOfLarges++] = index;
+			}
+		}
+		while (numberOfSmalls > 0 && numberOfLarges > 0) {
+			int small = smalls[--numberOfSmalls];
+			int large = larges[--numberOfLarges];
+			probabilities[small] = (float) scales[small];
+			aliases[small] = large;
+			scales[large] = (scales[large] + scales[small]) - 1D;
+			if (scales[large] < 1D) {
+				smalls[numberOfSmalls++] = large;
+			} else {
+				larges[numberOfLarges++] = large;
+			}
+		}
+		// 剩余的列由于舍入误差接近1
+		while (numberOfLarges > 0) {
+			int large = larges[--numberOfLarges];
+			probabilities[large] = 1F;
+			aliases[large] = large;
+		}
+		while (numberOfSmalls > 0) {
+			int small = smalls[--numberOfSmalls];
+			probabilities[small] = 1F;
+			aliases[small] = small;
+		}
+	}
+
+	/**
+	 * 采样
+	 *
+	 * @param random
+	 * @return 列
+	 */
+	public int sample(Random random) {
+		int column = random.nextInt(probabilities.length);
+		return random.nextFloat() < probabilities[column] ? column : aliases[column];
+	}
+
+	public int getSize() {
+		return probabilities.length;
+	}
+
+}
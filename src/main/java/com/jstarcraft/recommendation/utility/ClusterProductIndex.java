@@ -0,0 +1,226 @@
+package com.jstarcraft.recommendation.utility;
+
+import java.util.Arrays;
+import java.util.function.IntPredicate;
+import java.util.stream.IntStream;
+
+import com.jstarcraft.recommendation.exception.RecommendationException;
+
+/**
+ * 聚类内积索引
+ *
+ * <pre>
+ * 基于范数增广与倒排文件(IVF)的近似最大内积搜索:
+ * Bachrach et al., Speeding up the Xbox recommender system using a euclidean transformation for inner-product spaces, RecSys 2014.
+ * 每个向量x增广为[x, sqrt(M^2 - |x|^2)](M为最大范数),使最大内积等价于增广空间的最近邻.
+ * 在增广空间使用K-Means把向量切割为多个簇,查询时只遍历距离最近的numberOfProbes个簇.
+ * numberOfProbes越大召回率越高,查询速度越慢(等于簇数量时退化为精确搜索).
+ * </pre>
+ *
+ * @author Birdy
+ *
+ */
+public class ClusterProductIndex implements ProductIndex {
+
+	/** 每个簇用于训练的样本数量 */
+	private static final int SAMPLE_SIZE = 64;
+
+	/** 向量数量, 维度 */
+	private final int size, dimension;
+
+	/** 簇数量 */
+	private final int numberOfClusters;
+
+	/** 探测的簇数量 */
+	private int numberOfProbes;
+
+	/** 簇的中心(增广维度, 按照行存储) */
+	private final float[] centroids;
+
+	/** 簇的中心的范数平方(增广维度) */
+	private final float[] squares;
+
+	/** 每个簇在倒排表中的分页 */
+	private final int[] paginations;
+
+	/** 倒排表中的索引 */
+	private final int[] indexes;
+
+	/** 倒排表中的向量(按照簇连续存储) */
+	private final float[] vectors;
+
+	public ClusterProductIndex(float[] vectors, int dimension, int numberOfClusters, int numberOfProbes, int numberOfIterations) {
+		this.size = vectors.length / dimension;
+		this.dimension = dimension;
+		if (numberOfClusters < 1 || numberOfProbes < 1) {
+			throw new RecommendationException("簇数量与探测数量必须大于0");
+		}
+		this.numberOfClusters = Math.min(numberOfClusters, size);
+		this.numberOfProbes = Math.min(numberOfProbes, this.numberOfClusters);
+		int augment = dimension + 1;
+
+		// 范数增广
+		float maximum = 0F;
+		float[] norms = new float[size];
+		for (int index = 0, offset = 0; index < size; index++, offset += dimension) {
+			norms[index] = ProductIndex.getProduct(vectors, vectors, offset, offset, dimension);
+			maximum = Math.max(maximum, norms[index]);
+		}
+		float[] augments = new float[size];
+		for (int index = 0; index < size; index++) {
+			augments[index] = (float) Math.sqrt(maximum - norms[index]);
+		}
+
+		// 在样本上训练K-Means(随机选择不同的向量作为初始的中心)
+		int[] samples = new int[size];
+		for (int index = 0; index < size; index++) {
+			samples[index] = index;
+		}
+		RandomUtility.shuffle(samples);
+		int numberOfSamples = (int) Math.min(size, (long) this.numberOfClusters * SAMPLE_SIZE);
+		centroids = new float[this.numberOfClusters * augment];
+		squares = new float[this.numberOfClusters];
+		for (int cluster = 0; cluster < this.numberOfClusters; cluster++) {
+			int index = samples[cluster];
+			System.arraycopy(vectors, index * dimension, centroids, cluster * augment, dimension);
+			centroids[cluster * augment + dimension] = augments[index];
+		}
+		int[] assignments = new int[size];
+		int[] counts = new int[this.numberOfClusters];
+		for (int iteration = 0; iteration < numberOfIterations; iteration++) {
+			updateSquares();
+			IntStream.range(0, numberOfSamples).parallel().forEach((sample) -> {
+				int index = samples[sample];
+				assignments[index] = getNearest(vectors, index * dimension, augments[index]);
+			});
+			float[] sums = new float[centroids.length];
+			Arrays.fill(counts, 0);
+			for (int sample = 0; sample < numberOfSamples; sample++) {
+				int index = samples[sample];
+				int cluster = assignments[index];
+				int offset = cluster * augment;
+				for (int position = 0; position < dimension; position++) {
+					sums[offset + position] += vectors[index * dimension + position];
+				}
+				sums[offset + dimension] += augments[index];
+				counts[cluster]++;
+			}
+			for (int cluster = 0; cluster < this.numberOfClusters; cluster++) {
+				// 空簇保留原有的中心
+				if (counts[cluster] == 0) {
+					continue;
+				}
+				int offset = cluster * augment;
+				for (int position = 0; position < augment; position++) {
+					centroids[offset + position] = sums[offset + position] / counts[cluster];
+				}
+			}
+		}
+		updateSquares();
+
+		// 分配所有向量并构建倒排表
+		IntStream.range(0, size).parallel().forEach((index) -> {
+			assignments[index] = getNearest(vectors, index * dimension, augments[index]);
+		});
+		paginations = new int[this.numberOfClusters + 1];
+		for (int index = 0; index < size; index++) {
+			paginations[assignments[index] + 1]++;
+		}
+		for (int cluster = 0; cluster < this.numberOfClusters; cluster++) {
+			paginations[cluster + 1] += paginations[cluster];
+		}
+		int[] cursors = new int[this.numberOfClusters];
+		System.arraycopy(paginations, 0, cursors, 0, this.numberOfClusters);
+		indexes = new int[size];
+		this.vectors = new float[size * dimension];
+		for (int index = 0; index < size; index++) {
+			int position = cursors[assignments[index]]++;
+			indexes[position] = index;
+			System.arraycopy(vectors, index * dimension, this.vectors, position * dimension, dimension);
+		}
+	}
+
+	private void updateSquares() {
+		int augment = dimension + 1;
+		for (int cluster = 0; cluster < numberOfClusters; cluster++) {
+			squares[cluster] = ProductIndex.getProduct(centroids, centroids, cluster * augment, cluster * augment, augment);
+		}
+	}
+
+	/**
+	 * 获取增广空间中最近的簇
+	 *
+	 * <pre>
+	 * |x - c|^2 = |x|^2 - 2x·c + |c|^2,忽略与簇无关的|x|^2.
+	 * </pre>
+	 */
+	private int getNearest(float[] vectors, int offset, float augment) {
+		int nearest = 0;
+		float minimum = Float.POSITIVE_INFINITY;
+		for (int cluster = 0, centroid = 0; cluster < numberOfClusters; cluster++, centroid += dimension + 1) {
+			float product = ProductIndex.getProduct(vectors, centroids, offset, centroid, dimension) + augment * centroids[centroid + dimension];
+			float distance = squares[cluster] - 2F * product;
+			if (distance < minimum) {
+				minimum = distance;
+				nearest = cluster;
+			}
+		}
+		return nearest;
+	}
+
+	@Override
+	public int getSize() {
+		return size;
+	}
+
+	@Override
+	public int getDimension() {
+		return dimension;
+	}
+
+	public int getNumberOfClusters() {
+		return numberOfClusters;
+	}
+
+	public int getNumberOfProbes() {
+		return numberOfProbes;
+	}
+
+	/**
+	 * 设置探测的簇数量(用于在召回率与查询速度之间权衡)
+	 *
+	 * @param numberOfProbes
+	 */
+	public void setNumberOfProbes(int numberOfProbes) {
+		if (numberOfProbes < 1) {
+			throw new RecommendationException("探测数量必须大于0");
+		}
+		this.numberOfProbes = Math.min(numberOfProbes, numberOfClusters);
+	}
+
+	@Override
+	public RankingHeap topN(float[] query, int size, IntPredicate excludes) {
+		// 查询向量增广为[q, 0],按照增广空间的距离选择簇
+		int probes = numberOfProbes;
+		RankingHeap clusters = new RankingHeap(probes);
+		for (int cluster = 0, centroid = 0; cluster < numberOfClusters; cluster++, centroid += dimension + 1) {
+			float product = ProductIndex.getProduct(query, centroids, 0, centroid, dimension);
+			clusters.offer(cluster, 2F * product - squares[cluster]);
+		}
+		RankingHeap heap = new RankingHeap(Math.min(size, this.size));
+		int[] keys = clusters.getKeys();
+		for (int probe = 0, count = clusters.getSize(); probe < count; probe++) {
+			int cluster = keys[probe];
+			for (int position = paginations[cluster], end = paginations[cluster + 1]; position < end; position++) {
+				int index = indexes[position];
+				if (excludes != null && excludes.test(index)) {
+					continue;
+				}
+				heap.offer(index, ProductIndex.getProduct(query, vectors, 0, position * dimension, dimension));
+			}
+		}
+		heap.sort();
+		return heap;
+	}
+
+}
@@ -0,0 +1,52 @@
+package com.jstarcraft.recommendation.utility;
+
+import java.util.function.IntPredicate;
+
+/**
+ * 精确内积索引
+ *
+ * <pre>
+ * 遍历所有向量,作为近似索引的召回率基准.
+ * </pre>
+ *
+ * @author Birdy
+ *
+ */
+public class ExactProductIndex implements ProductIndex {
+
+	/** 向量数量, 维度 */
+	private final int size, dimension;
+
+	/** 按照行存储的向量 */
+	private final float[] vectors;
+
+	public ExactProductIndex(float[] vectors, int dimension) {
+		this.size = vectors.length / dimension;
+		this.dimension = dimension;
+		this.vectors = vectors;
+	}
+
+	@Override
+	public int getSize() {
+		return size;
+	}
+
+	@Override
+	public int getDimension() {
+		return dimension;
+	}
+
+	@Override
+	public RankingHeap topN(float[] query, int size, IntPredicate excludes) {
+		RankingHeap heap = new RankingHeap(Math.min(size, this.size));
+		for (int index = 0, offset = 0; index < this.size; index++, offset += dimension) {
+			if (excludes != null && excludes.test(index)) {
+				continue;
+			}
+			heap.offer(index, ProductIndex.getProduct(query, vectors, 0, offset, dimension));
+		}
+		heap.sort();
+		return heap;
+	}
+
+}
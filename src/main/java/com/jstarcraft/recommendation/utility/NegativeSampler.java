@@ -0,0 +1,63 @@
+package com.jstarcraft.recommendation.utility;
+
+import java.util.Random;
+
+import com.jstarcraft.ai.math.structure.matrix.SparseMatrix;
+import com.jstarcraft.recommendation.exception.RecommendationException;
+
+/**
+ * 负样本采样器
+ *
+ * <pre>
+ * 为用户采样一个不在训练数据中的物品,用于成对排序推荐器(BPR系列).
+ * 采样器在构造之后只读,随机数由调用方传入(例如每个工作者独立的随机数),所以可以在并行训练中共享.
+ * </pre>
+ *
+ * @author Birdy
+ *
+ */
+public interface NegativeSampler {
+
+	/** 拒绝采样的最大尝试次数(超过之后退化为精确采样) */
+	public static final int MAXIMUM_TRIALS = 16;
+
+	/**
+	 * 根据名称获取采样器
+	 *
+	 * @param name
+	 *            (skip/rejection/popularity)
+	 * @param trainMatrix
+	 *            训练矩阵(行为用户,列为物品)
+	 * @return
+	 */
+	public static NegativeSampler nameOf(String name, SparseMatrix trainMatrix) {
+		switch (name) {
+		case "skip":
+			return new SkipSampler(trainMatrix);
+		case "rejection":
+			return new RejectionSampler(trainMatrix, MAXIMUM_TRIALS);
+		case "popularity": {
+			int numberOfItems = trainMatrix.getColumnSize();
+			float[] weights = new float[numberOfItems];
+			for (int itemIndex = 0; itemIndex < numberOfItems; itemIndex++) {
+				weights[itemIndex] = trainMatrix.getColumnScope(itemIndex);
+			}
+			return new AliasSampler(trainMatrix, weights, MAXIMUM_TRIALS);
+		}
+		default:
+			throw new RecommendationException("不支持的采样类型");
+		}
+	}
+
+	/**
+	 * 采样
+	 *
+	 * @param random
+	 *            随机数
+	 * @param userIndex
+	 *            用户
+	 * @return 负物品
+	 */
+	int sample(Random random, int userIndex);
+
+}
@@ -0,0 +1,127 @@
+package com.jstarcraft.recommendation.utility;
+
+import java.util.Arrays;
+
+/**
+ * 邻居矩阵
+ *
+ * <pre>
+ * 基于原始类型数组(CSR)的只读矩阵,每行只保存最近的邻居,内存为O(nK)而不是O(n²).
+ * 每行的邻居按照索引升序排列,相似度与邻居一一对应.
+ * </pre>
+ *
+ * @author Birdy
+ *
+ */
+public class NeighborMatrix {
+
+	/** 行数量 */
+	private final int rowSize;
+
+	/** 每行在indexes/values中的开始位置 */
+	private final int[] paginations;
+
+	/** 邻居 */
+	private final int[] indexes;
+
+	/** 相似度 */
+	private final float[] values;
+
+	private NeighborMatrix(int rowSize, int[] paginations, int[] indexes, float[] values) {
+		this.rowSize = rowSize;
+		this.paginations = paginations;
+		this.indexes = indexes;
+		this.values = values;
+	}
+
+	/**
+	 * 根据每行的邻居构建邻居矩阵
+	 *
+	 * @param neighbors
+	 *            每行按照索引升序的邻居
+	 * @param similarities
+	 *            与邻居对应的相似度
+	 * @return
+	 */
+	public static NeighborMatrix valueOf(int[][] neighbors, float[][] similarities) {
+		int rowSize = neighbors.length;
+		int[] paginations = new int[rowSize + 1];
+		for (int row = 0; row < rowSize; row++) {
+			paginations[row + 1] = paginations[row] + neighbors[row].length;
+		}
+		int[] indexes = new int[paginations[rowSize]];
+		float[] values = new float[paginations[rowSize]];
+		for (int row = 0; row < rowSize; row++) {
+			System.arraycopy(neighbors[row], 0, indexes, paginations[row], neighbors[row].length);
+			System.arraycopy(similarities[row], 0, values, paginations[row], similarities[row].length);
+		}
+		return new NeighborMatrix(rowSize, paginations, indexes, values);
+	}
+
+	/**
+	 * 根据CSR构建邻居矩阵(不复制)
+	 *
+	 * @param paginations
+	 *            每行在indexes/values中的开始位置
+	 * @param indexes
+	 * @param values
+	 * @return
+	 */
+	public static NeighborMatrix valueOf(int[] paginations, int[] indexes, float[] values) {
+		return new NeighborMatrix(paginations.length - 1, paginations, indexes, values);
+	}
+
+	public int getRowSize() {
+		return rowSize;
+	}
+
+	/**
+	 * 获取邻居数量
+	 *
+	 * @param row
+	 * @return
+	 */
+	public int getNeighborSize(int row) {
+		return paginations[row + 1] - paginations[row];
+	}
+
+	/**
+	 * 获取相似度(不是邻居时返回0)
+	 *
+	 * @param row
+	 * @param column
+	 * @return
+	 */
+	public float getValue(int row, int column) {
+		int position = Arrays.binarySearch(indexes, paginations[row], paginations[row + 1], column);
+		return position < 0 ? 0F : values[position];
+	}
+
+	/**
+	 * 获取分页(只读,第row行的邻居位于[paginations[row], paginations[row + 1]))
+	 *
+	 * @return
+	 */
+	public int[] getPaginations() {
+		return paginations;
+	}
+
+	/**
+	 * 获取邻居(只读)
+	 *
+	 * @return
+	 */
+	public int[] getIndexes() {
+		return indexes;
+	}
+
+	/**
+	 * 获取相似度(只读)
+	 *
+	 * @return
+	 */
+	public float[] getValues() {
+		return values;
+	}
+
+}
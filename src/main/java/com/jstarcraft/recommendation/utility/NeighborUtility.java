@@ -0,0 +1,211 @@
+package com.jstarcraft.recommendation.utility;
+
+import java.util.stream.IntStream;
+
+import com.jstarcraft.ai.math.structure.matrix.SparseMatrix;
+import com.jstarcraft.ai.math.structure.matrix.SymmetryMatrix;
+import com.jstarcraft.ai.math.structure.vector.SparseVector;
+
+/**
+ * 邻居工具
+ *
+ * @author Birdy
+ *
+ */
+public class NeighborUtility {
+
+	/**
+	 * 共同元素的统计量(每个线程一份,按照稠密数组累加)
+	 */
+	private static class Accumulator {
+
+		private int[] counts;
+
+		private float[] leftSums, rightSums, leftSquares, rightSquares, products;
+
+		/** 被累加的索引 */
+		private int[] touches;
+
+		private Accumulator(int size) {
+			counts = new int[size];
+			leftSums = new float[size];
+			rightSums = new float[size];
+			leftSquares = new float[size];
+			rightSquares = new float[size];
+			products = new float[size];
+			touches = new int[size];
+		}
+
+	}
+
+	/**
+	 * 获取每行的最近邻居
+	 *
+	 * <pre>
+	 * 每行使用有界的排名堆选择相似度最高的邻居(忽略自身与相似度为0的邻居),多行之间并行.
+	 * 相似度相同时,索引较小者优先.
+	 * </pre>
+	 *
+	 * @param similarityMatrix
+	 * @param size
+	 *            行数量
+	 * @param neighborSize
+	 *            邻居数量
+	 * @return
+	 */
+	public static NeighborMatrix getNeighbors(SymmetryMatrix similarityMatrix, int size, int neighborSize) {
+		return getNeighbors(similarityMatrix, size, neighborSize, false);
+	}
+
+	/**
+	 * 获取每行的最近邻居
+	 *
+	 * @param similarityMatrix
+	 * @param size
+	 *            行数量
+	 * @param neighborSize
+	 *            邻居数量
+	 * @param isSelf
+	 *            是否把自身作为候选的邻居(例如SLIM)
+	 * @return
+	 */
+	public static NeighborMatrix getNeighbors(SymmetryMatrix similarityMatrix, int size, int neighborSize, boolean isSelf) {
+		int capacity = Math.min(neighborSize, size);
+		int[][] neighbors = new int[size][];
+		float[][] similarities = new float[size][];
+		IntStream.range(0, size).parallel().forEach((row) -> {
+			RankingHeap heap = new RankingHeap(capacity);
+			for (int column = 0; column < size; column++) {
+				if (row == column && !isSelf) {
+					continue;
+				}
+				float value = similarityMatrix.getValue(row, column);
+				// 忽略相似度为0的邻居
+				if (value == 0F) {
+					continue;
+				}
+				heap.offer(column, value);
+			}
+			setNeighbors(heap, row, neighbors, similarities);
+		});
+		return NeighborMatrix.valueOf(neighbors, similarities);
+	}
+
+	/**
+	 * 获取每行的最近邻居
+	 *
+	 * <pre>
+	 * 通过稀疏矩阵的乘积只计算存在共同元素的相似度,不构建完整的SymmetryMatrix.
+	 * 多行之间并行,每行使用有界的排名堆选择相似度最高的邻居(忽略自身,相似度为0或者NaN的邻居).
+	 * 收缩(shrinkage)按照count / (count + shrinkage)调整相似度.
+	 * </pre>
+	 *
+	 * @param scoreMatrix
+	 * @param transpose
+	 *            是否计算列之间的相似度
+	 * @param shrinkage
+	 * @param neighborSize
+	 *            邻居数量
+	 * @param similarity
+	 * @return
+	 */
+	public static NeighborMatrix getNeighbors(SparseMatrix scoreMatrix, boolean transpose, float shrinkage, int neighborSize, SparseSimilarity similarity) {
+		return getNeighbors(scoreMatrix, transpose, shrinkage, neighborSize, similarity, false);
+	}
+
+	/**
+	 * 获取每行的最近邻居
+	 *
+	 * @param scoreMatrix
+	 * @param transpose
+	 *            是否计算列之间的相似度
+	 * @param shrinkage
+	 * @param neighborSize
+	 *            邻居数量
+	 * @param similarity
+	 * @param isSelf
+	 *            是否把自身作为候选的邻居(例如SLIM)
+	 * @return
+	 */
+	public static NeighborMatrix getNeighbors(SparseMatrix scoreMatrix, boolean transpose, float shrinkage, int neighborSize, SparseSimilarity similarity, boolean isSelf) {
+		int size = transpose ? scoreMatrix.getColumnSize() : scoreMatrix.getRowSize();
+		int capacity = Math.min(neighborSize, size);
+		int[][] neighbors = new int[size][];
+		float[][] similarities = new float[size][];
+		ThreadLocal<Accumulator> accumulators = ThreadLocal.withInitial(() -> new Accumulator(size));
+		IntStream.range(0, size).parallel().forEach((row) -> {
+			Accumulator accumulator = accumulators.get();
+			int[] counts = accumulator.counts;
+			float[] leftSums = accumulator.leftSums, rightSums = accumulator.rightSums;
+			float[] leftSquares = accumulator.leftSquares, rightSquares = accumulator.rightSquares;
+			float[] products = accumulator.products;
+			int[] touches = accumulator.touches;
+			int touchSize = 0;
+			SparseVector leftVector = transpose ? scoreMatrix.getColumnVector(row) : scoreMatrix.getRowVector(row);
+			for (int leftPosition = 0, leftSize = leftVector.getElementSize(); leftPosition < leftSize; leftPosition++) {
+				int index = leftVector.getIndex(leftPosition);
+				float leftValue = leftVector.getValue(leftPosition);
+				SparseVector middleVector = transpose ? scoreMatrix.getRowVector(index) : scoreMatrix.getColumnVector(index);
+				for (int middlePosition = 0, middleSize = middleVector.getElementSize(); middlePosition < middleSize; middlePosition++) {
+					int column = middleVector.getIndex(middlePosition);
+					if (column == row && !isSelf) {
+						continue;
+					}
+					float rightValue = middleVector.getValue(middlePosition);
+					if (counts[column]++ == 0) {
+						touches[touchSize++] = column;
+					}
+					leftSums[column] += leftValue;
+					rightSums[column] += rightValue;
+					leftSquares[column] += leftValue * leftValue;
+					rightSquares[column] += rightValue * rightValue;
+					products[column] += leftValue * rightValue;
+				}
+			}
+			RankingHeap heap = new RankingHeap(capacity);
+			int leftSize = leftVector.getElementSize();
+			for (int touch = 0; touch < touchSize; touch++) {
+				int column = touches[touch];
+				int count = counts[column];
+				int rightSize = transpose ? scoreMatrix.getColumnScope(column) : scoreMatrix.getRowScope(column);
+				float value = similarity.getCorrelation(count, leftSize, rightSize, leftSums[column], rightSums[column], leftSquares[column], rightSquares[column], products[column]);
+				if (shrinkage > 0F) {
+					value *= count / (count + shrinkage);
+				}
+				// 忽略相似度为0或者NaN的邻居
+				if (value != 0F && !Float.isNaN(value)) {
+					heap.offer(column, value);
+				}
+				counts[column] = 0;
+				leftSums[column] = 0F;
+				rightSums[column] = 0F;
+				leftSquares[column] = 0F;
+				rightSquares[column] = 0F;
+				products[column] = 0F;
+			}
+			setNeighbors(heap, row, neighbors, similarities);
+		});
+		return NeighborMatrix.valueOf(neighbors, similarities);
+	}
+
+	/**
+	 * 将堆中的邻居按照索引升序输出
+	 */
+	private static void setNeighbors(RankingHeap heap, int row, int[][] neighbors, float[][] similarities) {
+		int count = heap.getSize();
+		int[] keys = new int[count];
+		int[] positions = new int[count];
+		System.arraycopy(heap.getKeys(), 0, keys, 0, count);
+		for (int position = 0; position < count; position++) {
+			positions[position] = position;
+		}
+		SortUtility.radixSort(keys, positions);
+		float[] values = new float[count];
+		for (int position = 0; position < count; position++) {
+			values[position] = heap.getValues()[positions[position]];
+		}
+		neighbors[row] = keys;
+		similarities[row] = values;
+	}
+
+}
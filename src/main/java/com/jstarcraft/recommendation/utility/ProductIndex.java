@@ -0,0 +1,132 @@
+package com.jstarcraft.recommendation.utility;
+
+import java.util.function.IntPredicate;
+
+import com.jstarcraft.recommendation.exception.RecommendationException;
+
+/**
+ * 内积索引
+ *
+ * <pre>
+ * 用于最大内积搜索(MIPS),从因子矩阵中找出与查询向量内积最大的N个元素.
+ * 近似索引通过牺牲召回率换取查询速度.
+ * </pre>
+ *
+ * @author Birdy
+ *
+ */
+public interface ProductIndex {
+
+	/**
+	 * 根据名称获取索引
+	 *
+	 * @param name
+	 *            (exact/cluster)
+	 * @param vectors
+	 *            按照行存储的向量
+	 * @param dimension
+	 *            维度
+	 * @param numberOfClusters
+	 *            簇数量(只对cluster有效)
+	 * @param numberOfProbes
+	 *            探测的簇数量(只对cluster有效)
+	 * @param numberOfIterations
+	 *            聚类的迭代次数(只对cluster有效)
+	 * @return
+	 */
+	public static ProductIndex nameOf(String name, float[] vectors, int dimension, int numberOfClusters, int numberOfProbes, int numberOfIterations) {
+		switch (name) {
+		case "exact":
+			return new ExactProductIndex(vectors, dimension);
+		case "cluster":
+			return new ClusterProductIndex(vectors, dimension, numberOfClusters, numberOfProbes, numberOfIterations);
+		default:
+			throw new RecommendationException("不支持的索引类型");
+		}
+	}
+
+	/**
+	 * 计算召回率
+	 *
+	 * <pre>
+	 * 以参考索引(一般为精确索引)的结果为准,统计索引的TopN命中的比例.
+	 * </pre>
+	 *
+	 * @param index
+	 * @param reference
+	 *            参考索引
+	 * @param queries
+	 *            查询向量
+	 * @param size
+	 *            TopN的大小
+	 * @return
+	 */
+	public static float getRecall(ProductIndex index, ProductIndex reference, float[][] queries, int size) {
+		long hit = 0L, total = 0L;
+		for (float[] query : queries) {
+			RankingHeap expect = reference.topN(query, size, null);
+			RankingHeap actual = index.topN(query, size, null);
+			int[] keys = expect.getKeys();
+			for (int position = 0; position < actual.getSize(); position++) {
+				int key = actual.getKeys()[position];
+				for (int cursor = 0; cursor < expect.getSize(); cursor++) {
+					if (keys[cursor] == key) {
+						hit++;
+						break;
+					}
+				}
+			}
+			total += expect.getSize();
+		}
+		return total == 0L ? 1F : (float) hit / total;
+	}
+
+	/**
+	 * 计算内积
+	 *
+	 * @param leftVectors
+	 * @param rightVectors
+	 * @param leftOffset
+	 *            左向量在数组中的开始位置
+	 * @param rightOffset
+	 *            右向量在数组中的开始位置
+	 * @param dimension
+	 *            维度
+	 * @return
+	 */
+	public static float getProduct(float[] leftVectors, float[] rightVectors, int leftOffset, int rightOffset, int dimension) {
+		float product = 0F;
+		for (int position = 0; position < dimension; position++) {
+			product += leftVectors[leftOffset + position] * rightVectors[rightOffset + position];
+		}
+		return product;
+	}
+
+	/**
+	 * 获取向量数量
+	 *
+	 * @return
+	 */
+	int getSize();
+
+	/**
+	 * 获取维度
+	 *
+	 * @return
+	 */
+	int getDimension();
+
+	/**
+	 * 查询内积最大的N个元素
+	 *
+	 * @param query
+	 *            查询向量
+	 * @param size
+	 *            TopN的大小
+	 * @param excludes
+	 *            需要排除的元素(可以为null)
+	 * @return 按照内积降序整理过的排名堆
+	 */
+	RankingHeap topN(float[] query, int size, IntPredicate excludes);
+
+}
@@ -0,0 +1,160 @@
+package com.jstarcraft.recommendation.utility;
+
+import java.util.Random;
+
+/**
+ * 随机工具
+ *
+ * <pre>
+ * 推荐器与数据处理使用的随机数.
+ * 当前线程绑定了随机数时(例如并行执行的折)使用绑定的随机数,否则委托给{@link com.jstarcraft.core.utility.RandomUtility}.
+ * 绑定的随机数只对当前线程有效,工作者线程应该使用由此派生的随机数(参考MatrixFactorizationRecommender的workerRandoms).
+ * </pre>
+ *
+ * @author Birdy
+ *
+ */
+public class RandomUtility {
+
+	/** 当前线程绑定的随机数 */
+	private static final ThreadLocal<Random> RANDOMS = new ThreadLocal<>();
+
+	/**
+	 * 绑定当前线程的随机数
+	 *
+	 * @param random
+	 *            为null时解除绑定
+	 */
+	public static void setRandom(Random random) {
+		if (random == null) {
+			RANDOMS.remove();
+		} else {
+			RANDOMS.set(random);
+		}
+	}
+
+	/**
+	 * 设置种子(绑定了随机数时只影响当前线程)
+	 *
+	 * @param seed
+	 */
+	public static void setSeed(long seed) {
+		Random random = RANDOMS.get();
+		if (random == null) {
+			com.jstarcraft.core.utility.RandomUtility.setSeed(seed);
+		} else {
+			random.setSeed(seed);
+		}
+	}
+
+	/**
+	 * 随机整数[0, bound)
+	 *
+	 * @param bound
+	 * @return
+	 */
+	public static int randomInteger(int bound) {
+		Random random = RANDOMS.get();
+		return random == null ? com.jstarcraft.core.utility.RandomUtility.randomInteger(bound) : random.nextInt(bound);
+	}
+
+	/**
+	 * 随机整数[from, to)
+	 *
+	 * @param from
+	 * @param to
+	 * @return
+	 */
+	public static int randomInteger(int from, int to) {
+		Random random = RANDOMS.get();
+		return random == null ? com.jstarcraft.core.utility.RandomUtility.randomInteger(from, to) : from + random.nextInt(to - from);
+	}
+
+	/**
+	 * 随机浮点[0, bound)
+	 *
+	 * @param bound
+	 * @return
+	 */
+	public static float randomFloat(float bound) {
+		Random random = RANDOMS.get();
+		return random == null ? com.jstarcraft.core.utility.RandomUtility.randomFloat(bound) : random.nextFloat() * bound;
+	}
+
+	/**
+	 * 随机浮点[from, to)
+	 *
+	 * @param from
+	 * @param to
+	 * @return
+	 */
+	public static float randomFloat(float from, float to) {
+		Random random = RANDOMS.get();
+		return random == null ? com.jstarcraft.core.utility.RandomUtility.randomFloat(from, to) : from + random.nextFloat() * (to - from);
+	}
+
+	/**
+	 * 随机双精度[0, bound)
+	 *
+	 * @param bound
+	 * @return
+	 */
+	public static double randomDouble(double bound) {
+		Random random = RANDOMS.get();
+		return random == null ? com.jstarcraft.core.utility.RandomUtility.randomDouble(bound) : random.nextDouble() * bound;
+	}
+
+	/**
+	 * 打乱数组
+	 *
+	 * @param datas
+	 */
+	public static void shuffle(int[] datas) {
+		if (RANDOMS.get() == null) {
+			com.jstarcraft.core.utility.RandomUtility.shuffle(datas);
+			return;
+		}
+		shuffle(datas, 0, datas.length);
+	}
+
+	/**
+	 * 打乱数组的范围[from, to)
+	 *
+	 * @param datas
+	 * @param from
+	 * @param to
+	 */
+	public static void shuffle(int[] datas, int from, int to) {
+		Random random = RANDOMS.get();
+		if (random == null) {
+			com.jstarcraft.core.utility.RandomUtility.shuffle(datas, from, to);
+			return;
+		}
+		for (int index = to - 1; index > from; index--) {
+			int other = from + random.nextInt(index - from + 1);
+			int data = datas[index];
+			datas[index] = datas[other];
+			datas[other] = data;
+		}
+	}
+
+	/**
+	 * 打乱数组
+	 *
+	 * @param datas
+	 */
+	public static <T> void shuffle(T[] datas) {
+		Random random = RANDOMS.get();
+		if (random == null) {
+			com.jstarcraft.core.utility.RandomUtility.shuffle(datas);
+			return;
+		}
+		for (int index = datas.length - 1; index > 0; index--) {
+			int other = random.nextInt(index + 1);
+			T data = datas[index];
+			datas[index] = datas[other];
+			datas[other] = data;
+		}
+	}
+
+}
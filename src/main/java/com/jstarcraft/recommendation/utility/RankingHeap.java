@@ -0,0 +1,182 @@
+package com.jstarcraft.recommendation.utility;
+
+/**
+ * 排名堆
+ *
+ * <pre>
+ * 基于int/float原始类型的最小堆,只保留得分最高的N个元素.
+ * 排序规则与按照得分降序的稳定排序一致:得分相同时,索引较小者优先.
+ * </pre>
+ *
+ * @author Birdy
+ *
+ */
+public class RankingHeap {
+
+	/** 容量 */
+	private int capacity;
+
+	/** 大小 */
+	private int size;
+
+	/** 候选数量 */
+	private int count;
+
+	/** 键 */
+	private int[] keys;
+
+	/** 值 */
+	private float[] values;
+
+	public RankingHeap(int capacity) {
+		if (capacity < 0) {
+			throw new IllegalArgumentException();
+		}
+		this.capacity = capacity;
+		this.keys = new int[capacity];
+		this.values = new float[capacity];
+	}
+
+	/**
+	 * 比较两个元素的排名
+	 *
+	 * @return 左边元素排名低于右边元素时返回true
+	 */
+	private static boolean isLower(int leftKey, float leftValue, int rightKey, float rightValue) {
+		int compare = Float.compare(leftValue, rightValue);
+		if (compare == 0) {
+			return leftKey > rightKey;
+		}
+		return compare < 0;
+	}
+
+	private void shiftUp(int cursor) {
+		int key = keys[cursor];
+		float value = values[cursor];
+		while (cursor > 0) {
+			int parent = (cursor - 1) >>> 1;
+			if (!isLower(key, value, keys[parent], values[parent])) {
+				break;
+			}
+			keys[cursor] = keys[parent];
+			values[cursor] = values[parent];
+			cursor = parent;
+		}
+		keys[cursor] = key;
+		values[cursor] = value;
+	}
+
+	private void shiftDown(int cursor, int limit) {
+		int key = keys[cursor];
+		float value = values[cursor];
+		int half = limit >>> 1;
+		while (cursor < half) {
+			int child = (cursor << 1) + 1;
+			int right = child + 1;
+			if (right < limit && isLower(keys[right], values[right], keys[child], values[child])) {
+				child = right;
+			}
+			if (!isLower(keys[child], values[child], key, value)) {
+				break;
+			}
+			keys[cursor] = keys[child];
+			values[cursor] = values[child];
+			cursor = child;
+		}
+		keys[cursor] = key;
+		values[cursor] = value;
+	}
+
+	/**
+	 * 提供候选元素
+	 *
+	 * @param key
+	 * @param value
+	 * @return 是否进入堆
+	 */
+	public boolean offer(int key, float value) {
+		count++;
+		if (size < capacity) {
+			keys[size] = key;
+			values[size] = value;
+			shiftUp(size++);
+			return true;
+		}
+		if (capacity == 0 || !isLower(keys[0], values[0], key, value)) {
+			return false;
+		}
+		keys[0] = key;
+		values[0] = value;
+		shiftDown(0, size);
+		return true;
+	}
+
+	/**
+	 * 按照排名降序整理堆(整理之后不能再提供候选元素,除非先清理)
+	 */
+	public void sort() {
+		for (int cursor = size - 1; cursor > 0; cursor--) {
+			int key = keys[0];
+			float value = values[0];
+			keys[0] = keys[cursor];
+			values[0] = values[cursor];
+			keys[cursor] = key;
+			values[cursor] = value;
+			shiftDown(0, cursor);
+		}
+	}
+
+	/**
+	 * 清理堆(以便重复使用)
+	 */
+	public void clear() {
+		size = 0;
+		count = 0;
+	}
+
+	/**
+	 * 获取容量
+	 *
+	 * @return
+	 */
+	public int getCapacity() {
+		return capacity;
+	}
+
+	/**
+	 * 获取大小
+	 *
+	 * @return
+	 */
+	public int getSize() {
+		return size;
+	}
+
+	/**
+	 * 获取候选数量
+	 *
+	 * @return
+	 */
+	public int getCount() {
+		return count;
+	}
+
+	/**
+	 * 获取键(只有前size个有效)
+	 *
+	 * @return
+	 */
+	public int[] getKeys() {
+		return keys;
+	}
+
+	/**
+	 * 获取值(只有前size个有效)
+	 *
+	 * @return
+	 */
+	public float[] getValues() {
+		return values;
+	}
+
+}
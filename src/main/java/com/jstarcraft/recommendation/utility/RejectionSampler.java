@@ -0,0 +1,71 @@
+package com.jstarcraft.recommendation.utility;
+
+import java.util.Random;
+
+import com.jstarcraft.ai.math.structure.matrix.SparseMatrix;
+import com.jstarcraft.ai.math.structure.vector.SparseVector;
+import com.jstarcraft.ai.math.structure.vector.VectorScalar;
+import com.jstarcraft.recommendation.exception.RecommendationException;
+
+/**
+ * 拒绝采样器
+ *
+ * <pre>
+ * 在所有物品中均匀采样,通过位集合(每个用户一行)拒绝正物品,每次尝试为O(1).
+ * 正物品稀疏时期望尝试次数接近1;超过最大尝试次数时退化为跳跃采样,分布仍然是非正物品上的均匀分布.
+ * 位集合需要用户数量*物品数量/8个字节,只适合中小规模的数据.
+ * </pre>
+ *
+ * @author Birdy
+ *
+ */
+public class RejectionSampler implements NegativeSampler {
+
+	private final SparseMatrix trainMatrix;
+
+	private final int numberOfItems;
+
+	/** 每个用户的字数量 */
+	private final int numberOfWords;
+
+	/** 正物品的位集合(按照用户分行) */
+	private final long[] bits;
+
+	/** 最大尝试次数 */
+	private final int maximumTrials;
+
+	public RejectionSampler(SparseMatrix trainMatrix, int maximumTrials) {
+		int numberOfUsers = trainMatrix.getRowSize();
+		this.trainMatrix = trainMatrix;
+		this.numberOfItems = trainMatrix.getColumnSize();
+		this.numberOfWords = (numberOfItems + 63) >>> 6;
+		long size = (long) numberOfUsers * numberOfWords;
+		if (size > Integer.MAX_VALUE - 8) {
+			throw new RecommendationException("位集合超过数组的最大长度,使用跳跃采样器");
+		}
+		this.bits = new long[(int) size];
+		this.maximumTrials = maximumTrials;
+		for (int userIndex = 0; userIndex < numberOfUsers; userIndex++) {
+			int offset = userIndex * numberOfWords;
+			for (VectorScalar term : trainMatrix.getRowVector(userIndex)) {
+				int itemIndex = term.getIndex();
+				bits[offset + (itemIndex >>> 6)] |= 1L << itemIndex;
+			}
+		}
+	}
+
+	@Override
+	public int sample(Random random, int userIndex) {
+		int offset = userIndex * numberOfWords;
+		for (int trial = 0; trial < maximumTrials; trial++) {
+			int itemIndex = random.nextInt(numberOfItems);
+			if ((bits[offset + (itemIndex >>> 6)] & (1L << itemIndex)) == 0L) {
+				return itemIndex;
+			}
+		}
+		// 正物品过于密集
+		SparseVector userVector = trainMatrix.getRowVector(userIndex);
+		return SampleUtility.skipSearch(userVector, random.nextInt(numberOfItems - userVector.getElementSize()));
+	}
+
+}
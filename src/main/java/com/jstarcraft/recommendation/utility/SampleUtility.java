@@ -1,5 +1,7 @@
 package com.jstarcraft.recommendation.utility;
 
+import java.util.Random;
+
 import com.jstarcraft.ai.math.structure.vector.MathVector;
 
 /**
@@ -10,6 +12,23 @@ import com.jstarcraft.ai.math.structure.vector.MathVector;
  */
 public class SampleUtility {
 
+	/** 委托给RandomUtility的随机数,用于在单线程训练中与RandomUtility共享随机序列 */
+	public static final Random UTILITY_RANDOM = new Random() {
+
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		public int nextInt(int bound) {
+			return RandomUtility.randomInteger(bound);
+		}
+
+		@Override
+		public float nextFloat() {
+			return RandomUtility.randomFloat(1F);
+		}
+
+	};
+
 	/**
 	 * 二分查找
 	 * 
@@ -66,4 +85,55 @@ public class SampleUtility {
 		return -1;
 	}
 
+	/**
+	 * 跳跃查找
+	 * 
+	 * <pre>
+	 * 把非正物品的序号映射为物品索引,与逐个跳过正物品的结果一致.
+	 * 第position个正物品之前的非正物品数量为index(position)-position,随position单调不减,所以可以二分查找.
+	 * </pre>
+	 * 
+	 * @param vector
+	 *            正物品(索引升序)
+	 * @param ordinal
+	 *            非正物品的序号
+	 * @return
+	 */
+	public static int skipSearch(MathVector vector, int ordinal) {
+		int low = 0, high = vector.getElementSize();
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (vector.getIndex(middle) - middle <= ordinal) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		return ordinal + low;
+	}
+
+	/**
+	 * 是否包含索引(二分查找)
+	 * 
+	 * @param vector
+	 *            正物品(索引升序)
+	 * @param index
+	 * @return
+	 */
+	public static boolean contain(MathVector vector, int index) {
+		int low = 0, high = vector.getElementSize() - 1;
+		while (low <= high) {
+			int middle = (low + high) >>> 1;
+			int current = vector.getIndex(middle);
+			if (current < index) {
+				low = middle + 1;
+			} else if (current > index) {
+				high = middle - 1;
+			} else {
+				return true;
+			}
+		}
+		return false;
+	}
+
 }
@@ -0,0 +1,36 @@
+package com.jstarcraft.recommendation.utility;
+
+import java.util.Random;
+
+import com.jstarcraft.ai.math.structure.matrix.SparseMatrix;
+import com.jstarcraft.ai.math.structure.vector.SparseVector;
+
+/**
+ * 跳跃采样器
+ *
+ * <pre>
+ * 在非正物品中均匀采样:先采样非正物品的序号,再通过二分查找跳过正物品.
+ * 每次采样只消耗一个随机数,时间为O(log n)(n为用户的正物品数量),结果与逐个跳过正物品一致.
+ * </pre>
+ *
+ * @author Birdy
+ *
+ */
+public class SkipSampler implements NegativeSampler {
+
+	private final SparseMatrix trainMatrix;
+
+	private final int numberOfItems;
+
+	public SkipSampler(SparseMatrix trainMatrix) {
+		this.trainMatrix = trainMatrix;
+		this.numberOfItems = trainMatrix.getColumnSize();
+	}
+
+	@Override
+	public int sample(Random random, int userIndex) {
+		SparseVector userVector = trainMatrix.getRowVector(userIndex);
+		return SampleUtility.skipSearch(userVector, random.nextInt(numberOfItems - userVector.getElementSize()));
+	}
+
+}
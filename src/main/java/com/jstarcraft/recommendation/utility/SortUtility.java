@@ -0,0 +1,359 @@
+package com.jstarcraft.recommendation.utility;
+
+import java.util.function.IntBinaryOperator;
+
+/**
+ * 排序工具
+ *
+ * <pre>
+ * 基于原始类型数组的稳定排序(键相同时保持原有顺序),
+ * 以及与逐对交换的排序顺序一致的交换排序(参考{@link #exchangeSort}).
+ * </pre>
+ *
+ * @author Birdy
+ *
+ */
+public class SortUtility {
+
+	/** 小于此数量时使用插入排序 */
+	private static final int INSERTION_THRESHOLD = 32;
+
+	/** 基数位数 */
+	private static final int RADIX_BITS = 8;
+
+	/** 基数大小 */
+	private static final int RADIX_SIZE = 1 << RADIX_BITS;
+
+	/** 基数掩码 */
+	private static final int RADIX_MASK = RADIX_SIZE - 1;
+
+	/**
+	 * 基数排序
+	 *
+	 * <pre>
+	 * 按照keys升序同时排列keys与values.
+	 * </pre>
+	 *
+	 * @param keys
+	 * @param values
+	 */
+	public static void radixSort(int[] keys, int[] values) {
+		int size = keys.length;
+		if (size < INSERTION_THRESHOLD) {
+			for (int left = 1; left < size; left++) {
+				int key = keys[left];
+				int value = values[left];
+				int right = left - 1;
+				while (right >= 0 && keys[right] > key) {
+					keys[right + 1] = keys[right];
+					values[right + 1] = values[right];
+					right--;
+				}
+				keys[right + 1] = key;
+				values[right + 1] = value;
+			}
+			return;
+		}
+		int[] keyBuffer = new int[size];
+		int[] valueBuffer = new int[size];
+		int[] counts = new int[RADIX_SIZE];
+		for (int shift = 0; shift < Integer.SIZE; shift += RADIX_BITS) {
+			for (int index = 0; index < RADIX_SIZE; index++) {
+				counts[index] = 0;
+			}
+			for (int index = 0; index < size; index++) {
+				counts[getDigit(keys[index], shift)]++;
+			}
+			// 所有键在此位相同时跳过
+			if (counts[getDigit(keys[0], shift)] == size) {
+				continue;
+			}
+			for (int index = 0, cursor = 0; index < RADIX_SIZE; index++) {
+				int count = counts[index];
+				counts[index] = cursor;
+				cursor += count;
+			}
+			for (int index = 0; index < size; index++) {
+				int cursor = counts[getDigit(keys[index], shift)]++;
+				keyBuffer[cursor] = keys[index];
+				valueBuffer[cursor] = values[index];
+			}
+			System.arraycopy(keyBuffer, 0, keys, 0, size);
+			System.arraycopy(valueBuffer, 0, values, 0, size);
+		}
+	}
+
+	private static int getDigit(int key, int shift) {
+		// 翻转符号位,使负数排在正数之前
+		return ((key ^ Integer.MIN_VALUE) >>> shift) & RADIX_MASK;
+	}
+
+	/**
+	 * 归并排序
+	 *
+	 * <pre>
+	 * 按照keys升序同时排列keys与values.
+	 * </pre>
+	 *
+	 * @param keys
+	 * @param values
+	 */
+	public static void mergeSort(float[] keys, int[] values) {
+		int size = keys.length;
+		mergeSort(keys.clone(), values.clone(), keys, values, 0, size);
+	}
+
+	private static void mergeSort(float[] fromKeys, int[] fromValues, float[] toKeys, int[] toValues, int from, int to) {
+		if (to - from < INSERTION_THRESHOLD) {
+			for (int left = from + 1; left < to; left++) {
+				float key = toKeys[left];
+				int value = toValues[left];
+				int right = left - 1;
+				while (right >= from && toKeys[right] > key) {
+					toKeys[right + 1] = toKeys[right];
+					toValues[right + 1] = toValues[right];
+					right--;
+				}
+				toKeys[right + 1] = key;
+				toValues[right + 1] = value;
+			}
+			return;
+		}
+		int middle = (from + to) >>> 1;
+		// 交替使用两组数组,避免每层复制
+		mergeSort(toKeys, toValues, fromKeys, fromValues, from, middle);
+		mergeSort(toKeys, toValues, fromKeys, fromValues, middle, to);
+		if (!(fromKeys[middle - 1] > fromKeys[middle])) {
+			System.arraycopy(fromKeys, from, toKeys, from, to - from);
+			System.arraycopy(fromValues, from, toValues, from, to - from);
+			return;
+		}
+		for (int cursor = from, left = from, right = middle; cursor < to; cursor++) {
+			if (right >= to || left < middle && !(fromKeys[left] > fromKeys[right])) {
+				toKeys[cursor] = fromKeys[left];
+				toValues[cursor] = fromValues[left++];
+			} else {
+				toKeys[cursor] = fromKeys[right];
+				toValues[cursor] = fromValues[right++];
+			}
+		}
+	}
+
+	/**
+	 * 归并排序
+	 *
+	 * <pre>
+	 * 按照comparator升序排列values.
+	 * </pre>
+	 *
+	 * @param values
+	 * @param comparator
+	 *            比较两个值,返回负数/0/正数
+	 */
+	public static void mergeSort(int[] values, IntBinaryOperator comparator) {
+		mergeSort(values.clone(), values, 0, values.length, comparator);
+	}
+
+	private static void mergeSort(int[] fromValues, int[] toValues, int from, int to, IntBinaryOperator comparator) {
+		if (to - from < INSERTION_THRESHOLD) {
+			for (int left = from + 1; left < to; left++) {
+				int value = toValues[left];
+				int right = left - 1;
+				while (right >= from && comparator.applyAsInt(toValues[right], value) > 0) {
+					toValues[right + 1] = toValues[right];
+					right--;
+				}
+				toValues[right + 1] = value;
+			}
+			return;
+		}
+		int middle = (from + to) >>> 1;
+		// 交替使用两组数组,避免每层复制
+		mergeSort(toValues, fromValues, from, middle, comparator);
+		mergeSort(toValues, fromValues, middle, to, comparator);
+		if (comparator.applyAsInt(fromValues[middle - 1], fromValues[middle]) <= 0) {
+			System.arraycopy(fromValues, from, toValues, from, to - from);
+			return;
+		}
+		for (int cursor = from, left = from, right = middle; cursor < to; cursor++) {
+			if (right >= to || left < middle && comparator.applyAsInt(fromValues[left], fromValues[right]) <= 0) {
+				toValues[cursor] = fromValues[left++];
+			} else {
+				toValues[cursor] = fromValues[right++];
+			}
+		}
+	}
+
+	/**
+	 * 交换排序
+	 *
+	 * <pre>
+	 * 结果(包括键相同时的顺序)与以下逐对交换的排序一致,但是耗时为O(n log n):
+	 * for (left = 0; left < size; left++)
+	 *     for (right = left + 1; right < size; right++)
+	 *         if (keys[left] > keys[right]) swap(left, right);
+	 * 
+	 * 每次交换只会让较小的键越过相同的键,所以键为x的元素之间的顺序只取决于键不大于x的子序列:
+	 * 依次扫描子序列,键为x时追加到队列末尾,键小于x并且队列不为空时把队列头部移动到末尾,最后的队列就是键为x的元素的顺序.
+	 * 队列的轮转只改变环的起点,追加等价于在起点之前插入,所以先计算每次插入的下标,再离线地还原最后的环.
+	 * </pre>
+	 *
+	 * @param keys
+	 * @param values
+	 */
+	public static void exchangeSort(int[] keys, int[] values) {
+		int size = keys.length;
+		if (size < 2) {
+			return;
+		}
+		int[] sortKeys = keys.clone();
+		int[] indexes = new int[size];
+		for (int index = 0; index < size; index++) {
+			indexes[index] = index;
+		}
+		// 稳定排序之后相同的键按照原有下标升序
+		radixSort(sortKeys, indexes);
+		int[] sortValues = new int[size];
+		// 键小于当前的键的原有下标
+		int[] smallers = new int[size + 1];
+		for (int from = 0, to; from < size; from = to) {
+			to = from + 1;
+			while (to < size && sortKeys[to] == sortKeys[from]) {
+				to++;
+			}
+			int count = to - from;
+			if (count == 1) {
+				sortValues[from] = values[indexes[from]];
+			} else {
+				// 每次追加在环中插入的下标与最后的起点
+				int[] inserts = new int[count];
+				int head = 0;
+				for (int cursor = 0; cursor < count; cursor++) {
+					inserts[cursor] = head;
+					if (cursor > 0) {
+						head++;
+					}
+					int left = indexes[from + cursor];
+					int right = cursor + 1 < count ? indexes[from + cursor + 1] : size;
+					int rotate = getCount(smallers, right) - getCount(smallers, left + 1);
+					head = (head + rotate) % (cursor + 1);
+				}
+				int[] circle = getCircle(inserts, indexes, from);
+				for (int cursor = 0; cursor < count; cursor++) {
+					sortValues[from + cursor] = values[circle[(head + cursor) % count]];
+				}
+			}
+			for (int cursor = from; cursor < to; cursor++) {
+				for (int index = indexes[cursor] + 1; index <= size; index += index & -index) {
+					smallers[index]++;
+				}
+			}
+		}
+		System.arraycopy(sortKeys, 0, keys, 0, size);
+		System.arraycopy(sortValues, 0, values, 0, size);
+	}
+
+	/** 树状数组的前缀和[0, to) */
+	private static int getCount(int[] tree, int to) {
+		int count = 0;
+		for (int index = to; index > 0; index -= index & -index) {
+			count += tree[index];
+		}
+		return count;
+	}
+
+	/**
+	 * 离线地还原依次插入之后的序列
+	 * 
+	 * <pre>
+	 * 倒序处理插入,每个元素占据剩余空位中的第inserts[cursor]个.
+	 * </pre>
+	 */
+	private static int[] getCircle(int[] inserts, int[] indexes, int from) {
+		int count = inserts.length;
+		int[] tree = new int[count + 1];
+		for (int index = 1; index <= count; index++) {
+			tree[index]++;
+			int parent = index + (index & -index);
+			if (parent <= count) {
+				tree[parent] += tree[index];
+			}
+		}
+		int mask = Integer.highestOneBit(count);
+		int[] circle = new int[count];
+		for (int cursor = count - 1; cursor >= 0; cursor--) {
+			// 查找第inserts[cursor] + 1个空位
+			int position = 0, rank = inserts[cursor] + 1;
+			for (int step = mask; step > 0; step >>= 1) {
+				int index = position + step;
+				if (index <= count && tree[index] < rank) {
+					position = index;
+					rank -= tree[index];
+				}
+			}
+			circle[position] = indexes[from + cursor];
+			for (int index = position + 1; index <= count; index += index & -index) {
+				tree[index]--;
+			}
+		}
+		return circle;
+	}
+
+	/**
+	 * 获取键的排名
+	 *
+	 * <pre>
+	 * 相同的键排名相同,较大的键排名较大(用于{@link #exchangeSort}).
+	 * </pre>
+	 *
+	 * @param keys
+	 * @return
+	 */
+	public static int[] rankOf(float[] keys) {
+		int size = keys.length;
+		int[] indexes = new int[size];
+		for (int index = 0; index < size; index++) {
+			indexes[index] = index;
+		}
+		float[] sortKeys = keys.clone();
+		mergeSort(sortKeys, indexes);
+		int[] ranks = new int[size];
+		for (int cursor = 1, rank = 0; cursor < size; cursor++) {
+			if (sortKeys[cursor] > sortKeys[cursor - 1]) {
+				rank++;
+			}
+			ranks[indexes[cursor]] = rank;
+		}
+		return ranks;
+	}
+
+	/**
+	 * 获取值的排名
+	 *
+	 * <pre>
+	 * 比较为0的值排名相同,较大的值排名较大(用于{@link #exchangeSort}).
+	 * </pre>
+	 *
+	 * @param values
+	 * @param comparator
+	 *            比较两个值,返回负数/0/正数
+	 * @return
+	 */
+	public static int[] rankOf(int[] values, IntBinaryOperator comparator) {
+		int size = values.length;
+		int[] indexes = new int[size];
+		for (int index = 0; index < size; index++) {
+			indexes[index] = index;
+		}
+		mergeSort(indexes, (left, right) -> comparator.applyAsInt(values[left], values[right]));
+		int[] ranks = new int[size];
+		for (int cursor = 1, rank = 0; cursor < size; cursor++) {
+			if (comparator.applyAsInt(values[indexes[cursor]], values[indexes[cursor - 1]]) > 0) {
+				rank++;
+			}
+			ranks[indexes[cursor]] = rank;
+		}
+		return ranks;
+	}
+
+}
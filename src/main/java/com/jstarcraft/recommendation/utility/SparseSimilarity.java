@@ -0,0 +1,83 @@
+package com.jstarcraft.recommendation.utility;
+
+import com.jstarcraft.recommendation.exception.RecommendationException;
+
+/**
+ * 稀疏相似度
+ *
+ * <pre>
+ * 根据两个向量共同元素(co-rated)的统计量计算相似度,
+ * 使{@link NeighborUtility}能够通过稀疏矩阵的乘积计算最近邻居,而不需要构建完整的SymmetryMatrix.
+ * </pre>
+ *
+ * @author Birdy
+ *
+ */
+public interface SparseSimilarity {
+
+	/** 余弦相似度 */
+	public final static SparseSimilarity COSINE_SIMILARITY = (count, leftSize, rightSize, leftSum, rightSum, leftSquare, rightSquare, product) -> {
+		float denominator = (float) Math.sqrt(leftSquare * rightSquare);
+		return denominator == 0F ? Float.NaN : product / denominator;
+	};
+
+	/** Jaccard相似度 */
+	public final static SparseSimilarity JACCARD_SIMILARITY = (count, leftSize, rightSize, leftSum, rightSum, leftSquare, rightSquare, product) -> {
+		return count / (float) (leftSize + rightSize - count);
+	};
+
+	/** 皮尔逊相关系数 */
+	public final static SparseSimilarity PCC_SIMILARITY = (count, leftSize, rightSize, leftSum, rightSum, leftSquare, rightSquare, product) -> {
+		if (count < 2) {
+			return Float.NaN;
+		}
+		float numerator = product - leftSum * rightSum / count;
+		float denominator = (float) Math.sqrt((leftSquare - leftSum * leftSum / count) * (rightSquare - rightSum * rightSum / count));
+		return denominator == 0F ? Float.NaN : numerator / denominator;
+	};
+
+	/**
+	 * 根据相似度的类名获取稀疏相似度
+	 *
+	 * @param className
+	 *            (CosineSimilarity/JaccardSimilarity/PCCSimilarity)
+	 * @return
+	 */
+	public static SparseSimilarity classOf(String className) {
+		String simpleName = className.substring(className.lastIndexOf('.') + 1);
+		switch (simpleName) {
+		case "CosineSimilarity":
+			return COSINE_SIMILARITY;
+		case "JaccardSimilarity":
+			return JACCARD_SIMILARITY;
+		case "PCCSimilarity":
+			return PCC_SIMILARITY;
+		default:
+			throw new RecommendationException("不支持的稀疏相似度");
+		}
+	}
+
+	/**
+	 * 计算相似度
+	 *
+	 * @param count
+	 *            共同元素的数量
+	 * @param leftSize
+	 *            左向量的元素数量
+	 * @param rightSize
+	 *            右向量的元素数量
+	 * @param leftSum
+	 *            共同元素在左向量的和
+	 * @param rightSum
+	 *            共同元素在右向量的和
+	 * @param leftSquare
+	 *            共同元素在左向量的平方和
+	 * @param rightSquare
+	 *            共同元素在右向量的平方和
+	 * @param product
+	 *            共同元素的乘积和
+	 * @return 相似度(NaN表示无法计算)
+	 */
+	float getCorrelation(int count, int leftSize, int rightSize, float leftSum, float rightSum, float leftSquare, float rightSquare, float product);
+
+}
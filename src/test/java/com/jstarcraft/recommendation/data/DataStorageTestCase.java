@@ -0,0 +1,104 @@
+package com.jstarcraft.recommendation.data;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.jstarcraft.recommendation.data.accessor.InstanceAccessor;
+
+public class DataStorageTestCase {
+
+	@Test
+	public void testColumn() {
+		int size = DataStorage.PAGE_SIZE * 2 + 3;
+		for (String name : new String[] { "heap", "direct", "mapped" }) {
+			DataStorage storage = DataStorage.nameOf(name);
+			DiscreteColumn discreteColumn = storage.makeDiscreteColumn();
+			ContinuousColumn continuousColumn = storage.makeContinuousColumn();
+			for (int position = 0; position < size; position++) {
+				discreteColumn.associate(position * 7);
+				continuousColumn.associate(position * 0.5F);
+			}
+			Assert.assertEquals(size, discreteColumn.getSize());
+			Assert.assertEquals(size, continuousColumn.getSize());
+			for (int position = 0; position < size; position++) {
+				Assert.assertEquals(position * 7, discreteColumn.getValue(position));
+				Assert.assertEquals(position * 0.5F, continuousColumn.getValue(position), 0F);
+			}
+			// 释放之后已有的数据仍然可以访问
+			discreteColumn.release();
+			continuousColumn.release();
+			storage.release();
+			for (int position = 0; position < size; position++) {
+				Assert.assertEquals(position * 7, discreteColumn.getValue(position));
+				Assert.assertEquals(position * 0.5F, continuousColumn.getValue(position), 0F);
+			}
+		}
+
+		try {
+			DataStorage.nameOf("disk");
+			Assert.fail();
+		} catch (IllegalArgumentException exception) {
+		}
+	}
+
+	@Test
+	public void testMapped() {
+		// 每次获取独立的存储
+		Assert.assertNotSame(DataStorage.nameOf("mapped"), DataStorage.nameOf("mapped"));
+
+		Map<String, Class<?>> discreteFeatures = new HashMap<>();
+		Set<String> continuousFeatures = new HashSet<>();
+		discreteFeatures.put("user", int.class);
+		continuousFeatures.add("score");
+		DataSpace space = new DataSpace(discreteFeatures, continuousFeatures, DataStorage.nameOf("mapped"));
+		DiscreteFeature user = (DiscreteFeature) space.makeFeature("user", "user");
+		ContinuousFeature score = (ContinuousFeature) space.makeFeature("score", "score");
+		int size = DataStorage.PAGE_SIZE + 1;
+		for (int index = 0; index < size; index++) {
+			user.associate(index % 10);
+			score.associate(index);
+		}
+		space.release();
+		for (int position = 0; position < size; position++) {
+			Assert.assertEquals(position % 10, user.getValue(position));
+			Assert.assertEquals(position, score.getValue(position), 0F);
+		}
+		// 释放之后不能再分配分页
+		for (int index = size; index < DataStorage.PAGE_SIZE * 2; index++) {
+			score.associate(index);
+		}
+		try {
+			score.associate(0F);
+			Assert.fail();
+		} catch (IllegalStateException exception) {
+		}
+	}
+
+	@Test
+	public void testModule() {
+		Map<String, Class<?>> discreteFeatures = new HashMap<>();
+		Set<String> continuousFeatures = new HashSet<>();
+		discreteFeatures.put("user", int.class);
+		continuousFeatures.add("score");
+		DataSpace space = new DataSpace(discreteFeatures, continuousFeatures, DataStorage.DIRECT_STORAGE);
+		DiscreteFeature user = (DiscreteFeature) space.makeFeature("user", "user");
+		ContinuousFeature score = (ContinuousFeature) space.makeFeature("score", "score");
+		for (int index = 0; index < 1000; index++) {
+			user.associate(index % 10);
+			score.associate(index);
+		}
+		InstanceAccessor model = space.makeModule("model", "user", "score");
+		Assert.assertEquals(1000, model.getSize());
+		for (int position = 0; position < 1000; position++) {
+			Assert.assertEquals(user.getValue(position), model.getDiscreteFeature(0, position));
+			Assert.assertEquals(score.getValue(position), model.getContinuousFeature(0, position), 0F);
+		}
+		Assert.assertEquals(10, model.getDiscreteAttribute(0).getSize());
+	}
+
+}
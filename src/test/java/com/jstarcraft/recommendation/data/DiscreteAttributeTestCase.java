@@ -0,0 +1,104 @@
+package com.jstarcraft.recommendation.data;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class DiscreteAttributeTestCase {
+
+	private int makeValue(DiscreteAttribute attribute, String data) {
+		byte[] bytes = ("|" + data + "|").getBytes(StandardCharsets.UTF_8);
+		return attribute.makeValue(ByteBuffer.wrap(bytes), 1, bytes.length - 1);
+	}
+
+	@Test
+	public void testNumber() {
+		DiscreteAttribute attribute = new DiscreteAttribute("user", int.class);
+		Assert.assertEquals(0, attribute.makeValue("5").intValue());
+		Assert.assertEquals(1, attribute.makeValue(-3).intValue());
+		Assert.assertEquals(0, attribute.makeValue(5).intValue());
+		Assert.assertEquals(0, makeValue(attribute, "5"));
+		Assert.assertEquals(1, makeValue(attribute, "-3"));
+		Assert.assertEquals(2, makeValue(attribute, "007"));
+		Assert.assertEquals(2, attribute.makeValue("7").intValue());
+		Assert.assertEquals(3, attribute.getSize());
+		Assert.assertArrayEquals(new Object[] { 5, -3, 7 }, attribute.getDatas());
+
+		attribute = new DiscreteAttribute("instant", long.class);
+		Assert.assertEquals(0, makeValue(attribute, "10000000000"));
+		Assert.assertEquals(0, attribute.makeValue(10000000000L).intValue());
+		Assert.assertEquals(10000000000L, attribute.getData(0));
+	}
+
+	@Test
+	public void testString() {
+		DiscreteAttribute attribute = new DiscreteAttribute("item", String.class);
+		Assert.assertEquals(0, attribute.makeValue("物品").intValue());
+		Assert.assertEquals(1, makeValue(attribute, "item"));
+		Assert.assertEquals(0, makeValue(attribute, "物品"));
+		Assert.assertEquals(2, makeValue(attribute, ""));
+		Assert.assertEquals(1, attribute.makeValue("item").intValue());
+		Assert.assertArrayEquals(new Object[] { "物品", "item", "" }, attribute.getDatas());
+
+		// 对象按照UTF-8编码,与按照字节解析的键一致(包括代理对与不成对的代理)
+		String[] datas = new String[] { "ß", "€", "\uD83D\uDE00", "a\uD83Db", "\uDE00", new String(new char[200]).replace('\0', '物') };
+		for (String data : datas) {
+			int index = attribute.makeValue(data);
+			Assert.assertEquals(index, makeValue(attribute, data));
+			Assert.assertEquals(new String(data.getBytes(StandardCharsets.UTF_8), StandardCharsets.UTF_8), attribute.getData(index));
+		}
+	}
+
+	private void testConcurrent(Class<?> type) throws Exception {
+		int size = 20000, numberOfThreads = 8;
+		DiscreteAttribute attribute = new DiscreteAttribute("concurrent", type);
+		ExecutorService executor = Executors.newFixedThreadPool(numberOfThreads);
+		List<Future<int[]>> futures = new ArrayList<>();
+		for (int thread = 0; thread < numberOfThreads; thread++) {
+			Random random = new Random(thread);
+			futures.add(executor.submit(() -> {
+				List<Integer> keys = new ArrayList<>();
+				for (int key = 0; key < size; key++) {
+					keys.add(key);
+				}
+				Collections.shuffle(keys, random);
+				int[] indexes = new int[size];
+				for (int key : keys) {
+					indexes[key] = random.nextBoolean() ? attribute.makeValue(String.valueOf(key)) : makeValue(attribute, String.valueOf(key));
+				}
+				return indexes;
+			}));
+		}
+		int[] indexes = futures.get(0).get();
+		for (Future<int[]> future : futures) {
+			Assert.assertArrayEquals(indexes, future.get());
+		}
+		executor.shutdown();
+		Assert.assertEquals(size, attribute.getSize());
+		Set<Integer> uniques = new HashSet<>();
+		for (int key = 0; key < size; key++) {
+			Assert.assertTrue(indexes[key] >= 0 && indexes[key] < size);
+			Assert.assertTrue(uniques.add(indexes[key]));
+			Assert.assertEquals(String.valueOf(key), String.valueOf(attribute.getData(indexes[key])));
+		}
+	}
+
+	@Test
+	public void testConcurrent() throws Exception {
+		testConcurrent(String.class);
+		testConcurrent(long.class);
+		testConcurrent(Object.class);
+	}
+
+}
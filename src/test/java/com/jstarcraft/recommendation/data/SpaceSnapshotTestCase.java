@@ -0,0 +1,107 @@
+package com.jstarcraft.recommendation.data;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.jstarcraft.recommendation.data.accessor.InstanceAccessor;
+
+public class SpaceSnapshotTestCase {
+
+	private DataSpace getSpace(int size) {
+		Map<String, Class<?>> discreteFeatures = new HashMap<>();
+		Set<String> continuousFeatures = new HashSet<>();
+		discreteFeatures.put("user", int.class);
+		discreteFeatures.put("item", String.class);
+		discreteFeatures.put("instant", long.class);
+		continuousFeatures.add("score");
+		DataSpace space = new DataSpace(discreteFeatures, continuousFeatures);
+		DataFeature<?> user = space.makeFeature("user", "user");
+		DataFeature<?> item = space.makeFeature("item", "item");
+		DataFeature<?> instant = space.makeFeature("instant", "instant");
+		DataFeature<?> score = space.makeFeature("score", "score");
+		Random random = new Random(0);
+		for (int index = 0; index < size; index++) {
+			user.associate(random.nextInt(1000));
+			item.associate("item" + random.nextInt(2000));
+			instant.associate(10000000000L + random.nextInt(100));
+			score.associate(random.nextFloat() * 5F);
+		}
+		space.makeModule("model", "user", "item", "instant", "score");
+		return space;
+	}
+
+	@Test
+	public void testSnapshot() throws Exception {
+		// 超过一个分页
+		int size = DataStorage.PAGE_SIZE + 100;
+		DataSpace space = getSpace(size);
+		Map<String, Integer> counts = new HashMap<>();
+		counts.put("train", size);
+		File file = File.createTempFile("space", ".space");
+		file.deleteOnExit();
+		SpaceSnapshot.saveSpace(space, counts, file);
+		long length = file.length();
+
+		SpaceSnapshot snapshot = SpaceSnapshot.loadSpace(file, DataStorage.HEAP_STORAGE);
+		DataSpace copy = snapshot.getSpace();
+		Assert.assertEquals(counts, snapshot.getCounts());
+		for (String name : new String[] { "user", "item", "instant" }) {
+			DiscreteAttribute attribute = space.getDiscreteAttribute(name);
+			Assert.assertArrayEquals(attribute.getDatas(), copy.getDiscreteAttribute(name).getDatas());
+			// 重建的字典可以继续查找
+			Assert.assertEquals(attribute.makeValue(attribute.getData(3)), copy.getDiscreteAttribute(name).makeValue(attribute.getData(3)));
+		}
+		Assert.assertArrayEquals(space.getContinuousAttribute("score").getDatas(), copy.getContinuousAttribute("score").getDatas());
+
+		InstanceAccessor left = space.getModule("model");
+		InstanceAccessor right = copy.getModule("model");
+		Assert.assertEquals(left.getSize(), right.getSize());
+		Assert.assertEquals(left.getDiscreteFields().toString(), right.getDiscreteFields().toString());
+		for (int position = 0; position < size; position++) {
+			for (int dimension = 0; dimension < left.getDiscreteOrder(); dimension++) {
+				Assert.assertEquals(left.getDiscreteFeature(dimension, position), right.getDiscreteFeature(dimension, position));
+			}
+			Assert.assertEquals(left.getContinuousFeature(0, position), right.getContinuousFeature(0, position), 0F);
+		}
+
+		// 加载之后追加的特征值不会修改快照
+		DiscreteFeature user = (DiscreteFeature) copy.getFeature("user");
+		for (int index = 0; index < DataStorage.PAGE_SIZE; index++) {
+			user.associateIndex(index);
+		}
+		Assert.assertEquals(size + DataStorage.PAGE_SIZE, user.getSize());
+		Assert.assertEquals(DataStorage.PAGE_SIZE - 1, user.getValue(user.getSize() - 1) - user.getValue(size));
+		Assert.assertEquals(length, file.length());
+		Assert.assertEquals(size, SpaceSnapshot.loadSpace(file, DataStorage.HEAP_STORAGE).getSpace().getFeature("user").getSize());
+
+		try {
+			FileUtils.writeStringToFile(file, "broken", StandardCharsets.UTF_8);
+			SpaceSnapshot.loadSpace(file, DataStorage.HEAP_STORAGE);
+			Assert.fail();
+		} catch (RuntimeException exception) {
+		}
+	}
+
+	@Test
+	public void testKey() throws Exception {
+		File file = File.createTempFile("space", ".txt");
+		file.deleteOnExit();
+		FileUtils.writeStringToFile(file, "1 2 3", StandardCharsets.UTF_8);
+		String key = SpaceSnapshot.getKey(Arrays.asList(file.getPath()), "data.format=csv");
+		Assert.assertEquals(key, SpaceSnapshot.getKey(Arrays.asList(file.getPath()), "data.format=csv"));
+		Assert.assertNotEquals(key, SpaceSnapshot.getKey(Arrays.asList(file.getPath()), "data.format=arff"));
+		FileUtils.writeStringToFile(file, "1 2 3 4", StandardCharsets.UTF_8);
+		Assert.assertNotEquals(key, SpaceSnapshot.getKey(Arrays.asList(file.getPath()), "data.format=csv"));
+	}
+
+}
@@ -0,0 +1,134 @@
+package com.jstarcraft.recommendation.data.convertor;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.jstarcraft.recommendation.data.DataFeature;
+import com.jstarcraft.recommendation.data.DataSpace;
+
+public class CsvConvertorTestCase {
+
+	private static final String[] names = { "user", "item", "score", "instant" };
+
+	private DataSpace getSpace() {
+		Map<String, Class<?>> discreteFeatures = new HashMap<>();
+		Set<String> continuousFeatures = new HashSet<>();
+		discreteFeatures.put("user", int.class);
+		discreteFeatures.put("item", String.class);
+		discreteFeatures.put("instant", long.class);
+		continuousFeatures.add("score");
+		DataSpace space = new DataSpace(discreteFeatures, continuousFeatures);
+		for (String name : names) {
+			space.makeFeature(name, name);
+		}
+		return space;
+	}
+
+	private Map<String, Integer> getFields() {
+		Map<String, Integer> fields = new HashMap<>();
+		for (int index = 0; index < names.length; index++) {
+			fields.put(names[index], index);
+		}
+		return fields;
+	}
+
+	private String getData(int size) {
+		Random random = new Random(0);
+		StringBuilder buffer = new StringBuilder();
+		String[] scores = { "0.5", "1", "1.5", "-2.25", "3.0E1", "4.123456789" };
+		for (int index = 0; index < size; index++) {
+			buffer.append(random.nextInt(50)).append(' ');
+			buffer.append("item").append(random.nextInt(80)).append(' ');
+			buffer.append(scores[random.nextInt(scores.length)]).append(' ');
+			buffer.append(random.nextInt(1000));
+			// 混合换行符,多余的字段与字段不足的行
+			switch (index % 7) {
+			case 1:
+				buffer.append("\r\n");
+				break;
+			case 3:
+				buffer.append(" extra\n");
+				break;
+			case 5:
+				buffer.append("\n1 2\n");
+				break;
+			default:
+				buffer.append('\n');
+			}
+		}
+		// 最后一行没有换行
+		buffer.append("7 item0 2 100");
+		return buffer.toString();
+	}
+
+	private void assertSpace(DataSpace left, DataSpace right) {
+		for (String name : names) {
+			DataFeature<?> leftFeature = left.getFeature(name);
+			DataFeature<?> rightFeature = right.getFeature(name);
+			Assert.assertEquals(leftFeature.getSize(), rightFeature.getSize());
+			Iterator<?> leftIterator = leftFeature.iterator();
+			Iterator<?> rightIterator = rightFeature.iterator();
+			while (leftIterator.hasNext()) {
+				Assert.assertEquals(leftIterator.next(), rightIterator.next());
+			}
+			Assert.assertArrayEquals(leftFeature.getAttribute().getDatas(), rightFeature.getAttribute().getDatas());
+		}
+	}
+
+	@Test
+	public void testChunk() throws Exception {
+		File file = File.createTempFile("csv", ".txt");
+		file.deleteOnExit();
+		FileUtils.writeStringToFile(file, getData(1000), StandardCharsets.UTF_8);
+
+		DataSpace readerSpace = getSpace();
+		CsvConvertor readerConvertor = new CsvConvertor("csv", ' ', file.getPath(), getFields());
+		int count = readerConvertor.convert(readerSpace);
+
+		// 块大小小于行长度与大于文件长度
+		List<Integer> chunkSizes = new ArrayList<>();
+		chunkSizes.add(7);
+		chunkSizes.add(64);
+		chunkSizes.add(1024 * 1024);
+		for (int chunkSize : chunkSizes) {
+			DataSpace chunkSpace = getSpace();
+			CsvConvertor chunkConvertor = new CsvConvertor("csv", ' ', file.getPath(), getFields(), chunkSize);
+			Assert.assertEquals(count, chunkConvertor.convert(chunkSpace));
+			assertSpace(readerSpace, chunkSpace);
+		}
+	}
+
+	@Test
+	public void testArff() throws Exception {
+		File file = File.createTempFile("arff", ".arff");
+		file.deleteOnExit();
+		StringBuilder buffer = new StringBuilder();
+		buffer.append("% 注释\n@RELATION test\n\n");
+		buffer.append("@ATTRIBUTE user NUMERIC\n@ATTRIBUTE item {item3,item1}\n@ATTRIBUTE score NUMERIC\n@ATTRIBUTE instant NUMERIC\n");
+		buffer.append("@DATA\n");
+		buffer.append(getData(100).replace(' ', ','));
+		FileUtils.writeStringToFile(file, buffer.toString(), StandardCharsets.UTF_8);
+
+		DataSpace readerSpace = getSpace();
+		ArffConvertor readerConvertor = new ArffConvertor("arff", file.getPath(), getFields());
+		int count = readerConvertor.convert(readerSpace);
+
+		DataSpace chunkSpace = getSpace();
+		ArffConvertor chunkConvertor = new ArffConvertor("arff", file.getPath(), getFields(), 32);
+		Assert.assertEquals(count, chunkConvertor.convert(chunkSpace));
+		assertSpace(readerSpace, chunkSpace);
+	}
+
+}
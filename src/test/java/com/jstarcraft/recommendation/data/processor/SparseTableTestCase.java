@@ -0,0 +1,109 @@
+package com.jstarcraft.recommendation.data.processor;
+
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.google.common.collect.HashBasedTable;
+import com.google.common.collect.Table;
+import com.jstarcraft.ai.math.structure.matrix.SparseMatrix;
+
+public class SparseTableTestCase {
+
+	private static final int rowSize = 20, columnSize = 30, size = 500;
+
+	private void testMerger(DataMerger merger) {
+		Random random = new Random(0);
+		int[] rows = new int[size];
+		int[] columns = new int[size];
+		float[] values = new float[size];
+		for (int position = 0; position < size; position++) {
+			// 保留空行与空列
+			rows[position] = random.nextInt(rowSize - 1);
+			columns[position] = random.nextInt(columnSize - 1);
+			values[position] = random.nextInt(10);
+		}
+		int[] paginations = new int[rowSize + 1];
+		int[] positions = new int[size];
+		for (int position = 0; position < size; position++) {
+			paginations[rows[position] + 1]++;
+		}
+		for (int index = 0; index < rowSize; index++) {
+			paginations[index + 1] += paginations[index];
+		}
+		int[] cursors = paginations.clone();
+		for (int position = 0; position < size; position++) {
+			positions[cursors[rows[position]]++] = position;
+		}
+
+		Table<Integer, Integer, Float> dataTable = HashBasedTable.create();
+		Table<Integer, Integer, Integer> countTable = HashBasedTable.create();
+		for (int position : positions) {
+			Float value = dataTable.get(rows[position], columns[position]);
+			Integer count = countTable.get(rows[position], columns[position]);
+			count = count == null ? 1 : count + 1;
+			countTable.put(rows[position], columns[position], count);
+			dataTable.put(rows[position], columns[position], value == null ? values[position] : merger.merge(value, values[position], count));
+		}
+
+		SparseTable sparseTable = SparseTable.valueOf(rowSize, columnSize, paginations, positions, (position) -> columns[position], (position) -> values[position], merger);
+		Assert.assertEquals(dataTable.size(), sparseTable.getElementSize());
+		for (int rowIndex = 0; rowIndex < rowSize; rowIndex++) {
+			int[] columnIndexes = sparseTable.getColumnIndexes(rowIndex);
+			int from = sparseTable.getRowPoint(rowIndex), to = sparseTable.getRowPoint(rowIndex + 1);
+			Assert.assertEquals(dataTable.row(rowIndex).size(), to - from);
+			Assert.assertEquals(columnIndexes.length, to - from);
+			int last = -1;
+			for (int position = from; position < to; position++) {
+				int columnIndex = sparseTable.getColumnIndex(position);
+				Assert.assertEquals(columnIndexes[position - from], columnIndex);
+				Assert.assertTrue(columnIndex > last);
+				last = columnIndex;
+				Assert.assertEquals(dataTable.get(rowIndex, columnIndex), sparseTable.getRowValue(position), 0F);
+				Assert.assertEquals(position, sparseTable.getPosition(rowIndex, columnIndex));
+			}
+		}
+		for (int columnIndex = 0; columnIndex < columnSize; columnIndex++) {
+			int[] rowIndexes = sparseTable.getRowIndexes(columnIndex);
+			int from = sparseTable.getColumnPoint(columnIndex), to = sparseTable.getColumnPoint(columnIndex + 1);
+			Assert.assertEquals(dataTable.column(columnIndex).size(), to - from);
+			Assert.assertEquals(rowIndexes.length, to - from);
+			int last = -1;
+			for (int position = from; position < to; position++) {
+				int rowIndex = sparseTable.getRowIndex(position);
+				Assert.assertEquals(rowIndexes[position - from], rowIndex);
+				Assert.assertTrue(rowIndex > last);
+				last = rowIndex;
+				Assert.assertEquals(dataTable.get(rowIndex, columnIndex), sparseTable.getColumnValue(position), 0F);
+			}
+		}
+		Assert.assertEquals(0, sparseTable.getRowScope(rowSize - 1));
+		Assert.assertEquals(0, sparseTable.getColumnScope(columnSize - 1));
+		Assert.assertEquals(-1, sparseTable.getPosition(rowSize - 1, 0));
+
+		// 由数组直接构建的矩阵与由Table构建的矩阵一致
+		SparseMatrix matrix = sparseTable.toMatrix();
+		SparseMatrix expect = SparseMatrix.valueOf(rowSize, columnSize, dataTable);
+		Assert.assertEquals(expect.getElementSize(), matrix.getElementSize());
+		for (int rowIndex = 0; rowIndex < rowSize; rowIndex++) {
+			Assert.assertEquals(expect.getRowScope(rowIndex), matrix.getRowScope(rowIndex));
+			for (int columnIndex = 0; columnIndex < columnSize; columnIndex++) {
+				Assert.assertEquals(expect.getValue(rowIndex, columnIndex), matrix.getValue(rowIndex, columnIndex), 0F);
+			}
+		}
+		for (int columnIndex = 0; columnIndex < columnSize; columnIndex++) {
+			Assert.assertEquals(expect.getColumnScope(columnIndex), matrix.getColumnScope(columnIndex));
+			Assert.assertEquals(expect.getColumnVector(columnIndex).getElementSize(), matrix.getColumnVector(columnIndex).getElementSize());
+		}
+	}
+
+	@Test
+	public void testValueOf() {
+		testMerger(DataMerger.LAST_MERGER);
+		testMerger(DataMerger.SUM_MERGER);
+		testMerger(DataMerger.MAXIMUM_MERGER);
+		testMerger(DataMerger.MEAN_MERGER);
+	}
+
+}
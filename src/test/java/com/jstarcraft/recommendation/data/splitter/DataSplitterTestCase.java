@@ -0,0 +1,181 @@
+package com.jstarcraft.recommendation.data.splitter;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.jstarcraft.ai.utility.IntegerArray;
+import com.jstarcraft.recommendation.data.DataFeature;
+import com.jstarcraft.recommendation.data.DataSpace;
+import com.jstarcraft.recommendation.data.accessor.InstanceAccessor;
+
+public class DataSplitterTestCase {
+
+	private static final int size = 1003, numberOfUsers = 50;
+
+	private InstanceAccessor getModel() {
+		Map<String, Class<?>> discreteFeatures = new HashMap<>();
+		Set<String> continuousFeatures = new HashSet<>();
+		discreteFeatures.put("user", int.class);
+		discreteFeatures.put("instant", long.class);
+		continuousFeatures.add("score");
+		DataSpace space = new DataSpace(discreteFeatures, continuousFeatures);
+		DataFeature<?> user = space.makeFeature("user", "user");
+		DataFeature<?> instant = space.makeFeature("instant", "instant");
+		DataFeature<?> score = space.makeFeature("score", "score");
+		Random random = new Random(0);
+		for (int index = 0; index < size; index++) {
+			user.associate(random.nextInt(numberOfUsers));
+			instant.associate(random.nextInt(size) * 1000L);
+			score.associate(random.nextFloat() * 5F);
+		}
+		return space.makeModule("model", "user", "instant", "score");
+	}
+
+	/**
+	 * 检查训练引用与测试引用不相交并且覆盖所有位置
+	 */
+	private boolean[] checkReference(DataSplitter splitter, int index) {
+		IntegerArray trainReference = splitter.getTrainReference(index);
+		IntegerArray testReference = splitter.getTestReference(index);
+		Assert.assertEquals(size, trainReference.getSize() + testReference.getSize());
+		boolean[] tests = new boolean[size];
+		for (int cursor = 0; cursor < testReference.getSize(); cursor++) {
+			int position = testReference.getData(cursor);
+			Assert.assertFalse(tests[position]);
+			tests[position] = true;
+		}
+		for (int cursor = 0; cursor < trainReference.getSize(); cursor++) {
+			int position = trainReference.getData(cursor);
+			Assert.assertFalse(tests[position]);
+		}
+		return tests;
+	}
+
+	/**
+	 * 检查引用是升序
+	 */
+	private void checkAscending(IntegerArray reference) {
+		for (int cursor = 1; cursor < reference.getSize(); cursor++) {
+			Assert.assertTrue(reference.getData(cursor - 1) < reference.getData(cursor));
+		}
+	}
+
+	/**
+	 * 检查引用按照用户分组并且在每个用户内按照时间排序
+	 */
+	private void checkOrder(InstanceAccessor model, IntegerArray reference) {
+		int userDimension = model.getDiscreteDimension("user");
+		int instantDimension = model.getDiscreteDimension("instant");
+		for (int cursor = 1; cursor < reference.getSize(); cursor++) {
+			int previous = reference.getData(cursor - 1), current = reference.getData(cursor);
+			int previousUser = model.getDiscreteFeature(userDimension, previous), currentUser = model.getDiscreteFeature(userDimension, current);
+			Assert.assertTrue(previousUser <= currentUser);
+			if (previousUser == currentUser) {
+				// 离散特征按照索引排序
+				Assert.assertTrue(model.getDiscreteFeature(instantDimension, previous) <= model.getDiscreteFeature(instantDimension, current));
+			}
+		}
+	}
+
+	@Test
+	public void testKFold() {
+		InstanceAccessor model = getModel();
+		int number = 5;
+		DataSplitter splitter = new KFoldCrossValidationSplitter(model, number);
+		Assert.assertEquals(number, splitter.getSize());
+		int[] counts = new int[size];
+		for (int index = 0; index < number; index++) {
+			boolean[] tests = checkReference(splitter, index);
+			checkAscending(splitter.getTrainReference(index));
+			checkAscending(splitter.getTestReference(index));
+			int count = splitter.getTestReference(index).getSize();
+			Assert.assertTrue(count == size / number || count == size / number + 1);
+			for (int position = 0; position < size; position++) {
+				if (tests[position]) {
+					counts[position]++;
+				}
+			}
+		}
+		// 每个位置恰好属于一个折
+		for (int position = 0; position < size; position++) {
+			Assert.assertEquals(1, counts[position]);
+		}
+
+		try {
+			new KFoldCrossValidationSplitter(model, Byte.MAX_VALUE + 1);
+			Assert.fail();
+		} catch (IllegalArgumentException exception) {
+		}
+	}
+
+	@Test
+	public void testUser() {
+		InstanceAccessor model = getModel();
+		int userDimension = model.getDiscreteDimension("user");
+		int instantDimension = model.getDiscreteDimension("instant");
+		int[] counts = new int[numberOfUsers];
+		for (int position = 0; position < size; position++) {
+			counts[model.getDiscreteFeature(userDimension, position)]++;
+		}
+
+		DataSplitter[] splitters = new DataSplitter[] { new RatioSplitter(model, "user", "instant", 0.8D), new GivenNumberSplitter(model, "user", "instant", 10), new LeaveOneCrossValidationSplitter(model, "user", "instant") };
+		for (DataSplitter splitter : splitters) {
+			Assert.assertEquals(1, splitter.getSize());
+			boolean[] tests = checkReference(splitter, 0);
+			// 引用保持每个用户的排序(最后一个训练引用是用户最近的交互)
+			checkOrder(model, splitter.getTrainReference(0));
+			checkOrder(model, splitter.getTestReference(0));
+			int[] testCounts = new int[numberOfUsers];
+			// 每个用户的测试数据排在训练数据之后
+			int[] minimums = new int[numberOfUsers], maximums = new int[numberOfUsers];
+			for (int user = 0; user < numberOfUsers; user++) {
+				minimums[user] = Integer.MAX_VALUE;
+				maximums[user] = Integer.MIN_VALUE;
+			}
+			for (int position = 0; position < size; position++) {
+				int user = model.getDiscreteFeature(userDimension, position);
+				// 离散特征按照索引排序
+				int value = model.getDiscreteFeature(instantDimension, position);
+				if (tests[position]) {
+					testCounts[user]++;
+					minimums[user] = Math.min(minimums[user], value);
+				} else {
+					maximums[user] = Math.max(maximums[user], value);
+				}
+			}
+			for (int user = 0; user < numberOfUsers; user++) {
+				int count = counts[user];
+				if (splitter instanceof RatioSplitter) {
+					Assert.assertEquals(count - (int) (count * 0.8D), testCounts[user]);
+				} else if (splitter instanceof GivenNumberSplitter) {
+					Assert.assertEquals(Math.max(count - 10, 0), testCounts[user]);
+				} else {
+					Assert.assertEquals(count > 0 ? 1 : 0, testCounts[user]);
+				}
+				if (testCounts[user] > 0 && testCounts[user] < count) {
+					Assert.assertTrue(maximums[user] <= minimums[user]);
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testThreshold() {
+		InstanceAccessor model = getModel();
+		DataSplitter splitter = new GivenDataSplitter(model, 800);
+		boolean[] tests = checkReference(splitter, 0);
+		checkAscending(splitter.getTrainReference(0));
+		checkAscending(splitter.getTestReference(0));
+		for (int position = 0; position < size; position++) {
+			Assert.assertEquals(position >= 800, tests[position]);
+		}
+		Assert.assertEquals(size - 800, splitter.getTestReference(0).getSize());
+	}
+
+}
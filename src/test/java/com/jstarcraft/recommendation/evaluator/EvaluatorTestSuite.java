@@ -6,6 +6,7 @@ import org.junit.runners.Suite.SuiteClasses;
 
 import com.jstarcraft.recommendation.evaluator.rank.AUCEvaluatorTestCase;
 import com.jstarcraft.recommendation.evaluator.rank.DiversityEvaluatorTestCase;
+import com.jstarcraft.recommendation.evaluator.rank.FusedRankingEvaluatorTestCase;
 import com.jstarcraft.recommendation.evaluator.rank.MAPEvaluatorTestCase;
 import com.jstarcraft.recommendation.evaluator.rank.MRREvaluatorTestCase;
 import com.jstarcraft.recommendation.evaluator.rank.NDCGEvaluatorTestCase;
@@ -32,6 +33,8 @@ import com.jstarcraft.recommendation.evaluator.rate.MSEEvaluatorTestCase;
 
 		MRREvaluatorTestCase.class,
 
+		FusedRankingEvaluatorTestCase.class,
+
 		MAEEvaluatorTestCase.class,
 
 		MPEEvaluatorTestCase.class,
@@ -31,4 +31,12 @@ public class MockRecommender implements Recommender {
 		return matrix.getColumnScope(dicreteFeatures[itemDimension]);
 	}
 
+	@Override
+	public void predict(int[] dicreteFeatures, float[] continuousFeatures, int[] itemIndexes, float[] scores) {
+		for (int index = 0, size = itemIndexes.length; index < size; index++) {
+			dicreteFeatures[itemDimension] = itemIndexes[index];
+			scores[index] = predict(dicreteFeatures, continuousFeatures);
+		}
+	}
+
 }
@@ -0,0 +1,96 @@
+package com.jstarcraft.recommendation.evaluator.rank;
+
+import java.util.LinkedHashSet;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.jstarcraft.recommendation.evaluator.RankingEvaluator;
+import com.jstarcraft.recommendation.evaluator.ranking.AUCEvaluator;
+import com.jstarcraft.recommendation.evaluator.ranking.FusedRankingEvaluator;
+import com.jstarcraft.recommendation.evaluator.ranking.MAPEvaluator;
+import com.jstarcraft.recommendation.evaluator.ranking.MRREvaluator;
+import com.jstarcraft.recommendation.evaluator.ranking.NDCGEvaluator;
+import com.jstarcraft.recommendation.evaluator.ranking.PrecisionEvaluator;
+import com.jstarcraft.recommendation.evaluator.ranking.RecallEvaluator;
+
+public class FusedRankingEvaluatorTestCase {
+
+	private static final int size = 10, numberOfUsers = 100, numberOfItems = 200;
+
+	@Test
+	public void testEvaluate() {
+		Random random = new Random(0);
+		int[] itemCounts = new int[numberOfItems];
+		for (int itemIndex = 0; itemIndex < numberOfItems; itemIndex++) {
+			// 部分物品没有行为
+			itemCounts[itemIndex] = random.nextInt(4) == 0 ? 0 : random.nextInt(numberOfUsers) + 1;
+		}
+		FusedRankingEvaluator fused = new FusedRankingEvaluator(size, numberOfUsers, itemCounts);
+		RankingEvaluator[] evaluators = new RankingEvaluator[FusedRankingEvaluator.EVALUATORS.length];
+		evaluators[FusedRankingEvaluator.AUC] = new AUCEvaluator(size);
+		evaluators[FusedRankingEvaluator.MAP] = new MAPEvaluator(size);
+		evaluators[FusedRankingEvaluator.MRR] = new MRREvaluator(size);
+		evaluators[FusedRankingEvaluator.NDCG] = new NDCGEvaluator(size);
+		evaluators[FusedRankingEvaluator.PRECISION] = new PrecisionEvaluator(size);
+		evaluators[FusedRankingEvaluator.RECALL] = new RecallEvaluator(size);
+
+		float[] measures = new float[FusedRankingEvaluator.EVALUATORS.length];
+		for (int user = 0; user < 1000; user++) {
+			// 校验物品(可能重复)
+			int checkSize = random.nextInt(30) + 1;
+			int[] checkKeys = fused.getBuffer(checkSize);
+			Set<Integer> checkCollection = new LinkedHashSet<>();
+			for (int index = 0; index < checkSize; index++) {
+				checkKeys[index] = random.nextInt(numberOfItems / 4);
+				checkCollection.add(checkKeys[index]);
+			}
+			// 推荐物品(不重复,可能少于或者多于TopN)
+			int recommendSize = random.nextInt(size * 2);
+			int[] recommendKeys = new int[recommendSize];
+			float[] recommendValues = new float[recommendSize];
+			Set<Integer> recommendSet = new LinkedHashSet<>();
+			while (recommendSet.size() < recommendSize) {
+				recommendSet.add(random.nextInt(numberOfItems / 2));
+			}
+			int cursor = 0;
+			for (int itemIndex : recommendSet) {
+				recommendKeys[cursor] = itemIndex;
+				recommendValues[cursor] = recommendSize - cursor;
+				cursor++;
+			}
+			int candidateSize = recommendSize + random.nextInt(numberOfItems);
+
+			fused.evaluate(checkKeys, checkSize, recommendKeys, recommendSize, candidateSize, measures);
+			for (int index = 0; index < evaluators.length; index++) {
+				RankingEvaluator evaluator = evaluators[index];
+				if (evaluator == null) {
+					continue;
+				}
+				float measure = evaluator.evaluate(checkCollection, recommendKeys, recommendValues, recommendSize, candidateSize).getValue();
+				Assert.assertEquals(evaluator.getClass().getSimpleName(), measure, measures[index], 0F);
+			}
+			// 新颖性
+			float sum = 0F;
+			for (int index = 0, length = Math.min(recommendSize, size); index < length; index++) {
+				int count = itemCounts[recommendKeys[index]];
+				if (count > 0) {
+					float probability = ((float) count) / numberOfUsers;
+					sum += (float) -Math.log(probability);
+				}
+			}
+			Assert.assertEquals((float) (sum / Math.log(2F)), measures[FusedRankingEvaluator.NOVELTY], 0F);
+		}
+	}
+
+	@Test
+	public void testBuffer() {
+		FusedRankingEvaluator fused = new FusedRankingEvaluator(size, numberOfUsers, new int[numberOfItems]);
+		int[] buffer = fused.getBuffer(1);
+		Assert.assertSame(buffer, fused.getBuffer(buffer.length));
+		Assert.assertTrue(fused.getBuffer(buffer.length + 1).length > buffer.length);
+	}
+
+}
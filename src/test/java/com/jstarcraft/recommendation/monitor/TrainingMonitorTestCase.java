@@ -0,0 +1,119 @@
+package com.jstarcraft.recommendation.monitor;
+
+import java.io.StringWriter;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TrainingMonitorTestCase {
+
+	private static float work(int size) {
+		float[] values = new float[size];
+		float sum = 0F;
+		for (int index = 0; index < size; index++) {
+			values[index] = index * 0.5F;
+			sum += values[index];
+		}
+		return sum;
+	}
+
+	@Test
+	public void testMonitor() {
+		TrainingMonitor monitor = new TrainingMonitor("mock");
+		// 没有监听器时只测量墙钟时间
+		TrainingMetric metric = monitor.notifyEpoch(1, 1F, 0F, Float.NaN, 10);
+		Assert.assertEquals(-1L, metric.getCpuTime());
+		Assert.assertEquals(-1L, metric.getAllocatedBytes());
+
+		MemoryListener listener = new MemoryListener();
+		monitor.addListener(listener);
+		// 重复添加无效
+		monitor.addListener(listener);
+		monitor.start();
+		for (int epoch = 1; epoch <= 3; epoch++) {
+			work(100000);
+			monitor.notifyPhase(epoch, "eStep");
+			work(100000);
+			monitor.notifyPhase(epoch, "mStep");
+			monitor.notifyEpoch(epoch, 10F / epoch, 1F, 0.01F, 1000);
+		}
+		Assert.assertEquals(9, listener.getMetrics().size());
+		List<TrainingMetric> epochs = listener.getMetrics(TrainingMetric.EPOCH);
+		List<TrainingMetric> eSteps = listener.getMetrics("eStep");
+		List<TrainingMetric> mSteps = listener.getMetrics("mStep");
+		Assert.assertEquals(3, epochs.size());
+		for (int index = 0; index < 3; index++) {
+			TrainingMetric epoch = epochs.get(index);
+			Assert.assertEquals("mock", epoch.getName());
+			Assert.assertEquals(index + 1, epoch.getEpoch());
+			Assert.assertEquals(10F / (index + 1), epoch.getLoss(), 0F);
+			Assert.assertEquals(0.01F, epoch.getLearnRate(), 0F);
+			Assert.assertEquals(1000, epoch.getNumberOfSamples());
+			Assert.assertTrue(epoch.getSamplesPerSecond() > 0F);
+			Assert.assertTrue(epoch.getWallTime() >= eSteps.get(index).getWallTime() + mSteps.get(index).getWallTime());
+			Assert.assertTrue(epoch.getAllocatedBytes() == -1L || epoch.getAllocatedBytes() >= eSteps.get(index).getAllocatedBytes());
+			Assert.assertTrue(Float.isNaN(eSteps.get(index).getLoss()));
+			Assert.assertEquals(0, eSteps.get(index).getNumberOfSamples());
+		}
+
+		monitor.removeListener(listener);
+		monitor.notifyEpoch(4, 1F, 0F, Float.NaN, 10);
+		Assert.assertEquals(9, listener.getMetrics().size());
+	}
+
+	@Test
+	public void testWorker() throws Exception {
+		TrainingMonitor monitor = new TrainingMonitor("mock");
+		MemoryListener listener = new MemoryListener();
+		monitor.addListener(listener);
+		monitor.start();
+		// 工作者任务的分配计入训练,其它线程(例如并行执行的折)的分配不计入训练
+		Thread worker = new Thread(monitor.measure(() -> {
+			work(1000000);
+		}));
+		worker.start();
+		worker.join();
+		Thread other = new Thread(() -> {
+			for (int index = 0; index < 16; index++) {
+				work(4000000);
+			}
+		});
+		other.start();
+		other.join();
+		TrainingMetric metric = monitor.notifyEpoch(1, 1F, 0F, Float.NaN, 10);
+		if (metric.getAllocatedBytes() != -1L) {
+			Assert.assertTrue(metric.getAllocatedBytes() >= 4000000L);
+			Assert.assertTrue(metric.getAllocatedBytes() < 16L * 16000000L);
+		}
+	}
+
+	@Test
+	public void testWriter() {
+		TrainingMetric phase = new TrainingMetric("mock", 1, "eStep", Float.NaN, Float.NaN, Float.NaN, 0, 1000L, -1L, -1L);
+		TrainingMetric epoch = new TrainingMetric("mock", 1, TrainingMetric.EPOCH, 2.5F, -0.5F, 0.01F, 100, 1000000000L, 2000000000L, 4096L);
+		Assert.assertEquals(100F, epoch.getSamplesPerSecond(), 0F);
+
+		StringWriter csv = new StringWriter();
+		try (CsvListener listener = new CsvListener(csv)) {
+			listener.notifyMetric(phase);
+			listener.notifyMetric(epoch);
+		}
+		String[] lines = csv.toString().split("\n");
+		Assert.assertEquals(3, lines.length);
+		Assert.assertEquals(11, lines[0].split(",").length);
+		Assert.assertEquals("mock,1,eStep,,,,0,0.0,1000,-1,-1", lines[1]);
+		Assert.assertEquals("mock,1,epoch,2.5,-0.5,0.01,100,100.0,1000000000,2000000000,4096", lines[2]);
+
+		StringWriter json = new StringWriter();
+		try (JsonListener listener = new JsonListener(json)) {
+			listener.notifyMetric(phase);
+			listener.notifyMetric(epoch);
+		}
+		lines = json.toString().split("\n");
+		Assert.assertEquals(2, lines.length);
+		Assert.assertEquals("{\"name\":\"mock\",\"epoch\":1,\"phase\":\"eStep\",\"loss\":null,\"deltaLoss\":null,\"learnRate\":null,\"numberOfSamples\":0,\"samplesPerSecond\":0.0,\"wallTime\":1000,\"cpuTime\":-1,\"allocatedBytes\":-1}", lines[0]);
+		Assert.assertEquals("{\"name\":\"mock\",\"epoch\":1,\"phase\":\"epoch\",\"loss\":2.5,\"deltaLoss\":-0.5,\"learnRate\":0.01,\"numberOfSamples\":100,\"samplesPerSecond\":100.0,\"wallTime\":1000000000,\"cpuTime\":2000000000,\"allocatedBytes\":4096}", lines[1]);
+	}
+
+}
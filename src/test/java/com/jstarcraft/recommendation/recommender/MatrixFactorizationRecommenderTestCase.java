@@ -0,0 +1,119 @@
+package com.jstarcraft.recommendation.recommender;
+
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.jstarcraft.ai.math.structure.matrix.DenseMatrix;
+import com.jstarcraft.recommendation.exception.RecommendationException;
+import com.jstarcraft.recommendation.recommender.collaborative.rating.PMFRecommender;
+
+public class MatrixFactorizationRecommenderTestCase {
+
+	private static final int numberOfRatings = 50000, numberOfFactors = 4, numberOfEpoches = 50;
+
+	private static final float learnRate = 0.01F, regularization = 0.015F;
+
+	/**
+	 * 按照SVD++的批量更新训练一个评分非常多的用户,返回隐式反馈因子
+	 */
+	private float[][] train(boolean isMultiplied) {
+		Random random = new Random(0);
+		float[][] itemFactors = new float[numberOfRatings][numberOfFactors];
+		float[][] implicitFactors = new float[numberOfRatings][numberOfFactors];
+		float[] scores = new float[numberOfRatings];
+		for (int itemIndex = 0; itemIndex < numberOfRatings; itemIndex++) {
+			for (int factorIndex = 0; factorIndex < numberOfFactors; factorIndex++) {
+				itemFactors[itemIndex][factorIndex] = (float) random.nextGaussian() * 0.01F;
+				implicitFactors[itemIndex][factorIndex] = (float) random.nextGaussian() * 0.1F;
+			}
+			scores[itemIndex] = random.nextInt(5) + 1F;
+		}
+		float scale = (float) Math.sqrt(numberOfRatings);
+		float[] sums = new float[numberOfFactors];
+		float[] gradients = new float[numberOfFactors];
+		for (int epoch = 0; epoch < numberOfEpoches; epoch++) {
+			for (int factorIndex = 0; factorIndex < numberOfFactors; factorIndex++) {
+				float sum = 0F;
+				for (int itemIndex = 0; itemIndex < numberOfRatings; itemIndex++) {
+					sum += implicitFactors[itemIndex][factorIndex];
+				}
+				sums[factorIndex] = sum / scale;
+				gradients[factorIndex] = 0F;
+			}
+			for (int itemIndex = 0; itemIndex < numberOfRatings; itemIndex++) {
+				float predict = 0F;
+				for (int factorIndex = 0; factorIndex < numberOfFactors; factorIndex++) {
+					predict += sums[factorIndex] * itemFactors[itemIndex][factorIndex];
+				}
+				float error = scores[itemIndex] - predict;
+				for (int factorIndex = 0; factorIndex < numberOfFactors; factorIndex++) {
+					gradients[factorIndex] += error * itemFactors[itemIndex][factorIndex];
+				}
+			}
+			float shrink = MatrixFactorizationRecommender.getShrink(learnRate, regularization, numberOfRatings);
+			for (int itemIndex = 0; itemIndex < numberOfRatings; itemIndex++) {
+				for (int factorIndex = 0; factorIndex < numberOfFactors; factorIndex++) {
+					float factor = implicitFactors[itemIndex][factorIndex];
+					if (isMultiplied) {
+						implicitFactors[itemIndex][factorIndex] = factor * shrink + learnRate * gradients[factorIndex] / scale;
+					} else {
+						implicitFactors[itemIndex][factorIndex] = factor + learnRate * (gradients[factorIndex] / scale - numberOfRatings * regularization * factor);
+					}
+				}
+			}
+		}
+		return implicitFactors;
+	}
+
+	@Test
+	public void testUpdate() {
+		// 不支持增量更新的推荐器在修改任何状态之前失败
+		MatrixFactorizationRecommender recommender = new PMFRecommender();
+		recommender.numberOfUsers = 2;
+		recommender.numberOfItems = 3;
+		DenseMatrix userFactors = DenseMatrix.valueOf(2, numberOfFactors);
+		DenseMatrix itemFactors = DenseMatrix.valueOf(3, numberOfFactors);
+		recommender.userFactors = userFactors;
+		recommender.itemFactors = itemFactors;
+		try {
+			recommender.update(new int[] { 5 }, new int[] { 7 }, new float[] { 1F });
+			Assert.fail();
+		} catch (RecommendationException exception) {
+		}
+		try {
+			recommender.sweep(1);
+			Assert.fail();
+		} catch (RecommendationException exception) {
+		}
+		Assert.assertEquals(2, recommender.numberOfUsers);
+		Assert.assertEquals(3, recommender.numberOfItems);
+		Assert.assertSame(userFactors, recommender.userFactors);
+		Assert.assertSame(itemFactors, recommender.itemFactors);
+	}
+
+	@Test
+	public void testShrink() {
+		Assert.assertEquals(1F, MatrixFactorizationRecommender.getShrink(0F, regularization, numberOfRatings), 0F);
+		Assert.assertEquals(0F, MatrixFactorizationRecommender.getShrink(100F, regularization, numberOfRatings), 0F);
+		Assert.assertEquals(0.985F * 0.985F, MatrixFactorizationRecommender.getShrink(1F, regularization, 2), 1E-6F);
+
+		// learnRate * numberOfRatings * regularization = 7.5,线性的收缩会反号并且发散
+		boolean isFinite = true;
+		for (float[] factors : train(false)) {
+			for (float factor : factors) {
+				isFinite &= Float.isFinite(factor);
+			}
+		}
+		Assert.assertFalse(isFinite);
+
+		for (float[] factors : train(true)) {
+			for (float factor : factors) {
+				Assert.assertTrue(Float.isFinite(factor));
+				Assert.assertTrue(Math.abs(factor) < 10F);
+			}
+		}
+	}
+
+}
@@ -0,0 +1,198 @@
+package com.jstarcraft.recommendation.recommender;
+
+import java.io.File;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.util.LinkedHashMap;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.jstarcraft.ai.math.structure.matrix.DenseMatrix;
+import com.jstarcraft.ai.model.ModelDefinition;
+import com.jstarcraft.recommendation.configure.Configuration;
+import com.jstarcraft.recommendation.data.DataSpace;
+import com.jstarcraft.recommendation.data.accessor.InstanceAccessor;
+import com.jstarcraft.recommendation.data.accessor.SampleAccessor;
+import com.jstarcraft.recommendation.exception.RecommendationException;
+import com.jstarcraft.recommendation.utility.NeighborMatrix;
+
+public class ModelSnapshotTestCase {
+
+	@ModelDefinition(value = { "itemDimension", "numberOfItems" })
+	public static abstract class MockParent implements Recommender {
+
+		protected int itemDimension;
+
+		protected int numberOfItems;
+
+		@Override
+		public void prepare(Configuration configuration, SampleAccessor marker, InstanceAccessor model, DataSpace space) {
+		}
+
+		@Override
+		public void practice() {
+		}
+
+		@Override
+		public void predict(int[] dicreteFeatures, float[] continuousFeatures, int[] itemIndexes, float[] scores) {
+			for (int index = 0, size = itemIndexes.length; index < size; index++) {
+				dicreteFeatures[itemDimension] = itemIndexes[index];
+				scores[index] = predict(dicreteFeatures, continuousFeatures);
+			}
+		}
+
+	}
+
+	@ModelDefinition(value = { "isReady", "meanOfScore", "name", "populars", "scores", "factors", "itemNeighbors", "scoreIndexes", "missing" })
+	public static class MockModel extends MockParent {
+
+		private boolean isReady;
+
+		private float meanOfScore;
+
+		private String name;
+
+		private int[] populars;
+
+		private float[] scores;
+
+		private DenseMatrix factors;
+
+		private NeighborMatrix itemNeighbors;
+
+		private LinkedHashMap<Float, Integer> scoreIndexes;
+
+		private int[] missing;
+
+		@Override
+		public float predict(int[] dicreteFeatures, float[] continuousFeatures) {
+			return scores[dicreteFeatures[itemDimension]];
+		}
+
+	}
+
+	private MockModel getModel() {
+		MockModel model = new MockModel();
+		model.itemDimension = 1;
+		model.numberOfItems = 3;
+		model.isReady = true;
+		model.meanOfScore = 2.5F;
+		model.name = "模型";
+		model.populars = new int[] { 2, 0, 1 };
+		model.scores = new float[] { 0.5F, 1.5F, 2.5F };
+		model.factors = DenseMatrix.valueOf(2, 3, new float[] { 1F, 2F, 3F, 4F, 5F, 6F });
+		model.itemNeighbors = NeighborMatrix.valueOf(new int[][] { { 1, 2 }, { 0 }, {} }, new float[][] { { 0.1F, 0.2F }, { 0.3F }, {} });
+		model.scoreIndexes = new LinkedHashMap<>();
+		model.scoreIndexes.put(1F, 0);
+		model.scoreIndexes.put(5F, 1);
+		return model;
+	}
+
+	@Test
+	public void testSnapshot() throws Exception {
+		File file = File.createTempFile("model", ".snapshot");
+		file.deleteOnExit();
+		MockModel oldModel = getModel();
+		ModelSnapshot.saveModel(oldModel, file);
+
+		ModelSnapshot snapshot = ModelSnapshot.loadModel(file);
+		Assert.assertEquals(MockModel.class, snapshot.getClazz());
+		// 父类声明的字段在前
+		Assert.assertEquals("itemDimension", snapshot.getNames().iterator().next());
+		// 映射的数组
+		IntBuffer populars = snapshot.getIntBuffer("populars", 0);
+		Assert.assertEquals(3, populars.remaining());
+		Assert.assertEquals(2, populars.get(0));
+		FloatBuffer factors = snapshot.getFloatBuffer("factors", 0);
+		Assert.assertEquals(6, factors.remaining());
+		Assert.assertEquals(4F, factors.get(3), 0F);
+		FloatBuffer similarities = snapshot.getFloatBuffer("itemNeighbors", 2);
+		Assert.assertEquals(3, similarities.remaining());
+		Assert.assertEquals(0.3F, similarities.get(2), 0F);
+
+		MockModel newModel = (MockModel) snapshot.getModel();
+		Assert.assertEquals(oldModel.itemDimension, newModel.itemDimension);
+		Assert.assertEquals(oldModel.numberOfItems, newModel.numberOfItems);
+		Assert.assertEquals(oldModel.isReady, newModel.isReady);
+		Assert.assertEquals(oldModel.meanOfScore, newModel.meanOfScore, 0F);
+		Assert.assertEquals(oldModel.name, newModel.name);
+		Assert.assertArrayEquals(oldModel.populars, newModel.populars);
+		Assert.assertArrayEquals(oldModel.scores, newModel.scores, 0F);
+		Assert.assertEquals(oldModel.factors.getRowSize(), newModel.factors.getRowSize());
+		Assert.assertEquals(oldModel.factors.getColumnSize(), newModel.factors.getColumnSize());
+		for (int row = 0; row < 2; row++) {
+			for (int column = 0; column < 3; column++) {
+				Assert.assertEquals(oldModel.factors.getValue(row, column), newModel.factors.getValue(row, column), 0F);
+			}
+		}
+		Assert.assertArrayEquals(oldModel.itemNeighbors.getPaginations(), newModel.itemNeighbors.getPaginations());
+		Assert.assertArrayEquals(oldModel.itemNeighbors.getIndexes(), newModel.itemNeighbors.getIndexes());
+		Assert.assertArrayEquals(oldModel.itemNeighbors.getValues(), newModel.itemNeighbors.getValues(), 0F);
+		Assert.assertEquals(oldModel.scoreIndexes, newModel.scoreIndexes);
+		Assert.assertNull(newModel.missing);
+
+		float[] oldScores = new float[3], newScores = new float[3];
+		oldModel.predict(new int[2], null, new int[] { 0, 1, 2 }, oldScores);
+		newModel.predict(new int[2], null, new int[] { 0, 1, 2 }, newScores);
+		Assert.assertArrayEquals(oldScores, newScores, 0F);
+	}
+
+	@Test
+	public void testWindow() throws Exception {
+		File file = File.createTempFile("model", ".snapshot");
+		file.deleteOnExit();
+		MockModel oldModel = getModel();
+		ModelSnapshot.saveModel(oldModel, file);
+
+		// 使用很小的窗口模拟超过2GB的快照与数组
+		ModelSnapshot snapshot = ModelSnapshot.loadModel(file, 16);
+		Assert.assertEquals("模型", ((MockModel) snapshot.getModel()).name);
+		FloatBuffer[] factors = snapshot.getFloatBuffers("factors", 0);
+		Assert.assertEquals(2, factors.length);
+		Assert.assertEquals(4, factors[0].remaining());
+		Assert.assertEquals(2, factors[1].remaining());
+		Assert.assertEquals(5F, factors[1].get(0), 0F);
+		try {
+			snapshot.getFloatBuffer("factors", 0);
+			Assert.fail();
+		} catch (RecommendationException exception) {
+		}
+		IntBuffer[] populars = snapshot.getIntBuffers("populars", 0);
+		Assert.assertEquals(1, populars.length);
+		Assert.assertEquals(1, snapshot.getIntBuffer("populars", 0).get(2));
+
+		MockModel newModel = (MockModel) snapshot.getModel();
+		Assert.assertArrayEquals(oldModel.populars, newModel.populars);
+		Assert.assertArrayEquals(oldModel.scores, newModel.scores, 0F);
+		for (int row = 0; row < 2; row++) {
+			for (int column = 0; column < 3; column++) {
+				Assert.assertEquals(oldModel.factors.getValue(row, column), newModel.factors.getValue(row, column), 0F);
+			}
+		}
+		Assert.assertArrayEquals(oldModel.itemNeighbors.getPaginations(), newModel.itemNeighbors.getPaginations());
+		Assert.assertArrayEquals(oldModel.itemNeighbors.getValues(), newModel.itemNeighbors.getValues(), 0F);
+		Assert.assertEquals(oldModel.scoreIndexes, newModel.scoreIndexes);
+	}
+
+	@Test
+	public void testClass() throws Exception {
+		File file = File.createTempFile("model", ".snapshot");
+		file.deleteOnExit();
+		ModelSnapshot.saveModel(getModel(), file);
+		ModelSnapshot snapshot = ModelSnapshot.loadModel(file);
+		try {
+			snapshot.setModel(new MockParent() {
+
+				@Override
+				public float predict(int[] dicreteFeatures, float[] continuousFeatures) {
+					return 0F;
+				}
+
+			});
+			Assert.fail();
+		} catch (RecommendationException exception) {
+		}
+	}
+
+}
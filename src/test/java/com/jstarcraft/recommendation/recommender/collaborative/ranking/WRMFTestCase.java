@@ -1,11 +1,13 @@
 package com.jstarcraft.recommendation.recommender.collaborative.ranking;
 
 import java.util.Map;
+import java.util.function.IntPredicate;
 
 import org.hamcrest.CoreMatchers;
 import org.junit.Assert;
 import org.junit.Test;
 
+import com.jstarcraft.ai.math.structure.matrix.DenseMatrix;
 import com.jstarcraft.recommendation.configure.Configuration;
 import com.jstarcraft.recommendation.evaluator.ranking.AUCEvaluator;
 import com.jstarcraft.recommendation.evaluator.ranking.MAPEvaluator;
@@ -15,9 +17,96 @@ import com.jstarcraft.recommendation.evaluator.ranking.NoveltyEvaluator;
 import com.jstarcraft.recommendation.evaluator.ranking.PrecisionEvaluator;
 import com.jstarcraft.recommendation.evaluator.ranking.RecallEvaluator;
 import com.jstarcraft.recommendation.task.RankingTask;
+import com.jstarcraft.recommendation.utility.RankingHeap;
 
 public class WRMFTestCase {
 
+	/** 暴露因子用于校验增量更新 */
+	public static class FactorRecommender extends WRMFRecommender {
+
+		public float[] getUserVector(int userIndex) {
+			return getVector(userFactors, userIndex);
+		}
+
+		public float[] getItemVector(int itemIndex) {
+			return getVector(itemFactors, itemIndex);
+		}
+
+		private float[] getVector(DenseMatrix factors, int row) {
+			float[] vector = new float[numberOfFactors];
+			for (int factorIndex = 0; factorIndex < numberOfFactors; factorIndex++) {
+				vector[factorIndex] = factors.getValue(row, factorIndex);
+			}
+			return vector;
+		}
+
+		public float getUserRegularization() {
+			return userRegularization;
+		}
+
+	}
+
+	/**
+	 * 按照训练的法方程直接求解用户因子
+	 * 
+	 * <pre>
+	 * (YtY + Yt * (Cu - I) * Y + lambda) * x = Yt * (Cu + I) * Pu,正则项累加到每个元素.
+	 * </pre>
+	 */
+	private static double[] solveUser(FactorRecommender recommender, int[] itemIndexes, float confidence) {
+		int numberOfItems = recommender.getNumberOfItems();
+		int numberOfFactors = recommender.getItemVector(0).length;
+		double[][] matrix = new double[numberOfFactors][numberOfFactors + 1];
+		for (int itemIndex = 0; itemIndex < numberOfItems; itemIndex++) {
+			float[] vector = recommender.getItemVector(itemIndex);
+			for (int row = 0; row < numberOfFactors; row++) {
+				for (int column = 0; column < numberOfFactors; column++) {
+					matrix[row][column] += vector[row] * vector[column];
+				}
+			}
+		}
+		for (int itemIndex : itemIndexes) {
+			float[] vector = recommender.getItemVector(itemIndex);
+			for (int row = 0; row < numberOfFactors; row++) {
+				for (int column = 0; column < numberOfFactors; column++) {
+					matrix[row][column] += confidence * vector[row] * vector[column];
+				}
+				matrix[row][numberOfFactors] += (confidence + 1F) * vector[row];
+			}
+		}
+		for (int row = 0; row < numberOfFactors; row++) {
+			for (int column = 0; column < numberOfFactors; column++) {
+				matrix[row][column] += recommender.getUserRegularization();
+			}
+		}
+		// 列主元的高斯消元
+		for (int pivot = 0; pivot < numberOfFactors; pivot++) {
+			int maximum = pivot;
+			for (int row = pivot + 1; row < numberOfFactors; row++) {
+				if (Math.abs(matrix[row][pivot]) > Math.abs(matrix[maximum][pivot])) {
+					maximum = row;
+				}
+			}
+			double[] swap = matrix[pivot];
+			matrix[pivot] = matrix[maximum];
+			matrix[maximum] = swap;
+			for (int row = 0; row < numberOfFactors; row++) {
+				if (row == pivot) {
+					continue;
+				}
+				double ratio = matrix[row][pivot] / matrix[pivot][pivot];
+				for (int column = pivot; column <= numberOfFactors; column++) {
+					matrix[row][column] -= ratio * matrix[pivot][column];
+				}
+			}
+		}
+		double[] solution = new double[numberOfFactors];
+		for (int row = 0; row < numberOfFactors; row++) {
+			solution[row] = matrix[row][numberOfFactors] / matrix[row][row];
+		}
+		return solution;
+	}
+
 	@Test
 	public void testRecommender() throws Exception {
 		Configuration configuration = Configuration.valueOf("recommendation/collaborative/ranking/wrmf-test.properties");
@@ -32,4 +121,38 @@ public class WRMFTestCase {
 		Assert.assertThat(measures.get(RecallEvaluator.class.getSimpleName()), CoreMatchers.equalTo(0.63372076F));
 	}
 
+	@Test
+	public void testUpdate() throws Exception {
+		Configuration configuration = Configuration.valueOf("recommendation/collaborative/ranking/wrmf-test.properties");
+		RankingTask job = new RankingTask(FactorRecommender.class, configuration);
+		job.execute();
+		FactorRecommender recommender = (FactorRecommender) job.getRecommender();
+		int numberOfUsers = recommender.getNumberOfUsers();
+		int numberOfItems = recommender.getNumberOfItems();
+		// 追加一个新用户(评分5个已有物品与1个新物品)
+		int userIndex = numberOfUsers;
+		int[] itemIndexes = new int[] { 0, 1, 2, 3, 4, numberOfItems };
+		int[] userIndexes = new int[itemIndexes.length];
+		float[] scores = new float[itemIndexes.length];
+		for (int index = 0; index < itemIndexes.length; index++) {
+			userIndexes[index] = userIndex;
+			scores[index] = 1F;
+		}
+		recommender.update(userIndexes, itemIndexes, scores);
+		Assert.assertThat(recommender.getNumberOfUsers(), CoreMatchers.equalTo(numberOfUsers + 1));
+		Assert.assertThat(recommender.getNumberOfItems(), CoreMatchers.equalTo(numberOfItems + 1));
+		Assert.assertThat(recommender.getIndex().getSize(), CoreMatchers.equalTo(numberOfItems + 1));
+		// 增量求解的用户因子应该与按照训练的法方程直接求解的结果一致
+		float confidence = (float) Math.log(1F + Math.pow(10, configuration.getFloat("rec.wrmf.weight.coefficient", 4F)) * 1F);
+		double[] solution = solveUser(recommender, itemIndexes, confidence);
+		float[] vector = recommender.getUserVector(userIndex);
+		for (int factorIndex = 0; factorIndex < vector.length; factorIndex++) {
+			Assert.assertEquals(solution[factorIndex], vector[factorIndex], 1E-3D * Math.max(1D, Math.abs(solution[factorIndex])));
+		}
+		// 扩展之后的索引可以检索新用户
+		RankingHeap heap = recommender.topN(userIndex, itemIndexes.length * 2, (IntPredicate) null);
+		Assert.assertThat(heap.getSize(), CoreMatchers.equalTo(itemIndexes.length * 2));
+		recommender.sweep(numberOfItems);
+	}
+
 }
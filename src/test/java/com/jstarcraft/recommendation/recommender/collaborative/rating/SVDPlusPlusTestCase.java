@@ -1,5 +1,6 @@
 package com.jstarcraft.recommendation.recommender.collaborative.rating;
 
+import java.util.HashMap;
 import java.util.Map;
 
 import org.hamcrest.CoreMatchers;
@@ -24,4 +25,19 @@ public class SVDPlusPlusTestCase {
 		Assert.assertThat(measures.get(MSEEvaluator.class.getSimpleName()), CoreMatchers.equalTo(0.64945436F));
 	}
 
+	@Test
+	public void testBatched() throws Exception {
+		// 按照用户批量更新隐式反馈因子,多个工作者按照用户切割样本
+		Map<String, String> keyValues = new HashMap<>();
+		keyValues.put("rec.svdpp.batch", "true");
+		keyValues.put("rec.thread.count", "2");
+		Configuration configuration = Configuration.valueOf(Configuration.valueOf("recommendation/collaborative/rating/svdpp-test.properties"), keyValues);
+		RatingTask job = new RatingTask(SVDPlusPlusRecommender.class, configuration);
+		Map<String, Float> measures = job.execute();
+		float mae = measures.get(MAEEvaluator.class.getSimpleName());
+		float mse = measures.get(MSEEvaluator.class.getSimpleName());
+		Assert.assertTrue(Float.isFinite(mae) && mae > 0F && mae < 1F);
+		Assert.assertTrue(Float.isFinite(mse) && mse > 0F && mse < 1.5F);
+	}
+
 }
@@ -1,5 +1,6 @@
 package com.jstarcraft.recommendation.recommender.context.rating;
 
+import java.util.HashMap;
 import java.util.Map;
 
 import org.hamcrest.CoreMatchers;
@@ -24,4 +25,19 @@ public class TimeSVDTestCase {
 		Assert.assertThat(measures.get(MSEEvaluator.class.getSimpleName()), CoreMatchers.equalTo(0.8627426F));
 	}
 
+	@Test
+	public void testBatched() throws Exception {
+		// 按照用户批量更新隐式反馈因子
+		Map<String, String> keyValues = new HashMap<>();
+		keyValues.put("rec.svdpp.batch", "true");
+		keyValues.put("rec.thread.count", "2");
+		Configuration configuration = Configuration.valueOf(Configuration.valueOf("recommendation/context/rating/timesvd-test.properties"), keyValues);
+		RatingTask job = new RatingTask(TimeSVDRecommender.class, configuration);
+		Map<String, Float> measures = job.execute();
+		float mae = measures.get(MAEEvaluator.class.getSimpleName());
+		float mse = measures.get(MSEEvaluator.class.getSimpleName());
+		Assert.assertTrue(Float.isFinite(mae) && mae > 0F && mae < 1F);
+		Assert.assertTrue(Float.isFinite(mse) && mse > 0F && mse < 1.5F);
+	}
+
 }
@@ -0,0 +1,66 @@
+package com.jstarcraft.recommendation.service;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.jstarcraft.recommendation.configure.Configuration;
+import com.jstarcraft.recommendation.data.DataSpace;
+import com.jstarcraft.recommendation.data.accessor.InstanceAccessor;
+import com.jstarcraft.recommendation.data.accessor.SampleAccessor;
+import com.jstarcraft.recommendation.recommender.Recommender;
+
+public class RecommendServiceTestCase {
+
+	/** 得分为物品索引的推荐器 */
+	private static class IndexRecommender implements Recommender {
+
+		private final int itemDimension;
+
+		private IndexRecommender(int itemDimension) {
+			this.itemDimension = itemDimension;
+		}
+
+		@Override
+		public void prepare(Configuration configuration, SampleAccessor marker, InstanceAccessor model, DataSpace space) {
+		}
+
+		@Override
+		public void practice() {
+		}
+
+		@Override
+		public float predict(int[] dicreteFeatures, float[] continuousFeatures) {
+			return dicreteFeatures[itemDimension];
+		}
+
+		@Override
+		public void predict(int[] dicreteFeatures, float[] continuousFeatures, int[] itemIndexes, float[] scores) {
+			for (int index = 0; index < itemIndexes.length; index++) {
+				dicreteFeatures[itemDimension] = itemIndexes[index];
+				scores[index] = predict(dicreteFeatures, continuousFeatures);
+			}
+		}
+
+	}
+
+	@Test
+	public void testExpand() {
+		RecommendService service = new RecommendService(new IndexRecommender(1), 2, 0, 0, 1, 2, 5, 3, 10);
+		// 超出初始用户数量的用户按需扩展
+		int userIndex = 5000;
+		Assert.assertEquals(0, service.getHistory(userIndex).length);
+		service.setHistory(userIndex, new int[] { 4 });
+		RankingList list = service.recommend(userIndex, 3, null);
+		Assert.assertEquals(3, list.getSize());
+		Assert.assertEquals(3, list.getKey(0));
+		Assert.assertEquals(2, list.getKey(1));
+		Assert.assertEquals(1, list.getKey(2));
+		// 已有用户不受扩展影响
+		service.setHistory(0, new int[] { 3 });
+		Assert.assertEquals(4, service.recommend(0, 3, null).getKey(0));
+		Assert.assertArrayEquals(new int[] { 4 }, service.getHistory(userIndex));
+		service.invalidateAll();
+		Assert.assertEquals(0, service.getCache().getSize());
+	}
+
+}
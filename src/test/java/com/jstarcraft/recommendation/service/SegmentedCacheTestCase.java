@@ -0,0 +1,46 @@
+package com.jstarcraft.recommendation.service;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SegmentedCacheTestCase {
+
+	@Test
+	public void testEviction() {
+		SegmentedCache<String> cache = new SegmentedCache<>(4, 0.5F);
+		cache.put(0, "0");
+		cache.put(1, "1");
+		// 命中之后晋升到保护段
+		Assert.assertEquals("0", cache.get(0));
+		Assert.assertEquals("1", cache.get(1));
+		// 只访问一次的元素不会挤出保护段
+		for (int key = 2; key < 10; key++) {
+			cache.put(key, String.valueOf(key));
+		}
+		Assert.assertEquals(4, cache.getSize());
+		Assert.assertEquals("0", cache.get(0));
+		Assert.assertEquals("1", cache.get(1));
+		Assert.assertNull(cache.get(2));
+		Assert.assertEquals("9", cache.get(9));
+		Assert.assertEquals(6, cache.getEvictionCount());
+		Assert.assertEquals(5, cache.getHitCount());
+		Assert.assertEquals(1, cache.getMissCount());
+	}
+
+	@Test
+	public void testRemove() {
+		SegmentedCache<String> cache = new SegmentedCache<>(4, 0.5F);
+		cache.put(0, "0");
+		cache.put(1, "1");
+		cache.get(0);
+		cache.remove(0);
+		cache.remove(1);
+		Assert.assertNull(cache.get(0));
+		Assert.assertNull(cache.get(1));
+		Assert.assertEquals(0, cache.getSize());
+		cache.put(2, "2");
+		cache.clear();
+		Assert.assertEquals(0, cache.getSize());
+	}
+
+}
@@ -0,0 +1,147 @@
+package com.jstarcraft.recommendation.utility;
+
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.google.common.collect.HashBasedTable;
+import com.google.common.collect.Table;
+import com.jstarcraft.ai.math.structure.matrix.SparseMatrix;
+import com.jstarcraft.ai.math.structure.vector.SparseVector;
+import com.jstarcraft.recommendation.exception.RecommendationException;
+
+public class NegativeSamplerTestCase {
+
+	private static final int numberOfUsers = 20, numberOfItems = 50, numberOfSamples = 100000;
+
+	private SparseMatrix getMatrix() {
+		Random random = new Random(0);
+		Table<Integer, Integer, Float> table = HashBasedTable.create();
+		for (int userIndex = 0; userIndex < numberOfUsers; userIndex++) {
+			// 最后一个用户的正物品非常密集
+			int size = userIndex == numberOfUsers - 1 ? numberOfItems - 2 : random.nextInt(numberOfItems / 2) + 1;
+			while (table.row(userIndex).size() < size) {
+				table.put(userIndex, random.nextInt(numberOfItems), 1F);
+			}
+		}
+		return SparseMatrix.valueOf(numberOfUsers, numberOfItems, table);
+	}
+
+	/**
+	 * 检查采样的分布
+	 */
+	private void checkSampler(SparseMatrix matrix, NegativeSampler sampler, float[] weights) {
+		Random random = new Random(0);
+		for (int userIndex = 0; userIndex < numberOfUsers; userIndex++) {
+			SparseVector userVector = matrix.getRowVector(userIndex);
+			boolean[] positives = new boolean[numberOfItems];
+			for (int position = 0; position < userVector.getElementSize(); position++) {
+				positives[userVector.getIndex(position)] = true;
+			}
+			float sum = 0F;
+			for (int itemIndex = 0; itemIndex < numberOfItems; itemIndex++) {
+				if (!positives[itemIndex]) {
+					sum += weights[itemIndex];
+				}
+			}
+			int[] counts = new int[numberOfItems];
+			for (int sample = 0; sample < numberOfSamples; sample++) {
+				int itemIndex = sampler.sample(random, userIndex);
+				Assert.assertFalse(positives[itemIndex]);
+				counts[itemIndex]++;
+			}
+			for (int itemIndex = 0; itemIndex < numberOfItems; itemIndex++) {
+				if (positives[itemIndex]) {
+					continue;
+				}
+				float probability = weights[itemIndex] / sum;
+				Assert.assertEquals(probability, counts[itemIndex] / (float) numberOfSamples, 0.01F);
+			}
+		}
+	}
+
+	@Test
+	public void testUniform() {
+		SparseMatrix matrix = getMatrix();
+		float[] weights = new float[numberOfItems];
+		for (int itemIndex = 0; itemIndex < numberOfItems; itemIndex++) {
+			weights[itemIndex] = 1F;
+		}
+		checkSampler(matrix, NegativeSampler.nameOf("skip", matrix), weights);
+		checkSampler(matrix, NegativeSampler.nameOf("rejection", matrix), weights);
+
+		// 相同的随机数得到与逐个跳过正物品相同的结果
+		NegativeSampler sampler = new SkipSampler(matrix);
+		Random left = new Random(0), right = new Random(0);
+		for (int userIndex = 0; userIndex < numberOfUsers; userIndex++) {
+			SparseVector userVector = matrix.getRowVector(userIndex);
+			for (int sample = 0; sample < 100; sample++) {
+				int itemIndex = right.nextInt(numberOfItems - userVector.getElementSize());
+				for (int position = 0; position < userVector.getElementSize(); position++) {
+					if (itemIndex >= userVector.getIndex(position)) {
+						itemIndex++;
+					} else {
+						break;
+					}
+				}
+				Assert.assertEquals(itemIndex, sampler.sample(left, userIndex));
+			}
+		}
+
+		try {
+			NegativeSampler.nameOf("unknown", matrix);
+			Assert.fail();
+		} catch (RecommendationException exception) {
+		}
+	}
+
+	@Test
+	public void testPopularity() {
+		SparseMatrix matrix = getMatrix();
+		float[] weights = new float[numberOfItems];
+		for (int itemIndex = 0; itemIndex < numberOfItems; itemIndex++) {
+			weights[itemIndex] = matrix.getColumnScope(itemIndex);
+		}
+		checkSampler(matrix, NegativeSampler.nameOf("popularity", matrix), weights);
+	}
+
+	@Test
+	public void testAlias() {
+		Random random = new Random(0);
+		float[] weights = new float[numberOfItems];
+		for (int itemIndex = 0; itemIndex < numberOfItems; itemIndex++) {
+			// 部分权重为0
+			weights[itemIndex] = itemIndex % 5 == 0 ? 0F : random.nextFloat();
+		}
+		AliasTable table = new AliasTable(weights);
+		for (int turn = 0; turn < 2; turn++) {
+			float sum = 0F;
+			for (float weight : weights) {
+				sum += weight;
+			}
+			int[] counts = new int[numberOfItems];
+			for (int sample = 0; sample < numberOfSamples; sample++) {
+				counts[table.sample(random)]++;
+			}
+			for (int itemIndex = 0; itemIndex < numberOfItems; itemIndex++) {
+				if (weights[itemIndex] == 0F) {
+					Assert.assertEquals(0, counts[itemIndex]);
+				}
+				Assert.assertEquals(weights[itemIndex] / sum, counts[itemIndex] / (float) numberOfSamples, 0.01F);
+			}
+			// 自适应的分布
+			for (int itemIndex = 0; itemIndex < numberOfItems; itemIndex++) {
+				weights[itemIndex] = itemIndex % 2 == 0 ? itemIndex : 0F;
+			}
+			table.update(weights);
+		}
+
+		try {
+			table.update(new float[numberOfItems]);
+			Assert.fail();
+		} catch (RecommendationException exception) {
+		}
+	}
+
+}
@@ -0,0 +1,132 @@
+package com.jstarcraft.recommendation.utility;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.google.common.collect.HashBasedTable;
+import com.google.common.collect.Table;
+import com.jstarcraft.ai.math.algorithm.similarity.CosineSimilarity;
+import com.jstarcraft.ai.math.algorithm.similarity.JaccardSimilarity;
+import com.jstarcraft.ai.math.algorithm.similarity.PCCSimilarity;
+import com.jstarcraft.ai.math.algorithm.similarity.Similarity;
+import com.jstarcraft.ai.math.structure.matrix.SparseMatrix;
+import com.jstarcraft.ai.math.structure.matrix.SymmetryMatrix;
+import com.jstarcraft.core.utility.KeyValue;
+import com.jstarcraft.core.utility.RandomUtility;
+
+public class NeighborUtilityTestCase {
+
+	private float getCorrelation(Table<Integer, Integer, Float> table, int leftIndex, int rightIndex, float shrinkage, SparseSimilarity similarity) {
+		int count = 0;
+		float leftSum = 0F, rightSum = 0F, leftSquare = 0F, rightSquare = 0F, product = 0F;
+		for (int row : table.column(leftIndex).keySet()) {
+			Float rightValue = table.get(row, rightIndex);
+			if (rightValue == null) {
+				continue;
+			}
+			float leftValue = table.get(row, leftIndex);
+			count++;
+			leftSum += leftValue;
+			rightSum += rightValue;
+			leftSquare += leftValue * leftValue;
+			rightSquare += rightValue * rightValue;
+			product += leftValue * rightValue;
+		}
+		if (count == 0) {
+			return 0F;
+		}
+		float value = similarity.getCorrelation(count, table.column(leftIndex).size(), table.column(rightIndex).size(), leftSum, rightSum, leftSquare, rightSquare, product);
+		if (shrinkage > 0F) {
+			value *= count / (count + shrinkage);
+		}
+		return value;
+	}
+
+	@Test
+	public void testSparse() {
+		int rowSize = 200, columnSize = 100, neighborSize = 10;
+		float shrinkage = 5F;
+		Table<Integer, Integer, Float> table = HashBasedTable.create();
+		for (int index = 0; index < 2000; index++) {
+			table.put(RandomUtility.randomInteger(rowSize), RandomUtility.randomInteger(columnSize), RandomUtility.randomInteger(5) + 1F);
+		}
+		SparseMatrix matrix = SparseMatrix.valueOf(rowSize, columnSize, table);
+		// SLIM把自身作为候选的邻居
+		for (boolean isSelf : new boolean[] { false, true }) {
+			for (SparseSimilarity similarity : new SparseSimilarity[] { SparseSimilarity.COSINE_SIMILARITY, SparseSimilarity.JACCARD_SIMILARITY, SparseSimilarity.PCC_SIMILARITY }) {
+				NeighborMatrix neighbors = NeighborUtility.getNeighbors(matrix, true, shrinkage, neighborSize, similarity, isSelf);
+				Assert.assertEquals(columnSize, neighbors.getRowSize());
+				for (int leftIndex = 0; leftIndex < columnSize; leftIndex++) {
+					List<KeyValue<Integer, Float>> list = new ArrayList<>(columnSize);
+					for (int rightIndex = 0; rightIndex < columnSize; rightIndex++) {
+						if (leftIndex == rightIndex && !isSelf) {
+							continue;
+						}
+						float value = getCorrelation(table, leftIndex, rightIndex, shrinkage, similarity);
+						if (value != 0F && !Float.isNaN(value)) {
+							list.add(new KeyValue<>(rightIndex, value));
+						}
+					}
+					Collections.sort(list, (left, right) -> {
+						return right.getValue().compareTo(left.getValue());
+					});
+					list = list.subList(0, Math.min(neighborSize, list.size()));
+					Collections.sort(list, (left, right) -> {
+						return left.getKey().compareTo(right.getKey());
+					});
+					Assert.assertEquals(list.size(), neighbors.getNeighborSize(leftIndex));
+					int from = neighbors.getPaginations()[leftIndex];
+					for (int position = 0; position < list.size(); position++) {
+						Assert.assertEquals(list.get(position).getKey().intValue(), neighbors.getIndexes()[from + position]);
+						Assert.assertEquals(list.get(position).getValue(), neighbors.getValues()[from + position], 1E-5F);
+						Assert.assertEquals(list.get(position).getValue(), neighbors.getValue(leftIndex, list.get(position).getKey()), 1E-5F);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * 与库的{@link Similarity}比较(邻居数量等于列数量,所以稀疏路径保留所有相似度)
+	 */
+	@Test
+	public void testLibrary() {
+		int rowSize = 200, columnSize = 100;
+		float shrinkage = 5F;
+		Table<Integer, Integer, Float> table = HashBasedTable.create();
+		for (int index = 0; index < 2000; index++) {
+			table.put(RandomUtility.randomInteger(rowSize), RandomUtility.randomInteger(columnSize), RandomUtility.randomInteger(5) + 1F);
+		}
+		SparseMatrix matrix = SparseMatrix.valueOf(rowSize, columnSize, table);
+		Similarity[] similarities = new Similarity[] { new CosineSimilarity(), new JaccardSimilarity(), new PCCSimilarity() };
+		for (Similarity similarity : similarities) {
+			SymmetryMatrix similarityMatrix = similarity.makeSimilarityMatrix(matrix, true, shrinkage);
+			NeighborMatrix neighbors = NeighborUtility.getNeighbors(matrix, true, shrinkage, columnSize, SparseSimilarity.classOf(similarity.getClass().getName()));
+			for (int leftIndex = 0; leftIndex < columnSize; leftIndex++) {
+				for (int rightIndex = 0; rightIndex < columnSize; rightIndex++) {
+					if (leftIndex == rightIndex) {
+						continue;
+					}
+					// 稀疏路径不保存NaN与0的相似度
+					float value = similarityMatrix.getValue(leftIndex, rightIndex);
+					if (Float.isNaN(value)) {
+						value = 0F;
+					}
+					Assert.assertEquals(similarity.getClass().getSimpleName(), value, neighbors.getValue(leftIndex, rightIndex), 1E-5F);
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testClass() {
+		Assert.assertSame(SparseSimilarity.COSINE_SIMILARITY, SparseSimilarity.classOf("com.jstarcraft.ai.math.algorithm.similarity.CosineSimilarity"));
+		Assert.assertSame(SparseSimilarity.JACCARD_SIMILARITY, SparseSimilarity.classOf("com.jstarcraft.ai.math.algorithm.similarity.JaccardSimilarity"));
+		Assert.assertSame(SparseSimilarity.PCC_SIMILARITY, SparseSimilarity.classOf("com.jstarcraft.ai.math.algorithm.similarity.PCCSimilarity"));
+	}
+
+}
@@ -0,0 +1,81 @@
+package com.jstarcraft.recommendation.utility;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.jstarcraft.core.utility.RandomUtility;
+import com.jstarcraft.recommendation.exception.RecommendationException;
+
+import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
+import it.unimi.dsi.fastutil.ints.IntSet;
+
+public class ProductIndexTestCase {
+
+	private static final int SIZE = 2000, DIMENSION = 8;
+
+	private float[] getVectors(int size) {
+		float[] vectors = new float[size * DIMENSION];
+		for (int index = 0; index < vectors.length; index++) {
+			vectors[index] = RandomUtility.randomFloat(2F) - 1F;
+		}
+		return vectors;
+	}
+
+	@Test
+	public void testExact() {
+		float[] vectors = getVectors(SIZE);
+		float[] query = getVectors(1);
+		IntSet excludes = new IntOpenHashSet();
+		for (int index = 0; index < 100; index++) {
+			excludes.add(RandomUtility.randomInteger(SIZE));
+		}
+		ProductIndex index = ProductIndex.nameOf("exact", vectors, DIMENSION, 0, 0, 0);
+		RankingHeap heap = index.topN(query, 10, excludes::contains);
+		Assert.assertEquals(10, heap.getSize());
+		float minimum = heap.getValues()[heap.getSize() - 1];
+		for (int position = 0; position < heap.getSize(); position++) {
+			int key = heap.getKeys()[position];
+			Assert.assertFalse(excludes.contains(key));
+			Assert.assertEquals(ProductIndex.getProduct(query, vectors, 0, key * DIMENSION, DIMENSION), heap.getValues()[position], 0F);
+			if (position > 0) {
+				Assert.assertTrue(heap.getValues()[position - 1] >= heap.getValues()[position]);
+			}
+		}
+		int count = 0;
+		for (int key = 0; key < SIZE; key++) {
+			if (!excludes.contains(key) && ProductIndex.getProduct(query, vectors, 0, key * DIMENSION, DIMENSION) > minimum) {
+				count++;
+			}
+		}
+		Assert.assertTrue(count < 10);
+	}
+
+	@Test
+	public void testCluster() {
+		float[] vectors = getVectors(SIZE);
+		float[][] queries = new float[50][];
+		for (int index = 0; index < queries.length; index++) {
+			queries[index] = getVectors(1);
+		}
+		ProductIndex exact = new ExactProductIndex(vectors, DIMENSION);
+		ClusterProductIndex cluster = new ClusterProductIndex(vectors, DIMENSION, 40, 40, 10);
+		// 探测所有的簇时与精确搜索一致
+		Assert.assertEquals(1F, ProductIndex.getRecall(cluster, exact, queries, 10), 0F);
+		cluster.setNumberOfProbes(1);
+		float minimum = ProductIndex.getRecall(cluster, exact, queries, 10);
+		cluster.setNumberOfProbes(10);
+		float maximum = ProductIndex.getRecall(cluster, exact, queries, 10);
+		Assert.assertTrue(minimum <= maximum);
+		Assert.assertTrue(maximum > 0.5F);
+	}
+
+	@Test
+	public void testName() {
+		try {
+			ProductIndex.nameOf("unknown", getVectors(1), DIMENSION, 1, 1, 1);
+			Assert.fail();
+		} catch (RecommendationException exception) {
+		}
+	}
+
+}
@@ -0,0 +1,53 @@
+package com.jstarcraft.recommendation.utility;
+
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class RandomUtilityTestCase {
+
+	private static final int size = 1000;
+
+	private int[] sample(long seed) {
+		RandomUtility.setRandom(new Random(seed));
+		try {
+			int[] samples = new int[size];
+			for (int index = 0; index < size; index++) {
+				samples[index] = RandomUtility.randomInteger(size);
+			}
+			RandomUtility.shuffle(samples);
+			return samples;
+		} finally {
+			RandomUtility.setRandom(null);
+		}
+	}
+
+	@Test
+	public void testBind() throws Exception {
+		// 每个线程绑定的随机数互不干扰,结果与线程调度无关
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			Future<int[]>[] futures = new Future[8];
+			for (int index = 0; index < futures.length; index++) {
+				long seed = index;
+				futures[index] = executor.submit(() -> sample(seed));
+			}
+			for (int index = 0; index < futures.length; index++) {
+				Assert.assertArrayEquals(sample(index), futures[index].get());
+			}
+		} finally {
+			executor.shutdown();
+		}
+
+		// 解除绑定之后委托给全局的随机数
+		com.jstarcraft.core.utility.RandomUtility.setSeed(0L);
+		int left = RandomUtility.randomInteger(size);
+		com.jstarcraft.core.utility.RandomUtility.setSeed(0L);
+		Assert.assertEquals(com.jstarcraft.core.utility.RandomUtility.randomInteger(size), left);
+	}
+
+}
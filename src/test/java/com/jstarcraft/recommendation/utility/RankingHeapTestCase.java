@@ -0,0 +1,56 @@
+package com.jstarcraft.recommendation.utility;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.jstarcraft.core.utility.KeyValue;
+import com.jstarcraft.core.utility.RandomUtility;
+
+public class RankingHeapTestCase {
+
+	@Test
+	public void testSort() {
+		int size = 1000;
+		for (int capacity : new int[] { 0, 1, 10, size, size * 2 }) {
+			RankingHeap heap = new RankingHeap(capacity);
+			List<KeyValue<Integer, Float>> list = new ArrayList<>(size);
+			for (int index = 0; index < size; index++) {
+				// 故意制造大量相同的得分,检查稳定性
+				float value = RandomUtility.randomInteger(10);
+				heap.offer(index, value);
+				list.add(new KeyValue<>(index, value));
+			}
+			Collections.sort(list, (left, right) -> {
+				return right.getValue().compareTo(left.getValue());
+			});
+			heap.sort();
+
+			Assert.assertEquals(size, heap.getCount());
+			Assert.assertEquals(Math.min(size, capacity), heap.getSize());
+			for (int index = 0; index < heap.getSize(); index++) {
+				Assert.assertEquals(list.get(index).getKey().intValue(), heap.getKeys()[index]);
+				Assert.assertEquals(list.get(index).getValue(), heap.getValues()[index], 0F);
+			}
+		}
+	}
+
+	@Test
+	public void testClear() {
+		RankingHeap heap = new RankingHeap(2);
+		heap.offer(0, 1F);
+		heap.offer(1, 2F);
+		heap.offer(2, 3F);
+		heap.clear();
+		Assert.assertEquals(0, heap.getSize());
+		Assert.assertEquals(0, heap.getCount());
+		heap.offer(3, 0F);
+		heap.sort();
+		Assert.assertEquals(1, heap.getSize());
+		Assert.assertEquals(3, heap.getKeys()[0]);
+	}
+
+}
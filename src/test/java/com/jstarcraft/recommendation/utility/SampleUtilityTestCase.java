@@ -38,4 +38,15 @@ public class SampleUtilityTestCase {
 		}
 	}
 
+	@Test
+	public void testContain() {
+		int[] indexes = new int[] { 5, 10, 15 };
+		float[] values = new float[] { 5F, 10F, 15F };
+		ArrayVector vector = new ArrayVector(3, indexes, values);
+		for (int index = 0; index < 20; index++) {
+			Assert.assertEquals(index == 5 || index == 10 || index == 15, SampleUtility.contain(vector, index));
+		}
+		Assert.assertFalse(SampleUtility.contain(new ArrayVector(0, new int[0], new float[0]), 0));
+	}
+
 }
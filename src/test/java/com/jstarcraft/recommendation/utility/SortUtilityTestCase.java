@@ -0,0 +1,113 @@
+package com.jstarcraft.recommendation.utility;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SortUtilityTestCase {
+
+	private Integer[] getIndexes(int size) {
+		Integer[] indexes = new Integer[size];
+		for (int index = 0; index < size; index++) {
+			indexes[index] = index;
+		}
+		return indexes;
+	}
+
+	@Test
+	public void testRadixSort() {
+		Random random = new Random(0);
+		for (int size : new int[] { 0, 1, 10, 100, 1000 }) {
+			int[] keys = new int[size];
+			int[] values = new int[size];
+			for (int index = 0; index < size; index++) {
+				// 包含负数与重复的键
+				keys[index] = random.nextInt(size + 1) - size / 2;
+				values[index] = index;
+			}
+			int[] data = keys.clone();
+			// Arrays.sort对于对象数组是稳定排序
+			Integer[] indexes = getIndexes(size);
+			Arrays.sort(indexes, Comparator.comparingInt((index) -> data[index]));
+			SortUtility.radixSort(keys, values);
+			for (int index = 0; index < size; index++) {
+				Assert.assertEquals(indexes[index].intValue(), values[index]);
+				Assert.assertEquals(data[indexes[index]], keys[index]);
+			}
+		}
+	}
+
+	@Test
+	public void testMergeSort() {
+		Random random = new Random(0);
+		for (int size : new int[] { 0, 1, 10, 100, 1000 }) {
+			float[] keys = new float[size];
+			int[] values = new int[size];
+			int[] positions = new int[size];
+			for (int index = 0; index < size; index++) {
+				keys[index] = random.nextInt(size + 1) * 0.5F;
+				values[index] = index;
+				positions[index] = index;
+			}
+			float[] data = keys.clone();
+			Integer[] indexes = getIndexes(size);
+			Arrays.sort(indexes, (left, right) -> Float.compare(data[left], data[right]));
+			SortUtility.mergeSort(keys, values);
+			SortUtility.mergeSort(positions, (left, right) -> Float.compare(data[left], data[right]));
+			for (int index = 0; index < size; index++) {
+				Assert.assertEquals(indexes[index].intValue(), values[index]);
+				Assert.assertEquals(indexes[index].intValue(), positions[index]);
+				Assert.assertEquals(data[indexes[index]], keys[index], 0F);
+			}
+		}
+	}
+
+	@Test
+	public void testExchangeSort() {
+		Random random = new Random(0);
+		for (int size : new int[] { 0, 1, 10, 100, 1000 }) {
+			for (int bound : new int[] { 2, size / 10 + 1, size + 1 }) {
+				int[] keys = new int[size];
+				int[] values = new int[size];
+				for (int index = 0; index < size; index++) {
+					keys[index] = random.nextInt(bound);
+					values[index] = index;
+				}
+				// 逐对交换的排序(键相同时的顺序以此为准)
+				int[] exchangeKeys = keys.clone();
+				int[] exchangeValues = values.clone();
+				for (int left = 0; left < size; left++) {
+					for (int right = left + 1; right < size; right++) {
+						if (exchangeKeys[left] > exchangeKeys[right]) {
+							int key = exchangeKeys[left];
+							exchangeKeys[left] = exchangeKeys[right];
+							exchangeKeys[right] = key;
+							int value = exchangeValues[left];
+							exchangeValues[left] = exchangeValues[right];
+							exchangeValues[right] = value;
+						}
+					}
+				}
+				float[] data = new float[size];
+				for (int index = 0; index < size; index++) {
+					data[index] = keys[index] * 0.5F;
+				}
+				int[] ranks = SortUtility.rankOf(data);
+				int[] positions = values.clone();
+				SortUtility.exchangeSort(ranks, positions);
+				Assert.assertArrayEquals(exchangeValues, positions);
+				positions = values.clone();
+				ranks = SortUtility.rankOf(positions, (left, right) -> Float.compare(data[left], data[right]));
+				SortUtility.exchangeSort(ranks, positions);
+				Assert.assertArrayEquals(exchangeValues, positions);
+				SortUtility.exchangeSort(keys, values);
+				Assert.assertArrayEquals(exchangeKeys, keys);
+				Assert.assertArrayEquals(exchangeValues, values);
+			}
+		}
+	}
+
+}